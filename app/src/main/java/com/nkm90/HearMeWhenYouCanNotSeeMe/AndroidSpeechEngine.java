@@ -0,0 +1,153 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.util.Log;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.speech.IncrementalSpeaker;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.speech.PhraseCache;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.speech.SpeechEngine;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * {@link SpeechEngine} backed by the Android TextToSpeech. The cached phrases are played by
+ * registering their file as the sound of a text with addSpeech and speaking that text.
+ */
+final class AndroidSpeechEngine implements SpeechEngine {
+
+    private static final String TAG = "AndroidSpeechEngine";
+    static final String PREFERENCES = "Settings";
+    static final String KEY_PITCH = "Pitch";
+    static final String KEY_SPEED = "Speed";
+    private static final String CACHE_DIRECTORY = "phrases";
+    // Size of the synthesized phrases kept, a few hundred short phrases
+    private static final long CACHE_BYTES = 16L * 1024 * 1024;
+
+    private TextToSpeech tts;
+    private volatile Listener listener;
+
+    private AndroidSpeechEngine() {
+    }
+
+    /**
+     * Method that starts the text to speech engine and creates a speaker with the language chosen
+     * on the main screen and the pitch and speed saved last time.
+     *
+     * @param context context of the activity
+     * @param onReady called on the main thread with the speaker once the engine is ready, not
+     *                called when the engine or the language are not available
+     * @return the engine, to shut it down when the activity is destroyed
+     */
+    static AndroidSpeechEngine create(Context context, Consumer<IncrementalSpeaker> onReady) {
+        AndroidSpeechEngine engine = new AndroidSpeechEngine();
+        String language = WordPrediction.language(context);
+        File directory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        engine.tts = new TextToSpeech(context, status -> {
+            if (status != TextToSpeech.SUCCESS) {
+                Log.e(TAG, "Initialization failed");
+                return;
+            }
+            IncrementalSpeaker speaker = new IncrementalSpeaker(engine, new PhraseCache(directory, CACHE_BYTES));
+            if (!speaker.setVoice(language, pitch(context), speed(context))) {
+                Log.e(TAG, "Language not supported");
+                return;
+            }
+            onReady.accept(speaker);
+        });
+        engine.tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) {
+            }
+
+            @Override
+            public void onDone(String utteranceId) {
+                Listener current = engine.listener;
+                if (current != null) {
+                    current.onDone(utteranceId);
+                }
+            }
+
+            @Override
+            public void onError(String utteranceId) {
+                Listener current = engine.listener;
+                if (current != null) {
+                    current.onError(utteranceId);
+                }
+            }
+
+            @Override
+            public void onStop(String utteranceId, boolean interrupted) {
+                onError(utteranceId);
+            }
+        });
+        return engine;
+    }
+
+    static float pitch(Context context) {
+        return preferences(context).getFloat(KEY_PITCH, 1f);
+    }
+
+    static float speed(Context context) {
+        return preferences(context).getFloat(KEY_SPEED, 1f);
+    }
+
+    static void saveVoice(Context context, float pitch, float speed) {
+        preferences(context).edit().putFloat(KEY_PITCH, pitch).putFloat(KEY_SPEED, speed).apply();
+    }
+
+    private static SharedPreferences preferences(Context context) {
+        return context.getSharedPreferences(PREFERENCES, Activity.MODE_PRIVATE);
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean setVoice(String language, float pitch, float speed) {
+        int result = tts.setLanguage(Locale.forLanguageTag(language));
+        tts.setPitch(pitch);
+        tts.setSpeechRate(speed);
+        return result != TextToSpeech.LANG_MISSING_DATA && result != TextToSpeech.LANG_NOT_SUPPORTED;
+    }
+
+    @Override
+    public void speak(String text, boolean flush, String utteranceId) {
+        tts.speak(text, flush ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD, null, utteranceId);
+    }
+
+    @Override
+    public void play(File audio, boolean flush, String utteranceId) {
+        String sound = audio.getName();
+        tts.addSpeech(sound, audio);
+        tts.speak(sound, flush ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD, null, utteranceId);
+    }
+
+    @Override
+    public void synthesizeToFile(String text, File file, String utteranceId) {
+        if (tts.synthesizeToFile(text, null, file, utteranceId) != TextToSpeech.SUCCESS) {
+            Listener current = listener;
+            if (current != null) {
+                current.onError(utteranceId);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        tts.stop();
+    }
+
+    @Override
+    public void shutdown() {
+        tts.stop();
+        tts.shutdown();
+    }
+}
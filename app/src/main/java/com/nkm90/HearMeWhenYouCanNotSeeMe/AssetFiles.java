@@ -0,0 +1,34 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory-maps the assets stored without compression (see aaptOptions in build.gradle) straight
+ * from the APK, so they are not read into the heap.
+ */
+final class AssetFiles {
+
+    private AssetFiles() {
+    }
+
+    /**
+     * @param context context used to open the assets
+     * @param asset name of the asset, it must not be compressed
+     * @return read-only mapping of the asset, it stays valid after this call
+     * @throws IOException when the asset does not exist or is compressed
+     */
+    static MappedByteBuffer map(Context context, String asset) throws IOException {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(asset);
+             FileInputStream in = fd.createInputStream()) {
+            FileChannel channel = in.getChannel();
+            // The mapping stays valid after the descriptor is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.Gestures;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.PipelineMetrics;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RecognitionMailbox;
+
+/**
+ * Updates the gesture, sentence and suggestions TextViews from the recognition results.
+ *
+ * <p>The packet callback publishes every frame into a {@link RecognitionMailbox}, and this class
+ * drains it at most once per display frame from a {@link Choreographer} callback, instead of
+ * posting a new Runnable to the main looper for each packet. setText is only called when the
+ * letter, the sentence or the suggestions actually changed since the last time they were shown.
+ * The time the new values took to reach the screen is recorded on the {@link PipelineMetrics}.
+ */
+class FrameAlignedUiUpdater implements Choreographer.FrameCallback {
+
+    private final RecognitionMailbox mailbox = new RecognitionMailbox();
+    private final Choreographer choreographer;
+    private final TextView gesture;
+    private final TextView result;
+    private final TextView suggestions;
+    private final PipelineMetrics metrics;
+
+    // Values currently on the screen, only used on the UI thread
+    private int shownGesture = -1;
+    private String shownSentence;
+    private String shownSuggestions;
+    private volatile boolean running;
+
+    /**
+     * Must be created on the UI thread, as the Choreographer belongs to the thread that asks for it.
+     *
+     * @param gesture TextView that shows the letter of the current frame
+     * @param result TextView that shows the sentence
+     * @param suggestions TextView that shows the words completing the sentence
+     * @param metrics where the UI commit and end to end latencies are recorded
+     */
+    FrameAlignedUiUpdater(TextView gesture, TextView result, TextView suggestions, PipelineMetrics metrics) {
+        this.choreographer = Choreographer.getInstance();
+        this.gesture = gesture;
+        this.result = result;
+        this.suggestions = suggestions;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Called from the packet callback with the results of a frame. It does not allocate, and it
+     * only asks for a display frame when the mailbox was empty.
+     *
+     * @param gestureCode gesture recognised on the frame
+     * @param sentence current sentence
+     * @param words words suggested to complete the sentence
+     * @param frameNanos System.nanoTime() of the capture of the frame, 0 when unknown
+     */
+    void publish(int gestureCode, String sentence, String words, long frameNanos) {
+        if (mailbox.publish(gestureCode, sentence, words, frameNanos, System.nanoTime()) && running) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mailbox.drain()) {
+            return;
+        }
+        int gestureCode = mailbox.gesture();
+        if (gestureCode != shownGesture) {
+            shownGesture = gestureCode;
+            gesture.setText(Gestures.label(gestureCode));
+        }
+        String sentence = mailbox.sentence();
+        if (!sentence.equals(shownSentence)) {
+            shownSentence = sentence;
+            result.setText(sentence);
+        }
+        String words = mailbox.suggestions();
+        if (!words.equals(shownSuggestions)) {
+            shownSuggestions = words;
+            suggestions.setText(words);
+        }
+        long now = System.nanoTime();
+        if (mailbox.publishNanos() != 0) {
+            metrics.recordNanos(PipelineMetrics.UI_COMMIT, mailbox.publishNanos(), now);
+        }
+        if (mailbox.frameNanos() != 0) {
+            metrics.recordNanos(PipelineMetrics.END_TO_END, mailbox.frameNanos(), now);
+        }
+    }
+
+    /**
+     * Starts showing the results, called from onResume. Anything published while the activity was
+     * paused is shown on the next display frame.
+     */
+    void start() {
+        running = true;
+        if (mailbox.isPending()) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stops asking for display frames, called from onPause.
+     */
+    void stop() {
+        running = false;
+        choreographer.removeFrameCallback(this);
+    }
+}
@@ -0,0 +1,87 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.util.Log;
+
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmark;
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmarkList;
+import com.google.mediapipe.framework.Packet;
+import com.google.mediapipe.framework.PacketGetter;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.HandLandmarks;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.LandmarkFrame;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.LandmarkListDecoder;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Reads the multi_hand_landmarks packets into a {@link LandmarkFrame}.
+ *
+ * <p>{@link PacketGetter#getProtoVector} gets the serialised landmark list of each hand from the
+ * native side and then parses every one of them into protobuf objects. This class asks for the
+ * same serialised bytes through the private native method that getProtoVector uses, and decodes
+ * them with the {@link LandmarkListDecoder} instead, so no protobuf object is built per frame.
+ * If that method can not be found in the MediaPipe version used, it falls back to getProtoVector.
+ */
+class LandmarkPacketReader {
+
+    private static final String TAG = "LandmarkPacketReader";
+
+    private static final Method NATIVE_GET_PROTO_VECTOR = findNativeGetProtoVector();
+
+    private final LandmarkListDecoder decoder = new LandmarkListDecoder();
+
+    /**
+     * Method that decodes the landmarks of every hand in the packet into the frame.
+     *
+     * @param packet packet from the multi_hand_landmarks stream
+     * @param frame frame where the landmarks are stored
+     */
+    void read(Packet packet, LandmarkFrame frame) {
+        byte[][] serializedHands = getSerializedHands(packet);
+        if (serializedHands != null) {
+            decoder.decodeFrame(serializedHands, packet.getTimestamp(), frame);
+        } else {
+            readWithProtobuf(packet, frame);
+        }
+    }
+
+    private static byte[][] getSerializedHands(Packet packet) {
+        if (NATIVE_GET_PROTO_VECTOR == null) {
+            return null;
+        }
+        try {
+            return (byte[][]) NATIVE_GET_PROTO_VECTOR.invoke(null, packet.getNativeHandle());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Log.e(TAG, "Cannot read the serialised landmarks: " + e);
+            return null;
+        }
+    }
+
+    private static void readWithProtobuf(Packet packet, LandmarkFrame frame) {
+        List<NormalizedLandmarkList> multiHandLandmarks =
+                PacketGetter.getProtoVector(packet, NormalizedLandmarkList.parser());
+        int handCount = Math.min(multiHandLandmarks.size(), LandmarkFrame.MAX_HANDS);
+        for (int handIndex = 0; handIndex < handCount; handIndex++) {
+            NormalizedLandmarkList landmarks = multiHandLandmarks.get(handIndex);
+            float[] hand = frame.hand(handIndex);
+            int count = Math.min(landmarks.getLandmarkCount(), HandLandmarks.LANDMARK_COUNT);
+            for (int i = 0; i < count; i++) {
+                NormalizedLandmark landmark = landmarks.getLandmark(i);
+                HandLandmarks.set(hand, i, landmark.getX(), landmark.getY(), landmark.getZ());
+            }
+        }
+        frame.setHandCount(handCount);
+        frame.setTimestamp(packet.getTimestamp());
+    }
+
+    private static Method findNativeGetProtoVector() {
+        try {
+            Method method = PacketGetter.class.getDeclaredMethod("nativeGetProtoVector", long.class);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            Log.w(TAG, "nativeGetProtoVector not available, using getProtoVector: " + e);
+            return null;
+        }
+    }
+}
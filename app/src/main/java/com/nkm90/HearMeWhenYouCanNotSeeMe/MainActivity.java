@@ -13,6 +13,8 @@ import android.util.Log;
 import android.widget.Button;
 import android.widget.TextView;
 
+import com.nkm90.HearMeWhenYouCanNotSeeMe.basic.RetainedGraph;
+
 import java.util.Locale;
 
 public class MainActivity extends AppCompatActivity {
@@ -22,6 +24,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Build the MediaPipe graph in the background while the user goes through the menus
+        RetainedGraph.warmUp(this);
         loadLocale();
         setContentView(R.layout.activity_main);
 
@@ -81,6 +85,8 @@ public class MainActivity extends AppCompatActivity {
         SharedPreferences.Editor editor = getSharedPreferences("Settings", MODE_PRIVATE).edit();
         editor.putString("My_Lang", lang);
         editor.apply();
+        // The signs of the new language are used from the next frame classified
+        SignLanguagePacks.select(this, lang);
     }
 
     //Load the language saved on the shared preferences
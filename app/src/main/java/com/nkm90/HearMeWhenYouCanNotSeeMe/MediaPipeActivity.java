@@ -17,17 +17,29 @@ package com.nkm90.HearMeWhenYouCanNotSeeMe;
 import android.content.Intent;
 import android.content.pm.ActivityInfo;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.View;
 import android.view.WindowManager;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import com.google.mediapipe.framework.PacketCallback;
 import com.nkm90.HearMeWhenYouCanNotSeeMe.basic.BasicActivity;
-import com.google.mediapipe.formats.proto.LandmarkProto;
-import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmark;
-import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmarkList;
-import com.google.mediapipe.framework.PacketGetter;
-
-import java.util.List;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.basic.ResolutionController;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.FrameTracer;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.LandmarkFrame;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.MotionClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.PipelineMetrics;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RecognitionPipeline;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.SessionRecorder;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.speech.IncrementalSpeaker;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 
 /**
  * Activity of MediaPipe multi-hand tracking app.
@@ -35,21 +47,66 @@ import java.util.List;
 public class MediaPipeActivity extends BasicActivity {
 
     private static final String TAG = "MediaPipeActivity";
-    private static final String OUTPUT_LANDMARKS_STREAM_NAME = "multi_hand_landmarks";
-    private List<NormalizedLandmarkList> multiHandLandmarks;
+    private static final String TRACE_FILE_NAME = "frame_trace.bin";
+    // Number of frames kept by the tracer, around 17 seconds at 30 fps
+    private static final int TRACE_CAPACITY = 512;
+    private static final String SESSION_FILE_PREFIX = "session_";
+    private static final String SESSION_FILE_EXTENSION = ".hmsr";
+    private static final String METRICS_FILE_NAME = "latency_metrics.prom";
+    // The overlay is refreshed twice per second while it is shown
+    private static final long METRICS_REFRESH_MILLIS = 500;
 
     private TextView gesture;
     private TextView result;
-
-    private long timestamp;
-    String sentence ="";
+    private TextView suggestions;
+    private TextView metricsOverlay;
+
+    private final LandmarkPacketReader packetReader = new LandmarkPacketReader();
+    // Reusable frame where the landmarks of each packet are decoded, only used on the packet callback
+    private final LandmarkFrame frame = new LandmarkFrame();
+    private final FrameTracer tracer = new FrameTracer(TRACE_CAPACITY);
+    // Latency of each stage from the camera to the screen, recorded on every frame
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final Runnable metricsRefresh = new Runnable() {
+        @Override
+        public void run() {
+            metricsOverlay.setText(metrics.overlayText());
+            metricsOverlay.postDelayed(this, METRICS_REFRESH_MILLIS);
+        }
+    };
+    // Classifier, stabilizer and sentence, only used on the packet callback thread
+    private RecognitionPipeline pipeline;
+    private FrameAlignedUiUpdater uiUpdater;
+    private PacketCallback landmarksListener;
+    // Set while a session is being recorded, started and stopped with a long press on the result
+    private volatile SessionRecorder recorder;
+    private AndroidSpeechEngine speechEngine;
+    // Speaks each word once it is committed, set when the speech engine is ready
+    private volatile IncrementalSpeaker speaker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         gesture = findViewById(R.id.gesture);
         result = findViewById(R.id.resultString);
-        timestamp = System.currentTimeMillis();
+        suggestions = findViewById(R.id.suggestions);
+        metricsOverlay = findViewById(R.id.metrics);
+        uiUpdater = new FrameAlignedUiUpdater(gesture, result, suggestions, metrics);
+        // Rules or templates, as chosen with a long press on the sign recognition button
+        pipeline = RecognitionSettings.createPipeline(this);
+        pipeline.setMetrics(metrics);
+        // J and Z are signed with a motion, they are also recognised from the fingertip paths
+        pipeline.setMotionClassifier(MotionClassifier.createDefault());
+        // Completion and correction with the words of the language chosen on the main screen
+        WordPrediction.install(this, pipeline);
+        // Each word is spoken as soon as it is committed, while the next one is being signed
+        speechEngine = AndroidSpeechEngine.create(this, ready -> speaker = ready);
+        pipeline.setWordListener(word -> {
+            IncrementalSpeaker current = speaker;
+            if (current != null) {
+                current.speakWord(word);
+            }
+        });
 
         /*
          * When the result TextView area is pressed, the String contained on it is
@@ -64,38 +121,109 @@ public class MediaPipeActivity extends BasicActivity {
             finish();
         });
 
+        /*
+         * When the suggestions are pressed, the word being spelled is replaced by the first one.
+         * The sentence belongs to the packet callback thread, so it is changed on the next frame.
+         */
+        suggestions.setOnClickListener(v -> pipeline.acceptSuggestion());
+
         // keep screen on and only portrait mode
         getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_PORTRAIT);
 
 
-        processor.addPacketCallback(
-                OUTPUT_LANDMARKS_STREAM_NAME,
-                (packet) -> {
-                    Log.d(TAG, "Received multi-hand landmarks packet.");
-                    multiHandLandmarks =
-                            PacketGetter.getProtoVector(packet, NormalizedLandmarkList.parser());
+        /*
+         * A long press on the gesture TextView dumps the last frames recorded by the tracer to a
+         * file, so they can be decoded with FrameTraceDecoder on the computer.
+         */
+        gesture.setOnLongClickListener(v -> {
+            dumpFrameTrace();
+            return true;
+        });
+
+        /*
+         * A tap on the gesture TextView shows or hides the latency of each stage, and a long press
+         * on the overlay saves them to a file in the Prometheus text format.
+         */
+        gesture.setOnClickListener(v -> toggleMetricsOverlay());
+        metricsOverlay.setOnLongClickListener(v -> {
+            exportMetrics();
+            return true;
+        });
+
+        /*
+         * A long press on the result TextView starts recording every frame into a session file,
+         * and a second one stops it. The file can be replayed with SessionReplay on the computer.
+         */
+        result.setOnLongClickListener(v -> {
+            if (recorder == null) {
+                startRecording();
+            } else {
+                stopRecording();
+            }
+            return true;
+        });
+
+        // The graph is shared with the previous launches, its single landmarks callback forwards here
+        landmarksListener = (packet) -> {
+            long arrival = System.nanoTime();
+            long arrivalMicros = ResolutionController.latencyMicros(
+                    packet.getTimestamp(), arrival, SystemClock.elapsedRealtimeNanos());
+            // Capture time of the frame on the System.nanoTime() clock, 0 when the clocks do not match
+            long frameNanos = 0;
+            if (arrivalMicros >= 0) {
+                metrics.record(PipelineMetrics.ARRIVAL, arrivalMicros);
+                frameNanos = arrival - arrivalMicros * 1000;
+            }
+            packetReader.read(packet, frame);
+            metrics.recordNanos(PipelineMetrics.DECODE, arrival, System.nanoTime());
+            recordFrame();
+            int code = pipeline.process(frame);
+            tracer.record(frame, code);
+            uiUpdater.publish(code, pipeline.sentence(), pipeline.suggestions(), frameNanos);
+            // End to end latency of the frame, from the camera to the result, for the resolution
+            onFrameProcessed(packet.getTimestamp());
+        };
+    }
 
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            String letter = handGestureCalculator(multiHandLandmarks);
-                            gesture.setText(letter);
-                            if (timestamp + 2000 < System.currentTimeMillis()
-                                    && !letter.equals("No hand detected")
-                                    && !letter.equals("no gesture")){
-                                addToSentence(letter);
-                                timestamp = System.currentTimeMillis();
-                            }
-                        }
-                    });
-                    Log.d(
-                            TAG,
-                            "[TS:"
-                                    + packet.getTimestamp()
-                                    + "] "
-                                    + getMultiHandLandmarksDebugString(multiHandLandmarks));
-                });
+    @Override
+    protected void onGraphAttached() {
+        graph.setLandmarksListener(landmarksListener);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Rules pushed to the phone while the screen was closed are used from the next frame
+        SignLanguagePacks.reloadIfEdited(this);
+        uiUpdater.start();
+        if (metricsOverlay.getVisibility() == View.VISIBLE) {
+            metricsOverlay.post(metricsRefresh);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        uiUpdater.stop();
+        metricsOverlay.removeCallbacks(metricsRefresh);
+        stopRecording();
+        // Frames of held signs that reused the last result instead of being classified again
+        Log.d(TAG, pipeline.motionGate().skippedFrames() + " of " + pipeline.motionGate().frames()
+                + " frames not classified");
+        if (graph != null) {
+            Log.d(TAG, "Time to first frame: " + graph.timeToFirstFrameMillis() + " ms");
+        }
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (graph != null) {
+            graph.removeLandmarksListener(landmarksListener);
+        }
+        pipeline.close();
+        speechEngine.shutdown();
+        super.onDestroy();
     }
 
     /**
@@ -111,480 +239,107 @@ public class MediaPipeActivity extends BasicActivity {
     }
 
     /**
-     * The getMultiHandLandmarksDebugString method helps building a readable String for the
-     * debugger, keeping track of the different points positions obtained from the multiHandLandmarks
-     * of MediaPipe.
-     *
-     * @param multiHandLandmarks list on inputs with the different points positions obtained from MediaPipe
-     * @return a String with the points and their respective X, Y and Z positions for each hand recognised
+     * Method that writes the frames kept by the tracer into the file frame_trace.bin of the app
+     * external files directory. The file is written on a background thread and a Toast shows
+     * where it has been stored.
      */
-    private String getMultiHandLandmarksDebugString(List<NormalizedLandmarkList> multiHandLandmarks) {
-        if (multiHandLandmarks.isEmpty()) {
-            return "No hand landmarks";
-        }
-        String multiHandLandmarksStr = "Number of hands detected: " + multiHandLandmarks.size() + "\n";
-        int handIndex = 0;
-        for (NormalizedLandmarkList landmarks : multiHandLandmarks) {
-            multiHandLandmarksStr +=
-                    "\t#Hand landmarks for hand[" + handIndex + "]: " + landmarks.getLandmarkCount() + "\n";
-            int landmarkIndex = 0;
-            for (NormalizedLandmark landmark : landmarks.getLandmarkList()) {
-                multiHandLandmarksStr +=
-                        "\t\tLandmark ["
-                                + landmarkIndex
-                                + "]: ("
-                                + landmark.getX()
-                                + ", "
-                                + landmark.getY()
-                                + ", "
-                                + landmark.getZ()
-                                + ")\n";
-                ++landmarkIndex;
+    private void dumpFrameTrace() {
+        File file = new File(getExternalFilesDir(null), TRACE_FILE_NAME);
+        new Thread(() -> {
+            String message;
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                int frames = tracer.dump(out);
+                message = frames + " frames saved in " + file.getAbsolutePath();
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot dump the frame trace: " + e);
+                message = "Cannot save the frame trace";
             }
-            ++handIndex;
-        }
-        return multiHandLandmarksStr;
+            String toast = message;
+            runOnUiThread(() -> Toast.makeText(this, toast, Toast.LENGTH_LONG).show());
+        }, "FrameTraceDump").start();
     }
 
     /**
-     * The handGestureCalculator method takes the different position of the points obtained from
-     * MediaPipe in post to return a string that contains the letter for that gesture.
-     *
-     * @param multiHandLandmarks array of normalised landmarks points obtained from MediaPipe
-     * @return String value with the letter for a sign
+     * Method that shows the latency overlay, refreshed while it is visible, or hides it.
      */
-    private String handGestureCalculator(List<NormalizedLandmarkList> multiHandLandmarks) {
-        if (multiHandLandmarks.isEmpty()) {
-            return "No hand detected";
+    private void toggleMetricsOverlay() {
+        if (metricsOverlay.getVisibility() == View.VISIBLE) {
+            metricsOverlay.removeCallbacks(metricsRefresh);
+            metricsOverlay.setVisibility(View.GONE);
+        } else {
+            metricsOverlay.setVisibility(View.VISIBLE);
+            metricsOverlay.post(metricsRefresh);
         }
-        // Different conditions for each of the finger positions
-        boolean isLeft = false;
-        boolean isRight = false;
-        boolean indexStraightUp = false;
-        boolean indexStraightDown = false;
-        boolean middleStraightUp = false;
-        boolean middleStraightDown = false;
-        boolean ringStraightUp = false;
-        boolean ringStraightDown = false;
-        boolean pinkyStraightUp = false;
-        boolean pinkyStraightDown = false;
-        boolean thumbIsOpen = false;
-        boolean thumbIsBend = false;
-        boolean palmIsVertical = false;
-        boolean palmIsInclined = false;
-
-        for (NormalizedLandmarkList landmarks : multiHandLandmarks) {
-            List<NormalizedLandmark> landmarkList = landmarks.getLandmarkList();
-
-            //Logging to the console the X-axis points that make the base of the palm and do not move like the ones on the fingers
-            Log.d("Palm base", "" + landmarkList.get(0).getX() + " " + landmarkList.get(1).getX() + " " + landmarkList.get(2).getX() + " " + landmarkList.get(17).getX());
-            //Logging to the console the Y-axis points that make the base of the palm and do not move like the ones on the fingers
-            Log.d("Palm base", "" + landmarkList.get(0).getY() + " " + landmarkList.get(1).getY() + " " + landmarkList.get(2).getY() + " " + landmarkList.get(17).getY());
-
-            /*The parameter pseudoFixKeyPoint will help me to set a point of reference used to verify
-             the different conditions for the position of the hand and the fingers.*/
-            float pseudoFixKeyPoint = landmarkList.get(2).getX();
-
-            /*1st CONDITION
-            * Check if hand used is right or left based on the position of the base of the thumb,
-            * if the join number 2 is bigger than the join 17 (base of the pinky finger) on the
-            * X-axis, the hand used is left, otherwise is right*/
-            if(pseudoFixKeyPoint > landmarkList.get(17).getX()) {
-                isLeft = true;
-            }else if (pseudoFixKeyPoint < landmarkList.get(17).getX()) {
-                isRight = true;
-            }
-            Log.d(TAG, "pseudoFixKeyPoint == " + pseudoFixKeyPoint
-                    + "\nlandmarkList.get(2).getX() == " + landmarkList.get(2).getX()
-                    + "\nlandmarkList.get(17).getX() = " + landmarkList.get(17).getX());
-
-            /*2nd CONDITION
-            * To identify when a finger is straight up or straight down.
-            * Each of the following conditions allowed me to create the state straightUp on each finger.
-            * INDEX_FINGER */
-            if (landmarkList.get(8).getY() < landmarkList.get(7).getY()
-                    && landmarkList.get(7).getY() < landmarkList.get(6).getY()
-                    && landmarkList.get(6).getY() < landmarkList.get(5).getY()){
-                indexStraightUp = true;
-            }else if (getEuclideanDistanceAB(landmarkList.get(8).getX(),landmarkList.get(8).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY())
-                    < getEuclideanDistanceAB(landmarkList.get(5).getX(),landmarkList.get(5).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY())){
-                indexStraightDown = true;
-            }
-            /*MIDDLE_FINGER */
-            if (landmarkList.get(12).getY() < landmarkList.get(11).getY()
-                    && landmarkList.get(11).getY() < landmarkList.get(10).getY()
-                    && landmarkList.get(10).getY() < landmarkList.get(9).getY()){
-                middleStraightUp = true;
-            }else if (getEuclideanDistanceAB(landmarkList.get(12).getX(),landmarkList.get(12).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY()) <
-                    getEuclideanDistanceAB(landmarkList.get(9).getX(),landmarkList.get(9).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY())){
-                middleStraightDown = true;
-            }
-            /*RING_FINGER */
-            if (landmarkList.get(16).getY() < landmarkList.get(15).getY()
-                    && landmarkList.get(15).getY() < landmarkList.get(14).getY()
-                    && landmarkList.get(14).getY() < landmarkList.get(13).getY()){
-                ringStraightUp = true;
-            } else if (getEuclideanDistanceAB(landmarkList.get(16).getX(),landmarkList.get(16).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY()) <
-                    getEuclideanDistanceAB(landmarkList.get(13).getX(),landmarkList.get(13).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY())){
-                ringStraightDown = true;
-            }
-            /*PINKY_FINGER */
-            if (landmarkList.get(20).getY() < landmarkList.get(19).getY()
-                    && landmarkList.get(19).getY() < landmarkList.get(18).getY()
-                    && landmarkList.get(18).getY() < landmarkList.get(17).getY()){
-                pinkyStraightUp = true;
-            } else if (getEuclideanDistanceAB(landmarkList.get(20).getX(),landmarkList.get(20).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY()) <
-                    getEuclideanDistanceAB(landmarkList.get(17).getX(),landmarkList.get(17).getY(), landmarkList.get(0).getX(), landmarkList.get(0).getY())){
-                pinkyStraightDown = true;
-            }
-            /*THUMB */
-            if (getEuclideanDistanceAB(landmarkList.get(4).getX(),landmarkList.get(4).getY(), landmarkList.get(9).getX(), landmarkList.get(9).getY())
-                    < getEuclideanDistanceAB(landmarkList.get(3).getX(),landmarkList.get(3).getY(), landmarkList.get(9).getX(), landmarkList.get(9).getY())){
-                thumbIsBend = true;
-            }else {
-                thumbIsOpen = true;
-            }
-
-            /*3rd CONDITION
-            * In post to generate a possible split between gestures, made with palm facing front or
-            * other kind of rotations. By checking the position of three static points and their
-            * relative position to the others. The three static join selected for this are 0, 2, 17*/
-            if (landmarkList.get(0).getY() > landmarkList.get(2).getY()
-                    && landmarkList.get(2).getY() > landmarkList.get(17).getY()){
-                palmIsVertical = true;
-            }else if (landmarkList.get(0).getY() > landmarkList.get(17).getY() &&
-                    landmarkList.get(17).getY() >= landmarkList.get(2).getY())
-                palmIsInclined = true;
-
-            // Hand gesture recognition conditions for each letter
-            if (isRight){
-                if (palmIsVertical){
-                    if (indexStraightDown && middleStraightDown && ringStraightDown
-                            && pinkyStraightDown && thumbIsOpen
-                            && arePointsNear(landmarkList.get(4), landmarkList.get(6))
-                            && landmarkList.get(4).getX() < landmarkList.get(6).getX())
-                        return "A";
-                    else if(thumbIsBend && indexStraightUp && middleStraightUp
-                            && ringStraightUp && pinkyStraightUp)
-                        return "B";
-                    else if (thumbIsOpen && !arePointsNear(landmarkList.get(4), landmarkList.get(8))
-                            && landmarkList.get(4).getX() >= landmarkList.get(8).getX()
-                            && !arePointsNear(landmarkList.get(4), landmarkList.get(12))
-                            && arePointsNear(landmarkList.get(8), landmarkList.get(12))
-                            && arePointsNear(landmarkList.get(12), landmarkList.get(16))
-                            && !arePointsNear(landmarkList.get(4), landmarkList.get(16))
-                            && !arePointsNear(landmarkList.get(4), landmarkList.get(20))
-                            && arePointsNear(landmarkList.get(16), landmarkList.get(20)))
-                        return "C";
-                    else if (indexStraightUp && thumbIsOpen &&
-                            landmarkList.get(12).getX() <= landmarkList.get(4).getX() &&
-                            arePointsNear(landmarkList.get(12), landmarkList.get(4)) &&
-                            arePointsNear(landmarkList.get(12), landmarkList.get(16)) &&
-                            arePointsNear(landmarkList.get(12), landmarkList.get(20)))
-                        return "D";
-                    else if (thumbIsBend && landmarkList.get(8).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(12).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(16).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(20).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(8).getY() >= landmarkList.get(5).getY() &&
-                            landmarkList.get(12).getY() >= landmarkList.get(9).getY() &&
-                            landmarkList.get(16).getY() >= landmarkList.get(13).getY() &&
-                            landmarkList.get(20).getY() >= landmarkList.get(17).getY())
-                        return "E";
-                    else if (middleStraightUp && ringStraightUp && pinkyStraightUp
-                            && thumbIsOpen && !indexStraightUp
-                            && arePointsNear(landmarkList.get(8), landmarkList.get(4)))
-                        return "F";
-                    else if (arePointsNear(landmarkList.get(4), landmarkList.get(6))
-                            && landmarkList.get(4).getX() < landmarkList.get(6).getX() &&
-                            indexStraightDown && middleStraightDown && ringStraightDown
-                            && pinkyStraightUp)
-                        return "I";
-                    else if(thumbIsOpen && landmarkList.get(4).getX() >= landmarkList.get(5).getX() &&
-                            landmarkList.get(4).getX() <= landmarkList.get(9).getX() &&
-                            indexStraightUp && middleStraightUp && ringStraightDown && pinkyStraightDown &&
-                            getEuclideanDistanceAB(landmarkList.get(8).getX(), landmarkList.get(8).getY(), landmarkList.get(12).getX(), landmarkList.get(12).getY())
-                                    > getEuclideanDistanceAB(landmarkList.get(5).getX(), landmarkList.get(5).getY(), landmarkList.get(9).getX(), landmarkList.get(9).getY()))
-                        return "K";
-                    else if(thumbIsOpen && landmarkList.get(4).getX() < landmarkList.get(3).getX() &&
-                            landmarkList.get(4).getY() >= landmarkList.get(3).getY()
-                            && indexStraightUp && middleStraightDown && ringStraightDown && pinkyStraightDown)
-                        return "L";
-                    else if(landmarkList.get(8).getY() > landmarkList.get(5).getY() &&
-                            landmarkList.get(12).getY() > landmarkList.get(9).getY() &&
-                            landmarkList.get(16).getY() > landmarkList.get(13).getY() &&
-                            landmarkList.get(0).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(0).getY() < landmarkList.get(20).getY())
-                        return "M";
-                    else if(/*indexStraightDown && landmarkList.get(8).getY() >= landmarkList.get(2).getY() &&
-                            middleStraightDown && landmarkList.get(12).getY() >= landmarkList.get(2).getY() &&
-                            ringStraightDown && landmarkList.get(16).getY() > landmarkList.get(12).getY() &&
-                            landmarkList.get(16).getX() >= landmarkList.get(12).getX() &&pinkyStraightDown*/
-                            landmarkList.get(8).getY() > landmarkList.get(5).getY() &&
-                            landmarkList.get(12).getY() > landmarkList.get(9).getY() &&
-                            landmarkList.get(16).getY() < landmarkList.get(13).getY() &&
-                            landmarkList.get(0).getY() < landmarkList.get(4).getY() &&
-                            landmarkList.get(0).getY() < landmarkList.get(20).getY())
-                        return "N";
-                    else if(thumbIsOpen && arePointsNear(landmarkList.get(4), landmarkList.get(8))
-                            && arePointsNear(landmarkList.get(8), landmarkList.get(12))
-                            && arePointsNear(landmarkList.get(12), landmarkList.get(16))
-                            && arePointsNear(landmarkList.get(16), landmarkList.get(20)))
-                        return "O";
-                    else if(thumbIsBend && indexStraightUp
-                            && landmarkList.get(8).getX() >= landmarkList.get(12).getX()
-                            && middleStraightUp && ringStraightDown
-                            && landmarkList.get(4).getX() >= landmarkList.get(15).getX()
-                            && pinkyStraightDown)
-                        return "R";
-                    else if(thumbIsBend && indexStraightDown && middleStraightDown && ringStraightDown && pinkyStraightDown &&
-                            landmarkList.get(8).getY() >= landmarkList.get(5).getY() &&
-                            landmarkList.get(7).getY() >= landmarkList.get(5).getY() &&
-                            landmarkList.get(12).getY() >= landmarkList.get(9).getY() &&
-                            landmarkList.get(11).getY() >= landmarkList.get(9).getY() &&
-                            landmarkList.get(16).getY() >= landmarkList.get(13).getY() &&
-                            landmarkList.get(15).getY() >= landmarkList.get(13).getY() &&
-                            landmarkList.get(20).getY() >= landmarkList.get(17).getY() &&
-                            landmarkList.get(19).getY() >= landmarkList.get(17).getY() &&
-                            landmarkList.get(4).getX() > landmarkList.get(7).getX() &&
-                            landmarkList.get(4).getY() <= landmarkList.get(11).getY())
-                        return "S";
-                    else if(thumbIsOpen && indexStraightDown && middleStraightDown && ringStraightDown
-                            && pinkyStraightDown && landmarkList.get(4).getX() > landmarkList.get(6).getX()
-                            && landmarkList.get(4).getX() < landmarkList.get(10).getX())
-                        return "T";
-                    else if(thumbIsBend && indexStraightUp && middleStraightUp
-                            && ringStraightDown && pinkyStraightDown
-                            && arePointsNear(landmarkList.get(8), landmarkList.get(12)))
-                        return "U";
-                    else if(thumbIsBend && indexStraightUp && middleStraightUp
-                            && ringStraightDown && pinkyStraightDown
-                            && !arePointsNear(landmarkList.get(8), landmarkList.get(12)))
-                        return "V";
-                    else if(thumbIsBend && indexStraightUp && middleStraightUp
-                            && ringStraightUp && pinkyStraightDown
-                            && !arePointsNear(landmarkList.get(8), landmarkList.get(12))
-                            && !arePointsNear(landmarkList.get(16), landmarkList.get(12)))
-                        return "W";
-                    else if(thumbIsBend && landmarkList.get(8).getY() <= landmarkList.get(5).getY()
-                            && landmarkList.get(8).getY() >= landmarkList.get(6).getY() &&
-                            landmarkList.get(7).getY() >= landmarkList.get(5).getY() &&
-                            landmarkList.get(12).getY() >= landmarkList.get(9).getY() &&
-                            landmarkList.get(11).getY() >= landmarkList.get(9).getY() &&
-                            landmarkList.get(16).getY() >= landmarkList.get(13).getY() &&
-                            landmarkList.get(15).getY() >= landmarkList.get(13).getY() &&
-                            landmarkList.get(20).getY() >= landmarkList.get(17).getY() &&
-                            landmarkList.get(19).getY() >= landmarkList.get(17).getY() &&
-                            landmarkList.get(4).getX() > landmarkList.get(11).getX())
-                        return "X";
-                    else if(thumbIsOpen && indexStraightDown && middleStraightDown
-                            && ringStraightDown && pinkyStraightUp)
-                        return "Y";
-                    else if(thumbIsOpen && landmarkList.get(8).getY() < landmarkList.get(5).getY()
-                            && landmarkList.get(8).getX() < landmarkList.get(5).getX()
-                            && landmarkList.get(4).getY() >= landmarkList.get(3).getY()
-                            && landmarkList.get(4).getX() >= landmarkList.get(9).getX()
-                            && landmarkList.get(12).getY() > landmarkList.get(9).getY()
-                            && landmarkList.get(16).getY() > landmarkList.get(13).getY()
-                            && landmarkList.get(20).getY() > landmarkList.get(17).getY())
-                        return "Z";
-                }
-                else if (palmIsInclined){
-                    if(landmarkList.get(4).getY() < landmarkList.get(3).getY()
-                            && landmarkList.get(3).getY() < landmarkList.get(2).getY()
-                            && landmarkList.get(8).getY() < landmarkList.get(5).getY()
-                            && landmarkList.get(12).getY() < landmarkList.get(9).getY()
-                            && landmarkList.get(16).getY() < landmarkList.get(13).getY()
-                            && landmarkList.get(20).getY() < landmarkList.get(17).getY()
-                            && landmarkList.get(17).getY() >= landmarkList.get(2).getY())
-                        return "SPACE";
-                    else if (thumbIsOpen && indexStraightUp && middleStraightDown
-                            && ringStraightDown && pinkyStraightDown
-                            && landmarkList.get(8).getX() >= landmarkList.get(13).getX())
-                        return "G";
-                    else if (thumbIsBend && ringStraightDown && pinkyStraightDown
-                            && indexStraightUp && middleStraightUp
-                            /*&& getEuclideanDistanceAB(landmarkList.get(8).getX(), landmarkList.get(8).getY(),
-                            landmarkList.get(12).getX(), landmarkList.get(12).getY())
-                            == getEuclideanDistanceAB(landmarkList.get(6).getX(), landmarkList.get(6).getY(),
-                            landmarkList.get(10).getX(), landmarkList.get(10).getY())*/)
-                        return "H";
-                    else if(thumbIsBend && indexStraightDown && middleStraightDown
-                            && ringStraightDown && pinkyStraightUp)
-                        return "J";
-                    else if(landmarkList.get(4).getY() > landmarkList.get(3).getY()
-                            && landmarkList.get(3).getY() > landmarkList.get(2).getY()
-                            && landmarkList.get(8).getX() < landmarkList.get(7).getX()
-                            && landmarkList.get(7).getX() < landmarkList.get(6).getX()
-                            && landmarkList.get(6).getX() < landmarkList.get(5).getX()
-                            && landmarkList.get(12).getY() > landmarkList.get(11).getY()
-                            && landmarkList.get(11).getY() > landmarkList.get(9).getY()
-                            && landmarkList.get(16).getY() > landmarkList.get(15).getY()
-                            && landmarkList.get(15).getY() > landmarkList.get(13).getY()
-                            && landmarkList.get(20).getY() > landmarkList.get(19).getY()
-                            && landmarkList.get(19).getY() > landmarkList.get(17).getY()
-                            && arePointsNear(landmarkList.get(4), landmarkList.get(12)))
-                        return "P";
-                    else if(landmarkList.get(4).getY() > landmarkList.get(3).getY()
-                            && landmarkList.get(3).getY() > landmarkList.get(2).getY()
-                            && landmarkList.get(8).getY() > landmarkList.get(7).getY())
-                        return "Q";
-                }
-            }else if (isLeft){
-                /*if (){
-                    return "A";
-                }
-                //Letter B needs correction
-                else if(!thumbIsOpen &&
-                        secondFingerIsOpen && thirdFingerIsOpen && fourthFingerIsOpen)
-                    return "B";
-            else if(thumbIsBend && firstFingerIsOpen && secondFingerIsOpen &&
-                    thirdFingerIsOpen && fourthFingerIsOpen)
-                return "C";
-            else if()
-                return "D";
-                else if(!firstFingerIsOpen && !secondFingerIsOpen && !thirdFingerIsOpen &&
-                        !fourthFingerIsOpen && !thumbIsOpen &&
-                        landmarkList.get(12).getY() <= landmarkList.get(9).getY())
-                    return "E";
-                else if(fourthFingerIsOpen && thirdFingerIsOpen && secondFingerIsOpen &&
-                        landmarkList.get(20).getY() == landmarkList.get(4).getY())
-                    return "F";
-            else if()
-                return "G";
-            else if()
-                return "H";
-            else if()
-                return "I";
-            else if()
-                return "J";
-            else if()
-                return "K";
-            else if()
-                return "L";
-            else if()
-                return "M";
-            else if()
-                return "N";
-            else if()
-                return "O";
-            else if()
-                return "P";
-            else if()
-                return "Q";
-            else if()
-                return "R";
-            else if()
-                return "S";
-            else if()
-                return "T";
-            else if()
-                return "U";
-            else if()
-                return "V";
-            else if()
-                return "W";
-            else if()
-                return "X";
-            else if()
-                return "Y";
-            else if()
-                return "Z";
-            else if()
-                return "SPACE";*/
-            }
-
-            else {
-                //When different position is found, the fingers positions conditions are logged on the console
-                String info = "thumbIsOpen " + thumbIsOpen + ", thumbIsBend " + thumbIsBend
-                        + ", indexStraightUp " + indexStraightUp + ", indexStraightDown " + indexStraightDown
-                        + ", middleStraightUp " + middleStraightUp + ", middleStraightDown " + middleStraightDown
-                        + ", ringStraightUp " + ringStraightUp + ", ringStraightDown " + ringStraightDown
-                        + ", pinkyStraightUp " + pinkyStraightUp + ", pinkyStraightDown " + pinkyStraightDown;
-                Log.d(TAG, "handGestureCalculator: == " + info);
-            }
-        }
-        return "no gesture";
-    }
-
-    /**
-     * This method takes the letter obtained on the sign, and it gets added into the actual
-     * sentence on the result view.
-     *
-     * @param letter String value for the letter obtained from the gesture recognition
-     */
-    private void addToSentence(String letter){
-        if (letter.equals("SPACE"))
-            letter = " ";
-        sentence = result.getText().toString();
-        sentence += letter;
-        result.setText(sentence);
     }
 
     /**
-     * This Boolean method calculated the Euclidean distance between 2 points and returns
-     * true when the distance is smaller than 0.1, so the points are near.
-     *
-     * @param point1 X and Y values for Point 1
-     * @param point2 X and Y values for Point 2
-     * @return Boolean result
+     * Method that writes the latency histograms into the file latency_metrics.prom of the app
+     * external files directory, on a background thread, and shows where with a Toast.
      */
-    private boolean arePointsNear(LandmarkProto.NormalizedLandmark point1,
-                                  LandmarkProto.NormalizedLandmark point2) {
-        double distance = getEuclideanDistanceAB(point1.getX(),
-                point1.getY(), point2.getX(), point2.getY());
-        return distance < 0.1;
+    private void exportMetrics() {
+        File file = new File(getExternalFilesDir(null), METRICS_FILE_NAME);
+        new Thread(() -> {
+            String message;
+            try (Writer out = new FileWriter(file)) {
+                metrics.writeText(out);
+                message = "Latencies saved in " + file.getAbsolutePath();
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot export the latencies: " + e);
+                message = "Cannot save the latencies";
+            }
+            String toast = message;
+            runOnUiThread(() -> Toast.makeText(this, toast, Toast.LENGTH_LONG).show());
+        }, "MetricsExport").start();
     }
 
     /**
-     * The following method calculates the distance between 2 points (A and B) using euclidean distance
-     * formula.
-     *
-     * @param a_x Value of X for the given position of point A
-     * @param a_y Value of Y for the given position of point A
-     * @param b_x Value of X for the given position of point B
-     * @param b_y Value of Y for the given position of point B
-     * @return Euclidean distance result
+     * Method that starts recording the frames into a new session file of the app external files
+     * directory, named after the current time.
      */
-    private double getEuclideanDistanceAB(double a_x, double a_y,
-                                          double b_x, double b_y) {
-        double dist = Math.pow(a_x - b_x, 2) + Math.pow(a_y - b_y, 2);
-        return Math.sqrt(dist);
+    private void startRecording() {
+        File file = new File(getExternalFilesDir(null),
+                SESSION_FILE_PREFIX + System.currentTimeMillis() + SESSION_FILE_EXTENSION);
+        try {
+            recorder = SessionRecorder.create(file);
+            Toast.makeText(this, "Recording session in " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot create the session file: " + e);
+            Toast.makeText(this, "Cannot record the session", Toast.LENGTH_LONG).show();
+        }
     }
 
     /**
-     * This method calculates the angle between 3 given points (A,B,C) using the angle between vectors
-     * formula. The vector 1 is made with points AB and vector 2 is made with points BC, being point B
-     * the vertex.
-     *
-     * @param a_x Value of X for the given position of A
-     * @param a_y Value of Y for the given position of A
-     * @param b_x Value of X for the given position of B
-     * @param b_y Value of Y for the given position of B
-     * @param c_x Value of X for the given position of C
-     * @param c_y Value of Y for the given position of C
-     * @return Angle in radians
+     * Method that stops the session being recorded, if any, and closes its file.
      */
-    private double getAngleABC(double a_x, double a_y, double b_x, double b_y, double c_x, double c_y) {
-        //Vector 1 (AB)
-        double ab_x = b_x - a_x;
-        double ab_y = b_y - a_y;
-        //Vector 2 (CB)
-        double cb_x = b_x - c_x;
-        double cb_y = b_y - c_y;
-
-        double dot = (ab_x * cb_x + ab_y * cb_y);   // dot product
-        double cross = (ab_x * cb_y - ab_y * cb_x); // cross product
-
-        return Math.atan2(cross, dot);
+    private void stopRecording() {
+        SessionRecorder current = recorder;
+        if (current == null) {
+            return;
+        }
+        recorder = null;
+        try {
+            current.close();
+            Toast.makeText(this, current.frames() + " frames recorded", Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot close the session file: " + e);
+        }
     }
 
     /**
-     * Method to convert radian to degree results obtained from the getAngleABC method
-     * @param radian Value of radians to convert
-     * @return Angle in degrees
+     * Method called on the packet callback to append the frame to the session being recorded.
+     * The real gesture is not known while using the app, so the frame has no label.
      */
-    private int radianToDegree(double radian) {
-        return (int) Math.floor(radian * 180. / Math.PI + 0.5);
+    private void recordFrame() {
+        SessionRecorder current = recorder;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.record(frame, SessionRecorder.UNKNOWN_LABEL);
+        } catch (IOException e) {
+            // Closed by stopRecording or the storage is full, the recording ends here
+            Log.w(TAG, "Session recording stopped: " + e);
+            recorder = null;
+        }
     }
 }
@@ -1,13 +1,14 @@
 package com.nkm90.HearMeWhenYouCanNotSeeMe;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.app.Activity;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.speech.RecognizerIntent;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -15,11 +16,14 @@ import android.widget.EditText;
 import android.widget.SeekBar;
 import android.widget.Toast;
 
+import com.nkm90.HearMeWhenYouCanNotSeeMe.basic.RetainedGraph;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.speech.IncrementalSpeaker;
+
 import java.util.ArrayList;
-import java.util.Locale;
 
 public class MenuActivity extends AppCompatActivity {
-    private TextToSpeech mTTS;
+    private AndroidSpeechEngine mSpeechEngine;
+    private IncrementalSpeaker mSpeaker;
     public EditText mEditText;
     private SeekBar mSeekBarPitch;
     private SeekBar mSeekBarSpeed;
@@ -30,6 +34,8 @@ public class MenuActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_menu);
+        // Nothing to do when the main screen already started it
+        RetainedGraph.warmUp(this);
 
         //link elements to the id of them
         Button mButtonMP = findViewById(R.id.btn_MP);
@@ -38,33 +44,18 @@ public class MenuActivity extends AppCompatActivity {
         mEditText = findViewById(R.id.etResult);
         mSeekBarPitch = findViewById(R.id.seek_bar_pitch);
         mSeekBarSpeed = findViewById(R.id.seek_bar_speed);
+        // The voice used last time, also used by the words spoken while signing
+        mSeekBarPitch.setProgress(Math.round(AndroidSpeechEngine.pitch(this) * 50));
+        mSeekBarSpeed.setProgress(Math.round(AndroidSpeechEngine.speed(this) * 50));
         String actualLanguage = getLanguage();
 
         /*
-          mTTS is initialised with the TTS method taking the actual language tag from the app,
-          to provide better user experience.
+          The speech engine is initialised with the actual language tag from the app, to provide
+          better user experience. The button is enabled once the engine and the language are ready.
           */
-        mTTS = new TextToSpeech(this, new TextToSpeech.OnInitListener() {
-            @Override
-            public void onInit(int status) {
-                if (status == TextToSpeech.SUCCESS){
-                    int result = 0;
-                    if (actualLanguage.equals("en")){
-                        result = mTTS.setLanguage(Locale.forLanguageTag(actualLanguage));
-                    } else if (actualLanguage.equals("es")){
-                        result = mTTS.setLanguage(Locale.forLanguageTag(actualLanguage));
-                    }
-
-                    if(result == TextToSpeech.LANG_MISSING_DATA ||
-                            result == TextToSpeech.LANG_NOT_SUPPORTED){
-                        Log.e("TTS", "Language not supported");
-                    } else{
-                        mButtonSpeak.setEnabled(true);
-                    }
-                } else {
-                    Log.e("TTS", "Initialization failed");
-                }
-            }
+        mSpeechEngine = AndroidSpeechEngine.create(this, speaker -> {
+            mSpeaker = speaker;
+            mButtonSpeak.setEnabled(true);
         });
 
         /*
@@ -79,6 +70,15 @@ public class MenuActivity extends AppCompatActivity {
             }
         });
 
+        /*
+          A long press on the buttonMP lets the user choose how the signs are recognised, with the
+          hand-written rules or with the recorded templates.
+         */
+        mButtonMP.setOnLongClickListener(v -> {
+            showChangeClassifierDialog();
+            return true;
+        });
+
         /*
            On click listener that launch the Speech recognition when button Listen is pressed.
            The method speakIn takes the parameter actual language for better speech recognition
@@ -102,6 +102,28 @@ public class MenuActivity extends AppCompatActivity {
         });
     }
 
+    //Method that displays an Alert to choose the recognition method, saved on the shared preferences
+    private void showChangeClassifierDialog() {
+        final String[] listClassifiers = {"Rules", "Templates"};
+        final String[] values = {RecognitionSettings.CLASSIFIER_RULES, RecognitionSettings.CLASSIFIER_TEMPLATES};
+        int checked = RecognitionSettings.CLASSIFIER_TEMPLATES.equals(RecognitionSettings.classifier(this)) ? 1 : 0;
+        AlertDialog.Builder mBuilder = new AlertDialog.Builder(MenuActivity.this);
+        mBuilder.setTitle("Choose recognition method");
+        mBuilder.setSingleChoiceItems(listClassifiers, checked, (dialog, i) -> {
+            // The templates are recorded with SessionRecorder, this build may not ship any
+            if (RecognitionSettings.CLASSIFIER_TEMPLATES.equals(values[i])
+                    && !RecognitionSettings.templatesAvailable(this)) {
+                Toast.makeText(this, "No gesture templates in this version, using the rules",
+                        Toast.LENGTH_LONG).show();
+                RecognitionSettings.setClassifier(this, RecognitionSettings.CLASSIFIER_RULES);
+            } else {
+                RecognitionSettings.setClassifier(this, values[i]);
+            }
+            dialog.dismiss();
+        });
+        mBuilder.create().show();
+    }
+
     /**Method that launch the intent to open the speech recogniser dialog based on the current language.
      *
      * @param language String value with the tag of the current language
@@ -139,6 +161,8 @@ public class MenuActivity extends AppCompatActivity {
      */
     public void openMP(View view, Class<MediaPipeActivity> activity) {
         Intent intent = new Intent(this, activity);
+        // Time of the tap, to measure the time until the first frame is recognised
+        intent.putExtra(RetainedGraph.EXTRA_LAUNCH_TIME, SystemClock.elapsedRealtime());
         startActivityForResult(intent, 1);
     }
 
@@ -172,9 +196,13 @@ public class MenuActivity extends AppCompatActivity {
 
     /**
      * Private method that gets the text from the box and the settings from the bars to get the
-     * speech back function.
+     * speech back function. The pitch and speed are saved, so the words spoken while signing use
+     * the same voice, and the phrases already spoken are played from the cache.
      */
     private void speakOut(){
+        if (mSpeaker == null) {
+            return; // the engine is not ready yet
+        }
         String text = mEditText.getText().toString();
 
         float pitch = (float)mSeekBarPitch.getProgress() / 50;
@@ -183,10 +211,9 @@ public class MenuActivity extends AppCompatActivity {
         float speed = (float)mSeekBarSpeed.getProgress() / 50;
         if (speed < 0.1) speed =0.1f;
 
-        mTTS.setPitch(pitch);
-        mTTS.setSpeechRate(speed);
-
-        mTTS.speak(text, TextToSpeech.QUEUE_FLUSH, null);
+        AndroidSpeechEngine.saveVoice(this, pitch, speed);
+        mSpeaker.setVoice(WordPrediction.language(this), pitch, speed);
+        mSpeaker.speakPhrase(text);
     }
 
     /**Load the language saved on the shared preferences.
@@ -237,9 +264,8 @@ public class MenuActivity extends AppCompatActivity {
     }
     @Override
     protected void onDestroy() {
-        if (mTTS != null){
-            mTTS.stop();
-            mTTS.shutdown();
+        if (mSpeechEngine != null){
+            mSpeechEngine.shutdown();
         }
         Log.d("ActivityLifeCycle", "Menu Activity - onDestroy");
         super.onDestroy();
@@ -0,0 +1,125 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.widget.Toast;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.CanonicalHandClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.GestureClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.HandClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.KnnClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.LandmarkCorpus;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.LetterStabilizer;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.MultiHandClassifier;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RecognitionPipeline;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RulePacks;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.SentenceBuilder;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.SessionReader;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.TwoHandedSigns;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.VpTree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Reads the recognition method chosen by the user from the shared preferences and creates the
+ * pipeline of the MediaPipe activity with it.
+ */
+final class RecognitionSettings {
+
+    private static final String TAG = "RecognitionSettings";
+    static final String PREFERENCES = "Settings";
+    static final String KEY_CLASSIFIER = "Classifier";
+    /** The rules of the sign language of the app language, see {@link SignLanguagePacks}. */
+    static final String CLASSIFIER_RULES = "rules";
+    /** The nearest recorded templates, see {@link KnnClassifier}. */
+    static final String CLASSIFIER_TEMPLATES = "templates";
+    // Labelled session with the templates, recorded with SessionRecorder
+    static final String TEMPLATES_ASSET = "gesture_templates.hmsr";
+
+    private RecognitionSettings() {
+    }
+
+    static String classifier(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFERENCES, Activity.MODE_PRIVATE);
+        return prefs.getString(KEY_CLASSIFIER, CLASSIFIER_RULES);
+    }
+
+    static void setClassifier(Context context, String classifier) {
+        SharedPreferences.Editor editor = context.getSharedPreferences(PREFERENCES, Activity.MODE_PRIVATE).edit();
+        editor.putString(KEY_CLASSIFIER, classifier);
+        editor.apply();
+    }
+
+    /**
+     * Method that tells whether the app was built with recorded templates, the menu only offers
+     * them when it was.
+     *
+     * @param context context used to read the assets
+     * @return true when the templates asset ships with the app
+     */
+    static boolean templatesAvailable(Context context) {
+        try {
+            String[] assets = context.getAssets().list("");
+            return assets != null && Arrays.asList(assets).contains(TEMPLATES_ASSET);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method that creates the pipeline with the classifier chosen. When the templates are chosen
+     * but they cannot be loaded, the user is told with a Toast, the choice goes back to the rules
+     * and the rules are used. The rules follow the pack selected on {@link SignLanguagePacks},
+     * even when it changes while the pipeline runs. It must be called on the main thread.
+     *
+     * @param context context used to read the preferences and the assets
+     * @return the pipeline
+     */
+    static RecognitionPipeline createPipeline(Context context) {
+        boolean parallel = Runtime.getRuntime().availableProcessors() > 1;
+        if (CLASSIFIER_TEMPLATES.equals(classifier(context))) {
+            try {
+                VpTree templates = loadTemplates(context);
+                Supplier<HandClassifier> factory = () -> new KnnClassifier(templates);
+                Log.d(TAG, templates.size() + " gesture templates loaded");
+                return new RecognitionPipeline(
+                        new MultiHandClassifier(factory, TwoHandedSigns.createDefault(), parallel),
+                        new LetterStabilizer(), new SentenceBuilder());
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot load the gesture templates, using the rules: " + e);
+                Toast.makeText(context, "Cannot load the gesture templates, using the rules",
+                        Toast.LENGTH_LONG).show();
+                setClassifier(context, CLASSIFIER_RULES);
+            }
+        }
+        RulePacks packs = SignLanguagePacks.get(context);
+        return new RecognitionPipeline(
+                new MultiHandClassifier(() -> new CanonicalHandClassifier(new GestureClassifier(packs)),
+                        TwoHandedSigns.createDefault(), parallel),
+                new LetterStabilizer(), new SentenceBuilder());
+    }
+
+    private static VpTree loadTemplates(Context context) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = context.getAssets().open(TEMPLATES_ASSET)) {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                bytes.write(chunk, 0, read);
+            }
+        }
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        corpus.addLabelled(new SessionReader(ByteBuffer.wrap(bytes.toByteArray())));
+        if (corpus.size() == 0) {
+            throw new IOException("No labelled frames in " + TEMPLATES_ASSET);
+        }
+        return KnnClassifier.buildTemplates(corpus);
+    }
+}
@@ -0,0 +1,121 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.DecisionTable;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RulePack;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RulePacks;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RuleScript;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The sign language rules of the language chosen on the main screen: American Sign Language for
+ * English and Spanish Sign Language (LSE) for Spanish.
+ *
+ * <p>Each language has a {@link RulePack} in the assets, rules_asl.hmrp and rules_lse.hmrp, stored
+ * without compression and memory-mapped when the first hand is classified. There is one
+ * {@link RulePacks} for the whole app, so choosing another language on the main screen swaps the
+ * pack used by the running pipeline on its next frame. A language without its pack uses ASL.
+ *
+ * <p>To tune the rules on a phone, a {@link RuleScript} named after the pack, for example asl.rules,
+ * can be pushed to the external files directory of the app. It is used instead of the asset, and
+ * {@link #reloadIfEdited(Context)} reloads it when it changes.
+ */
+final class SignLanguagePacks {
+
+    private static final String TAG = "SignLanguagePacks";
+    static final String DEFAULT_PACK = "asl";
+    private static final String ASSET_PREFIX = "rules_";
+    private static final String ASSET_EXTENSION = ".hmrp";
+
+    private static final String SCRIPT_EXTENSION = ".rules";
+
+    private static RulePacks packs;
+    // Last modification time of the script loaded instead of the asset, 0 when the asset was used
+    private static volatile long scriptModified;
+
+    private SignLanguagePacks() {
+    }
+
+    /**
+     * @param language language code saved on the preferences, for example "es"
+     * @return name of the rule pack of that language
+     */
+    static String packFor(String language) {
+        return "es".equals(language) ? "lse" : DEFAULT_PACK;
+    }
+
+    /**
+     * @param context any context of the app
+     * @return the packs of the app, with the one of the language saved on the preferences selected
+     */
+    static synchronized RulePacks get(Context context) {
+        if (packs == null) {
+            Context app = context.getApplicationContext();
+            packs = new RulePacks(pack -> {
+                long start = System.nanoTime();
+                DecisionTable table = load(app, pack);
+                Log.d(TAG, table.ruleCount() + " rules of " + pack + " loaded in "
+                        + (System.nanoTime() - start) / 1000 + " us");
+                return table;
+            }, packFor(WordPrediction.language(app)), DEFAULT_PACK);
+            packs.setErrorListener((pack, error) -> Log.w(TAG, "Cannot load the rules of " + pack + ": " + error));
+        }
+        return packs;
+    }
+
+    private static DecisionTable load(Context context, String pack) throws IOException {
+        File script = script(context, pack);
+        if (script != null && script.isFile()) {
+            // Set before parsing, so a script with errors is not read again until it is edited
+            scriptModified = script.lastModified();
+            try (Reader in = new InputStreamReader(new FileInputStream(script), StandardCharsets.UTF_8)) {
+                DecisionTable table = DecisionTable.compile(RuleScript.parse(in));
+                Log.d(TAG, "Rules of " + pack + " read from " + script);
+                return table;
+            }
+        }
+        scriptModified = 0;
+        return RulePack.read(AssetFiles.map(context, ASSET_PREFIX + pack + ASSET_EXTENSION));
+    }
+
+    private static File script(Context context, String pack) {
+        File directory = context.getExternalFilesDir(null);
+        return directory == null ? null : new File(directory, pack + SCRIPT_EXTENSION);
+    }
+
+    /**
+     * Method that reloads the rules of the selected pack when its script was pushed, edited or
+     * removed since they were loaded. The running pipeline uses the new rules from its next frame.
+     *
+     * @param context any context of the app
+     */
+    static void reloadIfEdited(Context context) {
+        RulePacks current = get(context);
+        if (!current.isLoaded()) {
+            return;
+        }
+        File script = script(context, current.selected());
+        long modified = script != null && script.isFile() ? script.lastModified() : 0;
+        if (modified != scriptModified) {
+            current.reload();
+        }
+    }
+
+    /**
+     * Method that selects the pack of a language. It is loaded when the next hand is classified.
+     *
+     * @param context any context of the app
+     * @param language language code, for example "es"
+     */
+    static void select(Context context, String language) {
+        get(context).select(packFor(language));
+    }
+}
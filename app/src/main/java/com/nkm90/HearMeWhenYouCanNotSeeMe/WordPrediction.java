@@ -0,0 +1,84 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.RecognitionPipeline;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.SpellingCorrector;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordCompleter;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordTrie;
+
+import java.io.IOException;
+
+/**
+ * Loads the words of the language chosen on the main screen for the fingerspelling completion and
+ * correction.
+ *
+ * <p>The tries are packed by {@link com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordTrieBuilder} into
+ * the assets, stored without compression (see aaptOptions in build.gradle), so they are
+ * memory-mapped straight from the APK instead of being read into the heap.
+ */
+final class WordPrediction {
+
+    private static final String TAG = "WordPrediction";
+    static final String PREFERENCES = "Settings";
+    static final String KEY_LANGUAGE = "My_Lang";
+    static final String DEFAULT_LANGUAGE = "en";
+    private static final String ASSET_PREFIX = "words_";
+    private static final String ASSET_EXTENSION = ".trie";
+
+    private WordPrediction() {
+    }
+
+    static String language(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFERENCES, Activity.MODE_PRIVATE);
+        String language = prefs.getString(KEY_LANGUAGE, "");
+        return language.isEmpty() ? DEFAULT_LANGUAGE : language;
+    }
+
+    /**
+     * Method that loads the words of the language chosen. When there are no words for that
+     * language the English ones are used.
+     *
+     * @param context context used to read the preferences and the assets
+     * @return the words, or null when they cannot be loaded
+     */
+    static WordTrie loadWords(Context context) {
+        String language = language(context);
+        try {
+            WordTrie trie = map(context, ASSET_PREFIX + language + ASSET_EXTENSION);
+            Log.d(TAG, trie.wordCount() + " words loaded for " + language);
+            return trie;
+        } catch (IOException e) {
+            Log.w(TAG, "No words for " + language + ": " + e);
+        }
+        try {
+            return map(context, ASSET_PREFIX + DEFAULT_LANGUAGE + ASSET_EXTENSION);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot load the words: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Method that adds the word completion and the spelling correction to the pipeline. Without
+     * words the pipeline is left as it is.
+     *
+     * @param context context used to read the preferences and the assets
+     * @param pipeline pipeline of the activity
+     */
+    static void install(Context context, RecognitionPipeline pipeline) {
+        WordTrie words = loadWords(context);
+        if (words == null) {
+            return;
+        }
+        pipeline.setWordCompleter(new WordCompleter(words));
+        pipeline.setSpellingCorrector(SpellingCorrector.fromTrie(words));
+    }
+
+    private static WordTrie map(Context context, String asset) throws IOException {
+        return new WordTrie(AssetFiles.map(context, asset));
+    }
+}
@@ -14,19 +14,23 @@
 
 package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
 
+import android.content.SharedPreferences;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.graphics.SurfaceTexture;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Size;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.camera.core.CameraX;
 
 import com.nkm90.HearMeWhenYouCanNotSeeMe.R;
 import com.google.mediapipe.components.CameraHelper;
@@ -34,33 +38,19 @@ import com.google.mediapipe.components.CameraXPreviewHelper;
 import com.google.mediapipe.components.ExternalTextureConverter;
 import com.google.mediapipe.components.FrameProcessor;
 import com.google.mediapipe.components.PermissionHelper;
-import com.google.mediapipe.framework.AndroidAssetUtil;
 import com.google.mediapipe.glutil.EglManager;
 
 /** Basic activity for MediaPipe Hand Tracking basic app. */
 public class BasicActivity extends AppCompatActivity {
   private static final String TAG = "MainActivity";
-
-  // Flips the camera-preview frames vertically by default, before sending them into FrameProcessor
-  // to be processed in a MediaPipe graph, and flips the processed frames back when they are
-  // displayed. This maybe needed because OpenGL represents images assuming the image origin is at
-  // the bottom-left corner, whereas MediaPipe in general assumes the image origin is at the
-  // top-left corner.
-  // NOTE: use "flipFramesVertically" in manifest metadata to override this behavior.
-  private static final boolean FLIP_FRAMES_VERTICALLY = true;
-  boolean first = true;
-
-  static {
-    // Load all native libraries needed by the app.
-    System.loadLibrary("mediapipe_jni");
-    try {
-      System.loadLibrary("opencv_java3");
-    } catch (UnsatisfiedLinkError e) {
-      // Some example apps (e.g. template matching) require OpenCV 4.
-      System.loadLibrary("opencv_java4");
-    }
-  }
-
+  // Resolution chosen on the last launch, so the next one starts from it
+  private static final String PREF_RESOLUTION = "CameraResolution";
+  // 640x480, between the resolutions too slow for most phones and the ones too small for the hands
+  private static final int DEFAULT_RESOLUTION = 2;
+
+  // Graph and GL context kept alive across the launches of the activity, see RetainedGraph. Null
+  // until it is attached, see onGraphAttached().
+  protected RetainedGraph graph;
   // Sends camera-preview frames into a MediaPipe graph for processing, and displays the processed
   // frames onto a {@link Surface}.
   protected FrameProcessor processor;
@@ -77,6 +67,13 @@ public class BasicActivity extends AppCompatActivity {
   // Converts the GL_TEXTURE_EXTERNAL_OES texture from Android camera into a regular texture to be
   // consumed by {@link FrameProcessor} and the underlying MediaPipe graph.
   private ExternalTextureConverter converter;
+  // Opens the converter and the camera on resume and closes them on pause, null until the graph
+  // is attached.
+  private PreviewLifecycle previewLifecycle;
+  // Whether the activity is between onResume and onPause, so the preview starts on attach.
+  private boolean resumed;
+  // Steps the camera resolution down or up from the latency of the frames.
+  private ResolutionController resolutionController;
 
   // ApplicationInfo for retrieving metadata defined in the manifest.
   private ApplicationInfo applicationInfo;
@@ -96,26 +93,67 @@ public class BasicActivity extends AppCompatActivity {
     previewDisplayView = new SurfaceView(this);
     setupPreviewDisplayView();
 
-    // Initialize asset manager so that MediaPipe native libraries can access the app assets, e.g.,
-    // binary graphs.
-    AndroidAssetUtil.initializeNativeAssetManager(this);
-    eglManager = new EglManager(null);
-    processor =
-        new FrameProcessor(
-            this,
-            eglManager.getNativeContext(),
-            applicationInfo.metaData.getString("binaryGraphName"),
-            applicationInfo.metaData.getString("inputVideoStreamName"),
-            applicationInfo.metaData.getString("outputVideoStreamName"));
-
-    processor
-        .getVideoSurfaceOutput()
-        .setFlipY(
-            applicationInfo.metaData.getBoolean("flipFramesVertically", FLIP_FRAMES_VERTICALLY));
+    int resolution =
+        getSharedPreferences("Settings", MODE_PRIVATE).getInt(PREF_RESOLUTION, DEFAULT_RESOLUTION);
+    resolutionController = ResolutionController.createDefault(resolution);
 
+    // The permission is asked while the graph is being built, the preview starts once both are done
     PermissionHelper.checkAndRequestCameraPermissions(this);
+
+    // The graph is normally warmed up by the main screen, otherwise it is built in the background
+    // and the preview is shown when it is ready, the UI thread never waits for it.
+    boolean warm = RetainedGraph.isReady();
+    long launchTime =
+        getIntent().getLongExtra(RetainedGraph.EXTRA_LAUNCH_TIME, SystemClock.elapsedRealtime());
+    RetainedGraph.attach(
+        this,
+        new RetainedGraph.Callback() {
+          @Override
+          public void onGraphReady(RetainedGraph ready) {
+            if (isDestroyed()) {
+              return;
+            }
+            Log.d(
+                TAG,
+                warm ? "Graph already warm" : "Graph built in " + ready.warmUpMillis() + " ms");
+            attachGraph(ready, launchTime);
+          }
+
+          @Override
+          public void onGraphFailed(RuntimeException error) {
+            Log.e(TAG, "Cannot start the hand tracking", error);
+            if (!isDestroyed()) {
+              Toast.makeText(
+                      BasicActivity.this, "Cannot start the hand tracking", Toast.LENGTH_LONG)
+                  .show();
+              finish();
+            }
+          }
+        });
+  }
+
+  /**
+   * Takes the graph once it is built, on the main thread, and starts the preview if the activity
+   * was resumed while waiting for it.
+   */
+  private void attachGraph(RetainedGraph ready, long launchTime) {
+    graph = ready;
+    graph.markLaunch(launchTime);
+    eglManager = graph.eglManager();
+    processor = graph.processor();
+    previewLifecycle = new PreviewLifecycle(this::openConverter, this::openCamera);
+    onGraphAttached();
+    if (resumed) {
+      previewLifecycle.resume(PermissionHelper.cameraPermissionsGranted(this));
+    }
   }
 
+  /**
+   * Called on the main thread once {@link #graph} and {@link #processor} are set, before the
+   * preview starts. Until then both are null.
+   */
+  protected void onGraphAttached() {}
+
   /*LIFECYCLE INTEGRATION
    * With the aim of keeping track of the different states that MediaPipe activity is changing.
    * Logging a message to the console every time a new state is reached, helping to keep track of
@@ -144,12 +182,9 @@ public class BasicActivity extends AppCompatActivity {
   protected void onResume() {
     Log.d("ActivityLifeCycle", "MediaPipe Activity - Resume");
     super.onResume();
-    converter = new ExternalTextureConverter(eglManager.getContext());
-    converter.setFlipY(
-            applicationInfo.metaData.getBoolean("flipFramesVertically", FLIP_FRAMES_VERTICALLY));
-    converter.setConsumer(processor);
-    if (PermissionHelper.cameraPermissionsGranted(this)) {
-      startCamera();
+    resumed = true;
+    if (previewLifecycle != null) {
+      previewLifecycle.resume(PermissionHelper.cameraPermissionsGranted(this));
     }
   }
 
@@ -157,7 +192,10 @@ public class BasicActivity extends AppCompatActivity {
   protected void onPause() {
     Log.d("ActivityLifeCycle", "MediaPipe Activity - Pause");
     super.onPause();
-    //converter.close();
+    resumed = false;
+    if (previewLifecycle != null) {
+      previewLifecycle.pause();
+    }
   }
 
   @Override
@@ -171,6 +209,9 @@ public class BasicActivity extends AppCompatActivity {
   protected void onDestroy()
   {
     Log.d("ActivityLifeCycle", "MediaPipe Activity - Destroy");
+    if (previewLifecycle != null) {
+      previewLifecycle.destroy();
+    }
     super.onDestroy();
   }
 
@@ -179,6 +220,10 @@ public class BasicActivity extends AppCompatActivity {
       int requestCode, String[] permissions, int[] grantResults) {
     super.onRequestPermissionsResult(requestCode, permissions, grantResults);
     PermissionHelper.onRequestPermissionsResult(requestCode, permissions, grantResults);
+    // Before the graph is attached, the permission is read again when the preview starts
+    if (previewLifecycle != null && PermissionHelper.cameraPermissionsGranted(this)) {
+      previewLifecycle.allowCamera();
+    }
   }
 
   protected void onCameraStarted(SurfaceTexture surfaceTexture) {
@@ -189,7 +234,62 @@ public class BasicActivity extends AppCompatActivity {
   }
 
   protected Size cameraTargetResolution() {
-    return null; // No preference and let the camera (helper) decide.
+    return new Size(resolutionController.width(), resolutionController.height());
+  }
+
+  /**
+   * Called from the packet callback thread with the timestamp of each processed frame. When the
+   * frames arrive too late, or with enough headroom, the camera is restarted with the next
+   * resolution.
+   *
+   * @param timestampMicros timestamp of the packet, the camera time of the frame
+   */
+  protected void onFrameProcessed(long timestampMicros) {
+    long latency =
+        ResolutionController.latencyMicros(
+            timestampMicros, System.nanoTime(), SystemClock.elapsedRealtimeNanos());
+    if (resolutionController.addLatency(latency)) {
+      int index = resolutionController.index();
+      Log.d(TAG, "Camera resolution changed to " + cameraTargetResolution());
+      SharedPreferences.Editor editor = getSharedPreferences("Settings", MODE_PRIVATE).edit();
+      editor.putInt(PREF_RESOLUTION, index);
+      editor.apply();
+      runOnUiThread(
+          () -> {
+            if (previewLifecycle.isResumed()) {
+              previewLifecycle.restartCamera();
+            }
+          });
+    }
+  }
+
+  /**
+   * Creates the converter of the camera frames for this resume and attaches it to the graph. The
+   * previous one was closed on pause, with its GL thread and textures.
+   */
+  private PreviewLifecycle.Resource openConverter() {
+    ExternalTextureConverter opened = new ExternalTextureConverter(eglManager.getContext());
+    opened.setFlipY(graph.flipFramesVertically());
+    opened.setConsumer(processor);
+    converter = opened;
+    return () -> {
+      if (converter == opened) {
+        converter = null;
+      }
+      opened.close();
+    };
+  }
+
+  /**
+   * Starts the camera for this resume. Stopping it unbinds the preview, so the next resume can
+   * bind a new one, and hides the display until the new preview texture arrives.
+   */
+  private PreviewLifecycle.Resource openCamera() {
+    startCamera();
+    return () -> {
+      CameraX.unbindAll();
+      previewDisplayView.setVisibility(View.GONE);
+    };
   }
 
   public void startCamera() {
@@ -202,11 +302,7 @@ public class BasicActivity extends AppCompatActivity {
         applicationInfo.metaData.getBoolean("cameraFacingFront", false)
             ? CameraHelper.CameraFacing.FRONT
             : CameraHelper.CameraFacing.BACK;
-    if (first)
-    {
-      first = false;
-      cameraHelper.startCamera(this, cameraFacing, /*surfaceTexture=*/ null, cameraTargetResolution());
-    }
+    cameraHelper.startCamera(this, cameraFacing, /*surfaceTexture=*/ null, cameraTargetResolution());
   }
 
   protected Size computeViewSize(int width, int height) {
@@ -218,6 +314,9 @@ public class BasicActivity extends AppCompatActivity {
     // (Re-)Compute the ideal size of the camera-preview display (the area that the
     // camera-preview frames get rendered onto, potentially with scaling and rotation)
     // based on the size of the SurfaceView that contains the display.
+    if (converter == null) {
+      return; // paused, the surface is set again by the camera of the next resume
+    }
     Size viewSize = computeViewSize(width, height);
     Size displaySize = cameraHelper.computeDisplaySizeFromViewSize(viewSize);
     boolean isCameraRotated = cameraHelper.isCameraRotated();
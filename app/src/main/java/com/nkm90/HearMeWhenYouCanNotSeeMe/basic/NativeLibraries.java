@@ -0,0 +1,27 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+/**
+ * Loads the native libraries of MediaPipe once per process, from whichever thread needs them
+ * first: the graph warm-up started by the main screen or the MediaPipe activity.
+ */
+public final class NativeLibraries {
+
+  private static boolean loaded;
+
+  private NativeLibraries() {}
+
+  /** Loads all native libraries needed by the app, if they are not loaded yet. */
+  public static synchronized void load() {
+    if (loaded) {
+      return;
+    }
+    System.loadLibrary("mediapipe_jni");
+    try {
+      System.loadLibrary("opencv_java3");
+    } catch (UnsatisfiedLinkError e) {
+      // Some example apps (e.g. template matching) require OpenCV 4.
+      System.loadLibrary("opencv_java4");
+    }
+    loaded = true;
+  }
+}
@@ -0,0 +1,141 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+/**
+ * Opens and closes the per-resume resources of the camera preview in step with the activity: the
+ * texture converter, which owns a GL thread and textures, and the camera.
+ *
+ * <p>Every resume opens at most one of each and every pause closes them again, camera first so no
+ * frame reaches a closed converter, whatever order the permission result and the lifecycle
+ * callbacks arrive in. The MediaPipe graph itself is not closed: it is retained across the
+ * launches (see {@link RetainedGraph}) and each new converter is attached to it.
+ *
+ * <p>The class does not depend on Android, the resources are created through {@link Opener}s, so
+ * the number of resources open after any sequence of callbacks can be checked with fakes. It must
+ * be used from the main thread.
+ */
+public final class PreviewLifecycle {
+
+  /** A resource opened on resume and closed on pause. */
+  public interface Resource {
+    void close();
+  }
+
+  /** Creates a resource. */
+  public interface Opener {
+    Resource open();
+  }
+
+  private final Opener converterOpener;
+  private final Opener cameraOpener;
+  private Resource converter;
+  private Resource camera;
+  private boolean resumed;
+  private boolean cameraAllowed;
+  private boolean destroyed;
+  private int convertersOpened;
+  private int convertersClosed;
+  private int camerasOpened;
+  private int camerasClosed;
+
+  /**
+   * @param converterOpener creates the texture converter and attaches it to the graph
+   * @param cameraOpener starts the camera, its frames go to the last converter opened
+   */
+  public PreviewLifecycle(Opener converterOpener, Opener cameraOpener) {
+    this.converterOpener = converterOpener;
+    this.cameraOpener = cameraOpener;
+  }
+
+  /**
+   * Called from onResume. The camera is only started when it is allowed.
+   *
+   * @param cameraAllowed true when the camera permission is granted
+   */
+  public void resume(boolean cameraAllowed) {
+    if (destroyed) {
+      throw new IllegalStateException("Resumed after being destroyed");
+    }
+    resumed = true;
+    this.cameraAllowed |= cameraAllowed;
+    if (converter == null) {
+      converter = converterOpener.open();
+      convertersOpened++;
+    }
+    startCameraIfReady();
+  }
+
+  /**
+   * Called when the camera permission is granted, which may happen while resumed.
+   */
+  public void allowCamera() {
+    cameraAllowed = true;
+    startCameraIfReady();
+  }
+
+  private void startCameraIfReady() {
+    if (resumed && cameraAllowed && camera == null) {
+      camera = cameraOpener.open();
+      camerasOpened++;
+    }
+  }
+
+  /**
+   * Stops the camera and starts it again, for example with another resolution. The converter
+   * stays open. Nothing happens while paused, the next resume starts the camera anyway.
+   */
+  public void restartCamera() {
+    if (camera != null) {
+      camera.close();
+      camera = null;
+      camerasClosed++;
+    }
+    startCameraIfReady();
+  }
+
+  /**
+   * Called from onPause, it stops the camera and closes the converter.
+   */
+  public void pause() {
+    resumed = false;
+    if (camera != null) {
+      camera.close();
+      camera = null;
+      camerasClosed++;
+    }
+    if (converter != null) {
+      converter.close();
+      converter = null;
+      convertersClosed++;
+    }
+  }
+
+  /**
+   * Called from onDestroy, it closes anything left open.
+   */
+  public void destroy() {
+    pause();
+    destroyed = true;
+  }
+
+  public boolean isResumed() {
+    return resumed;
+  }
+
+  /** @return number of converters open now, 0 or 1 */
+  public int openConverters() {
+    return convertersOpened - convertersClosed;
+  }
+
+  /** @return number of cameras running now, 0 or 1 */
+  public int openCameras() {
+    return camerasOpened - camerasClosed;
+  }
+
+  public int convertersOpened() {
+    return convertersOpened;
+  }
+
+  public int camerasOpened() {
+    return camerasOpened;
+  }
+}
@@ -0,0 +1,184 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the camera resolution from the latency measured on the frames: the biggest resolution
+ * whose frames reach the recognition within the frame budget.
+ *
+ * <p>The latencies are looked at in windows of {@link #WINDOW_FRAMES} frames. When too many frames
+ * of a window miss the budget the resolution steps down, and when the slowest frames of several
+ * windows in a row stay well under the budget it steps back up. Stepping up into a resolution that
+ * was too slow before needs twice as many good windows each time, so a device on the edge does not
+ * keep switching. The frames right after a change are ignored, they were captured with the old
+ * resolution or while the camera restarted.
+ *
+ * <p>The class does not depend on Android, so the decisions can be tested with a simulated latency
+ * source. {@link #addLatency} must be called from one thread; the resolution can be read from any.
+ */
+public final class ResolutionController {
+
+  /**
+   * Latency allowed to a frame: two frames at 30 fps, one being captured while the other is
+   * processed.
+   */
+  public static final long DEFAULT_BUDGET_MICROS = 66_000;
+  /** Frames looked at on each decision. */
+  static final int WINDOW_FRAMES = 30;
+  // More than this part of the frames over the budget steps down
+  static final double MISS_FRACTION = 0.2;
+  // The 90th percentile under this part of the budget is headroom
+  static final double HEADROOM_FRACTION = 0.6;
+  // Windows with headroom needed in a row to step up into a resolution that never failed
+  static final int HEADROOM_WINDOWS = 3;
+  // Limit of the doubling of the windows needed after failures
+  private static final int MAX_FAILURE_SHIFT = 5;
+  /** Frames ignored after a change. */
+  static final int SETTLE_FRAMES = 15;
+  // Latencies above this are clock mismatches, not slow frames
+  static final long MAX_LATENCY_MICROS = 2_000_000;
+
+  private final int[] widths;
+  private final int[] heights;
+  private final long budgetMicros;
+  private final long[] window = new long[WINDOW_FRAMES];
+  // Times each resolution was left because it was too slow
+  private final int[] failures;
+  private volatile int index;
+  private int count;
+  private int settle;
+  private int headroomWindows;
+  private int changes;
+
+  /**
+   * @param widths widths of the candidate resolutions, from the biggest to the smallest
+   * @param heights heights of the candidate resolutions
+   * @param start index of the resolution used first
+   * @param budgetMicros latency allowed to a frame
+   */
+  public ResolutionController(int[] widths, int[] heights, int start, long budgetMicros) {
+    if (widths.length == 0 || widths.length != heights.length) {
+      throw new IllegalArgumentException("Need the same number of widths and heights");
+    }
+    for (int i = 1; i < widths.length; i++) {
+      if ((long) widths[i] * heights[i] >= (long) widths[i - 1] * heights[i - 1]) {
+        throw new IllegalArgumentException("Resolutions must go from the biggest to the smallest");
+      }
+    }
+    if (start < 0 || start >= widths.length) {
+      throw new IllegalArgumentException("Start out of range: " + start);
+    }
+    this.widths = widths.clone();
+    this.heights = heights.clone();
+    this.failures = new int[widths.length];
+    this.index = start;
+    this.budgetMicros = budgetMicros;
+  }
+
+  /**
+   * Creates a controller with 1280x720, 960x540, 640x480 and 480x360.
+   *
+   * @param start index of the resolution used first, moved into range when it is not
+   */
+  public static ResolutionController createDefault(int start) {
+    int[] widths = {1280, 960, 640, 480};
+    int[] heights = {720, 540, 480, 360};
+    return new ResolutionController(widths, heights,
+        Math.max(0, Math.min(start, widths.length - 1)), DEFAULT_BUDGET_MICROS);
+  }
+
+  /**
+   * Method that computes the latency of a frame from its packet timestamp. The camera stamps the
+   * frames with the monotonic clock or the boot time clock depending on the device, so the one
+   * giving a plausible latency is used.
+   *
+   * @param timestampMicros timestamp of the packet, in microseconds
+   * @param monotonicNanos System.nanoTime() now
+   * @param realtimeNanos SystemClock.elapsedRealtimeNanos() now
+   * @return the latency in microseconds, or -1 when neither clock matches
+   */
+  public static long latencyMicros(long timestampMicros, long monotonicNanos, long realtimeNanos) {
+    long monotonic = monotonicNanos / 1000 - timestampMicros;
+    if (monotonic >= 0 && monotonic <= MAX_LATENCY_MICROS) {
+      return monotonic;
+    }
+    long realtime = realtimeNanos / 1000 - timestampMicros;
+    if (realtime >= 0 && realtime <= MAX_LATENCY_MICROS) {
+      return realtime;
+    }
+    return -1;
+  }
+
+  /**
+   * The addLatency method adds the latency of one frame, and changes the resolution when a
+   * window is complete and asks for it.
+   *
+   * @param micros latency of the frame, negative when it could not be measured
+   * @return true when the resolution changed and the camera has to be restarted
+   */
+  public boolean addLatency(long micros) {
+    if (micros < 0 || micros > MAX_LATENCY_MICROS) {
+      return false;
+    }
+    if (settle > 0) {
+      settle--;
+      return false;
+    }
+    window[count++] = micros;
+    if (count < WINDOW_FRAMES) {
+      return false;
+    }
+    count = 0;
+    Arrays.sort(window);
+    int misses = 0;
+    for (int i = WINDOW_FRAMES - 1; i >= 0 && window[i] > budgetMicros; i--) {
+      misses++;
+    }
+    long p90 = window[(int) (0.9 * (WINDOW_FRAMES - 1))];
+    int current = index;
+    if (misses > MISS_FRACTION * WINDOW_FRAMES) {
+      headroomWindows = 0;
+      failures[current]++;
+      return current + 1 < widths.length && change(current + 1);
+    }
+    if (p90 < HEADROOM_FRACTION * budgetMicros && current > 0) {
+      int needed = HEADROOM_WINDOWS << Math.min(failures[current - 1], MAX_FAILURE_SHIFT);
+      if (++headroomWindows >= needed) {
+        return change(current - 1);
+      }
+      return false;
+    }
+    headroomWindows = 0;
+    return false;
+  }
+
+  private boolean change(int next) {
+    index = next;
+    headroomWindows = 0;
+    settle = SETTLE_FRAMES;
+    changes++;
+    return true;
+  }
+
+  /** @return index of the resolution to use, 0 is the biggest */
+  public int index() {
+    return index;
+  }
+
+  public int width() {
+    return widths[index];
+  }
+
+  public int height() {
+    return heights[index];
+  }
+
+  public int resolutionCount() {
+    return widths.length;
+  }
+
+  /** @return number of times the resolution changed */
+  public int changes() {
+    return changes;
+  }
+}
@@ -0,0 +1,232 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.mediapipe.components.FrameProcessor;
+import com.google.mediapipe.framework.AndroidAssetUtil;
+import com.google.mediapipe.framework.PacketCallback;
+import com.google.mediapipe.glutil.EglManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The MediaPipe graph and its GL context, built once per process and kept alive across the
+ * launches of the MediaPipe activity.
+ *
+ * <p>Creating the EglManager and the FrameProcessor, loading the native libraries and starting the
+ * graph, which loads the palm and landmark models, takes seconds. The main screen starts it on a
+ * background thread with {@link #warmUp(Context)} when the app opens, so by the time the user
+ * reaches the camera the graph is already running and the activity only has to attach its views.
+ *
+ * <p>Packet callbacks can only be added to a graph before it starts, so the graph has a single
+ * callback on the landmarks stream that forwards the packets to the listener set by the activity
+ * currently shown, see {@link #setLandmarksListener}.
+ */
+public final class RetainedGraph {
+
+  private static final String TAG = "RetainedGraph";
+  /** Stream of the graph with the landmarks of the hands. */
+  public static final String LANDMARKS_STREAM_NAME = "multi_hand_landmarks";
+  /** Intent extra with the SystemClock.elapsedRealtime() of the tap that opened the camera. */
+  public static final String EXTRA_LAUNCH_TIME = "launchTime";
+
+  // Flips the camera-preview frames vertically by default, before sending them into FrameProcessor
+  // to be processed in a MediaPipe graph, and flips the processed frames back when they are
+  // displayed. This maybe needed because OpenGL represents images assuming the image origin is at
+  // the bottom-left corner, whereas MediaPipe in general assumes the image origin is at the
+  // top-left corner.
+  // NOTE: use "flipFramesVertically" in manifest metadata to override this behavior.
+  private static final boolean FLIP_FRAMES_VERTICALLY = true;
+
+  private static FutureTask<RetainedGraph> instance;
+
+  /** Receives the graph on the main thread once it is built, see {@link #attach}. */
+  public interface Callback {
+    void onGraphReady(RetainedGraph graph);
+
+    void onGraphFailed(RuntimeException error);
+  }
+
+  private final EglManager eglManager;
+  private final FrameProcessor processor;
+  private final Bundle metaData;
+  private final long warmUpMillis;
+  private volatile PacketCallback landmarksListener;
+  // Time of the last launch of the activity, and the time to its first frame once it arrived
+  private volatile long launchedAt;
+  private volatile long timeToFirstFrameMillis = -1;
+
+  private RetainedGraph(Context context) throws PackageManager.NameNotFoundException {
+    long start = SystemClock.elapsedRealtime();
+    NativeLibraries.load();
+    ApplicationInfo applicationInfo =
+        context.getPackageManager().getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+    metaData = applicationInfo.metaData;
+
+    // Initialize asset manager so that MediaPipe native libraries can access the app assets, e.g.,
+    // binary graphs.
+    AndroidAssetUtil.initializeNativeAssetManager(context);
+    eglManager = new EglManager(null);
+    processor =
+        new FrameProcessor(
+            context,
+            eglManager.getNativeContext(),
+            metaData.getString("binaryGraphName"),
+            metaData.getString("inputVideoStreamName"),
+            metaData.getString("outputVideoStreamName"));
+    processor.getVideoSurfaceOutput().setFlipY(flipFramesVertically());
+    processor.addPacketCallback(LANDMARKS_STREAM_NAME, packet -> {
+      if (launchedAt != 0) {
+        timeToFirstFrameMillis = SystemClock.elapsedRealtime() - launchedAt;
+        launchedAt = 0;
+        Log.i(TAG, "Time to first frame: " + timeToFirstFrameMillis + " ms");
+      }
+      PacketCallback listener = landmarksListener;
+      if (listener != null) {
+        listener.process(packet);
+      }
+    });
+    // Starts the graph now, so the models are loaded before the first camera frame
+    processor.preheat();
+    warmUpMillis = SystemClock.elapsedRealtime() - start;
+    Log.i(TAG, "Graph ready in " + warmUpMillis + " ms");
+  }
+
+  /**
+   * Starts building the graph on a background thread, if it is not built or being built yet.
+   *
+   * @param context any context, only the application context is kept
+   */
+  public static synchronized void warmUp(Context context) {
+    if (instance != null) {
+      return;
+    }
+    Context application = context.getApplicationContext();
+    instance = new FutureTask<>(() -> new RetainedGraph(application));
+    new Thread(instance, "GraphWarmUp").start();
+  }
+
+  /**
+   * @return true when the graph has been built and can be used without waiting
+   */
+  public static synchronized boolean isReady() {
+    return instance != null && instance.isDone();
+  }
+
+  /**
+   * Method that returns the graph, waiting for it to be built if the warm-up has not finished.
+   * When the warm-up failed it is tried again.
+   *
+   * @param context any context, only the application context is kept
+   * @return the graph
+   */
+  public static RetainedGraph get(Context context) {
+    FutureTask<RetainedGraph> task;
+    synchronized (RetainedGraph.class) {
+      warmUp(context);
+      task = instance;
+    }
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while building the MediaPipe graph", e);
+    } catch (ExecutionException e) {
+      synchronized (RetainedGraph.class) {
+        if (instance == task) {
+          instance = null;
+        }
+      }
+      throw new IllegalStateException("Cannot build the MediaPipe graph", e.getCause());
+    }
+  }
+
+  /**
+   * Method that hands the graph to the callback on the main thread without blocking it. When the
+   * warm-up is still running, a background thread waits for it. The callback is always posted,
+   * even when the graph is ready, so it runs after the onCreate that asked for it has returned.
+   *
+   * @param context any context, only the application context is kept
+   * @param callback called on the main thread with the graph, or with the error of the warm-up
+   */
+  public static void attach(Context context, Callback callback) {
+    Handler main = new Handler(Looper.getMainLooper());
+    if (isReady()) {
+      deliver(context, callback, main);
+      return;
+    }
+    new Thread(() -> deliver(context, callback, main), "GraphAttach").start();
+  }
+
+  private static void deliver(Context context, Callback callback, Handler main) {
+    try {
+      RetainedGraph graph = get(context);
+      main.post(() -> callback.onGraphReady(graph));
+    } catch (IllegalStateException e) {
+      main.post(() -> callback.onGraphFailed(e));
+    }
+  }
+
+  public EglManager eglManager() {
+    return eglManager;
+  }
+
+  public FrameProcessor processor() {
+    return processor;
+  }
+
+  /** @return the meta-data of the application, with the names of the graph and the camera facing */
+  public Bundle metaData() {
+    return metaData;
+  }
+
+  public boolean flipFramesVertically() {
+    return metaData.getBoolean("flipFramesVertically", FLIP_FRAMES_VERTICALLY);
+  }
+
+  /** @return time it took to build and start the graph */
+  public long warmUpMillis() {
+    return warmUpMillis;
+  }
+
+  /**
+   * Sets the listener of the landmarks stream, replacing the one of the previous activity. It is
+   * called on the thread of the graph.
+   */
+  public synchronized void setLandmarksListener(PacketCallback listener) {
+    landmarksListener = listener;
+  }
+
+  /**
+   * Removes the listener when its activity goes away. A newer activity may have set its own
+   * listener already, and that one is kept.
+   */
+  public synchronized void removeLandmarksListener(PacketCallback listener) {
+    if (landmarksListener == listener) {
+      landmarksListener = null;
+    }
+  }
+
+  /**
+   * Starts measuring the time to the first frame of the activity being launched.
+   *
+   * @param launchTime SystemClock.elapsedRealtime() of the tap that launched it
+   */
+  public void markLaunch(long launchTime) {
+    timeToFirstFrameMillis = -1;
+    launchedAt = launchTime;
+  }
+
+  /** @return milliseconds from the last launch to its first frame, or -1 while it has not arrived */
+  public long timeToFirstFrameMillis() {
+    return timeToFirstFrameMillis;
+  }
+}
@@ -0,0 +1,174 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules for the American Sign Language alphabet made with the right hand. They are the
+ * conditions of the original handGestureCalculator if/else chain, in the same order.
+ *
+ * <p>The app loads the same rules from the pack compiled from app/rules/asl.rules (see
+ * {@link RuleScript}); these are the built-in copy used when no pack can be loaded.
+ */
+public final class AslRules {
+
+    private static final int INDEX = HandLandmarks.INDEX_MCP;
+    private static final int MIDDLE = HandLandmarks.MIDDLE_MCP;
+    private static final int RING = HandLandmarks.RING_MCP;
+    private static final int PINKY = HandLandmarks.PINKY_MCP;
+
+    private AslRules() {
+    }
+
+    /**
+     * @return the rule set compiled into a decision table, created once and shared
+     */
+    public static DecisionTable table() {
+        return Holder.TABLE;
+    }
+
+    private static final class Holder {
+        static final DecisionTable TABLE = DecisionTable.compile(create());
+    }
+
+    /**
+     * Method that creates the rules of every letter.
+     *
+     * @return the ASL rule set
+     */
+    public static GestureRuleSet create() {
+        List<GestureRule> rules = new ArrayList<>();
+
+        // Palm facing front and vertical
+        rules.add(vertical('A')
+                .down(INDEX).down(MIDDLE).down(RING).down(PINKY).thumbOpen()
+                .near(4, 6).xLess(4, 6)
+                .build());
+        rules.add(vertical('B')
+                .thumbBent().up(INDEX).up(MIDDLE).up(RING).up(PINKY)
+                .build());
+        rules.add(vertical('C')
+                .thumbOpen().notNear(4, 8).xGreaterOrEqual(4, 8).notNear(4, 12)
+                .near(8, 12).near(12, 16).notNear(4, 16).notNear(4, 20).near(16, 20)
+                .build());
+        rules.add(vertical('D')
+                .up(INDEX).thumbOpen().xLessOrEqual(12, 4)
+                .near(12, 4).near(12, 16).near(12, 20)
+                .build());
+        rules.add(vertical('E')
+                .thumbBent().yLess(8, 4).yLess(12, 4).yLess(16, 4).yLess(20, 4)
+                .yGreaterOrEqual(8, 5).yGreaterOrEqual(12, 9)
+                .yGreaterOrEqual(16, 13).yGreaterOrEqual(20, 17)
+                .build());
+        rules.add(vertical('F')
+                .up(MIDDLE).up(RING).up(PINKY).thumbOpen().notUp(INDEX)
+                .near(8, 4)
+                .build());
+        rules.add(vertical('I')
+                .near(4, 6).xLess(4, 6)
+                .down(INDEX).down(MIDDLE).down(RING).up(PINKY)
+                .build());
+        rules.add(vertical('K')
+                .thumbOpen().xGreaterOrEqual(4, 5).xLessOrEqual(4, 9)
+                .up(INDEX).up(MIDDLE).down(RING).down(PINKY)
+                .farther(8, 12, 5, 9)
+                .build());
+        rules.add(vertical('L')
+                .thumbOpen().xLess(4, 3).yGreaterOrEqual(4, 3)
+                .up(INDEX).down(MIDDLE).down(RING).down(PINKY)
+                .build());
+        rules.add(vertical('M')
+                .yGreater(8, 5).yGreater(12, 9).yGreater(16, 13)
+                .yLess(0, 4).yLess(0, 20)
+                .build());
+        rules.add(vertical('N')
+                .yGreater(8, 5).yGreater(12, 9).yLess(16, 13)
+                .yLess(0, 4).yLess(0, 20)
+                .build());
+        rules.add(vertical('O')
+                .thumbOpen().near(4, 8).near(8, 12).near(12, 16).near(16, 20)
+                .build());
+        rules.add(vertical('R')
+                .thumbBent().up(INDEX).xGreaterOrEqual(8, 12).up(MIDDLE).down(RING)
+                .xGreaterOrEqual(4, 15).down(PINKY)
+                .build());
+        rules.add(vertical('S')
+                .thumbBent().down(INDEX).down(MIDDLE).down(RING).down(PINKY)
+                .yGreaterOrEqual(8, 5).yGreaterOrEqual(7, 5)
+                .yGreaterOrEqual(12, 9).yGreaterOrEqual(11, 9)
+                .yGreaterOrEqual(16, 13).yGreaterOrEqual(15, 13)
+                .yGreaterOrEqual(20, 17).yGreaterOrEqual(19, 17)
+                .xGreater(4, 7).yLessOrEqual(4, 11)
+                .build());
+        rules.add(vertical('T')
+                .thumbOpen().down(INDEX).down(MIDDLE).down(RING).down(PINKY)
+                .xGreater(4, 6).xLess(4, 10)
+                .build());
+        rules.add(vertical('U')
+                .thumbBent().up(INDEX).up(MIDDLE).down(RING).down(PINKY)
+                .near(8, 12)
+                .build());
+        rules.add(vertical('V')
+                .thumbBent().up(INDEX).up(MIDDLE).down(RING).down(PINKY)
+                .notNear(8, 12)
+                .build());
+        rules.add(vertical('W')
+                .thumbBent().up(INDEX).up(MIDDLE).up(RING).down(PINKY)
+                .notNear(8, 12).notNear(16, 12)
+                .build());
+        rules.add(vertical('X')
+                .thumbBent().yLessOrEqual(8, 5).yGreaterOrEqual(8, 6).yGreaterOrEqual(7, 5)
+                .yGreaterOrEqual(12, 9).yGreaterOrEqual(11, 9)
+                .yGreaterOrEqual(16, 13).yGreaterOrEqual(15, 13)
+                .yGreaterOrEqual(20, 17).yGreaterOrEqual(19, 17)
+                .xGreater(4, 11)
+                .build());
+        rules.add(vertical('Y')
+                .thumbOpen().down(INDEX).down(MIDDLE).down(RING).up(PINKY)
+                .build());
+        rules.add(vertical('Z')
+                .thumbOpen().yLess(8, 5).xLess(8, 5)
+                .yGreaterOrEqual(4, 3).xGreaterOrEqual(4, 9)
+                .yGreater(12, 9).yGreater(16, 13).yGreater(20, 17)
+                .build());
+
+        // Palm inclined
+        rules.add(inclined(Gestures.SPACE)
+                .yLess(4, 3).yLess(3, 2)
+                .yLess(8, 5).yLess(12, 9).yLess(16, 13).yLess(20, 17)
+                .yGreaterOrEqual(17, 2)
+                .build());
+        rules.add(inclined(Gestures.ofLetter('G'))
+                .thumbOpen().up(INDEX).down(MIDDLE).down(RING).down(PINKY)
+                .xGreaterOrEqual(8, 13)
+                .build());
+        rules.add(inclined(Gestures.ofLetter('H'))
+                .thumbBent().down(RING).down(PINKY).up(INDEX).up(MIDDLE)
+                .build());
+        rules.add(inclined(Gestures.ofLetter('J'))
+                .thumbBent().down(INDEX).down(MIDDLE).down(RING).up(PINKY)
+                .build());
+        rules.add(inclined(Gestures.ofLetter('P'))
+                .yGreater(4, 3).yGreater(3, 2)
+                .xLess(8, 7).xLess(7, 6).xLess(6, 5)
+                .yGreater(12, 11).yGreater(11, 9)
+                .yGreater(16, 15).yGreater(15, 13)
+                .yGreater(20, 19).yGreater(19, 17)
+                .near(4, 12)
+                .build());
+        rules.add(inclined(Gestures.ofLetter('Q'))
+                .yGreater(4, 3).yGreater(3, 2).yGreater(8, 7)
+                .build());
+
+        // Left hands are mirrored onto these rules by HandCanonicalizer, see CanonicalHandClassifier
+        return new GestureRuleSet("ASL", rules);
+    }
+
+    private static GestureRule.Builder vertical(char letter) {
+        return GestureRule.builder(Gestures.ofLetter(letter)).rightHand().palmVertical();
+    }
+
+    private static GestureRule.Builder inclined(int gesture) {
+        return GestureRule.builder(gesture).rightHand().palmInclined();
+    }
+}
@@ -0,0 +1,35 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Classifier that moves a copy of the hand into the canonical frame of {@link HandCanonicalizer}
+ * before passing it to another classifier. The landmarks given to {@link #classify(float[])} are
+ * not modified, so the frame can still be traced and recorded as it came from MediaPipe.
+ */
+public class CanonicalHandClassifier implements HandClassifier {
+
+    private final HandClassifier classifier;
+    private final float[] canonical = HandLandmarks.newHand();
+    private boolean canonicalized;
+
+    /**
+     * @param classifier classifier that receives the canonical hand
+     */
+    public CanonicalHandClassifier(HandClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    @Override
+    public int classify(float[] landmarks) {
+        System.arraycopy(landmarks, 0, canonical, 0, HandLandmarks.HAND_SIZE);
+        canonicalized = HandCanonicalizer.canonicalize(canonical);
+        if (!canonicalized) {
+            return Gestures.NO_GESTURE;
+        }
+        return classifier.classify(canonical);
+    }
+
+    @Override
+    public float margin() {
+        return canonicalized ? classifier.margin() : 1;
+    }
+}
@@ -0,0 +1,122 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Measures how well a rule set recognises a {@link LandmarkCorpus}, so a change to the rules can
+ * be checked against every recorded letter in seconds instead of signing in front of the phone.
+ *
+ * <p>The corpus is split in ranges of frames that are classified on all the cores with fork/join.
+ * Each range has its own classifier and its own confusion matrix, and the matrices are added when
+ * the ranges are joined, so the threads do not share anything they write except their own slice
+ * of the latency array. The hands are classified as in the app, in the canonical frame of
+ * {@link HandCanonicalizer}, so left and tilted hands are counted as the app recognises them.
+ *
+ * <pre>
+ * java com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.CorpusEvaluator session1.hmsr session2.hmsr ...
+ * </pre>
+ */
+public final class CorpusEvaluator {
+
+    // Frames classified by one task, big enough to pay for the classifier it creates
+    static final int RANGE_FRAMES = 2048;
+
+    private CorpusEvaluator() {
+    }
+
+    /**
+     * Method that evaluates the rules on every frame of the corpus using every core.
+     *
+     * @param corpus labelled frames
+     * @param table compiled rules to evaluate
+     * @return confusion matrix, throughput and latencies
+     */
+    public static EvaluationReport evaluate(LandmarkCorpus corpus, DecisionTable table) {
+        return evaluate(corpus, table, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool where the ranges of frames are classified
+     */
+    public static EvaluationReport evaluate(LandmarkCorpus corpus, DecisionTable table, ForkJoinPool pool) {
+        long[] latencies = new long[corpus.size()];
+        long start = System.nanoTime();
+        int[] confusion = pool.invoke(new RangeTask(corpus, table, latencies, 0, corpus.size()));
+        long nanos = System.nanoTime() - start;
+        return new EvaluationReport(table.name(), confusion, latencies, nanos);
+    }
+
+    private static final class RangeTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LandmarkCorpus corpus;
+        private final DecisionTable table;
+        private final long[] latencies;
+        private final int from;
+        private final int to;
+
+        RangeTask(LandmarkCorpus corpus, DecisionTable table, long[] latencies, int from, int to) {
+            this.corpus = corpus;
+            this.table = table;
+            this.latencies = latencies;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= RANGE_FRAMES) {
+                return classifyRange();
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(corpus, table, latencies, from, middle);
+            left.fork();
+            int[] confusion = new RangeTask(corpus, table, latencies, middle, to).compute();
+            int[] other = left.join();
+            for (int i = 0; i < confusion.length; i++) {
+                confusion[i] += other[i];
+            }
+            return confusion;
+        }
+
+        private int[] classifyRange() {
+            int[] confusion = new int[Gestures.COUNT * Gestures.COUNT];
+            // The classifiers of the app, with no helper thread as the pool already uses every core
+            MultiHandClassifier classifier = new MultiHandClassifier(
+                    () -> new CanonicalHandClassifier(new GestureClassifier(table)),
+                    TwoHandedSigns.createDefault(), false);
+            LandmarkFrame frame = new LandmarkFrame();
+            for (int i = from; i < to; i++) {
+                corpus.copyTo(i, frame);
+                long start = System.nanoTime();
+                int gesture = classifier.classify(frame);
+                latencies[i] = System.nanoTime() - start;
+                confusion[corpus.label(i) * Gestures.COUNT + gesture]++;
+            }
+            return confusion;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CorpusEvaluator <session.hmsr>...");
+            System.exit(1);
+        }
+        File[] sessions = new File[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sessions[i] = new File(args[i]);
+        }
+        LandmarkCorpus corpus = LandmarkCorpus.load(sessions);
+        // The first run warms up the JIT, the second one is reported
+        evaluate(corpus, AslRules.table());
+        Writer out = new OutputStreamWriter(System.out, "UTF-8");
+        evaluate(corpus, AslRules.table()).format(out);
+        out.flush();
+    }
+}
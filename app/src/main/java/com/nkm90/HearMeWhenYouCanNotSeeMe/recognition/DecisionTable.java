@@ -0,0 +1,614 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link GestureRuleSet} compiled for the camera frames.
+ *
+ * <p>Every feature used by the rules is evaluated once per frame into a bitmask of longs, and each
+ * rule becomes a pair of mask and value, so checking a rule is an AND and a compare per word
+ * instead of a chain of comparisons. On top of that the features that split the rules the best get
+ * the lowest bits of the bitmask, and those bits index a precompiled table that keeps, for every
+ * combination of them, only the rules that can still match, in their original order. Looking up a
+ * letter is then one table read and, usually, one or two mask checks, wherever the letter was on
+ * the old chain.
+ *
+ * <p>{@link #score} gives a confidence instead: how many conditions of every rule hold, counted
+ * with one popcount per word. The rules of the bucket are scored first, and every key also stores
+ * the best score any other rule can reach with it, from the key bits alone, so the other rules
+ * are only scored when they could still overtake the runner-up, which is what decides the margin
+ * of the leader. They are scored from the one with the most conditions, which loses the least
+ * for a failed condition, skipping the ones of the bucket, and the scan stops at the first one
+ * that cannot overtake the runner-up even failing a single condition.
+ *
+ * <p>The features are evaluated grouped by kind rather than in bit order: the comparisons of two
+ * coordinates, the comparisons of two distances and the near checks each run in their own loop
+ * over precomputed array positions, and only the finger and palm features go through
+ * {@link GestureFeatures#evaluate}.
+ *
+ * <p>The table itself is immutable and can be shared between threads; the bitmask and the
+ * {@link DistanceMatrix} are passed in by the caller so each thread uses its own.
+ */
+public final class DecisionTable {
+
+    // Groups the features are evaluated in by extract
+    private static final int KIND_HAND = 0;
+    private static final int KIND_DISTANCE = 1;
+    private static final int KIND_NEAR = 2;
+    private static final int KIND_OTHER = 3;
+
+    /** Maximum number of features used as index of the table, 2^12 entries. */
+    static final int MAX_KEY_BITS = 12;
+
+    private final String name;
+    // Encoded feature (see GestureFeatures) for each bit of the bitmask
+    private final int[] features;
+    private final int words;
+    // Gesture, mask and value of each rule, the masks and values use `words` longs per rule
+    private final int[] gestures;
+    private final long[] masks;
+    private final long[] values;
+    private final int keyBits;
+    // Rules to check for each key, from bucketRules[bucketStart[key]] to bucketRules[bucketStart[key + 1]]
+    private final int[] bucketStart;
+    private final int[] bucketRules;
+    // 1 / number of conditions of each rule, what every condition that fails takes from its score
+    private final float[] conditionWeights;
+    // Best score of the rules outside the bucket of each key
+    private final float[] outsideBounds;
+    // Rules from the one with the most conditions to the one with the fewest
+    private final int[] rulesByConditions;
+    // Features evaluated as hand[handLeft] < hand[handRight], and the bit of each one
+    private final int[] handBits;
+    private final int[] handLeft;
+    private final int[] handRight;
+    // Features evaluated as squared[distanceLeft] < squared[distanceRight] on the distance matrix
+    private final int[] distanceBits;
+    private final int[] distanceLeft;
+    private final int[] distanceRight;
+    // Features evaluated as squared[nearPairs] < nearSquared
+    private final int[] nearBits;
+    private final int[] nearPairs;
+    // Finger and palm features, evaluated with GestureFeatures
+    private final int[] otherBits;
+    // Pairs of landmarks whose distance is used by the features
+    private final int[] distancePairs;
+    private final double nearDistance;
+    private final double nearSquared;
+
+    DecisionTable(String name, int[] features, int[] gestures, long[] masks, long[] values, int keyBits,
+                  double nearDistance) {
+        this.name = name;
+        this.nearDistance = nearDistance;
+        this.nearSquared = nearDistance * nearDistance;
+        this.features = features;
+        this.words = wordsFor(features.length);
+        this.gestures = gestures;
+        this.masks = masks;
+        this.values = values;
+        this.keyBits = keyBits;
+        this.bucketStart = new int[(1 << keyBits) + 1];
+        this.bucketRules = buildBuckets();
+        this.conditionWeights = new float[gestures.length];
+        for (int r = 0; r < gestures.length; r++) {
+            int conditions = 0;
+            for (int w = 0; w < words; w++) {
+                conditions += Long.bitCount(masks[r * words + w]);
+            }
+            conditionWeights[r] = conditions == 0 ? 0 : 1f / conditions;
+        }
+        this.outsideBounds = buildOutsideBounds();
+        Integer[] order = new Integer[gestures.length];
+        for (int r = 0; r < order.length; r++) {
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(conditionWeights[a], conditionWeights[b]));
+        this.rulesByConditions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rulesByConditions[i] = order[i];
+        }
+        this.distancePairs = listDistancePairs(features);
+        int[] counts = new int[4];
+        for (int feature : features) {
+            counts[kindOf(feature)]++;
+        }
+        this.handBits = new int[counts[KIND_HAND]];
+        this.handLeft = new int[counts[KIND_HAND]];
+        this.handRight = new int[counts[KIND_HAND]];
+        this.distanceBits = new int[counts[KIND_DISTANCE]];
+        this.distanceLeft = new int[counts[KIND_DISTANCE]];
+        this.distanceRight = new int[counts[KIND_DISTANCE]];
+        this.nearBits = new int[counts[KIND_NEAR]];
+        this.nearPairs = new int[counts[KIND_NEAR]];
+        this.otherBits = new int[counts[KIND_OTHER]];
+        splitFeatures();
+    }
+
+    private static int kindOf(int feature) {
+        switch (GestureFeatures.op(feature)) {
+            case GestureFeatures.OP_RIGHT_HAND:
+            case GestureFeatures.OP_LEFT_HAND:
+            case GestureFeatures.OP_LESS_X:
+            case GestureFeatures.OP_LESS_Y:
+                return KIND_HAND;
+            case GestureFeatures.OP_THUMB_BENT:
+            case GestureFeatures.OP_FARTHER:
+                return KIND_DISTANCE;
+            case GestureFeatures.OP_NEAR:
+                return KIND_NEAR;
+            default:
+                return KIND_OTHER;
+        }
+    }
+
+    private void splitFeatures() {
+        int x = 0;
+        int y = 1;
+        int[] next = new int[4];
+        for (int bit = 0; bit < features.length; bit++) {
+            int feature = features[bit];
+            int a = GestureFeatures.a(feature);
+            int b = GestureFeatures.b(feature);
+            int kind = kindOf(feature);
+            int i = next[kind]++;
+            switch (GestureFeatures.op(feature)) {
+                case GestureFeatures.OP_RIGHT_HAND:
+                    setHand(i, bit, coordinate(2, x), coordinate(17, x));
+                    break;
+                case GestureFeatures.OP_LEFT_HAND:
+                    setHand(i, bit, coordinate(17, x), coordinate(2, x));
+                    break;
+                case GestureFeatures.OP_LESS_X:
+                    setHand(i, bit, coordinate(a, x), coordinate(b, x));
+                    break;
+                case GestureFeatures.OP_LESS_Y:
+                    setHand(i, bit, coordinate(a, y), coordinate(b, y));
+                    break;
+                case GestureFeatures.OP_THUMB_BENT:
+                    setDistance(i, bit, DistanceMatrix.index(4, 9), DistanceMatrix.index(3, 9));
+                    break;
+                case GestureFeatures.OP_FARTHER:
+                    // d(a, b) > d(c, d)
+                    setDistance(i, bit, DistanceMatrix.index(GestureFeatures.c(feature), GestureFeatures.d(feature)),
+                            DistanceMatrix.index(a, b));
+                    break;
+                case GestureFeatures.OP_NEAR:
+                    nearBits[i] = bit;
+                    nearPairs[i] = DistanceMatrix.index(a, b);
+                    break;
+                default:
+                    otherBits[i] = bit;
+                    break;
+            }
+        }
+    }
+
+    private static int coordinate(int landmark, int dimension) {
+        return landmark * HandLandmarks.DIMENSIONS + dimension;
+    }
+
+    private void setHand(int i, int bit, int left, int right) {
+        handBits[i] = bit;
+        handLeft[i] = left;
+        handRight[i] = right;
+    }
+
+    private void setDistance(int i, int bit, int left, int right) {
+        distanceBits[i] = bit;
+        distanceLeft[i] = left;
+        distanceRight[i] = right;
+    }
+
+    private static int[] listDistancePairs(int[] features) {
+        boolean[] used = new boolean[HandLandmarks.LANDMARK_COUNT * HandLandmarks.LANDMARK_COUNT];
+        for (int feature : features) {
+            GestureFeatures.addDistancePairs(feature, used);
+        }
+        int count = 0;
+        for (boolean pair : used) {
+            if (pair) {
+                count++;
+            }
+        }
+        int[] pairs = new int[count];
+        count = 0;
+        for (int pair = 0; pair < used.length; pair++) {
+            if (used[pair]) {
+                pairs[count++] = pair;
+            }
+        }
+        return pairs;
+    }
+
+    private static int wordsFor(int featureCount) {
+        return Math.max(1, (featureCount + 63) >>> 6);
+    }
+
+    /**
+     * The compile method turns a rule set into a decision table. The features that split the rules
+     * the best are chosen greedily as key of the table and get the lowest bits, the rest follow in
+     * the order they appear on the rules.
+     *
+     * @param ruleSet rules to compile
+     * @return the compiled table
+     */
+    public static DecisionTable compile(GestureRuleSet ruleSet) {
+        List<Integer> order = new ArrayList<>();
+        for (GestureRule rule : ruleSet.rules()) {
+            for (int i = 0; i < rule.conditionCount(); i++) {
+                if (!order.contains(rule.feature(i))) {
+                    order.add(rule.feature(i));
+                }
+            }
+        }
+        List<Integer> key = chooseKey(ruleSet, order);
+        order.removeAll(key);
+        order.addAll(0, key);
+
+        int[] features = new int[order.size()];
+        Map<Integer, Integer> bitOf = new HashMap<>();
+        for (int bit = 0; bit < features.length; bit++) {
+            features[bit] = order.get(bit);
+            bitOf.put(features[bit], bit);
+        }
+
+        int words = wordsFor(features.length);
+        int ruleCount = ruleSet.size();
+        int[] gestures = new int[ruleCount];
+        long[] masks = new long[ruleCount * words];
+        long[] values = new long[ruleCount * words];
+        for (int r = 0; r < ruleCount; r++) {
+            GestureRule rule = ruleSet.rules().get(r);
+            gestures[r] = rule.gesture();
+            for (int i = 0; i < rule.conditionCount(); i++) {
+                int bit = bitOf.get(rule.feature(i));
+                int word = r * words + (bit >>> 6);
+                masks[word] |= 1L << bit;
+                if (rule.expected(i)) {
+                    values[word] |= 1L << bit;
+                }
+            }
+        }
+        return new DecisionTable(ruleSet.name(), features, gestures, masks, values, key.size(),
+                ruleSet.nearDistance());
+    }
+
+    /**
+     * Greedy choice of the key features. On each step it adds the feature that leaves the
+     * smallest longest bucket (and then the smallest total of rules over all the buckets), and it
+     * stops when that feature does not make the buckets smaller on average, or when
+     * {@link #MAX_KEY_BITS} is reached.
+     */
+    private static List<Integer> chooseKey(GestureRuleSet ruleSet, List<Integer> candidates) {
+        List<GestureRule> rules = ruleSet.rules();
+        int ruleCount = rules.size();
+        // Mask and value of each rule over the key chosen so far, and how many of its conditions are in it
+        int[] keyMasks = new int[ruleCount];
+        int[] keyValues = new int[ruleCount];
+        int[] covered = new int[ruleCount];
+        List<Integer> key = new ArrayList<>();
+        long[] current = bucketCost(rules, keyMasks, keyValues, covered, 0);
+        while (key.size() < MAX_KEY_BITS) {
+            int bestFeature = -1;
+            long[] best = null;
+            for (int feature : candidates) {
+                if (key.contains(feature)) {
+                    continue;
+                }
+                int bit = 1 << key.size();
+                int[] masks = keyMasks.clone();
+                int[] values = keyValues.clone();
+                int[] counts = covered.clone();
+                addToKey(rules, feature, bit, masks, values, counts);
+                long[] cost = bucketCost(rules, masks, values, counts, key.size() + 1);
+                if (best == null || cost[0] < best[0] || (cost[0] == best[0] && cost[1] < best[1])) {
+                    best = cost;
+                    bestFeature = feature;
+                }
+            }
+            // One more bit doubles the number of buckets, so the total has to grow less than twice
+            if (best == null || (best[0] >= current[0] && best[1] >= 2 * current[1])) {
+                break;
+            }
+            current = best;
+            addToKey(rules, bestFeature, 1 << key.size(), keyMasks, keyValues, covered);
+            key.add(bestFeature);
+        }
+        return key;
+    }
+
+    private static void addToKey(List<GestureRule> rules, int feature, int bit,
+                                 int[] masks, int[] values, int[] covered) {
+        for (int r = 0; r < rules.size(); r++) {
+            GestureRule rule = rules.get(r);
+            for (int i = 0; i < rule.conditionCount(); i++) {
+                if (rule.feature(i) == feature) {
+                    masks[r] |= bit;
+                    if (rule.expected(i)) {
+                        values[r] |= bit;
+                    }
+                    covered[r]++;
+                }
+            }
+        }
+    }
+
+    // Longest bucket and total of rules over all the buckets for a key of the given size
+    private static long[] bucketCost(List<GestureRule> rules, int[] masks, int[] values,
+                                     int[] covered, int keyBits) {
+        long longest = 0;
+        long total = 0;
+        for (int key = 0; key < 1 << keyBits; key++) {
+            int size = 0;
+            for (int r = 0; r < rules.size(); r++) {
+                if ((key & masks[r]) == values[r]) {
+                    size++;
+                    if (covered[r] == rules.get(r).conditionCount()) {
+                        break;
+                    }
+                }
+            }
+            longest = Math.max(longest, size);
+            total += size;
+        }
+        return new long[]{longest, total};
+    }
+
+    private int[] buildBuckets() {
+        long keyMask = (1L << keyBits) - 1;
+        int ruleCount = gestures.length;
+        int[] rules = new int[16];
+        int size = 0;
+        for (int key = 0; key <= (int) keyMask; key++) {
+            bucketStart[key] = size;
+            for (int r = 0; r < ruleCount; r++) {
+                long keyPartMask = masks[r * words] & keyMask;
+                if ((key & keyPartMask) != (values[r * words] & keyPartMask)) {
+                    continue; // this rule can never match with this key
+                }
+                if (size == rules.length) {
+                    rules = Arrays.copyOf(rules, size * 2);
+                }
+                rules[size++] = r;
+                if (onlyUsesKeyBits(r, keyMask)) {
+                    break; // this rule always matches with this key, the next ones are never reached
+                }
+            }
+        }
+        bucketStart[(int) keyMask + 1] = size;
+        return Arrays.copyOf(rules, size);
+    }
+
+    private float[] buildOutsideBounds() {
+        long keyMask = (1L << keyBits) - 1;
+        float[] bounds = new float[(int) keyMask + 1];
+        boolean[] inBucket = new boolean[gestures.length];
+        for (int key = 0; key <= (int) keyMask; key++) {
+            for (int i = bucketStart[key]; i < bucketStart[key + 1]; i++) {
+                inBucket[bucketRules[i]] = true;
+            }
+            float bound = -1;
+            for (int r = 0; r < gestures.length; r++) {
+                if (!inBucket[r]) {
+                    long failed = (key ^ values[r * words]) & masks[r * words] & keyMask;
+                    bound = Math.max(bound, 1 - Long.bitCount(failed) * conditionWeights[r]);
+                }
+            }
+            bounds[key] = bound;
+            for (int i = bucketStart[key]; i < bucketStart[key + 1]; i++) {
+                inBucket[bucketRules[i]] = false;
+            }
+        }
+        return bounds;
+    }
+
+    private boolean onlyUsesKeyBits(int rule, long keyMask) {
+        if ((masks[rule * words] & ~keyMask) != 0) {
+            return false;
+        }
+        for (int w = 1; w < words; w++) {
+            if (masks[rule * words + w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return distance under which two landmarks are near, see
+     * {@link GestureRuleSet#nearDistance()}
+     */
+    public double nearDistance() {
+        return nearDistance;
+    }
+
+    /**
+     * @return number of longs needed by the bitmask passed to {@link #extract} and {@link #lookup}
+     */
+    public int words() {
+        return words;
+    }
+
+    public int featureCount() {
+        return features.length;
+    }
+
+    /**
+     * @param bit bit of the bitmask
+     * @return encoded feature stored on that bit
+     */
+    public int feature(int bit) {
+        return features[bit];
+    }
+
+    public int ruleCount() {
+        return gestures.length;
+    }
+
+    public int gesture(int rule) {
+        return gestures[rule];
+    }
+
+    long mask(int rule, int word) {
+        return masks[rule * words + word];
+    }
+
+    long value(int rule, int word) {
+        return values[rule * words + word];
+    }
+
+    int keyBits() {
+        return keyBits;
+    }
+
+    /**
+     * @return a new bitmask big enough for the features of this table
+     */
+    public long[] newBitmask() {
+        return new long[words];
+    }
+
+    /**
+     * @return a new distance matrix covering the pairs of landmarks used by this table
+     */
+    public DistanceMatrix newDistanceMatrix() {
+        return new DistanceMatrix(distancePairs);
+    }
+
+    /**
+     * The extract method evaluates every feature of the table on a hand. The distances needed by
+     * the features are computed first, once, into the matrix.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @param distances matrix created by {@link #newDistanceMatrix()}
+     * @param bits bitmask of {@link #words()} longs where the results are stored
+     */
+    public void extract(float[] hand, DistanceMatrix distances, long[] bits) {
+        distances.fill(hand);
+        double[] squared = distances.values();
+        for (int w = 0; w < words; w++) {
+            bits[w] = 0;
+        }
+        // Branch free: the comparison gives 0 or 1, shifted to the bit of the feature
+        for (int i = 0; i < handBits.length; i++) {
+            int bit = handBits[i];
+            bits[bit >>> 6] |= (hand[handLeft[i]] < hand[handRight[i]] ? 1L : 0L) << bit;
+        }
+        for (int i = 0; i < distanceBits.length; i++) {
+            int bit = distanceBits[i];
+            bits[bit >>> 6] |= (squared[distanceLeft[i]] < squared[distanceRight[i]] ? 1L : 0L) << bit;
+        }
+        for (int i = 0; i < nearBits.length; i++) {
+            int bit = nearBits[i];
+            bits[bit >>> 6] |= (squared[nearPairs[i]] < nearSquared ? 1L : 0L) << bit;
+        }
+        for (int bit : otherBits) {
+            if (GestureFeatures.evaluate(features[bit], hand, distances, nearSquared)) {
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * The lookup method finds the first rule matching the features.
+     *
+     * @param bits bitmask filled by {@link #extract}
+     * @return code of the gesture, or {@link Gestures#NO_GESTURE} when no rule matches
+     */
+    public int lookup(long[] bits) {
+        int key = (int) (bits[0] & ((1L << keyBits) - 1));
+        for (int i = bucketStart[key], end = bucketStart[key + 1]; i < end; i++) {
+            int rule = bucketRules[i];
+            if (matches(rule, bits)) {
+                return gestures[rule];
+            }
+        }
+        return Gestures.NO_GESTURE;
+    }
+
+    /**
+     * The score method finds the gestures whose rules match the features the best. The top gesture
+     * is the one {@link #lookup} returns, with a score of 1, when a rule matches; the others tell
+     * which letters were close, for example M against N, and by how much.
+     *
+     * @param bits bitmask filled by {@link #extract}
+     * @param scores where the best gestures are kept, cleared first
+     * @return number of rules scored, the others could not overtake the runner-up
+     */
+    public int score(long[] bits, GestureScores scores) {
+        scores.clear();
+        long keyMask = (1L << keyBits) - 1;
+        int key = (int) (bits[0] & keyMask);
+        int start = bucketStart[key];
+        int end = bucketStart[key + 1];
+        for (int i = start; i < end; i++) {
+            scoreRule(bucketRules[i], bits, scores);
+        }
+        int scored = end - start;
+        float outside = outsideBounds[key];
+        if (outside <= scores.runnerUp()) {
+            return scored;
+        }
+        // Below 1 every other rule fails a condition of the key at least
+        boolean failsOne = outside < 1;
+        // The bucket has the rules that agree with the key, in order, up to this one
+        int lastInBucket = end > start ? bucketRules[end - 1] : -1;
+        for (int rule : rulesByConditions) {
+            if (failsOne && 1 - conditionWeights[rule] <= scores.runnerUp()) {
+                break;
+            }
+            int offset = rule * words;
+            if (rule <= lastInBucket && ((key ^ values[offset]) & masks[offset] & keyMask) == 0) {
+                continue;
+            }
+            scoreRule(rule, bits, scores);
+            scored++;
+        }
+        return scored;
+    }
+
+    private void scoreRule(int rule, long[] bits, GestureScores scores) {
+        int offset = rule * words;
+        int failed = 0;
+        for (int w = 0; w < words; w++) {
+            failed += Long.bitCount((bits[w] ^ values[offset + w]) & masks[offset + w]);
+        }
+        float score = 1 - failed * conditionWeights[rule];
+        if (score > scores.threshold()) {
+            scores.offer(gestures[rule], score);
+        }
+    }
+
+    /**
+     * @return true when every condition of the rule holds on the bitmask
+     */
+    boolean matches(int rule, long[] bits) {
+        int offset = rule * words;
+        for (int w = 0; w < words; w++) {
+            if ((bits[w] & masks[offset + w]) != values[offset + w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the longest number of rules checked for any key, useful to see how well the
+     * table splits the rules
+     */
+    int longestBucket() {
+        int longest = 0;
+        for (int key = 0; key + 1 < bucketStart.length; key++) {
+            longest = Math.max(longest, bucketStart[key + 1] - bucketStart[key]);
+        }
+        return longest;
+    }
+}
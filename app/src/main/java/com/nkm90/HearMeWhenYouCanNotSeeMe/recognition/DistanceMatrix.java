@@ -0,0 +1,92 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Squared distances between the landmarks of one hand, in a reusable 21 x 21 matrix.
+ *
+ * <p>The matrix is filled once per frame, and only for the pairs of landmarks the rules actually
+ * use, so each distance is computed a single time however many rules check it. The values are
+ * kept squared: every rule compares distances with each other or with a fixed threshold, and
+ * comparing the squares gives the same answer without calling {@link Math#sqrt}.
+ *
+ * <p>An instance belongs to one thread, like the bitmask of the {@link DecisionTable}.
+ */
+public final class DistanceMatrix {
+
+    private static final int SIZE = HandLandmarks.LANDMARK_COUNT;
+
+    private final double[] squared = new double[SIZE * SIZE];
+    // Pairs to fill, encoded as a * 21 + b with a < b
+    private final int[] pairs;
+    // Position of the X of the two landmarks of each pair on the hand array
+    private final int[] firsts;
+    private final int[] seconds;
+    // Pairs encoded the other way round, b * 21 + a, so the matrix stays symmetric
+    private final int[] mirrors;
+
+    /**
+     * @param pairs pairs of landmarks to compute, encoded with {@link #pair(int, int)}
+     */
+    public DistanceMatrix(int[] pairs) {
+        this.pairs = pairs.clone();
+        this.firsts = new int[pairs.length];
+        this.seconds = new int[pairs.length];
+        this.mirrors = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            int a = pairs[i] / SIZE;
+            int b = pairs[i] % SIZE;
+            firsts[i] = a * HandLandmarks.DIMENSIONS;
+            seconds[i] = b * HandLandmarks.DIMENSIONS;
+            mirrors[i] = b * SIZE + a;
+        }
+    }
+
+    /**
+     * @return the code of a pair of landmarks, the same whatever their order
+     */
+    public static int pair(int a, int b) {
+        return Math.min(a, b) * SIZE + Math.max(a, b);
+    }
+
+    public int pairCount() {
+        return pairs.length;
+    }
+
+    /**
+     * The fill method computes the squared distance of every pair on the hand.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     */
+    public void fill(float[] hand) {
+        double[] matrix = squared;
+        for (int i = 0; i < pairs.length; i++) {
+            int a = firsts[i];
+            int b = seconds[i];
+            double dx = hand[a] - hand[b];
+            double dy = hand[a + 1] - hand[b + 1];
+            double distance = dx * dx + dy * dy;
+            matrix[pairs[i]] = distance;
+            matrix[mirrors[i]] = distance;
+        }
+    }
+
+    /**
+     * @return squared distance between landmarks a and b, as computed by the last {@link #fill}
+     */
+    public double get(int a, int b) {
+        return squared[a * SIZE + b];
+    }
+
+    /**
+     * @return position of the distance between landmarks a and b on {@link #values()}
+     */
+    static int index(int a, int b) {
+        return a * SIZE + b;
+    }
+
+    /**
+     * @return the squared distances, read without a call per distance on the hot path
+     */
+    double[] values() {
+        return squared;
+    }
+}
@@ -0,0 +1,150 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic time warping between two paths of the same number of 2D points, with the pruning used to
+ * match a path against many templates on every frame.
+ *
+ * <p>The paths are float arrays with X and Y interleaved and the cost of matching two points is
+ * their squared distance. The warping is limited to a Sakoe-Chiba band, which also gives the
+ * envelope of each template for LB_Keogh: a lower bound of the distance that costs one pass over
+ * the path, so most templates are discarded without computing the distance. When the distance is
+ * computed it is abandoned as soon as a whole row of the matrix is over the best distance found so
+ * far. None of the methods allocate, the rows are passed in by the caller.
+ */
+public final class Dtw {
+
+    private Dtw() {
+    }
+
+    /**
+     * Moves a path so its mean is on the origin and scales it so its root mean square distance to
+     * the origin is 1, so the paths are compared by their shape only.
+     *
+     * @param path X and Y of each point, interleaved
+     * @param length number of points
+     * @return the root mean square distance before scaling, the size of the path
+     */
+    public static float normalize(float[] path, int length) {
+        float meanX = 0;
+        float meanY = 0;
+        for (int i = 0; i < length; i++) {
+            meanX += path[2 * i];
+            meanY += path[2 * i + 1];
+        }
+        meanX /= length;
+        meanY /= length;
+        float squares = 0;
+        for (int i = 0; i < length; i++) {
+            path[2 * i] -= meanX;
+            path[2 * i + 1] -= meanY;
+            squares += path[2 * i] * path[2 * i] + path[2 * i + 1] * path[2 * i + 1];
+        }
+        float size = (float) Math.sqrt(squares / length);
+        if (size > 0) {
+            for (int i = 0; i < 2 * length; i++) {
+                path[i] /= size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Computes the envelope of a template for {@link #lowerBound}: the smallest and biggest X and
+     * Y of the points each point can be matched with inside the band.
+     *
+     * @param template X and Y of each point, interleaved
+     * @param length number of points
+     * @param band maximum distance between the indexes of two matched points
+     * @param upper biggest X and Y around each point, interleaved
+     * @param lower smallest X and Y around each point, interleaved
+     */
+    public static void envelope(float[] template, int length, int band, float[] upper, float[] lower) {
+        for (int i = 0; i < length; i++) {
+            int from = Math.max(0, i - band);
+            int to = Math.min(length - 1, i + band);
+            for (int d = 0; d < 2; d++) {
+                float max = Float.NEGATIVE_INFINITY;
+                float min = Float.POSITIVE_INFINITY;
+                for (int j = from; j <= to; j++) {
+                    max = Math.max(max, template[2 * j + d]);
+                    min = Math.min(min, template[2 * j + d]);
+                }
+                upper[2 * i + d] = max;
+                lower[2 * i + d] = min;
+            }
+        }
+    }
+
+    /**
+     * LB_Keogh lower bound of the distance between a path and a template: every point of the path
+     * is matched with at least one point inside the band, so it costs at least its squared
+     * distance to the envelope. The sum stops as soon as it reaches the best distance.
+     *
+     * @return a value smaller than or equal to the distance, or at least best when it was abandoned
+     */
+    public static float lowerBound(float[] path, float[] upper, float[] lower, int length, float best) {
+        float sum = 0;
+        for (int i = 0; i < 2 * length; i++) {
+            float value = path[i];
+            float out = value > upper[i] ? value - upper[i] : value < lower[i] ? lower[i] - value : 0;
+            sum += out * out;
+            if (sum >= best) {
+                return sum;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The distance method computes the warping distance, the smallest sum of the squared distances
+     * of the matched points.
+     *
+     * @param path X and Y of each point, interleaved
+     * @param template X and Y of each point, interleaved
+     * @param length number of points of both
+     * @param band maximum distance between the indexes of two matched points
+     * @param best distance to beat, the computation is abandoned once it cannot be beaten
+     * @param previous row of at least length floats
+     * @param current row of at least length floats
+     * @return the distance, or {@link Float#POSITIVE_INFINITY} when it was abandoned
+     */
+    public static float distance(float[] path, float[] template, int length, int band, float best,
+                                 float[] previous, float[] current) {
+        float[] above = previous;
+        float[] row = current;
+        for (int i = 0; i < length; i++) {
+            int from = Math.max(0, i - band);
+            int to = Math.min(length - 1, i + band);
+            Arrays.fill(row, 0, length, Float.POSITIVE_INFINITY);
+            float rowMin = Float.POSITIVE_INFINITY;
+            float x = path[2 * i];
+            float y = path[2 * i + 1];
+            for (int j = from; j <= to; j++) {
+                float dx = x - template[2 * j];
+                float dy = y - template[2 * j + 1];
+                float cost = dx * dx + dy * dy;
+                float before;
+                if (i == 0) {
+                    before = j == 0 ? 0 : row[j - 1];
+                } else {
+                    before = above[j];
+                    if (j > 0) {
+                        before = Math.min(before, Math.min(row[j - 1], above[j - 1]));
+                    }
+                }
+                float total = cost + before;
+                row[j] = total;
+                rowMin = Math.min(rowMin, total);
+            }
+            if (rowMin >= best) {
+                return Float.POSITIVE_INFINITY;
+            }
+            float[] swap = above;
+            above = row;
+            row = swap;
+        }
+        return above[length - 1];
+    }
+}
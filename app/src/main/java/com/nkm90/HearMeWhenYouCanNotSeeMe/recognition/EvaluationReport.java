@@ -0,0 +1,143 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Result of a {@link CorpusEvaluator} run: the confusion matrix between the labels of the frames
+ * and the gestures recognised, the throughput and the latency of each frame.
+ */
+public class EvaluationReport {
+
+    private final String name;
+    // confusion[expected * Gestures.COUNT + actual]
+    private final int[] confusion;
+    private final long[] sortedLatencies;
+    private final long nanos;
+
+    EvaluationReport(String name, int[] confusion, long[] latencies, long nanos) {
+        this.name = name;
+        this.confusion = confusion;
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(sortedLatencies);
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return number of frames labelled as expected and recognised as actual
+     */
+    public int confusion(int expected, int actual) {
+        return confusion[expected * Gestures.COUNT + actual];
+    }
+
+    /**
+     * @return number of frames labelled as the gesture
+     */
+    public int frames(int expected) {
+        int frames = 0;
+        for (int actual = 0; actual < Gestures.COUNT; actual++) {
+            frames += confusion(expected, actual);
+        }
+        return frames;
+    }
+
+    public int frames() {
+        return sortedLatencies.length;
+    }
+
+    /**
+     * @return fraction of the frames labelled as the gesture that were recognised as it, or NaN
+     * when there are no such frames
+     */
+    public double accuracy(int expected) {
+        int frames = frames(expected);
+        return frames == 0 ? Double.NaN : (double) confusion(expected, expected) / frames;
+    }
+
+    /**
+     * @return fraction of all the frames that were recognised as their label
+     */
+    public double accuracy() {
+        int correct = 0;
+        for (int gesture = 0; gesture < Gestures.COUNT; gesture++) {
+            correct += confusion(gesture, gesture);
+        }
+        return frames() == 0 ? Double.NaN : (double) correct / frames();
+    }
+
+    public double framesPerSecond() {
+        return nanos == 0 ? 0 : frames() * 1e9 / nanos;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return latency of the classification of one frame at that percentile, in nanoseconds
+     */
+    public long latencyPercentile(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))];
+    }
+
+    /**
+     * Method that writes the report as text: the totals, one line per labelled gesture with its
+     * accuracy and the gestures it was confused with, and the full confusion matrix.
+     *
+     * @param out where the text is written
+     * @throws IOException when writing fails
+     */
+    public void format(Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "%s: %d frames, accuracy %.2f%%, %.0f frames/s%n",
+                name, frames(), accuracy() * 100, framesPerSecond()));
+        out.append(String.format(Locale.ROOT, "latency p50 %d ns, p90 %d ns, p99 %d ns, max %d ns%n",
+                latencyPercentile(50), latencyPercentile(90), latencyPercentile(99), latencyPercentile(100)));
+        for (int expected = 0; expected < Gestures.COUNT; expected++) {
+            int frames = frames(expected);
+            if (frames == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%-16s %6d frames %7.2f%%",
+                    Gestures.label(expected), frames, accuracy(expected) * 100));
+            for (int actual = 0; actual < Gestures.COUNT; actual++) {
+                if (actual != expected && confusion(expected, actual) > 0) {
+                    out.append("  ").append(Gestures.label(actual)).append(':')
+                            .append(String.valueOf(confusion(expected, actual)));
+                }
+            }
+            out.append(System.lineSeparator());
+        }
+        // Matrix with one row per label and one column per gesture, "." for zero
+        out.append("    ");
+        for (int actual = 0; actual < Gestures.COUNT; actual++) {
+            out.append(String.format(Locale.ROOT, "%5s", shortLabel(actual)));
+        }
+        out.append(System.lineSeparator());
+        for (int expected = 0; expected < Gestures.COUNT; expected++) {
+            if (frames(expected) == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%-4s", shortLabel(expected)));
+            for (int actual = 0; actual < Gestures.COUNT; actual++) {
+                int count = confusion(expected, actual);
+                out.append(String.format(Locale.ROOT, "%5s", count == 0 ? "." : String.valueOf(count)));
+            }
+            out.append(System.lineSeparator());
+        }
+    }
+
+    private static String shortLabel(int gesture) {
+        switch (gesture) {
+            case Gestures.SPACE:
+                return "SP";
+            case Gestures.NO_GESTURE:
+                return "?";
+            case Gestures.NO_HAND:
+                return "-";
+            default:
+                return Gestures.label(gesture);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Turns a dump written by {@link FrameTracer#dump} back into readable text, one line per frame
+ * followed by one line per hand with its landmarks.
+ *
+ * <p>It can be run on the development machine after pulling the dump from the phone:
+ * <pre>
+ * java com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.FrameTraceDecoder frame_trace.bin
+ * </pre>
+ */
+public final class FrameTraceDecoder {
+
+    private FrameTraceDecoder() {
+    }
+
+    /**
+     * Method that decodes a dump and writes it as text.
+     *
+     * @param in stream with the dump
+     * @param out where the text is written
+     * @return number of frames decoded
+     * @throws IOException when the stream fails or the bytes are not a frame trace dump
+     */
+    public static int decode(InputStream in, Appendable out) throws IOException {
+        ByteBuffer dump = ByteBuffer.wrap(readFully(in)).order(ByteOrder.LITTLE_ENDIAN);
+        if (dump.remaining() < FrameTracer.HEADER_BYTES || dump.getInt() != FrameTracer.MAGIC) {
+            throw new IOException("Not a frame trace dump");
+        }
+        int version = dump.getInt();
+        int recordBytes = dump.getInt();
+        int count = dump.getInt();
+        if (version != FrameTracer.VERSION || recordBytes != FrameTracer.RECORD_BYTES) {
+            throw new IOException("Unsupported frame trace version " + version);
+        }
+        if (dump.remaining() < (long) count * recordBytes) {
+            throw new IOException("Truncated frame trace dump");
+        }
+        for (int frame = 0; frame < count; frame++) {
+            int start = dump.position();
+            long timestamp = dump.getLong();
+            int gesture = dump.getInt();
+            int handCount = dump.getInt();
+            out.append(String.format(Locale.ROOT, "[TS:%d] gesture=%s hands=%d%n",
+                    timestamp, gestureLabel(gesture), handCount));
+            for (int hand = 0; hand < handCount && hand < LandmarkFrame.MAX_HANDS; hand++) {
+                out.append("\thand[").append(String.valueOf(hand)).append("]:");
+                for (int landmark = 0; landmark < HandLandmarks.LANDMARK_COUNT; landmark++) {
+                    out.append(String.format(Locale.ROOT, " %d(%.4f, %.4f, %.4f)",
+                            landmark, dump.getFloat(), dump.getFloat(), dump.getFloat()));
+                }
+                out.append(System.lineSeparator());
+            }
+            dump.position(start + recordBytes);
+        }
+        return count;
+    }
+
+    private static String gestureLabel(int gesture) {
+        return gesture >= 0 && gesture < Gestures.COUNT ? Gestures.label(gesture) : "#" + gesture;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            bytes.write(chunk, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: FrameTraceDecoder <frame_trace.bin>");
+            System.exit(1);
+        }
+        Writer out = new OutputStreamWriter(System.out, "UTF-8");
+        try (InputStream in = new FileInputStream(args[0])) {
+            decode(in, out);
+        }
+        out.flush();
+    }
+}
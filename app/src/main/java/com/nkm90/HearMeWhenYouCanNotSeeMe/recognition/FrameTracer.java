@@ -0,0 +1,118 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size ring buffer that keeps the last frames seen by the recognition, so they can be
+ * inspected when something goes wrong without logging anything on every frame.
+ *
+ * <p>Each frame is stored in binary form in a direct (off-heap) buffer: the timestamp, the
+ * gesture code chosen, the number of hands and the raw landmark floats of every hand. Recording
+ * a frame only copies primitive values, no String is built and no object is created. When the
+ * buffer is full the oldest frame is overwritten.
+ *
+ * <p>{@link #dump(OutputStream)} writes the frames to a stream, from the oldest to the newest,
+ * and {@link FrameTraceDecoder} turns such a dump back into readable text.
+ */
+public class FrameTracer {
+
+    /** First bytes of a dump, "HMTR". */
+    static final int MAGIC = 0x484D5452;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    // timestamp (long), gesture code (int), hand count (int) and the landmarks of every hand
+    static final int RECORD_BYTES = 8 + 4 + 4 + LandmarkFrame.MAX_HANDS * HandLandmarks.HAND_SIZE * 4;
+
+    private final ByteBuffer records;
+    private final int capacity;
+    // Number of frames recorded since the creation, the next record goes to written % capacity
+    private long written;
+
+    /**
+     * @param capacity number of frames kept in the buffer
+     */
+    public FrameTracer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of frames currently kept in the buffer
+     */
+    public synchronized int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    /**
+     * The record method stores one frame and the gesture chosen for it. Only the hands present on
+     * the frame are copied, the floats of the missing hands are left as they were.
+     *
+     * @param frame landmarks of the frame
+     * @param gesture code of the gesture chosen for the frame
+     */
+    public synchronized void record(LandmarkFrame frame, int gesture) {
+        int position = (int) (written % capacity) * RECORD_BYTES;
+        ByteBuffer buffer = records;
+        buffer.putLong(position, frame.timestamp());
+        buffer.putInt(position + 8, gesture);
+        buffer.putInt(position + 12, frame.handCount());
+        position += 16;
+        for (int handIndex = 0; handIndex < frame.handCount(); handIndex++) {
+            float[] hand = frame.hand(handIndex);
+            for (int i = 0; i < HandLandmarks.HAND_SIZE; i++) {
+                buffer.putFloat(position, hand[i]);
+                position += 4;
+            }
+        }
+        written++;
+    }
+
+    /**
+     * Method that writes every frame kept in the buffer to the stream, from the oldest to the
+     * newest, after a small header. The frames are copied while holding the lock and written
+     * after it is released, so the recording thread is not blocked by the stream.
+     *
+     * @param out stream where the dump is written, it is not closed
+     * @return number of frames written
+     * @throws IOException when the stream fails
+     */
+    public int dump(OutputStream out) throws IOException {
+        byte[] data;
+        int count;
+        synchronized (this) {
+            count = size();
+            data = new byte[HEADER_BYTES + count * RECORD_BYTES];
+            ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(count);
+            int oldest = (int) ((written - count) % capacity);
+            ByteBuffer source = records.duplicate();
+            // From the oldest record to the end of the buffer, then from the start of the buffer
+            int firstPart = Math.min(count, capacity - oldest);
+            source.position(oldest * RECORD_BYTES);
+            source.get(data, HEADER_BYTES, firstPart * RECORD_BYTES);
+            source.position(0);
+            source.get(data, HEADER_BYTES + firstPart * RECORD_BYTES, (count - firstPart) * RECORD_BYTES);
+        }
+        out.write(data);
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Forgets every frame recorded so far.
+     */
+    public synchronized void clear() {
+        written = 0;
+    }
+}
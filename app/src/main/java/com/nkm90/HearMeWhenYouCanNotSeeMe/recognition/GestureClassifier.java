@@ -0,0 +1,99 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Rule based classifier for the sign language alphabet. It takes one hand stored as a primitive
+ * float array (see {@link HandLandmarks}) and returns the code of the letter for that gesture
+ * (see {@link Gestures}).
+ *
+ * <p>The rules are compiled into a {@link DecisionTable}: the distances the rules need are computed
+ * once into a {@link DistanceMatrix}, the features of the hand are evaluated once into a bitmask
+ * and the letters are scored from it (see {@link DecisionTable#score}), so besides the letter the
+ * classifier knows by how much it won over the next one. The class does not depend on Android or
+ * MediaPipe, and classifying a hand does not create any object, so it can run on every camera frame
+ * and it can be tested on the development machine. An instance keeps its own bitmask and matrix, so
+ * it must only be used from one thread at a time.
+ *
+ * <p>Created with {@link RulePacks} it follows the pack of the active language: when another pack
+ * is selected the next hand is classified with it, and only then the bitmask and matrix are
+ * created again for the new table.
+ */
+public class GestureClassifier implements HandClassifier {
+
+    private final RulePacks packs;
+    private DecisionTable table;
+    private DistanceMatrix distances;
+    private long[] bits;
+    private final GestureScores scores = new GestureScores(2);
+
+    /**
+     * Creates a classifier with the American Sign Language rules.
+     */
+    public GestureClassifier() {
+        this(AslRules.table());
+    }
+
+    public GestureClassifier(DecisionTable table) {
+        this.packs = null;
+        use(table);
+    }
+
+    /**
+     * Creates a classifier with the table of the selected pack, which is loaded on the first hand.
+     */
+    public GestureClassifier(RulePacks packs) {
+        this.packs = packs;
+    }
+
+    private void use(DecisionTable table) {
+        this.table = table;
+        this.distances = table.newDistanceMatrix();
+        this.bits = table.newBitmask();
+    }
+
+    /**
+     * @return the table used for the last hand, or the one of the selected pack
+     */
+    public DecisionTable table() {
+        return packs == null ? table : packs.table();
+    }
+
+    /**
+     * The classify method takes the different position of the points obtained from MediaPipe for
+     * one hand in post to return the code of the letter for that gesture.
+     *
+     * @param landmarks float array with the 21 landmarks of the hand, laid out as in {@link HandLandmarks}
+     * @return code of the letter, or {@link Gestures#NO_GESTURE} when no letter matches
+     */
+    @Override
+    public int classify(float[] landmarks) {
+        return classify(landmarks, scores);
+    }
+
+    /**
+     * @return margin of the last hand classified, see {@link GestureScores#margin()}
+     */
+    @Override
+    public float margin() {
+        return scores.margin();
+    }
+
+    /**
+     * Classifies a hand and keeps the letters that came closest, with their scores, so the caller
+     * can see how sure the result is (see {@link DecisionTable#score}).
+     *
+     * @param landmarks float array with the 21 landmarks of the hand, laid out as in {@link HandLandmarks}
+     * @param scores where the best letters are kept
+     * @return code of the letter, the same as {@link #classify(float[])}
+     */
+    public int classify(float[] landmarks, GestureScores scores) {
+        if (packs != null) {
+            DecisionTable selected = packs.table();
+            if (selected != table) {
+                use(selected);
+            }
+        }
+        table.extract(landmarks, distances, bits);
+        table.score(bits, scores);
+        return scores.best();
+    }
+}
@@ -0,0 +1,290 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * The boolean predicates the letter rules are made of, for example "the index finger is straight
+ * up" or "landmark 4 is near landmark 6".
+ *
+ * <p>A feature is encoded in a single int: the operation in the high bits and up to four landmark
+ * numbers of 5 bits each in the low bits. This way the features of a rule set can be stored in
+ * primitive arrays, compared and written to a file without creating objects.
+ */
+public final class GestureFeatures {
+
+    /** X of the base of the thumb (2) is smaller than X of the base of the pinky (17). */
+    public static final int OP_RIGHT_HAND = 1;
+    /** X of the base of the thumb (2) is bigger than X of the base of the pinky (17). */
+    public static final int OP_LEFT_HAND = 2;
+    /** The wrist (0) is below the base of the thumb (2), and this one below the base of the pinky (17). */
+    public static final int OP_PALM_VERTICAL = 3;
+    /** The palm is not vertical, the wrist is below 17 and 17 is not above 2. */
+    public static final int OP_PALM_INCLINED = 4;
+    /** The joints of the finger starting on knuckle A go up one after the other. */
+    public static final int OP_FINGER_UP = 5;
+    /** The finger starting on knuckle A is not up and its tip is closer to the wrist than its knuckle. */
+    public static final int OP_FINGER_DOWN = 6;
+    /** The tip of the thumb (4) is closer to the base of the middle finger (9) than the thumb joint 3. */
+    public static final int OP_THUMB_BENT = 7;
+    /** X of landmark A is smaller than X of landmark B. */
+    public static final int OP_LESS_X = 8;
+    /** Y of landmark A is smaller than Y of landmark B, so A is above B. */
+    public static final int OP_LESS_Y = 9;
+    /**
+     * The distance between landmarks A and B is smaller than the near distance of the rule set,
+     * {@link #NEAR_DISTANCE} by default.
+     */
+    public static final int OP_NEAR = 10;
+    /** The distance between landmarks A and B is bigger than the distance between C and D. */
+    public static final int OP_FARTHER = 11;
+
+    static final int OP_COUNT = 12;
+
+    /** Default distance under which two landmarks are considered near, in normalised image units. */
+    public static final double NEAR_DISTANCE = 0.1;
+    static final double NEAR_DISTANCE_SQUARED = NEAR_DISTANCE * NEAR_DISTANCE;
+
+    private static final int LANDMARK_BITS = 5;
+    private static final int LANDMARK_MASK = (1 << LANDMARK_BITS) - 1;
+    private static final int OP_SHIFT = 4 * LANDMARK_BITS;
+
+    private GestureFeatures() {
+    }
+
+    /**
+     * Method that encodes a feature into an int.
+     *
+     * @param op one of the OP_ constants
+     * @param a first landmark
+     * @param b second landmark
+     * @param c third landmark
+     * @param d fourth landmark
+     * @return the encoded feature
+     */
+    public static int encode(int op, int a, int b, int c, int d) {
+        if (op <= 0 || op >= OP_COUNT) {
+            throw new IllegalArgumentException("Unknown feature operation " + op);
+        }
+        checkLandmark(a);
+        checkLandmark(b);
+        checkLandmark(c);
+        checkLandmark(d);
+        return op << OP_SHIFT | a << 3 * LANDMARK_BITS | b << 2 * LANDMARK_BITS | c << LANDMARK_BITS | d;
+    }
+
+    private static void checkLandmark(int landmark) {
+        if (landmark < 0 || landmark >= HandLandmarks.LANDMARK_COUNT) {
+            throw new IllegalArgumentException("Landmark out of range: " + landmark);
+        }
+    }
+
+    public static int rightHand() {
+        return encode(OP_RIGHT_HAND, 0, 0, 0, 0);
+    }
+
+    public static int leftHand() {
+        return encode(OP_LEFT_HAND, 0, 0, 0, 0);
+    }
+
+    public static int palmVertical() {
+        return encode(OP_PALM_VERTICAL, 0, 0, 0, 0);
+    }
+
+    public static int palmInclined() {
+        return encode(OP_PALM_INCLINED, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param knuckle landmark at the base of the finger: 5, 9, 13 or 17
+     */
+    public static int fingerUp(int knuckle) {
+        checkKnuckle(knuckle);
+        return encode(OP_FINGER_UP, knuckle, 0, 0, 0);
+    }
+
+    /**
+     * @param knuckle landmark at the base of the finger: 5, 9, 13 or 17
+     */
+    public static int fingerDown(int knuckle) {
+        checkKnuckle(knuckle);
+        return encode(OP_FINGER_DOWN, knuckle, 0, 0, 0);
+    }
+
+    private static void checkKnuckle(int knuckle) {
+        if (knuckle != HandLandmarks.INDEX_MCP && knuckle != HandLandmarks.MIDDLE_MCP
+                && knuckle != HandLandmarks.RING_MCP && knuckle != HandLandmarks.PINKY_MCP) {
+            throw new IllegalArgumentException("Not the knuckle of a finger: " + knuckle);
+        }
+    }
+
+    public static int thumbBent() {
+        return encode(OP_THUMB_BENT, 0, 0, 0, 0);
+    }
+
+    public static int lessX(int a, int b) {
+        return encode(OP_LESS_X, a, b, 0, 0);
+    }
+
+    public static int lessY(int a, int b) {
+        return encode(OP_LESS_Y, a, b, 0, 0);
+    }
+
+    /**
+     * Two landmarks being near does not depend on the order, so the smallest one goes first and
+     * near(4, 8) and near(8, 4) are the same feature.
+     */
+    public static int near(int a, int b) {
+        return encode(OP_NEAR, Math.min(a, b), Math.max(a, b), 0, 0);
+    }
+
+    public static int farther(int a, int b, int c, int d) {
+        return encode(OP_FARTHER, a, b, c, d);
+    }
+
+    public static int op(int feature) {
+        return feature >>> OP_SHIFT;
+    }
+
+    public static int a(int feature) {
+        return feature >>> 3 * LANDMARK_BITS & LANDMARK_MASK;
+    }
+
+    public static int b(int feature) {
+        return feature >>> 2 * LANDMARK_BITS & LANDMARK_MASK;
+    }
+
+    public static int c(int feature) {
+        return feature >>> LANDMARK_BITS & LANDMARK_MASK;
+    }
+
+    public static int d(int feature) {
+        return feature & LANDMARK_MASK;
+    }
+
+    /**
+     * Method that lists the pairs of landmarks whose distance is needed to evaluate a feature.
+     *
+     * @param feature encoded feature
+     * @param pairs array of 21 x 21 flags, the pairs used are set to true
+     */
+    static void addDistancePairs(int feature, boolean[] pairs) {
+        int a = a(feature);
+        switch (op(feature)) {
+            case OP_FINGER_DOWN:
+                pairs[DistanceMatrix.pair(a + 3, 0)] = true;
+                pairs[DistanceMatrix.pair(a, 0)] = true;
+                break;
+            case OP_THUMB_BENT:
+                pairs[DistanceMatrix.pair(4, 9)] = true;
+                pairs[DistanceMatrix.pair(3, 9)] = true;
+                break;
+            case OP_NEAR:
+                pairs[DistanceMatrix.pair(a, b(feature))] = true;
+                break;
+            case OP_FARTHER:
+                pairs[DistanceMatrix.pair(a, b(feature))] = true;
+                pairs[DistanceMatrix.pair(c(feature), d(feature))] = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * The evaluate method checks one feature on a hand. The distances are read from the matrix,
+     * which must have been filled for this hand with at least the pairs given by
+     * {@link #addDistancePairs}.
+     *
+     * @param feature encoded feature
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @param distances squared distances of the hand
+     * @return true when the predicate holds for the hand
+     */
+    public static boolean evaluate(int feature, float[] hand, DistanceMatrix distances) {
+        return evaluate(feature, hand, distances, NEAR_DISTANCE_SQUARED);
+    }
+
+    /**
+     * Same as {@link #evaluate(int, float[], DistanceMatrix)} with another near distance.
+     *
+     * @param nearSquared square of the distance under which two landmarks are near
+     */
+    static boolean evaluate(int feature, float[] hand, DistanceMatrix distances, double nearSquared) {
+        int a = a(feature);
+        int b = b(feature);
+        switch (op(feature)) {
+            case OP_RIGHT_HAND:
+                return x(hand, 2) < x(hand, 17);
+            case OP_LEFT_HAND:
+                return x(hand, 2) > x(hand, 17);
+            case OP_PALM_VERTICAL:
+                return isPalmVertical(hand);
+            case OP_PALM_INCLINED:
+                return !isPalmVertical(hand) && y(hand, 0) > y(hand, 17) && y(hand, 17) >= y(hand, 2);
+            case OP_FINGER_UP:
+                return isFingerUp(hand, a);
+            case OP_FINGER_DOWN:
+                return !isFingerUp(hand, a) && distances.get(a + 3, 0) < distances.get(a, 0);
+            case OP_THUMB_BENT:
+                return distances.get(4, 9) < distances.get(3, 9);
+            case OP_LESS_X:
+                return x(hand, a) < x(hand, b);
+            case OP_LESS_Y:
+                return y(hand, a) < y(hand, b);
+            case OP_NEAR:
+                return distances.get(a, b) < nearSquared;
+            case OP_FARTHER:
+                return distances.get(a, b) > distances.get(c(feature), d(feature));
+            default:
+                throw new IllegalArgumentException("Unknown feature " + feature);
+        }
+    }
+
+    private static boolean isPalmVertical(float[] hand) {
+        return y(hand, 0) > y(hand, 2) && y(hand, 2) > y(hand, 17);
+    }
+
+    private static boolean isFingerUp(float[] hand, int knuckle) {
+        return y(hand, knuckle + 3) < y(hand, knuckle + 2)
+                && y(hand, knuckle + 2) < y(hand, knuckle + 1)
+                && y(hand, knuckle + 1) < y(hand, knuckle);
+    }
+
+    private static float x(float[] hand, int landmark) {
+        return hand[landmark * HandLandmarks.DIMENSIONS];
+    }
+
+    private static float y(float[] hand, int landmark) {
+        return hand[landmark * HandLandmarks.DIMENSIONS + 1];
+    }
+
+    /**
+     * @return readable form of the feature, for example "lessY(8,5)"
+     */
+    public static String toString(int feature) {
+        switch (op(feature)) {
+            case OP_RIGHT_HAND:
+                return "rightHand";
+            case OP_LEFT_HAND:
+                return "leftHand";
+            case OP_PALM_VERTICAL:
+                return "palmVertical";
+            case OP_PALM_INCLINED:
+                return "palmInclined";
+            case OP_FINGER_UP:
+                return "fingerUp(" + a(feature) + ")";
+            case OP_FINGER_DOWN:
+                return "fingerDown(" + a(feature) + ")";
+            case OP_THUMB_BENT:
+                return "thumbBent";
+            case OP_LESS_X:
+                return "lessX(" + a(feature) + "," + b(feature) + ")";
+            case OP_LESS_Y:
+                return "lessY(" + a(feature) + "," + b(feature) + ")";
+            case OP_NEAR:
+                return "near(" + a(feature) + "," + b(feature) + ")";
+            case OP_FARTHER:
+                return "farther(" + a(feature) + "," + b(feature) + "," + c(feature) + "," + d(feature) + ")";
+            default:
+                return "#" + feature;
+        }
+    }
+}
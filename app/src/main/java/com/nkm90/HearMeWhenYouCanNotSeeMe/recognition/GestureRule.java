@@ -0,0 +1,201 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definition of one letter: the gesture code it returns and the features (see
+ * {@link GestureFeatures}) that must be true or false for it to match. Rules are only a
+ * description, they are compiled into a {@link DecisionTable} before being used on the frames.
+ */
+public final class GestureRule {
+
+    private final int gesture;
+    private final int[] features;
+    private final boolean[] expected;
+
+    private GestureRule(int gesture, int[] features, boolean[] expected) {
+        this.gesture = gesture;
+        this.features = features;
+        this.expected = expected;
+    }
+
+    /**
+     * @param gesture code returned when the rule matches, see {@link Gestures}
+     * @return builder to add the conditions of the rule
+     */
+    public static Builder builder(int gesture) {
+        return new Builder(gesture);
+    }
+
+    public int gesture() {
+        return gesture;
+    }
+
+    public int conditionCount() {
+        return features.length;
+    }
+
+    /**
+     * @param index number of the condition
+     * @return encoded feature tested by the condition
+     */
+    public int feature(int index) {
+        return features[index];
+    }
+
+    /**
+     * @param index number of the condition
+     * @return value the feature must have for the rule to match
+     */
+    public boolean expected(int index) {
+        return expected[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(Gestures.label(gesture)).append(':');
+        for (int i = 0; i < features.length; i++) {
+            text.append(' ').append(expected[i] ? "" : "!").append(GestureFeatures.toString(features[i]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Builder with one method for each kind of condition used on the letter rules. The comparisons
+     * with "or equal" are stored as the negation of the strict comparison, so for example
+     * x(4) >= x(8) and x(4) < x(8) share the same feature.
+     */
+    public static final class Builder {
+
+        private final int gesture;
+        private final List<Integer> features = new ArrayList<>();
+        private final List<Boolean> expected = new ArrayList<>();
+
+        private Builder(int gesture) {
+            if (gesture < 0 || gesture >= Gestures.COUNT) {
+                throw new IllegalArgumentException("Unknown gesture " + gesture);
+            }
+            this.gesture = gesture;
+        }
+
+        /** The feature must be true. */
+        public Builder is(int feature) {
+            return add(feature, true);
+        }
+
+        /** The feature must be false. */
+        public Builder not(int feature) {
+            return add(feature, false);
+        }
+
+        private Builder add(int feature, boolean value) {
+            int index = features.indexOf(feature);
+            if (index >= 0) {
+                if (expected.get(index) != value) {
+                    throw new IllegalArgumentException("Contradictory conditions on "
+                            + GestureFeatures.toString(feature) + " for " + Gestures.label(gesture));
+                }
+                return this;
+            }
+            features.add(feature);
+            expected.add(value);
+            return this;
+        }
+
+        public Builder rightHand() {
+            return is(GestureFeatures.rightHand());
+        }
+
+        public Builder palmVertical() {
+            return is(GestureFeatures.palmVertical());
+        }
+
+        public Builder palmInclined() {
+            return is(GestureFeatures.palmInclined());
+        }
+
+        public Builder up(int knuckle) {
+            return is(GestureFeatures.fingerUp(knuckle));
+        }
+
+        public Builder notUp(int knuckle) {
+            return not(GestureFeatures.fingerUp(knuckle));
+        }
+
+        public Builder down(int knuckle) {
+            return is(GestureFeatures.fingerDown(knuckle));
+        }
+
+        public Builder thumbOpen() {
+            return not(GestureFeatures.thumbBent());
+        }
+
+        public Builder thumbBent() {
+            return is(GestureFeatures.thumbBent());
+        }
+
+        /** x(a) &lt; x(b) */
+        public Builder xLess(int a, int b) {
+            return is(GestureFeatures.lessX(a, b));
+        }
+
+        /** x(a) &gt; x(b) */
+        public Builder xGreater(int a, int b) {
+            return is(GestureFeatures.lessX(b, a));
+        }
+
+        /** x(a) &lt;= x(b) */
+        public Builder xLessOrEqual(int a, int b) {
+            return not(GestureFeatures.lessX(b, a));
+        }
+
+        /** x(a) &gt;= x(b) */
+        public Builder xGreaterOrEqual(int a, int b) {
+            return not(GestureFeatures.lessX(a, b));
+        }
+
+        /** y(a) &lt; y(b), landmark a is above landmark b */
+        public Builder yLess(int a, int b) {
+            return is(GestureFeatures.lessY(a, b));
+        }
+
+        /** y(a) &gt; y(b), landmark a is below landmark b */
+        public Builder yGreater(int a, int b) {
+            return is(GestureFeatures.lessY(b, a));
+        }
+
+        /** y(a) &lt;= y(b) */
+        public Builder yLessOrEqual(int a, int b) {
+            return not(GestureFeatures.lessY(b, a));
+        }
+
+        /** y(a) &gt;= y(b) */
+        public Builder yGreaterOrEqual(int a, int b) {
+            return not(GestureFeatures.lessY(a, b));
+        }
+
+        public Builder near(int a, int b) {
+            return is(GestureFeatures.near(a, b));
+        }
+
+        public Builder notNear(int a, int b) {
+            return not(GestureFeatures.near(a, b));
+        }
+
+        /** distance(a, b) &gt; distance(c, d) */
+        public Builder farther(int a, int b, int c, int d) {
+            return is(GestureFeatures.farther(a, b, c, d));
+        }
+
+        public GestureRule build() {
+            int[] featureArray = new int[features.size()];
+            boolean[] expectedArray = new boolean[features.size()];
+            for (int i = 0; i < featureArray.length; i++) {
+                featureArray[i] = features.get(i);
+                expectedArray[i] = expected.get(i);
+            }
+            return new GestureRule(gesture, featureArray, expectedArray);
+        }
+    }
+}
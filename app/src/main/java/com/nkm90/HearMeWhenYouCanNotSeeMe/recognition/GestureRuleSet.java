@@ -0,0 +1,51 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered list of {@link GestureRule}. When more than one rule matches a hand, the first one on
+ * the list wins, the same way the old if/else chain did. The set also has the distance under which
+ * two landmarks are near for its near() conditions.
+ */
+public final class GestureRuleSet {
+
+    private final String name;
+    private final List<GestureRule> rules;
+    private final double nearDistance;
+
+    public GestureRuleSet(String name, List<GestureRule> rules) {
+        this(name, rules, GestureFeatures.NEAR_DISTANCE);
+    }
+
+    /**
+     * @param name name of the set, for example "asl"
+     * @param rules rules in the order they are checked
+     * @param nearDistance distance under which two landmarks are near, in normalised image units
+     */
+    public GestureRuleSet(String name, List<GestureRule> rules, double nearDistance) {
+        if (!(nearDistance > 0)) {
+            throw new IllegalArgumentException("Near distance must be positive: " + nearDistance);
+        }
+        this.name = name;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.nearDistance = nearDistance;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<GestureRule> rules() {
+        return rules;
+    }
+
+    public double nearDistance() {
+        return nearDistance;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * The best scored gestures of one hand, filled by {@link DecisionTable#score}.
+ *
+ * <p>The score of a rule is the fraction of its conditions that hold on the hand, 1 when the rule
+ * matches, and the score of a gesture is the best score of its rules. The k best gestures are kept
+ * in preallocated arrays from best to worst, so filling them on every frame does not create any
+ * object. When several rules match, the gesture of the first one comes first, as with
+ * {@link DecisionTable#lookup}.
+ *
+ * <p>The leader, the runner-up and so the {@link #margin()} are exact. The scoring stops once no
+ * other rule can overtake the runner-up, so from the third gesture on the list only has the best
+ * of the rules that were scored.
+ */
+public final class GestureScores {
+
+    private final int[] gestures;
+    private final float[] scores;
+    private int count;
+
+    /**
+     * @param k number of gestures kept, at least 2 for the leader and the runner-up
+     */
+    public GestureScores(int k) {
+        if (k < 2) {
+            throw new IllegalArgumentException("k must be at least 2: " + k);
+        }
+        this.gestures = new int[k];
+        this.scores = new float[k];
+    }
+
+    public int capacity() {
+        return gestures.length;
+    }
+
+    /**
+     * @return number of gestures kept, smaller than the capacity only when the table has fewer gestures
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param rank position, 0 for the best gesture
+     * @return code of the gesture on that position
+     */
+    public int gesture(int rank) {
+        return gestures[rank];
+    }
+
+    /**
+     * @param rank position, 0 for the best gesture
+     * @return score of the gesture on that position, between 0 and 1
+     */
+    public float score(int rank) {
+        return scores[rank];
+    }
+
+    /**
+     * @return code of the best gesture when its rule matches, or {@link Gestures#NO_GESTURE}
+     */
+    public int best() {
+        return count > 0 && scores[0] == 1f ? gestures[0] : Gestures.NO_GESTURE;
+    }
+
+    /**
+     * @return difference between the scores of the two best gestures, 0 when they tie and 1 when
+     * only one gesture was scored
+     */
+    public float margin() {
+        if (count == 0) {
+            return 0;
+        }
+        return count == 1 ? 1 : scores[0] - scores[1];
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return score a gesture has to exceed to be kept, -1 while fewer than k gestures are kept
+     */
+    float threshold() {
+        return count < gestures.length ? -1 : scores[count - 1];
+    }
+
+    /**
+     * @return score a gesture has to exceed to change the leader or the margin, -1 while there is
+     * no runner-up
+     */
+    float runnerUp() {
+        return count < 2 ? -1 : scores[1];
+    }
+
+    /**
+     * Keeps the gesture when its score is better than the ones kept, or than its own earlier score.
+     */
+    void offer(int gesture, float score) {
+        int position = count;
+        for (int i = 0; i < count; i++) {
+            if (gestures[i] == gesture) {
+                if (scores[i] >= score) {
+                    return;
+                }
+                // Moves up from its old position
+                position = i;
+                break;
+            }
+        }
+        if (position == count) {
+            if (count < gestures.length) {
+                count++;
+            } else if (score <= scores[count - 1]) {
+                return;
+            } else {
+                position = count - 1;
+            }
+        }
+        while (position > 0 && scores[position - 1] < score) {
+            gestures[position] = gestures[position - 1];
+            scores[position] = scores[position - 1];
+            position--;
+        }
+        gestures[position] = gesture;
+        scores[position] = score;
+    }
+}
@@ -0,0 +1,81 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Integer codes for the results of the gesture recognition. The recognition code works with
+ * these codes on the hot path so that no String has to be created or compared per frame, and
+ * the labels are only looked up when something has to be shown on the screen.
+ */
+public final class Gestures {
+
+    /** Codes 0 to 25 are the letters A to Z. */
+    public static final int A = 0;
+    public static final int Z = 25;
+    public static final int SPACE = 26;
+    public static final int NO_GESTURE = 27;
+    public static final int NO_HAND = 28;
+
+    /** Number of different codes, useful to size arrays indexed by code. */
+    public static final int COUNT = 29;
+
+    private static final String[] LABELS = new String[COUNT];
+
+    static {
+        for (int code = A; code <= Z; code++) {
+            LABELS[code] = String.valueOf((char) ('A' + code));
+        }
+        LABELS[SPACE] = "SPACE";
+        LABELS[NO_GESTURE] = "no gesture";
+        LABELS[NO_HAND] = "No hand detected";
+    }
+
+    private Gestures() {
+    }
+
+    /**
+     * Method that returns the letter code for a given character.
+     *
+     * @param letter char between 'A' and 'Z' (lower case is accepted too)
+     * @return letter code
+     */
+    public static int ofLetter(char letter) {
+        char upper = Character.toUpperCase(letter);
+        if (upper < 'A' || upper > 'Z') {
+            throw new IllegalArgumentException("Not a letter: " + letter);
+        }
+        return upper - 'A';
+    }
+
+    /**
+     * Method that returns the code for a label as it is returned by {@link #label(int)}.
+     *
+     * @param label String with the letter, "SPACE", "no gesture" or "No hand detected"
+     * @return the code, or -1 when the label is unknown
+     */
+    public static int ofLabel(String label) {
+        for (int code = 0; code < COUNT; code++) {
+            if (LABELS[code].equals(label)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The label method returns the String shown to the user for a code. The Strings are created
+     * once, so calling this method does not allocate.
+     *
+     * @param code gesture code
+     * @return String with the letter, "SPACE", "no gesture" or "No hand detected"
+     */
+    public static String label(int code) {
+        return LABELS[code];
+    }
+
+    /**
+     * @param code gesture code
+     * @return true when the code is a letter or SPACE, so it can be added to the sentence
+     */
+    public static boolean isCommittable(int code) {
+        return code >= A && code <= SPACE;
+    }
+}
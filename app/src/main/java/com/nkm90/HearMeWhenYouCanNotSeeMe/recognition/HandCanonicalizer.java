@@ -0,0 +1,83 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Moves a hand into a canonical frame before it is classified, so the rules do not depend on
+ * where the hand is on the image, how far it is from the camera, how much it is tilted or which
+ * hand it is.
+ *
+ * <p>The palm axis goes from the wrist (0) to the knuckle of the middle finger (9). The hand is
+ * translated so the wrist is at the origin, scaled so the palm axis is
+ * {@link #REFERENCE_PALM_LENGTH} long, and rotated so the palm axis points exactly in the nearest
+ * multiple of 45 degrees. Snapping to the nearest direction removes the tilt but keeps the
+ * orientation class of the hand, because some letters, like G or H, only differ from others by
+ * being inclined. Left hands are mirrored first, so they end in the frame of a right hand and the
+ * same rules serve both.
+ *
+ * <p>Everything is done in place on the float array, without creating objects.
+ */
+public final class HandCanonicalizer {
+
+    /**
+     * Palm length of the canonical hand, in normalised image units. It is about the size of a hand
+     * at arm's length from the front camera, the size the fixed distances of the rules, like
+     * {@link GestureFeatures#NEAR_DISTANCE}, were tuned with.
+     */
+    public static final float REFERENCE_PALM_LENGTH = 0.25f;
+
+    private static final double SNAP_ANGLE = Math.PI / 4;
+    // Palms shorter than this, in normalised image units, are tracking errors and left as they are
+    private static final float MIN_PALM_LENGTH = 1e-4f;
+
+    private HandCanonicalizer() {
+    }
+
+    /**
+     * Method that tells if a hand is a left hand. The thumb is on the left of the palm axis for a
+     * right hand seen with the palm facing the camera, whatever the rotation, so the sign of the
+     * cross product between the palm axis and the line from the thumb base (2) to the pinky base
+     * (17) gives the hand.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @return true for a left hand
+     */
+    public static boolean isLeftHand(float[] hand) {
+        float axisX = HandLandmarks.x(hand, HandLandmarks.MIDDLE_MCP) - HandLandmarks.x(hand, HandLandmarks.WRIST);
+        float axisY = HandLandmarks.y(hand, HandLandmarks.MIDDLE_MCP) - HandLandmarks.y(hand, HandLandmarks.WRIST);
+        float acrossX = HandLandmarks.x(hand, HandLandmarks.PINKY_MCP) - HandLandmarks.x(hand, HandLandmarks.THUMB_MCP);
+        float acrossY = HandLandmarks.y(hand, HandLandmarks.PINKY_MCP) - HandLandmarks.y(hand, HandLandmarks.THUMB_MCP);
+        return axisX * acrossY - axisY * acrossX < 0f;
+    }
+
+    /**
+     * The canonicalize method moves the hand into the canonical frame, in place.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @return false when the palm is too small to be measured, the hand is then left as it was
+     */
+    public static boolean canonicalize(float[] hand) {
+        float wristX = HandLandmarks.x(hand, HandLandmarks.WRIST);
+        float wristY = HandLandmarks.y(hand, HandLandmarks.WRIST);
+        float axisX = HandLandmarks.x(hand, HandLandmarks.MIDDLE_MCP) - wristX;
+        float axisY = HandLandmarks.y(hand, HandLandmarks.MIDDLE_MCP) - wristY;
+        double palm = Math.sqrt(axisX * axisX + axisY * axisY);
+        if (!(palm > MIN_PALM_LENGTH)) {
+            return false;
+        }
+        float mirror = isLeftHand(hand) ? -1f : 1f;
+        // Angle of the palm axis once mirrored, and the rotation that snaps it to the nearest 45 degrees
+        double angle = Math.atan2(axisY, mirror * axisX);
+        double rotation = Math.rint(angle / SNAP_ANGLE) * SNAP_ANGLE - angle;
+        double scale = REFERENCE_PALM_LENGTH / palm;
+        float cos = (float) (Math.cos(rotation) * scale);
+        float sin = (float) (Math.sin(rotation) * scale);
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            int offset = i * HandLandmarks.DIMENSIONS;
+            float dx = mirror * (hand[offset] - wristX);
+            float dy = hand[offset + 1] - wristY;
+            hand[offset] = dx * cos - dy * sin;
+            hand[offset + 1] = dx * sin + dy * cos;
+            hand[offset + 2] = (float) (hand[offset + 2] * scale);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Something that recognises the gesture made by one hand. The rules ({@link GestureClassifier})
+ * and the templates ({@link KnnClassifier}) both implement it, so {@link MultiHandClassifier} and
+ * the rest of the pipeline do not depend on which one is used.
+ *
+ * <p>An instance keeps its own working arrays, so it must only be used from one thread at a time.
+ */
+public interface HandClassifier {
+
+    /**
+     * @param landmarks float array with the 21 landmarks of the hand, laid out as in {@link HandLandmarks}
+     * @return code of the gesture, or {@link Gestures#NO_GESTURE} when none is recognised
+     */
+    int classify(float[] landmarks);
+
+    /**
+     * @return how far the gesture of the last hand classified is ahead of the next one, from 0 when
+     * two gestures tie to 1 when nothing else comes close
+     */
+    float margin();
+}
@@ -0,0 +1,64 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Layout of a hand inside a primitive float array. MediaPipe gives 21 landmarks for each hand
+ * and each landmark has X, Y and Z values, so one hand is stored as 63 floats:
+ * {@code x0, y0, z0, x1, y1, z1, ..., x20, y20, z20}.
+ *
+ * <p>Landmark numbers follow the MediaPipe hand model: 0 is the wrist, 1-4 the thumb,
+ * 5-8 the index finger, 9-12 the middle finger, 13-16 the ring finger and 17-20 the pinky.
+ */
+public final class HandLandmarks {
+
+    public static final int LANDMARK_COUNT = 21;
+    public static final int DIMENSIONS = 3;
+    public static final int HAND_SIZE = LANDMARK_COUNT * DIMENSIONS;
+
+    public static final int WRIST = 0;
+    public static final int THUMB_CMC = 1;
+    public static final int THUMB_MCP = 2;
+    public static final int THUMB_TIP = 4;
+    public static final int INDEX_MCP = 5;
+    public static final int INDEX_TIP = 8;
+    public static final int MIDDLE_MCP = 9;
+    public static final int MIDDLE_TIP = 12;
+    public static final int RING_MCP = 13;
+    public static final int RING_TIP = 16;
+    public static final int PINKY_MCP = 17;
+    public static final int PINKY_TIP = 20;
+
+    private HandLandmarks() {
+    }
+
+    /**
+     * @return a new float array big enough for one hand
+     */
+    public static float[] newHand() {
+        return new float[HAND_SIZE];
+    }
+
+    public static float x(float[] hand, int landmark) {
+        return hand[landmark * DIMENSIONS];
+    }
+
+    public static float y(float[] hand, int landmark) {
+        return hand[landmark * DIMENSIONS + 1];
+    }
+
+    public static float z(float[] hand, int landmark) {
+        return hand[landmark * DIMENSIONS + 2];
+    }
+
+    /**
+     * Method to write the X, Y and Z values of one landmark into the hand array.
+     *
+     * @param hand float array with the hand
+     * @param landmark number of the landmark
+     */
+    public static void set(float[] hand, int landmark, float x, float y, float z) {
+        int offset = landmark * DIMENSIONS;
+        hand[offset] = x;
+        hand[offset + 1] = y;
+        hand[offset + 2] = z;
+    }
+}
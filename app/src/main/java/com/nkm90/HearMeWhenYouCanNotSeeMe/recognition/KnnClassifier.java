@@ -0,0 +1,115 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.Arrays;
+
+/**
+ * Classifier that recognises a hand by comparing it with recorded examples of every gesture
+ * instead of hand-written rules. Adding a letter, or the left hand, is then a matter of recording
+ * it, see {@link #buildTemplates(LandmarkCorpus)}.
+ *
+ * <p>The hand is turned into a {@link PoseEmbedding} and its nearest templates are found on a
+ * {@link VpTree} with a bounded number of distance evaluations, so it stays real-time with
+ * thousands of templates. The neighbours vote for their gesture, the nearer ones with more
+ * weight, and nothing is recognised when even the nearest template is too far.
+ */
+public class KnnClassifier implements HandClassifier {
+
+    static final int DEFAULT_K = 5;
+    // Distances of 40 floats computed at most per hand, whatever the number of templates
+    static final int DEFAULT_MAX_EVALUATIONS = 256;
+    // In palm lengths, over every landmark
+    static final float DEFAULT_MAX_DISTANCE = 1.0f;
+
+    private final VpTree templates;
+    private final int maxEvaluations;
+    private final float maxDistance;
+    private final float[] embedding = new float[PoseEmbedding.DIMENSIONS];
+    private final VpTree.Neighbours neighbours;
+    private final float[] votes = new float[Gestures.COUNT];
+
+    public KnnClassifier(VpTree templates) {
+        this(templates, DEFAULT_K, DEFAULT_MAX_EVALUATIONS, DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * @param templates tree of embedded poses labelled with their gesture
+     * @param k number of neighbours that vote
+     * @param maxEvaluations maximum number of templates compared with each hand
+     * @param maxDistance distance over which the nearest template is not considered a match
+     */
+    public KnnClassifier(VpTree templates, int k, int maxEvaluations, float maxDistance) {
+        if (templates.dimensions() != PoseEmbedding.DIMENSIONS) {
+            throw new IllegalArgumentException("Templates are not pose embeddings");
+        }
+        this.templates = templates;
+        this.maxEvaluations = maxEvaluations;
+        this.maxDistance = maxDistance;
+        this.neighbours = new VpTree.Neighbours(k);
+    }
+
+    /**
+     * Method that embeds the first hand of every labelled frame of the corpus and indexes them.
+     * The frames without hands are skipped.
+     *
+     * @param corpus labelled frames
+     * @return tree of templates for the constructor
+     */
+    public static VpTree buildTemplates(LandmarkCorpus corpus) {
+        float[] vectors = new float[corpus.size() * PoseEmbedding.DIMENSIONS];
+        int[] labels = new int[corpus.size()];
+        float[] embedding = new float[PoseEmbedding.DIMENSIONS];
+        LandmarkFrame frame = new LandmarkFrame();
+        int count = 0;
+        for (int i = 0; i < corpus.size(); i++) {
+            corpus.copyTo(i, frame);
+            if (frame.handCount() == 0 || !PoseEmbedding.embed(frame.hand(0), embedding)) {
+                continue;
+            }
+            System.arraycopy(embedding, 0, vectors, count * PoseEmbedding.DIMENSIONS, PoseEmbedding.DIMENSIONS);
+            labels[count++] = corpus.label(i);
+        }
+        return VpTree.build(PoseEmbedding.DIMENSIONS,
+                Arrays.copyOf(vectors, count * PoseEmbedding.DIMENSIONS),
+                Arrays.copyOf(labels, count), 0L);
+    }
+
+    @Override
+    public int classify(float[] landmarks) {
+        if (!PoseEmbedding.embed(landmarks, embedding)) {
+            return Gestures.NO_GESTURE;
+        }
+        templates.search(embedding, maxEvaluations, neighbours);
+        if (neighbours.count() == 0 || neighbours.distance(0) > maxDistance) {
+            return Gestures.NO_GESTURE;
+        }
+        float[] weights = votes;
+        Arrays.fill(weights, 0f);
+        int best = -1;
+        for (int i = 0; i < neighbours.count(); i++) {
+            if (neighbours.distance(i) > maxDistance) {
+                break;
+            }
+            int label = neighbours.label(i);
+            weights[label] += 1f / (neighbours.distance(i) + 1e-3f);
+            if (best < 0 || weights[label] > weights[best]) {
+                best = label;
+            }
+        }
+        return best < 0 ? Gestures.NO_GESTURE : best;
+    }
+
+    /**
+     * @return always 1, the neighbours do not give a margin comparable with the one of the rules
+     */
+    @Override
+    public float margin() {
+        return 1;
+    }
+
+    /**
+     * @return number of templates compared with the last hand classified
+     */
+    public int lastEvaluations() {
+        return neighbours.evaluations();
+    }
+}
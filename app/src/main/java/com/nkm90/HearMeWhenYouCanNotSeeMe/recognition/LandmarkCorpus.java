@@ -0,0 +1,111 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A set of landmark frames labelled with the gesture really made on each of them, used to measure
+ * the accuracy of the rules with {@link CorpusEvaluator}.
+ *
+ * <p>The frames are kept in flat primitive arrays, the landmarks of the two possible hands of each
+ * frame one after the other, so a corpus of hundreds of thousands of frames is a few big arrays
+ * instead of one object per frame, and it can be split in ranges between threads.
+ */
+public class LandmarkCorpus {
+
+    private static final int FRAME_SIZE = LandmarkFrame.MAX_HANDS * HandLandmarks.HAND_SIZE;
+
+    private float[] landmarks;
+    private int[] handCounts;
+    private int[] labels;
+    private int size;
+
+    public LandmarkCorpus() {
+        landmarks = new float[64 * FRAME_SIZE];
+        handCounts = new int[64];
+        labels = new int[64];
+    }
+
+    /**
+     * Method that loads the labelled frames of session files. The frames without label are
+     * skipped.
+     *
+     * @param sessions files written by {@link SessionRecorder}
+     * @return the corpus
+     * @throws IOException when a file cannot be read
+     */
+    public static LandmarkCorpus load(File... sessions) throws IOException {
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        for (File session : sessions) {
+            try (SessionReader reader = SessionReader.open(session)) {
+                corpus.addLabelled(reader);
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Method that adds the labelled frames read from a session. The frames without label are
+     * skipped.
+     *
+     * @param session reader of the session, read until its end
+     * @throws IOException when the session is damaged
+     */
+    public void addLabelled(SessionReader session) throws IOException {
+        LandmarkFrame frame = new LandmarkFrame();
+        while (session.next(frame)) {
+            if (session.label() != SessionRecorder.UNKNOWN_LABEL) {
+                add(frame, session.label());
+            }
+        }
+    }
+
+    /**
+     * The add method copies a frame into the corpus.
+     *
+     * @param frame landmarks of the frame
+     * @param label code of the gesture made on the frame, as defined in {@link Gestures}
+     */
+    public void add(LandmarkFrame frame, int label) {
+        if (label < 0 || label >= Gestures.COUNT) {
+            throw new IllegalArgumentException("Unknown gesture label " + label);
+        }
+        if (size == labels.length) {
+            landmarks = Arrays.copyOf(landmarks, size * 2 * FRAME_SIZE);
+            handCounts = Arrays.copyOf(handCounts, size * 2);
+            labels = Arrays.copyOf(labels, size * 2);
+        }
+        for (int h = 0; h < frame.handCount(); h++) {
+            System.arraycopy(frame.hand(h), 0, landmarks, size * FRAME_SIZE + h * HandLandmarks.HAND_SIZE,
+                    HandLandmarks.HAND_SIZE);
+        }
+        handCounts[size] = frame.handCount();
+        labels[size] = label;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int label(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Method that copies a frame of the corpus into a reusable frame.
+     *
+     * @param index number of the frame
+     * @param frame where the landmarks are copied, its timestamp is set to the index
+     */
+    public void copyTo(int index, LandmarkFrame frame) {
+        int handCount = handCounts[index];
+        for (int h = 0; h < handCount; h++) {
+            System.arraycopy(landmarks, index * FRAME_SIZE + h * HandLandmarks.HAND_SIZE, frame.hand(h), 0,
+                    HandLandmarks.HAND_SIZE);
+        }
+        frame.setHandCount(handCount);
+        frame.setTimestamp(index);
+    }
+}
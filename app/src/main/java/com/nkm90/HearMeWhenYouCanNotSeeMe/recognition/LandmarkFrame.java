@@ -0,0 +1,59 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Landmarks of every hand found on one camera frame, stored in preallocated float arrays so the
+ * same instance can be filled again on each frame without creating objects. Each hand uses the
+ * layout described in {@link HandLandmarks}.
+ */
+public class LandmarkFrame {
+
+    // The multi-hand tracking graph tracks at most 2 hands
+    public static final int MAX_HANDS = 2;
+
+    private final float[][] hands = new float[MAX_HANDS][HandLandmarks.HAND_SIZE];
+    private int handCount;
+    private long timestamp;
+
+    /**
+     * @param index number of the hand, between 0 and {@link #handCount()} - 1
+     * @return float array with the landmarks of that hand
+     */
+    public float[] hand(int index) {
+        return hands[index];
+    }
+
+    public int handCount() {
+        return handCount;
+    }
+
+    public void setHandCount(int handCount) {
+        if (handCount < 0 || handCount > MAX_HANDS) {
+            throw new IllegalArgumentException("Hand count out of range: " + handCount);
+        }
+        this.handCount = handCount;
+    }
+
+    /**
+     * @return timestamp of the MediaPipe packet the landmarks come from, in microseconds
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Method that copies the hands and timestamp of another frame into this one.
+     *
+     * @param other frame to copy
+     */
+    public void copyFrom(LandmarkFrame other) {
+        handCount = other.handCount;
+        timestamp = other.timestamp;
+        for (int i = 0; i < handCount; i++) {
+            System.arraycopy(other.hands[i], 0, hands[i], 0, HandLandmarks.HAND_SIZE);
+        }
+    }
+}
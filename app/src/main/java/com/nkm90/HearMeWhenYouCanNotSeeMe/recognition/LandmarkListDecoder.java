@@ -0,0 +1,181 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Decoder for serialised {@code mediapipe.NormalizedLandmarkList} messages. Instead of building
+ * the protobuf objects for each hand just to read 63 floats, it walks the protobuf wire format
+ * and writes the X, Y and Z values straight into the float arrays of a {@link LandmarkFrame}.
+ *
+ * <p>The messages it understands are:
+ * <pre>
+ * message NormalizedLandmark { float x = 1; float y = 2; float z = 3; ... }
+ * message NormalizedLandmarkList { repeated NormalizedLandmark landmark = 1; }
+ * </pre>
+ * Any other field (for example visibility or presence in newer MediaPipe versions) is skipped.
+ *
+ * <p>An instance keeps the read position while decoding, so it must only be used from one thread
+ * at a time. Decoding does not create any object.
+ */
+public class LandmarkListDecoder {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private static final int FIELD_LANDMARK = 1;
+    private static final int FIELD_X = 1;
+    private static final int FIELD_Y = 2;
+    private static final int FIELD_Z = 3;
+
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * The decodeFrame method decodes one serialised landmark list for each hand into the frame.
+     * Hands beyond {@link LandmarkFrame#MAX_HANDS} are ignored.
+     *
+     * @param serializedHands one serialised NormalizedLandmarkList per hand
+     * @param timestamp timestamp of the packet, in microseconds
+     * @param frame frame where the hands are stored
+     */
+    public void decodeFrame(byte[][] serializedHands, long timestamp, LandmarkFrame frame) {
+        int handCount = Math.min(serializedHands.length, LandmarkFrame.MAX_HANDS);
+        for (int i = 0; i < handCount; i++) {
+            byte[] data = serializedHands[i];
+            decode(data, 0, data.length, frame.hand(i));
+        }
+        frame.setHandCount(handCount);
+        frame.setTimestamp(timestamp);
+    }
+
+    /**
+     * Decodes one serialised NormalizedLandmarkList into a hand array. Landmarks that are not
+     * present in the message are left as 0, and landmarks after the 21st are ignored.
+     *
+     * @param data byte array with the message
+     * @param offset first byte of the message
+     * @param length number of bytes of the message
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @return number of landmarks found in the message
+     * @throws IllegalArgumentException when the bytes are not a valid message
+     */
+    public int decode(byte[] data, int offset, int length, float[] hand) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Message out of the bounds of the buffer");
+        }
+        buffer = data;
+        position = offset;
+        int end = offset + length;
+        int count = 0;
+        while (position < end) {
+            int tag = readVarint32(end);
+            if ((tag >>> 3) == FIELD_LANDMARK && (tag & 7) == WIRE_LENGTH_DELIMITED) {
+                int landmarkEnd = readLength(end);
+                if (count < HandLandmarks.LANDMARK_COUNT) {
+                    decodeLandmark(landmarkEnd, hand, count * HandLandmarks.DIMENSIONS);
+                }
+                position = landmarkEnd;
+                count++;
+            } else {
+                skipField(tag & 7, end);
+            }
+        }
+        for (int i = Math.min(count, HandLandmarks.LANDMARK_COUNT) * HandLandmarks.DIMENSIONS;
+             i < HandLandmarks.HAND_SIZE; i++) {
+            hand[i] = 0f;
+        }
+        buffer = null;
+        return count;
+    }
+
+    private void decodeLandmark(int end, float[] hand, int offset) {
+        float x = 0f;
+        float y = 0f;
+        float z = 0f;
+        while (position < end) {
+            int tag = readVarint32(end);
+            int field = tag >>> 3;
+            if ((tag & 7) == WIRE_FIXED32 && field >= FIELD_X && field <= FIELD_Z) {
+                float value = readFloat(end);
+                if (field == FIELD_X) {
+                    x = value;
+                } else if (field == FIELD_Y) {
+                    y = value;
+                } else {
+                    z = value;
+                }
+            } else {
+                skipField(tag & 7, end);
+            }
+        }
+        hand[offset] = x;
+        hand[offset + 1] = y;
+        hand[offset + 2] = z;
+    }
+
+    private int readVarint32(int end) {
+        int result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= end) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buffer[position++];
+            if (shift < 32) {
+                result |= (b & 0x7f) << shift;
+            }
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // Reads the length prefix of a length delimited field and returns where the field ends
+    private int readLength(int end) {
+        int length = readVarint32(end);
+        if (length < 0 || length > end - position) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        return position + length;
+    }
+
+    private float readFloat(int end) {
+        if (end - position < 4) {
+            throw new IllegalArgumentException("Truncated float");
+        }
+        byte[] b = buffer;
+        int p = position;
+        int bits = (b[p] & 0xff)
+                | (b[p + 1] & 0xff) << 8
+                | (b[p + 2] & 0xff) << 16
+                | (b[p + 3] & 0xff) << 24;
+        position = p + 4;
+        return Float.intBitsToFloat(bits);
+    }
+
+    private void skipField(int wireType, int end) {
+        switch (wireType) {
+            case WIRE_VARINT:
+                readVarint32(end);
+                break;
+            case WIRE_FIXED64:
+                skipBytes(8, end);
+                break;
+            case WIRE_LENGTH_DELIMITED:
+                position = readLength(end);
+                break;
+            case WIRE_FIXED32:
+                skipBytes(4, end);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private void skipBytes(int count, int end) {
+        if (end - position < count) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        position += count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Geometry helpers used by the gesture recognition. They work with primitive values only, so
+ * they can be called on every frame without creating objects.
+ */
+public final class LandmarkMath {
+
+    private LandmarkMath() {
+    }
+
+    /**
+     * The following method calculates the distance between 2 points (A and B) using euclidean distance
+     * formula.
+     *
+     * @param a_x Value of X for the given position of point A
+     * @param a_y Value of Y for the given position of point A
+     * @param b_x Value of X for the given position of point B
+     * @param b_y Value of Y for the given position of point B
+     * @return Euclidean distance result
+     */
+    public static double getEuclideanDistanceAB(double a_x, double a_y,
+                                                double b_x, double b_y) {
+        double dx = a_x - b_x;
+        double dy = a_y - b_y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * This method calculates the angle between 3 given points (A,B,C) using the angle between vectors
+     * formula. The vector 1 is made with points AB and vector 2 is made with points BC, being point B
+     * the vertex.
+     *
+     * @param a_x Value of X for the given position of A
+     * @param a_y Value of Y for the given position of A
+     * @param b_x Value of X for the given position of B
+     * @param b_y Value of Y for the given position of B
+     * @param c_x Value of X for the given position of C
+     * @param c_y Value of Y for the given position of C
+     * @return Angle in radians
+     */
+    public static double getAngleABC(double a_x, double a_y, double b_x, double b_y, double c_x, double c_y) {
+        //Vector 1 (AB)
+        double ab_x = b_x - a_x;
+        double ab_y = b_y - a_y;
+        //Vector 2 (CB)
+        double cb_x = b_x - c_x;
+        double cb_y = b_y - c_y;
+
+        double dot = (ab_x * cb_x + ab_y * cb_y);   // dot product
+        double cross = (ab_x * cb_y - ab_y * cb_x); // cross product
+
+        return Math.atan2(cross, dot);
+    }
+
+    /**
+     * Method to convert radian to degree results obtained from the getAngleABC method
+     * @param radian Value of radians to convert
+     * @return Angle in degrees
+     */
+    public static int radianToDegree(double radian) {
+        return (int) Math.floor(radian * 180. / Math.PI + 0.5);
+    }
+}
@@ -0,0 +1,126 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in microseconds, with a fixed memory and lock-free recording.
+ *
+ * <p>The values are counted in log-linear buckets: the values under 16 have a bucket each, and
+ * every power of two above is split into 16 buckets, so a percentile is off by at most half a
+ * bucket, around 3% of the value, from 1 us up to {@link #MAX_VALUE} (16.7 seconds). Bigger values
+ * go to the last bucket. The 352 counters are allocated once; recording a value is one atomic
+ * increment of its bucket plus the sum and the maximum, so it can be called from any thread on
+ * every frame. The percentiles read while values are being recorded may miss the last ones.
+ */
+public final class LatencyHistogram {
+
+    // Bits of the value below its highest bit that choose the bucket inside a power of two
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Highest power of two counted, 2^24 us
+    private static final int MAX_EXPONENT = 24;
+    /** Biggest value counted in its own bucket, in microseconds. */
+    public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        if (value > MAX_VALUE) {
+            return BUCKET_COUNT - 1;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+
+    // Middle of the values counted in the bucket
+    static long middleValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        long width = 1L << (bucket / SUB_BUCKETS - 1);
+        return lowestValue(bucket) + width / 2;
+    }
+
+    /**
+     * The record method counts one latency.
+     *
+     * @param micros latency in microseconds, negative values are counted as 0
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @param quantile between 0 and 1, for example 0.95
+     * @return the latency under which that part of the values fall, in microseconds, or 0 when
+     * nothing has been recorded
+     */
+    public long percentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(middleValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    /** @return sum of the latencies recorded, in microseconds */
+    public long sum() {
+        return sum.get();
+    }
+
+    /** @return biggest latency recorded, in microseconds */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Forgets every value. Values recorded at the same time may be kept or not.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Decides when a letter recognised on the frames is added to the sentence.
+ *
+ * <p>The gesture codes of the last frames are kept in a primitive ring buffer together with the
+ * number of votes of each code. A letter is committed as soon as it gets {@code commitVotes} of
+ * the last {@code windowSize} frames, so a few wrong frames in the middle of a sign do not change
+ * the result. After that the letter stays latched and it is not committed again until its votes
+ * go down to {@code releaseVotes} or less, which is the hysteresis that lets the user sign the
+ * same letter twice by moving the hand a little between them, without a held sign repeating.
+ *
+ * <p>The frames with no hand or no gesture also vote, so they push the old letters out of the
+ * window, but they are never committed. A frame whose gesture tied with another one (see
+ * {@link GestureScores#margin()}) only counts as half a vote, so two letters the rules cannot tell
+ * apart, such as M and N, are not committed from ties alone. Adding a frame does not create any
+ * object.
+ */
+public class LetterStabilizer {
+
+    /** Returned by {@link #add(int)} when no letter is committed on that frame. */
+    public static final int NONE = -1;
+
+    // At 30 frames per second, 6 votes out of 8 frames commit a letter in about 200 ms
+    private static final int DEFAULT_WINDOW = 8;
+    private static final int DEFAULT_COMMIT_VOTES = 6;
+    private static final int DEFAULT_RELEASE_VOTES = 2;
+    // Margin under which the gesture of a frame tied with another one
+    static final float MIN_MARGIN = 0.01f;
+    // The votes are counted in halves, a clear frame gives two and a tie one
+    private static final int FULL_VOTE = 2;
+    private static final int TIE_VOTE = 1;
+
+    private final int[] window;
+    private final int[] weights;
+    private final int[] votes = new int[Gestures.COUNT];
+    private final int commitVotes;
+    private final int releaseVotes;
+    private int next;
+    private int size;
+    private int latched = NONE;
+
+    public LetterStabilizer() {
+        this(DEFAULT_WINDOW, DEFAULT_COMMIT_VOTES, DEFAULT_RELEASE_VOTES);
+    }
+
+    /**
+     * @param windowSize number of frames taken into account
+     * @param commitVotes votes needed to commit a letter, more than half of the window
+     * @param releaseVotes votes under which a committed letter can be committed again
+     */
+    public LetterStabilizer(int windowSize, int commitVotes, int releaseVotes) {
+        if (windowSize <= 0 || commitVotes * 2 <= windowSize || commitVotes > windowSize) {
+            throw new IllegalArgumentException(
+                    "commitVotes must be a majority of the window: " + commitVotes + "/" + windowSize);
+        }
+        if (releaseVotes < 0 || releaseVotes >= commitVotes) {
+            throw new IllegalArgumentException("releaseVotes must be smaller than commitVotes");
+        }
+        this.window = new int[windowSize];
+        this.weights = new int[windowSize];
+        this.commitVotes = commitVotes * FULL_VOTE;
+        this.releaseVotes = releaseVotes * FULL_VOTE;
+    }
+
+    /**
+     * The add method takes the gesture recognised on a new frame, as a full vote.
+     *
+     * @param code gesture code of the frame, see {@link Gestures}
+     * @return the code of the letter to add to the sentence, or {@link #NONE}
+     */
+    public int add(int code) {
+        return vote(code, FULL_VOTE);
+    }
+
+    /**
+     * Takes the gesture recognised on a new frame with its margin over the next gesture.
+     *
+     * @param code gesture code of the frame, see {@link Gestures}
+     * @param margin margin of the gesture, under {@link #MIN_MARGIN} it is a tie and counts as half
+     *               a vote
+     * @return the code of the letter to add to the sentence, or {@link #NONE}
+     */
+    public int add(int code, float margin) {
+        return vote(code, margin < MIN_MARGIN ? TIE_VOTE : FULL_VOTE);
+    }
+
+    private int vote(int code, int weight) {
+        if (size == window.length) {
+            votes[window[next]] -= weights[next];
+        } else {
+            size++;
+        }
+        window[next] = code;
+        weights[next] = weight;
+        next = next + 1 == window.length ? 0 : next + 1;
+        votes[code] += weight;
+
+        if (latched != NONE && votes[latched] <= releaseVotes) {
+            latched = NONE;
+        }
+        // Only the code just added has more votes than before, so it is the only possible new winner
+        if (code != latched && Gestures.isCommittable(code) && votes[code] >= commitVotes) {
+            latched = code;
+            return code;
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the letter committed last while it is still being held, or {@link #NONE}
+     */
+    public int latched() {
+        return latched;
+    }
+
+    /**
+     * Forgets every frame, for example when the recognition starts again.
+     */
+    public void reset() {
+        for (int i = 0; i < votes.length; i++) {
+            votes[i] = 0;
+        }
+        next = 0;
+        size = 0;
+        latched = NONE;
+    }
+}
@@ -0,0 +1,239 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recognises the letters signed with a motion, J and Z, from the path of a fingertip over the last
+ * frames instead of from one still pose.
+ *
+ * <p>Each frame is added to a {@link TrajectoryBuffer}. The path of the last frames of each hand is
+ * resampled to {@link #POINTS} points, for a few window lengths so quick and slow signs are both
+ * covered, normalised (see {@link Dtw#normalize}) and matched with {@link Dtw} against every
+ * template of its fingertip. The templates are checked with the LB_Keogh lower bound first and
+ * the distance is abandoned as soon as it cannot beat the best one, so most comparisons stop early
+ * and a frame costs a few microseconds. A path smaller than {@link #MIN_SIZE} palms is a hand
+ * holding a pose and is not matched at all.
+ *
+ * <p>Once a letter is recognised the trajectory of that hand is cleared, so the same motion is not
+ * recognised again on the next frames. Classifying a frame does not create any object; an instance
+ * must only be used from one thread.
+ */
+public final class MotionClassifier {
+
+    /** Points each path is resampled to. */
+    public static final int POINTS = 24;
+    // Warping allowed between the path and a template, in points
+    static final int BAND = 4;
+    // Frames the path is taken over, from 0.5 to 1.2 seconds at 30 frames per second
+    static final int[] WINDOWS = {16, 24, 36};
+    // Biggest warping distance of a match, per point, on normalised paths
+    static final float MAX_DISTANCE_PER_POINT = 0.12f;
+    // Size of the path under which the hand is considered still, in palms
+    static final float MIN_SIZE = 0.15f;
+
+    /** A letter and the path its fingertip makes. */
+    public static final class Template {
+        final int gesture;
+        final int landmark;
+        final float[] path;
+        final float[] upper = new float[2 * POINTS];
+        final float[] lower = new float[2 * POINTS];
+
+        /**
+         * @param gesture letter of the motion
+         * @param landmark fingertip that makes the motion
+         * @param points X and Y of the points of the motion, interleaved, in image directions (Y down);
+         *               it is resampled and normalised, so only its shape matters
+         */
+        public Template(int gesture, int landmark, float[] points) {
+            this.gesture = gesture;
+            this.landmark = landmark;
+            this.path = resample(points);
+            Dtw.normalize(path, POINTS);
+            Dtw.envelope(path, POINTS, BAND, upper, lower);
+        }
+
+        public int gesture() {
+            return gesture;
+        }
+
+        // Evenly spaced along the polyline, so the template does not depend on how it was drawn
+        private static float[] resample(float[] points) {
+            int count = points.length / 2;
+            if (count < 2) {
+                throw new IllegalArgumentException("A motion needs at least two points");
+            }
+            double[] along = new double[count];
+            for (int i = 1; i < count; i++) {
+                along[i] = along[i - 1] + Math.hypot(points[2 * i] - points[2 * i - 2],
+                        points[2 * i + 1] - points[2 * i - 1]);
+            }
+            float[] path = new float[2 * POINTS];
+            int segment = 0;
+            for (int i = 0; i < POINTS; i++) {
+                double target = along[count - 1] * i / (POINTS - 1);
+                while (segment < count - 2 && along[segment + 1] < target) {
+                    segment++;
+                }
+                double length = along[segment + 1] - along[segment];
+                double weight = length == 0 ? 0 : (target - along[segment]) / length;
+                for (int d = 0; d < 2; d++) {
+                    float a = points[2 * segment + d];
+                    float b = points[2 * segment + 2 + d];
+                    path[2 * i + d] = (float) (a + (b - a) * weight);
+                }
+            }
+            return path;
+        }
+    }
+
+    private final Template[] templates;
+    private final int[] slots;
+    private final TrajectoryBuffer trajectory;
+    private final float[] path = new float[2 * POINTS];
+    private final float[] previous = new float[POINTS];
+    private final float[] current = new float[POINTS];
+    private final float maxDistance = MAX_DISTANCE_PER_POINT * POINTS;
+    private long comparisons;
+    private long pruned;
+    private long abandoned;
+
+    /**
+     * @param templates motions to recognise
+     */
+    public MotionClassifier(List<Template> templates) {
+        this.templates = templates.toArray(new Template[0]);
+        List<Integer> landmarks = new ArrayList<>();
+        for (Template template : templates) {
+            if (!landmarks.contains(template.landmark)) {
+                landmarks.add(template.landmark);
+            }
+        }
+        int[] tracked = new int[landmarks.size()];
+        for (int i = 0; i < tracked.length; i++) {
+            tracked[i] = landmarks.get(i);
+        }
+        int longest = 0;
+        for (int window : WINDOWS) {
+            longest = Math.max(longest, window);
+        }
+        this.trajectory = new TrajectoryBuffer(longest, tracked);
+        this.slots = new int[this.templates.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = trajectory.slotOf(this.templates[i].landmark);
+        }
+    }
+
+    /**
+     * Creates a classifier for the ASL J, drawn with the little finger, and Z, drawn with the index
+     * finger, each one also as seen on a mirrored camera.
+     */
+    public static MotionClassifier createDefault() {
+        List<Template> templates = new ArrayList<>();
+        // Down, then a hook towards the thumb that ends going up
+        float[] j = new float[2 * 18];
+        for (int i = 0; i < 6; i++) {
+            j[2 * i + 1] = 0.14f * i;
+        }
+        for (int i = 0; i < 12; i++) {
+            double angle = Math.PI * (i + 1) / 12;
+            j[12 + 2 * i] = (float) (-0.2 + 0.2 * Math.cos(angle));
+            j[12 + 2 * i + 1] = (float) (0.7 + 0.2 * Math.sin(angle));
+        }
+        templates.add(new Template(Gestures.ofLetter('J'), HandLandmarks.PINKY_TIP, j));
+        templates.add(new Template(Gestures.ofLetter('J'), HandLandmarks.PINKY_TIP, mirror(j)));
+        // Right, diagonal down to the left, right
+        float[] z = {0, 0, 1, 0, 0, 1, 1, 1};
+        templates.add(new Template(Gestures.ofLetter('Z'), HandLandmarks.INDEX_TIP, z));
+        templates.add(new Template(Gestures.ofLetter('Z'), HandLandmarks.INDEX_TIP, mirror(z)));
+        return new MotionClassifier(templates);
+    }
+
+    private static float[] mirror(float[] points) {
+        float[] mirrored = points.clone();
+        for (int i = 0; i < mirrored.length; i += 2) {
+            mirrored[i] = -mirrored[i];
+        }
+        return mirrored;
+    }
+
+    /**
+     * The classify method adds a frame to the trajectories and looks for a motion ending on it.
+     *
+     * @param frame landmarks of the frame
+     * @return the letter of the motion, or {@link Gestures#NO_GESTURE} when none ends on this frame
+     */
+    public int classify(LandmarkFrame frame) {
+        trajectory.add(frame);
+        for (int hand = 0; hand < frame.handCount(); hand++) {
+            int gesture = classifyHand(hand);
+            if (gesture != Gestures.NO_GESTURE) {
+                trajectory.clear(hand);
+                return gesture;
+            }
+        }
+        return Gestures.NO_GESTURE;
+    }
+
+    private int classifyHand(int hand) {
+        int size = trajectory.size(hand);
+        float best = maxDistance;
+        int gesture = Gestures.NO_GESTURE;
+        for (int window : WINDOWS) {
+            if (window > size) {
+                break;
+            }
+            int lastSlot = -1;
+            boolean moving = false;
+            for (int t = 0; t < templates.length; t++) {
+                Template template = templates[t];
+                if (slots[t] != lastSlot) {
+                    lastSlot = slots[t];
+                    float palm = trajectory.resample(hand, lastSlot, window, path, POINTS);
+                    moving = Dtw.normalize(path, POINTS) >= MIN_SIZE * palm;
+                }
+                if (!moving) {
+                    continue;
+                }
+                comparisons++;
+                if (Dtw.lowerBound(path, template.upper, template.lower, POINTS, best) >= best) {
+                    pruned++;
+                    continue;
+                }
+                float distance = Dtw.distance(path, template.path, POINTS, BAND, best, previous, current);
+                if (distance < best) {
+                    best = distance;
+                    gesture = template.gesture;
+                } else {
+                    abandoned++;
+                }
+            }
+        }
+        return gesture;
+    }
+
+    /**
+     * Forgets the trajectories, for example when the pipeline is reset.
+     */
+    public void reset() {
+        for (int hand = 0; hand < LandmarkFrame.MAX_HANDS; hand++) {
+            trajectory.clear(hand);
+        }
+    }
+
+    /** @return number of templates compared with a moving path */
+    public long comparisons() {
+        return comparisons;
+    }
+
+    /** @return comparisons discarded by the lower bound, without computing the distance */
+    public long pruned() {
+        return pruned;
+    }
+
+    /** @return distances computed that did not beat the best one, most of them abandoned early */
+    public long abandoned() {
+        return abandoned;
+    }
+}
@@ -0,0 +1,94 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Detects when the hands have not moved since the last frame that was classified, so the result
+ * of that frame can be reused instead of classifying the same pose again while a sign is held.
+ *
+ * <p>The check is the biggest change of any X or Y coordinate against the last classified pose,
+ * which is a few dozen subtractions per hand and stops at the first coordinate that moved too
+ * much. The comparison is always against the last classified pose and not against the previous
+ * frame, so a slow drift adds up and the hands are classified again once it goes over the
+ * epsilon. Z is left out, it is too noisy on a single camera.
+ */
+public class MotionGate {
+
+    // Normalised image units, about 2 pixels on a 640 pixel image
+    static final float DEFAULT_EPSILON = 0.003f;
+
+    private final float epsilon;
+    private final LandmarkFrame last = new LandmarkFrame();
+    private boolean hasLast;
+    private long frames;
+    private long skippedFrames;
+
+    public MotionGate() {
+        this(DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param epsilon biggest change of a coordinate still considered as no motion, 0 to disable
+     *                the gate except for identical frames
+     */
+    public MotionGate(float epsilon) {
+        if (epsilon < 0f) {
+            throw new IllegalArgumentException("epsilon must not be negative: " + epsilon);
+        }
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * The isStill method checks a new frame against the last classified one. It counts the frame,
+     * and counts it as skipped when it returns true.
+     *
+     * @param frame landmarks of the new frame
+     * @return true when the same hands are there and no coordinate moved more than the epsilon
+     */
+    public boolean isStill(LandmarkFrame frame) {
+        frames++;
+        if (!hasLast || frame.handCount() != last.handCount()) {
+            return false;
+        }
+        for (int h = 0; h < frame.handCount(); h++) {
+            float[] hand = frame.hand(h);
+            float[] lastHand = last.hand(h);
+            for (int i = 0; i < HandLandmarks.HAND_SIZE; i += HandLandmarks.DIMENSIONS) {
+                if (Math.abs(hand[i] - lastHand[i]) > epsilon || Math.abs(hand[i + 1] - lastHand[i + 1]) > epsilon) {
+                    return false;
+                }
+            }
+        }
+        skippedFrames++;
+        return true;
+    }
+
+    /**
+     * Keeps the frame as the last classified pose.
+     *
+     * @param frame landmarks of the frame just classified
+     */
+    public void classified(LandmarkFrame frame) {
+        last.copyFrom(frame);
+        hasLast = true;
+    }
+
+    /**
+     * @return number of frames checked
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * @return number of frames whose classification was skipped
+     */
+    public long skippedFrames() {
+        return skippedFrames;
+    }
+
+    /**
+     * Forgets the last pose, the next frame is always classified. The counters are kept.
+     */
+    public void reset() {
+        hasLast = false;
+    }
+}
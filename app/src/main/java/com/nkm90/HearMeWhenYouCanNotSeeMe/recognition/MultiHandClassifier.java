@@ -0,0 +1,208 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Classifies every hand of a {@link LandmarkFrame} on its own and then combines them.
+ *
+ * <p>Each hand has its own {@link HandClassifier}, and when two hands are present the second
+ * one is classified on a helper thread while the calling thread classifies the first one. The
+ * hand-off between the threads uses volatile counters and {@link LockSupport}, so it does not
+ * create any object per frame. The result of each hand is kept, and the pair is passed to
+ * {@link TwoHandedSigns} to recognise the signs made with both hands. The margin of the gesture
+ * returned (see {@link HandClassifier#margin()}) is kept too, so the stabilizer can give less
+ * weight to a frame where two letters tie.
+ *
+ * <p>{@link #classify(LandmarkFrame)} must always be called from the same thread, and
+ * {@link #close()} stops the helper thread.
+ */
+public class MultiHandClassifier {
+
+    private final HandClassifier[] classifiers = new HandClassifier[LandmarkFrame.MAX_HANDS];
+    private final int[] results = new int[LandmarkFrame.MAX_HANDS];
+    private final float[] margins = new float[LandmarkFrame.MAX_HANDS];
+    private final TwoHandedSigns twoHandedSigns;
+    private final Worker worker;
+    private int handCount;
+    private float margin;
+
+    /**
+     * Creates a classifier with the American Sign Language rules applied to the canonical hands
+     * (see {@link HandCanonicalizer}), so tilted and left hands are recognised too, using the
+     * helper thread when the device has more than one core.
+     */
+    public MultiHandClassifier() {
+        this(() -> new CanonicalHandClassifier(new GestureClassifier(AslRules.table())),
+                TwoHandedSigns.createDefault(), Runtime.getRuntime().availableProcessors() > 1);
+    }
+
+    /**
+     * @param table compiled rules used for every hand
+     * @param twoHandedSigns combiner for the signs made with both hands
+     * @param parallel true to classify the second hand on a helper thread
+     */
+    public MultiHandClassifier(DecisionTable table, TwoHandedSigns twoHandedSigns, boolean parallel) {
+        this(() -> new GestureClassifier(table), twoHandedSigns, parallel);
+    }
+
+    /**
+     * @param classifierFactory creates the classifier of each hand, called once per hand
+     * @param twoHandedSigns combiner for the signs made with both hands
+     * @param parallel true to classify the second hand on a helper thread
+     */
+    public MultiHandClassifier(Supplier<? extends HandClassifier> classifierFactory,
+                               TwoHandedSigns twoHandedSigns, boolean parallel) {
+        for (int i = 0; i < classifiers.length; i++) {
+            classifiers[i] = classifierFactory.get();
+        }
+        this.twoHandedSigns = twoHandedSigns;
+        if (parallel) {
+            worker = new Worker();
+            worker.start();
+        } else {
+            worker = null;
+        }
+    }
+
+    /**
+     * The classify method classifies every hand of the frame and returns the gesture of the
+     * frame: the two-handed sign when both hands make one, otherwise the first hand that gives a
+     * letter.
+     *
+     * @param frame landmarks of every hand recognised on the frame
+     * @return code of the gesture, as defined in {@link Gestures}
+     */
+    public int classify(LandmarkFrame frame) {
+        handCount = frame.handCount();
+        margin = 1;
+        if (handCount == 0) {
+            return Gestures.NO_HAND;
+        }
+        if (handCount > 1 && worker != null) {
+            worker.submit(frame.hand(1));
+            results[0] = classifiers[0].classify(frame.hand(0));
+            worker.await();
+        } else {
+            for (int i = 0; i < handCount; i++) {
+                results[i] = classifiers[i].classify(frame.hand(i));
+            }
+        }
+        // After await the helper thread is done with its classifier
+        for (int i = 0; i < handCount; i++) {
+            margins[i] = classifiers[i].margin();
+        }
+
+        if (handCount > 1) {
+            // Order the hands from left to right on the image using the wrist
+            boolean firstOnLeft = HandLandmarks.x(frame.hand(0), HandLandmarks.WRIST)
+                    <= HandLandmarks.x(frame.hand(1), HandLandmarks.WRIST);
+            int combined = firstOnLeft
+                    ? twoHandedSigns.combine(results[0], results[1])
+                    : twoHandedSigns.combine(results[1], results[0]);
+            if (combined != Gestures.NO_GESTURE) {
+                margin = Math.min(margins[0], margins[1]);
+                return combined;
+            }
+        }
+        for (int i = 0; i < handCount; i++) {
+            if (results[i] != Gestures.NO_GESTURE) {
+                margin = margins[i];
+                return results[i];
+            }
+        }
+        return Gestures.NO_GESTURE;
+    }
+
+    /**
+     * @return number of hands of the last frame classified
+     */
+    public int handCount() {
+        return handCount;
+    }
+
+    /**
+     * @param hand number of the hand on the last frame classified
+     * @return gesture recognised on that hand alone
+     */
+    public int result(int hand) {
+        return results[hand];
+    }
+
+    /**
+     * @return margin of the gesture returned for the last frame, the smaller one of both hands for
+     * a two-handed sign and 1 when no gesture was returned
+     */
+    public float margin() {
+        return margin;
+    }
+
+    /**
+     * Stops the helper thread. The classifier can still be used afterwards, without it.
+     */
+    public void close() {
+        if (worker != null) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * Helper thread that classifies the second hand. The caller increments {@code requested} and
+     * the worker sets {@code completed} to the same value when the result is ready.
+     */
+    private final class Worker extends Thread {
+
+        // The worker unparks the caller when it finishes, the timeout only matters if it was stopped
+        private static final long AWAIT_TIMEOUT_NANOS = 1000000L;
+
+        private volatile float[] hand;
+        private volatile long requested;
+        private volatile long completed;
+        private volatile boolean stopped;
+        private volatile Thread caller;
+
+        Worker() {
+            super("HandClassifier");
+            setDaemon(true);
+        }
+
+        void submit(float[] hand) {
+            caller = Thread.currentThread();
+            this.hand = hand;
+            requested++;
+            LockSupport.unpark(this);
+        }
+
+        void await() {
+            long target = requested;
+            while (completed != target) {
+                if (stopped && !isAlive()) {
+                    // The worker is gone, classify the hand on this thread
+                    results[1] = classifiers[1].classify(hand);
+                    completed = target;
+                    return;
+                }
+                LockSupport.parkNanos(this, AWAIT_TIMEOUT_NANOS);
+            }
+        }
+
+        void shutdown() {
+            stopped = true;
+            LockSupport.unpark(this);
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                long target = requested;
+                if (completed == target) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                results[1] = classifiers[1].classify(hand);
+                completed = target;
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Latency of each stage a camera frame goes through, from the camera to the letter on the screen,
+ * kept in one {@link LatencyHistogram} per stage.
+ *
+ * <p>The stages are recorded from different threads: the arrival, decode, classification and
+ * stabilization on the packet callback, the UI commit on the UI thread. The end to end latency
+ * goes from the capture of the frame to the moment its result is on the screen. The histograms can
+ * be shown as a short text with {@link #overlayText()} or written in the Prometheus text format
+ * with {@link #writeText(Writer)}.
+ */
+public final class PipelineMetrics {
+
+    /** From the capture of the frame by the camera to its landmarks packet reaching the app. */
+    public static final int ARRIVAL = 0;
+    /** Decoding the landmarks packet into a {@link LandmarkFrame}. */
+    public static final int DECODE = 1;
+    /** Motion gate and classification of the hands. */
+    public static final int CLASSIFICATION = 2;
+    /** Letter stabilizer, sentence and word suggestions. */
+    public static final int STABILIZATION = 3;
+    /** From the result being published to it being set on the TextViews. */
+    public static final int UI_COMMIT = 4;
+    /** From the capture of the frame to its result being on the screen. */
+    public static final int END_TO_END = 5;
+    public static final int STAGE_COUNT = 6;
+
+    private static final String[] STAGE_NAMES = {
+            "arrival", "decode", "classification", "stabilization", "ui_commit", "end_to_end"};
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    static final String METRIC_NAME = "hearme_stage_latency_seconds";
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGE_COUNT];
+
+    public PipelineMetrics() {
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            histograms[stage] = new LatencyHistogram();
+        }
+    }
+
+    public static String stageName(int stage) {
+        return STAGE_NAMES[stage];
+    }
+
+    /**
+     * @param stage one of the stage constants
+     * @param micros latency of the stage for one frame, in microseconds
+     */
+    public void record(int stage, long micros) {
+        histograms[stage].record(micros);
+    }
+
+    /**
+     * Records the latency between two System.nanoTime() readings.
+     */
+    public void recordNanos(int stage, long startNanos, long endNanos) {
+        histograms[stage].record((endNanos - startNanos) / 1000);
+    }
+
+    public LatencyHistogram histogram(int stage) {
+        return histograms[stage];
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return one line per stage with the number of frames and the p50, p95 and p99 latencies in
+     * milliseconds
+     */
+    public String overlayText() {
+        StringBuilder text = new StringBuilder("stage            n    p50    p95    p99 ms");
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            LatencyHistogram histogram = histograms[stage];
+            text.append('\n').append(String.format(Locale.ROOT, "%-14s%5d%7.1f%7.1f%7.1f", STAGE_NAMES[stage],
+                    histogram.count(), histogram.percentile(0.5) / 1000.0,
+                    histogram.percentile(0.95) / 1000.0, histogram.percentile(0.99) / 1000.0));
+        }
+        return text.toString();
+    }
+
+    /**
+     * The writeText method writes the histograms as a summary of the Prometheus text exposition
+     * format, with the p50, p95 and p99 quantiles, the sum and the count of each stage, in seconds.
+     *
+     * @param out writer where the metrics are written, it is not closed
+     * @throws IOException when the writer fails
+     */
+    public void writeText(Writer out) throws IOException {
+        out.write("# HELP " + METRIC_NAME + " Latency of each stage from the camera frame to the letter on screen.\n");
+        out.write("# TYPE " + METRIC_NAME + " summary\n");
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            LatencyHistogram histogram = histograms[stage];
+            String label = "stage=\"" + STAGE_NAMES[stage] + "\"";
+            for (double quantile : QUANTILES) {
+                out.write(METRIC_NAME + "{" + label + ",quantile=\"" + quantile + "\"} "
+                        + seconds(histogram.percentile(quantile)) + "\n");
+            }
+            out.write(METRIC_NAME + "_sum{" + label + "} " + seconds(histogram.sum()) + "\n");
+            out.write(METRIC_NAME + "_count{" + label + "} " + histogram.count() + "\n");
+        }
+    }
+
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1e6);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Turns the landmarks of a hand into a fixed length vector that can be compared with the
+ * templates of {@link KnnClassifier}.
+ *
+ * <p>The position of the hand on the image and its distance to the camera should not change the
+ * gesture, so the wrist is moved to the origin and every landmark is divided by the length of the
+ * palm, from the wrist to the knuckle of the middle finger. The wrist itself is then always zero
+ * and it is left out. Only X and Y are used, Z is too noisy on a single camera. The orientation is
+ * kept, because some letters only differ by it.
+ */
+public final class PoseEmbedding {
+
+    /** Length of the vector: X and Y of every landmark but the wrist. */
+    public static final int DIMENSIONS = 2 * (HandLandmarks.LANDMARK_COUNT - 1);
+
+    // Palms shorter than this, in normalised image units, are tracking errors
+    private static final float MIN_PALM_LENGTH = 1e-4f;
+
+    private PoseEmbedding() {
+    }
+
+    /**
+     * The embed method writes the vector of a hand without creating any object.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @param out array of at least {@link #DIMENSIONS} floats where the vector is written
+     * @return false when the hand is too small to be embedded, the vector is then not valid
+     */
+    public static boolean embed(float[] hand, float[] out) {
+        float wristX = HandLandmarks.x(hand, HandLandmarks.WRIST);
+        float wristY = HandLandmarks.y(hand, HandLandmarks.WRIST);
+        float palmX = HandLandmarks.x(hand, HandLandmarks.MIDDLE_MCP) - wristX;
+        float palmY = HandLandmarks.y(hand, HandLandmarks.MIDDLE_MCP) - wristY;
+        float palm = (float) Math.sqrt(palmX * palmX + palmY * palmY);
+        if (!(palm > MIN_PALM_LENGTH)) {
+            return false;
+        }
+        float scale = 1f / palm;
+        for (int i = 1; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            out[2 * (i - 1)] = (HandLandmarks.x(hand, i) - wristX) * scale;
+            out[2 * (i - 1) + 1] = (HandLandmarks.y(hand, i) - wristY) * scale;
+        }
+        return true;
+    }
+}
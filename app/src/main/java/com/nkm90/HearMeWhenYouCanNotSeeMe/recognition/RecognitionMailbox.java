@@ -0,0 +1,121 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latest-value mailbox between the recognition thread and the UI thread.
+ *
+ * <p>The recognition writes the gesture of each frame, the current sentence and the words suggested
+ * to complete it, and the UI reads only the latest ones when it is ready to draw, so the frames in
+ * between are simply overwritten instead of being queued on the main looper. Publishing does not
+ * create any object; it only reports when the mailbox goes from drained to pending, which is the
+ * moment the reader has to be woken up. When nothing changed since the last publish the mailbox is
+ * left alone.
+ */
+public class RecognitionMailbox {
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile int gesture = Gestures.NO_HAND;
+    private volatile String sentence = "";
+    private volatile String suggestions = "";
+    private volatile long frameNanos;
+    private volatile long publishNanos;
+
+    // Last values published, only used by the writer thread
+    private int publishedGesture = Gestures.NO_HAND;
+    private String publishedSentence = "";
+    private String publishedSuggestions = "";
+
+    /**
+     * Called by the recognition thread with the values of the last frame.
+     *
+     * @param gesture gesture code of the frame
+     * @param sentence current sentence, compared by reference
+     * @return true when the reader has to be scheduled to drain the mailbox
+     */
+    public boolean publish(int gesture, String sentence) {
+        return publish(gesture, sentence, "");
+    }
+
+    /**
+     * Called by the recognition thread with the values of the last frame.
+     *
+     * @param gesture gesture code of the frame
+     * @param sentence current sentence, compared by reference
+     * @param suggestions words suggested to complete the sentence, compared by reference
+     * @return true when the reader has to be scheduled to drain the mailbox
+     */
+    public boolean publish(int gesture, String sentence, String suggestions) {
+        return publish(gesture, sentence, suggestions, 0, 0);
+    }
+
+    /**
+     * Called by the recognition thread with the values of the last frame and when they were
+     * produced, so the reader can measure how long they took to reach the screen. The times are
+     * only kept when the values changed, they belong to the frame that changed them.
+     *
+     * @param gesture gesture code of the frame
+     * @param sentence current sentence, compared by reference
+     * @param suggestions words suggested to complete the sentence, compared by reference
+     * @param frameNanos System.nanoTime() of the capture of the frame, 0 when unknown
+     * @param publishNanos System.nanoTime() of this call
+     * @return true when the reader has to be scheduled to drain the mailbox
+     */
+    public boolean publish(int gesture, String sentence, String suggestions, long frameNanos, long publishNanos) {
+        if (gesture == publishedGesture && sentence == publishedSentence && suggestions == publishedSuggestions) {
+            return false;
+        }
+        this.frameNanos = frameNanos;
+        this.publishNanos = publishNanos;
+        publishedGesture = gesture;
+        publishedSentence = sentence;
+        publishedSuggestions = suggestions;
+        this.gesture = gesture;
+        this.sentence = sentence;
+        this.suggestions = suggestions;
+        return pending.compareAndSet(false, true);
+    }
+
+    /**
+     * Called by the reader before reading the values. Anything published after this call will
+     * schedule the reader again.
+     *
+     * @return true when there was something new to read
+     */
+    public boolean drain() {
+        return pending.getAndSet(false);
+    }
+
+    /**
+     * @return true when values have been published and not drained yet
+     */
+    public boolean isPending() {
+        return pending.get();
+    }
+
+    public int gesture() {
+        return gesture;
+    }
+
+    public String sentence() {
+        return sentence;
+    }
+
+    public String suggestions() {
+        return suggestions;
+    }
+
+    /**
+     * @return System.nanoTime() of the capture of the frame of the last values, 0 when unknown
+     */
+    public long frameNanos() {
+        return frameNanos;
+    }
+
+    /**
+     * @return System.nanoTime() of the publication of the last values, 0 when unknown
+     */
+    public long publishNanos() {
+        return publishNanos;
+    }
+}
@@ -0,0 +1,299 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.SpellingCorrector;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordCompleter;
+
+/**
+ * The steps every camera frame goes through once its landmarks are decoded: the hands are
+ * classified, the gesture votes on the {@link LetterStabilizer}, with less weight when it tied with
+ * another one, and the letters it commits are added to the sentence. When the hands have not moved
+ * since the last frame classified, the {@link MotionGate} lets the pipeline reuse its gesture
+ * instead of classifying it again. With a {@link WordCompleter} the pipeline also suggests the
+ * words that complete the one being spelled, and with a {@link SpellingCorrector} each word is
+ * corrected when SPACE commits it. A {@link WordListener} hears each word as soon as it is
+ * complete, to speak it. With a {@link MotionClassifier} the letters signed with a motion, J and Z,
+ * are also recognised from the path of the fingertips, and the letter is held for a few frames so
+ * the stabilizer commits it. The letter of the pose a motion started from is taken back, and the
+ * pose it ended in does not vote until it changes, so the I of a J is not added around it. With
+ * {@link PipelineMetrics} the time taken by the classification and the stabilization of each frame
+ * is recorded.
+ *
+ * <p>The activity and {@link SessionReplay} use the same pipeline, so a recorded session replayed
+ * with the language of the phone gives the same sentence, as long as the phone used the American
+ * Sign Language rules and no suggestion was accepted on it. It must only be used from one thread,
+ * except {@link #acceptSuggestion()} which can be called from any thread.
+ */
+public class RecognitionPipeline {
+
+    // Frames a motion letter is voted for, enough for the default stabilizer to commit it
+    static final int MOTION_HOLD_FRAMES = 8;
+    // Frames the longest motion takes, see MotionClassifier.WINDOWS
+    private static final int MAX_MOTION_FRAMES = 36;
+
+    /**
+     * Receives each word of the sentence once it is complete, on the thread of the pipeline.
+     */
+    public interface WordListener {
+        /**
+         * @param word word added to the sentence, after its correction
+         */
+        void onWord(String word);
+    }
+
+    private final MultiHandClassifier classifier;
+    private final MotionGate motionGate;
+    private final LetterStabilizer stabilizer;
+    private final SentenceBuilder sentence;
+    private MotionClassifier motionClassifier;
+    // Letter of the last motion recognised and frames it is still given to the stabilizer
+    private int motionCode = Gestures.NO_GESTURE;
+    private int motionFrames;
+    // Gesture of the pose the last motion ended in, not voted for until the pose changes
+    private int motionPose = Gestures.NO_GESTURE;
+    // Last letter committed from a pose and frames since, taken back when a motion starts there
+    private int poseLetter = LetterStabilizer.NONE;
+    private int framesSincePoseLetter;
+    private int lastCode = Gestures.NO_HAND;
+    private float lastMargin = 1;
+    private int lastCommitted = LetterStabilizer.NONE;
+    private WordCompleter completer;
+    private SpellingCorrector corrector;
+    private WordListener wordListener;
+    private PipelineMetrics metrics;
+    private String suggestions = "";
+    // Set by the UI thread, the suggestion is accepted on the next frame
+    private volatile boolean acceptRequested;
+
+    /**
+     * Creates a pipeline with the American Sign Language rules and the default stabilizer.
+     */
+    public RecognitionPipeline() {
+        this(new MultiHandClassifier(), new LetterStabilizer(), new SentenceBuilder());
+    }
+
+    public RecognitionPipeline(MultiHandClassifier classifier, LetterStabilizer stabilizer,
+                               SentenceBuilder sentence) {
+        this(classifier, new MotionGate(), stabilizer, sentence);
+    }
+
+    public RecognitionPipeline(MultiHandClassifier classifier, MotionGate motionGate,
+                               LetterStabilizer stabilizer, SentenceBuilder sentence) {
+        this.classifier = classifier;
+        this.motionGate = motionGate;
+        this.stabilizer = stabilizer;
+        this.sentence = sentence;
+    }
+
+    /**
+     * The process method runs one frame through the pipeline.
+     *
+     * @param frame landmarks of the frame
+     * @return code of the gesture recognised on the frame
+     */
+    public int process(LandmarkFrame frame) {
+        if (acceptRequested) {
+            acceptRequested = false;
+            acceptBestSuggestion();
+        }
+        PipelineMetrics stages = metrics;
+        long start = stages == null ? 0 : System.nanoTime();
+        int code;
+        float margin;
+        if (motionGate.isStill(frame)) {
+            // Same pose as the last frame classified, same gesture
+            code = lastCode;
+            margin = lastMargin;
+        } else {
+            // Every hand is classified, then the pair is checked for two-handed signs
+            code = classifier.classify(frame);
+            margin = classifier.margin();
+            motionGate.classified(frame);
+            lastCode = code;
+            lastMargin = margin;
+        }
+        int vote = code;
+        boolean motionVote = false;
+        if (motionClassifier != null) {
+            // Every frame is added, the trajectory must not have gaps even when the pose is still
+            int motion = motionClassifier.classify(frame);
+            if (motion != Gestures.NO_GESTURE) {
+                motionCode = motion;
+                motionFrames = MOTION_HOLD_FRAMES;
+                motionPose = code;
+                // The handshape a motion starts from, like the I of J, is not a letter of its own
+                if (code == poseLetter && framesSincePoseLetter <= MAX_MOTION_FRAMES) {
+                    sentence.removeLastLetter();
+                    poseLetter = LetterStabilizer.NONE;
+                }
+            }
+            if (motionFrames > 0) {
+                motionFrames--;
+                code = motionCode;
+                vote = motionCode;
+                motionVote = true;
+                margin = 1;
+            } else if (code == motionPose) {
+                // Nor is the handshape it ends in, until the pose changes
+                vote = Gestures.NO_GESTURE;
+            } else {
+                motionPose = Gestures.NO_GESTURE;
+            }
+        }
+        long classified = stages == null ? 0 : System.nanoTime();
+        // The letter is only added once it has been stable for a few frames
+        lastCommitted = stabilizer.add(vote, margin);
+        framesSincePoseLetter++;
+        if (lastCommitted == Gestures.SPACE) {
+            commitWord();
+            poseLetter = LetterStabilizer.NONE;
+        } else if (lastCommitted != LetterStabilizer.NONE) {
+            sentence.append(lastCommitted);
+            poseLetter = motionVote ? LetterStabilizer.NONE : lastCommitted;
+            framesSincePoseLetter = 0;
+        }
+        updateSuggestions();
+        if (stages != null) {
+            stages.recordNanos(PipelineMetrics.CLASSIFICATION, start, classified);
+            stages.recordNanos(PipelineMetrics.STABILIZATION, classified, System.nanoTime());
+        }
+        return code;
+    }
+
+    // Ends the word being spelled, replacing it by its correction when it is not a known word
+    private void commitWord() {
+        String text = sentence.text();
+        int start = WordCompleter.wordStart(text);
+        String correction = corrector == null ? null : corrector.correct(text, start, text.length());
+        if (correction != null) {
+            sentence.completeWord(correction);
+            wordDone(correction);
+        } else {
+            sentence.append(Gestures.SPACE);
+            if (start < text.length() && wordListener != null) {
+                wordDone(text.substring(start));
+            }
+        }
+    }
+
+    private void wordDone(String word) {
+        if (wordListener != null) {
+            wordListener.onWord(word);
+        }
+    }
+
+    private void updateSuggestions() {
+        if (completer != null) {
+            suggestions = completer.update(sentence.text());
+        }
+    }
+
+    private void acceptBestSuggestion() {
+        String word = completer == null ? null : completer.best();
+        if (word != null) {
+            sentence.completeWord(word);
+            wordDone(word);
+            updateSuggestions();
+        }
+    }
+
+    /**
+     * Sets the completer used to suggest words, or null to stop suggesting them.
+     */
+    public void setWordCompleter(WordCompleter completer) {
+        this.completer = completer;
+        this.suggestions = "";
+        updateSuggestions();
+    }
+
+    /**
+     * Sets the corrector applied to each word when it is committed, or null to keep the words as
+     * they were read.
+     */
+    public void setSpellingCorrector(SpellingCorrector corrector) {
+        this.corrector = corrector;
+    }
+
+    /**
+     * Sets the listener told about each complete word, or null.
+     */
+    public void setWordListener(WordListener wordListener) {
+        this.wordListener = wordListener;
+    }
+
+    /**
+     * Sets the classifier of the letters signed with a motion, or null to only recognise the
+     * still poses.
+     */
+    public void setMotionClassifier(MotionClassifier motionClassifier) {
+        this.motionClassifier = motionClassifier;
+        this.motionFrames = 0;
+        this.motionPose = Gestures.NO_GESTURE;
+    }
+
+    /**
+     * Sets the metrics where the latency of the classification and the stabilization of each
+     * frame is recorded, or null to stop measuring them.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the words suggested for the word being spelled, the same instance while they do not change
+     */
+    public String suggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Asks the pipeline to replace the word being spelled by the first suggestion. It can be
+     * called from any thread; the word is changed when the next frame is processed, on the thread
+     * that owns the sentence.
+     */
+    public void acceptSuggestion() {
+        acceptRequested = true;
+    }
+
+    /**
+     * @return code committed to the sentence by the last frame, or {@link LetterStabilizer#NONE}
+     */
+    public int lastCommitted() {
+        return lastCommitted;
+    }
+
+    public String sentence() {
+        return sentence.text();
+    }
+
+    /**
+     * @return the motion gate, to read how many frames were not classified
+     */
+    public MotionGate motionGate() {
+        return motionGate;
+    }
+
+    /**
+     * Forgets the sentence and the frames seen so far.
+     */
+    public void reset() {
+        stabilizer.reset();
+        sentence.clear();
+        motionGate.reset();
+        if (motionClassifier != null) {
+            motionClassifier.reset();
+        }
+        motionFrames = 0;
+        motionPose = Gestures.NO_GESTURE;
+        poseLetter = LetterStabilizer.NONE;
+        lastCommitted = LetterStabilizer.NONE;
+        acceptRequested = false;
+        updateSuggestions();
+    }
+
+    /**
+     * Stops the threads of the classifier.
+     */
+    public void close() {
+        classifier.close();
+    }
+}
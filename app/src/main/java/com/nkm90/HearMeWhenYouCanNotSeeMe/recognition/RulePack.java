@@ -0,0 +1,156 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary file with a {@link DecisionTable} already compiled, one per sign language, so the app
+ * reads the letters of a language from the assets instead of parsing and compiling its rules. The
+ * packs are compiled from the {@link RuleScript} files in app/rules.
+ *
+ * <p>The file is little-endian: a header of {@link #HEADER_BYTES} bytes with the magic number,
+ * the version, the number of features, rules and key bits, the length of the name and the near
+ * distance as a double, then the UTF-8 name padded to 4 bytes, the encoded features, the gesture
+ * of each rule and the masks and values of the rules. The buckets of the table are rebuilt on
+ * load, which is much cheaper than choosing the key again.
+ */
+public final class RulePack {
+
+    /** First bytes of a pack, "HMRP". */
+    static final int MAGIC = 0x484D5250;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+
+    private RulePack() {
+    }
+
+    /**
+     * The write method stores a compiled table.
+     *
+     * @param table table to store
+     * @param out stream where the pack is written, it is not closed
+     * @throws IOException when the stream fails
+     */
+    public static void write(DecisionTable table, OutputStream out) throws IOException {
+        byte[] name = table.name().getBytes(StandardCharsets.UTF_8);
+        int namePadded = (name.length + 3) & ~3;
+        int masks = table.ruleCount() * table.words();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + namePadded
+                + 4 * (table.featureCount() + table.ruleCount()) + 16 * masks).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(table.featureCount()).putInt(table.ruleCount())
+                .putInt(table.keyBits()).putInt(name.length).putDouble(table.nearDistance());
+        buffer.put(name).position(HEADER_BYTES + namePadded);
+        for (int bit = 0; bit < table.featureCount(); bit++) {
+            buffer.putInt(table.feature(bit));
+        }
+        for (int rule = 0; rule < table.ruleCount(); rule++) {
+            buffer.putInt(table.gesture(rule));
+        }
+        for (int rule = 0; rule < table.ruleCount(); rule++) {
+            for (int word = 0; word < table.words(); word++) {
+                buffer.putLong(table.mask(rule, word));
+            }
+        }
+        for (int rule = 0; rule < table.ruleCount(); rule++) {
+            for (int word = 0; word < table.words(); word++) {
+                buffer.putLong(table.value(rule, word));
+            }
+        }
+        out.write(buffer.array());
+    }
+
+    /**
+     * The read method loads a table from a pack, usually memory-mapped from the assets. The
+     * buffer is only read during the call.
+     *
+     * @param data bytes of the pack, from its position to its limit
+     * @return the table
+     * @throws IOException when the data is not a valid pack
+     */
+    public static DecisionTable read(ByteBuffer data) throws IOException {
+        ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a rule pack");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported rule pack version " + buffer.getInt(4));
+        }
+        int featureCount = buffer.getInt(8);
+        int ruleCount = buffer.getInt(12);
+        int keyBits = buffer.getInt(16);
+        int nameLength = buffer.getInt(20);
+        double nearDistance = buffer.getDouble(24);
+        if (!(nearDistance > 0) || featureCount < 0 || ruleCount < 0 || nameLength < 0 || keyBits < 0
+                || keyBits > DecisionTable.MAX_KEY_BITS || keyBits > featureCount) {
+            throw new IOException("Corrupted rule pack header");
+        }
+        int words = Math.max(1, (featureCount + 63) >>> 6);
+        long size = HEADER_BYTES + ((nameLength + 3L) & ~3L) + 4L * (featureCount + ruleCount)
+                + 16L * ruleCount * words;
+        if (size != buffer.limit()) {
+            throw new IOException("Rule pack of " + buffer.limit() + " bytes, expected " + size);
+        }
+        byte[] name = new byte[nameLength];
+        buffer.position(HEADER_BYTES);
+        buffer.get(name);
+        buffer.position(HEADER_BYTES + ((nameLength + 3) & ~3));
+        int[] features = new int[featureCount];
+        for (int bit = 0; bit < featureCount; bit++) {
+            features[bit] = buffer.getInt();
+            checkFeature(features[bit]);
+        }
+        int[] gestures = new int[ruleCount];
+        for (int rule = 0; rule < ruleCount; rule++) {
+            gestures[rule] = buffer.getInt();
+            if (gestures[rule] < 0 || gestures[rule] >= Gestures.COUNT) {
+                throw new IOException("Unknown gesture " + gestures[rule]);
+            }
+        }
+        long[] masks = new long[ruleCount * words];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = buffer.getLong();
+        }
+        long[] values = new long[ruleCount * words];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getLong();
+        }
+        return new DecisionTable(new String(name, StandardCharsets.UTF_8), features, gestures, masks, values, keyBits,
+                nearDistance);
+    }
+
+    private static void checkFeature(int feature) throws IOException {
+        try {
+            GestureFeatures.encode(GestureFeatures.op(feature), GestureFeatures.a(feature),
+                    GestureFeatures.b(feature), GestureFeatures.c(feature), GestureFeatures.d(feature));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid feature in the rule pack: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles a rule script into a pack, used to generate app/src/main/assets/rules_asl.hmrp from
+     * app/rules/asl.rules.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: RulePack <rules.rules> <rules.hmrp>");
+            System.exit(1);
+        }
+        GestureRuleSet rules;
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            rules = RuleScript.parse(in);
+        }
+        DecisionTable table = DecisionTable.compile(rules);
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            write(table, out);
+        }
+        System.out.println(table.ruleCount() + " rules of " + table.name() + " written to " + args[1]);
+    }
+}
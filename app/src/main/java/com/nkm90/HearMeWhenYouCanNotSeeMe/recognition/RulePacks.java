@@ -0,0 +1,132 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.IOException;
+
+/**
+ * The rule pack of the active sign language, loaded on first use and swapped when the language
+ * changes.
+ *
+ * <p>Only the pack of the active language is loaded, through a {@link Loader} that usually maps it
+ * from the assets (see {@link RulePack}), and it is dropped when another language is selected, so
+ * adding languages does not make the start or the heap bigger. {@link GestureClassifier}s created
+ * with an instance ask for the table on every hand and switch to the new one on the next frame
+ * after {@link #select(String)}, without the camera or the pipeline being restarted.
+ *
+ * <p>When a pack cannot be loaded the fallback pack is used instead, and when that one cannot be
+ * loaded either the built-in {@link AslRules}.
+ */
+public final class RulePacks {
+
+    /** Loads the table of a pack. */
+    public interface Loader {
+        /**
+         * @param pack name of the pack, for example "asl"
+         * @return the table of the pack
+         * @throws IOException when the pack does not exist or cannot be read
+         */
+        DecisionTable load(String pack) throws IOException;
+    }
+
+    /** Failure to load a pack, given to the {@link ErrorListener}. */
+    public interface ErrorListener {
+        void onLoadError(String pack, IOException error);
+    }
+
+    private final Loader loader;
+    private final String fallback;
+    private ErrorListener errorListener;
+    private volatile String selected;
+    // Table of the selected pack, null until it is first needed
+    private volatile DecisionTable table;
+    private int loads;
+
+    /**
+     * @param loader loads the packs
+     * @param selected pack used first
+     * @param fallback pack used when another one cannot be loaded
+     */
+    public RulePacks(Loader loader, String selected, String fallback) {
+        this.loader = loader;
+        this.selected = selected;
+        this.fallback = fallback;
+    }
+
+    public void setErrorListener(ErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Selects the pack of another language. It is loaded the next time the table is needed, and
+     * the previous one can then be garbage collected.
+     *
+     * @param pack name of the pack
+     */
+    public synchronized void select(String pack) {
+        if (!pack.equals(selected)) {
+            selected = pack;
+            table = null;
+        }
+    }
+
+    /**
+     * Drops the table of the selected pack so it is loaded again the next time it is needed, for
+     * example after its rules were edited. The classifiers keep using the old one until then.
+     */
+    public synchronized void reload() {
+        table = null;
+    }
+
+    public String selected() {
+        return selected;
+    }
+
+    /**
+     * @return true when the table of the selected pack is loaded
+     */
+    public boolean isLoaded() {
+        return table != null;
+    }
+
+    /**
+     * The table method returns the table of the selected pack, loading it on the first call after
+     * a selection. Afterwards it is one volatile read, so it can be called on every hand.
+     *
+     * @return the table of the selected pack, or of the fallback when it cannot be loaded
+     */
+    public DecisionTable table() {
+        DecisionTable current = table;
+        return current != null ? current : load();
+    }
+
+    private synchronized DecisionTable load() {
+        if (table != null) {
+            return table;
+        }
+        String pack = selected;
+        DecisionTable loaded = tryLoad(pack);
+        if (loaded == null && !pack.equals(fallback)) {
+            loaded = tryLoad(fallback);
+        }
+        table = loaded != null ? loaded : AslRules.table();
+        return table;
+    }
+
+    private DecisionTable tryLoad(String pack) {
+        try {
+            loads++;
+            return loader.load(pack);
+        } catch (IOException e) {
+            if (errorListener != null) {
+                errorListener.onLoadError(pack, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return number of packs loaded, or tried, since the creation
+     */
+    public synchronized int loads() {
+        return loads;
+    }
+}
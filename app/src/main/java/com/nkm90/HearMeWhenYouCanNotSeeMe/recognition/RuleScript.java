@@ -0,0 +1,187 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text form of a {@link GestureRuleSet}, so the letters can be changed and tuned without building
+ * the app again.
+ *
+ * <p>Each line is a directive, a rule or a comment starting with #:
+ * <pre>
+ * # American Sign Language alphabet
+ * name asl
+ * near 0.1
+ * B: rightHand palmVertical thumbBent fingerUp(5) fingerUp(9) fingerUp(13) fingerUp(17)
+ * C: rightHand palmVertical !thumbBent !near(4,8) !lessX(4,8) near(8,12) near(12,16)
+ * </pre>
+ * A rule is the letter (or SPACE), a colon and its conditions separated by spaces. A condition is
+ * a feature as written by {@link GestureFeatures#toString(int)}, with ! in front when it must be
+ * false: rightHand, leftHand, palmVertical, palmInclined, thumbBent, fingerUp(knuckle),
+ * fingerDown(knuckle), lessX(a,b), lessY(a,b), near(a,b) and farther(a,b,c,d). The rules are
+ * checked in the order of the file and the first one matching wins. The near directive sets the
+ * distance under which two landmarks are near, the name directive the name of the set.
+ *
+ * <p>The script is only parsed once; {@link DecisionTable#compile} turns it into the same table
+ * as rules built in Java, so it classifies exactly as fast.
+ */
+public final class RuleScript {
+
+    static final String DEFAULT_NAME = "rules";
+
+    private static final String[] FEATURE_NAMES = {
+            null, "rightHand", "leftHand", "palmVertical", "palmInclined", "fingerUp", "fingerDown",
+            "thumbBent", "lessX", "lessY", "near", "farther"};
+    private static final int[] ARGUMENT_COUNTS = {0, 0, 0, 0, 0, 1, 1, 0, 2, 2, 2, 4};
+
+    private RuleScript() {
+    }
+
+    /**
+     * The parse method reads a script.
+     *
+     * @param in text of the script, it is not closed
+     * @return the rule set
+     * @throws IOException when reading fails or a line is not valid, the message has the line number
+     */
+    public static GestureRuleSet parse(Reader in) throws IOException {
+        BufferedReader lines = new BufferedReader(in);
+        String name = null;
+        double near = 0;
+        List<GestureRule> rules = new ArrayList<>();
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                if (line.startsWith("name ")) {
+                    if (name != null) {
+                        throw new IllegalArgumentException("name given twice");
+                    }
+                    name = line.substring(5).trim();
+                } else if (line.startsWith("near ")) {
+                    if (near != 0) {
+                        throw new IllegalArgumentException("near given twice");
+                    }
+                    near = Double.parseDouble(line.substring(5).trim());
+                    if (!(near > 0)) {
+                        throw new IllegalArgumentException("near must be positive");
+                    }
+                } else {
+                    rules.add(parseRule(line));
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException included
+                throw new IOException("Line " + number + ": " + e.getMessage() + ": " + line);
+            }
+        }
+        return new GestureRuleSet(name == null ? DEFAULT_NAME : name, rules,
+                near == 0 ? GestureFeatures.NEAR_DISTANCE : near);
+    }
+
+    private static GestureRule parseRule(String line) {
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("expected 'LETTER: conditions'");
+        }
+        String label = line.substring(0, colon).trim();
+        int gesture = Gestures.ofLabel(label);
+        if (gesture < Gestures.A || gesture > Gestures.SPACE) {
+            throw new IllegalArgumentException("unknown letter " + label);
+        }
+        GestureRule.Builder rule = GestureRule.builder(gesture);
+        String conditions = line.substring(colon + 1);
+        int position = 0;
+        int length = conditions.length();
+        while (true) {
+            while (position < length && conditions.charAt(position) == ' ') {
+                position++;
+            }
+            if (position == length) {
+                return rule.build();
+            }
+            int start = position;
+            int open = -1;
+            while (position < length && (open >= 0 || conditions.charAt(position) != ' ')) {
+                char c = conditions.charAt(position++);
+                if (c == '(') {
+                    open = position;
+                } else if (c == ')') {
+                    open = -1;
+                }
+            }
+            // Spaces inside the parentheses are allowed, near(4, 8)
+            String condition = conditions.substring(start, position).replace(" ", "");
+            if (condition.startsWith("!")) {
+                rule.not(parseFeature(condition.substring(1)));
+            } else {
+                rule.is(parseFeature(condition));
+            }
+        }
+    }
+
+    private static int parseFeature(String text) {
+        int open = text.indexOf('(');
+        String name = open < 0 ? text : text.substring(0, open);
+        int op = -1;
+        for (int i = 1; i < FEATURE_NAMES.length; i++) {
+            if (FEATURE_NAMES[i].equals(name)) {
+                op = i;
+            }
+        }
+        if (op < 0) {
+            throw new IllegalArgumentException("unknown condition " + text);
+        }
+        int[] args = new int[4];
+        int count = 0;
+        if (open >= 0) {
+            if (!text.endsWith(")")) {
+                throw new IllegalArgumentException("missing ) in " + text);
+            }
+            String list = text.substring(open + 1, text.length() - 1);
+            for (String arg : list.split(",", -1)) {
+                if (count == args.length) {
+                    throw new IllegalArgumentException("too many landmarks in " + text);
+                }
+                args[count++] = Integer.parseInt(arg);
+            }
+        }
+        if (count != ARGUMENT_COUNTS[op]) {
+            throw new IllegalArgumentException(name + " takes " + ARGUMENT_COUNTS[op] + " landmarks");
+        }
+        switch (op) {
+            case GestureFeatures.OP_FINGER_UP:
+                return GestureFeatures.fingerUp(args[0]);
+            case GestureFeatures.OP_FINGER_DOWN:
+                return GestureFeatures.fingerDown(args[0]);
+            case GestureFeatures.OP_NEAR:
+                return GestureFeatures.near(args[0], args[1]);
+            default:
+                return GestureFeatures.encode(op, args[0], args[1], args[2], args[3]);
+        }
+    }
+
+    /**
+     * The write method writes a rule set as a script that {@link #parse} reads back into the same
+     * rules.
+     *
+     * @param rules rule set to write
+     * @param out writer of the script, it is not closed
+     * @throws IOException when writing fails
+     */
+    public static void write(GestureRuleSet rules, Writer out) throws IOException {
+        out.write("name " + rules.name() + "\n");
+        out.write("near " + rules.nearDistance() + "\n");
+        for (GestureRule rule : rules.rules()) {
+            out.write(rule + "\n");
+        }
+    }
+}
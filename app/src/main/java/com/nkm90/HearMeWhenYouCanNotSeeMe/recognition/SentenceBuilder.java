@@ -0,0 +1,75 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Builds the sentence from the letters committed by the recognition. The String shown on the
+ * screen is only created again when a letter is added, so reading {@link #text()} on every frame
+ * does not allocate.
+ */
+public class SentenceBuilder {
+
+    private final StringBuilder sentence = new StringBuilder();
+    private String text = "";
+
+    /**
+     * This method takes the letter obtained on the sign, and it gets added into the actual
+     * sentence. SPACE is added as a blank space.
+     *
+     * @param code code of the letter or SPACE, see {@link Gestures}
+     */
+    public void append(int code) {
+        if (!Gestures.isCommittable(code)) {
+            throw new IllegalArgumentException("Not a letter: " + code);
+        }
+        sentence.append(code == Gestures.SPACE ? ' ' : (char) ('A' + code));
+        text = sentence.toString();
+    }
+
+    /**
+     * @return the sentence built so far, the same instance until something changes
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * This method replaces the word being spelled at the end of the sentence by a whole word, as
+     * when a suggested completion is accepted, and adds a blank space after it.
+     *
+     * @param word word of letters A to Z
+     */
+    public void completeWord(CharSequence word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                throw new IllegalArgumentException("Not a word of letters: " + word);
+            }
+        }
+        int start = sentence.length();
+        while (start > 0 && sentence.charAt(start - 1) != ' ') {
+            start--;
+        }
+        sentence.setLength(start);
+        sentence.append(word).append(' ');
+        text = sentence.toString();
+    }
+
+    /**
+     * Removes the last letter, as when it was the handshape a motion letter started from.
+     */
+    public void removeLastLetter() {
+        int end = sentence.length();
+        if (end > 0 && sentence.charAt(end - 1) != ' ') {
+            sentence.setLength(end - 1);
+            text = sentence.toString();
+        }
+    }
+
+    public int length() {
+        return sentence.length();
+    }
+
+    public void clear() {
+        sentence.setLength(0);
+        text = "";
+    }
+}
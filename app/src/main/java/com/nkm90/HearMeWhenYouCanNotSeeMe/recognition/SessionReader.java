@@ -0,0 +1,125 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads back the frames of a session written by {@link SessionRecorder}.
+ *
+ * <p>The file is memory-mapped, so the frames are read straight from the page cache into a
+ * reusable {@link LandmarkFrame} without copying the file into the Java heap and without creating
+ * objects, which lets {@link SessionReplay} go through them as fast as the classifier allows.
+ */
+public class SessionReader implements Closeable {
+
+    private final ByteBuffer data;
+    private final RandomAccessFile file;
+    private int label = SessionRecorder.UNKNOWN_LABEL;
+
+    /**
+     * @param data bytes of a session file, read from its current position
+     * @throws IOException when the bytes are not a session
+     */
+    public SessionReader(ByteBuffer data) throws IOException {
+        this(data, null);
+    }
+
+    private SessionReader(ByteBuffer data, RandomAccessFile file) throws IOException {
+        this.data = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.file = file;
+        readHeader();
+    }
+
+    /**
+     * Method that memory-maps a session file.
+     *
+     * @param session file written by {@link SessionRecorder}
+     * @return the reader, positioned on the first frame
+     * @throws IOException when the file cannot be read or it is not a session
+     */
+    public static SessionReader open(File session) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(session, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SessionReader(mapped, file);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (data.remaining() < SessionRecorder.HEADER_BYTES || data.getInt() != SessionRecorder.MAGIC) {
+            throw new IOException("Not a session file");
+        }
+        int version = data.getInt();
+        int landmarks = data.getInt();
+        int dimensions = data.getInt();
+        if (version != SessionRecorder.VERSION || landmarks != HandLandmarks.LANDMARK_COUNT
+                || dimensions != HandLandmarks.DIMENSIONS) {
+            throw new IOException("Unsupported session version " + version);
+        }
+    }
+
+    /**
+     * The next method reads the following frame of the session.
+     *
+     * @param frame where the landmarks and timestamp are stored
+     * @return false when there are no more frames
+     * @throws IOException when the file ends in the middle of a frame
+     */
+    public boolean next(LandmarkFrame frame) throws IOException {
+        ByteBuffer buffer = data;
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        if (buffer.remaining() < SessionRecorder.FRAME_HEADER_BYTES) {
+            throw new IOException("Truncated session file");
+        }
+        long timestamp = buffer.getLong();
+        int frameLabel = buffer.getInt();
+        int handCount = buffer.getInt();
+        if (handCount < 0 || handCount > LandmarkFrame.MAX_HANDS
+                || buffer.remaining() < handCount * SessionRecorder.HAND_BYTES) {
+            throw new IOException("Truncated session file");
+        }
+        for (int handIndex = 0; handIndex < handCount; handIndex++) {
+            float[] hand = frame.hand(handIndex);
+            for (int i = 0; i < HandLandmarks.HAND_SIZE; i++) {
+                hand[i] = buffer.getFloat();
+            }
+        }
+        frame.setHandCount(handCount);
+        frame.setTimestamp(timestamp);
+        label = frameLabel;
+        return true;
+    }
+
+    /**
+     * @return label of the last frame read, or {@link SessionRecorder#UNKNOWN_LABEL}
+     */
+    public int label() {
+        return label;
+    }
+
+    /**
+     * Goes back to the first frame, to replay the session again.
+     */
+    public void rewind() {
+        data.position(SessionRecorder.HEADER_BYTES);
+        label = SessionRecorder.UNKNOWN_LABEL;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Records the landmark stream of a session into a compact binary file, so a problem seen on the
+ * phone can be replayed later with {@link SessionReplay} on the computer.
+ *
+ * <p>Unlike the {@link FrameTracer}, which only keeps the last frames in memory, every frame is
+ * appended to the file. A frame only takes the bytes of the hands present on it: the timestamp,
+ * a label, the number of hands and the raw landmark floats of each hand, in little endian. The
+ * label is the gesture really made on the frame when it is known, for example when recording a
+ * corpus letter by letter, and {@link #UNKNOWN_LABEL} otherwise.
+ *
+ * <p>The frames are gathered in a buffer and written to the stream in big chunks, so recording a
+ * frame does not create any object and usually does not touch the file.
+ */
+public class SessionRecorder implements Closeable {
+
+    /** First bytes of a session file, "HMSR". */
+    static final int MAGIC = 0x484D5352;
+    static final int VERSION = 1;
+    // magic, version, landmark count and dimensions
+    static final int HEADER_BYTES = 16;
+    // timestamp (long), label (int) and hand count (int), followed by the landmarks of each hand
+    static final int FRAME_HEADER_BYTES = 16;
+    static final int HAND_BYTES = HandLandmarks.HAND_SIZE * 4;
+
+    /** Label of the frames whose real gesture is not known. */
+    public static final int UNKNOWN_LABEL = -1;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] chunk = new byte[BUFFER_BYTES];
+    private final ByteBuffer buffer = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+    private long frames;
+    private boolean closed;
+
+    /**
+     * @param out stream where the session is written, it is closed by {@link #close()}
+     * @throws IOException when the header cannot be written
+     */
+    public SessionRecorder(OutputStream out) throws IOException {
+        this.out = out;
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putInt(HandLandmarks.LANDMARK_COUNT).putInt(HandLandmarks.DIMENSIONS);
+    }
+
+    /**
+     * Method that creates a recorder writing a new session file, replacing the old one if any.
+     *
+     * @param file where the session is written
+     * @return the recorder
+     * @throws IOException when the file cannot be created
+     */
+    public static SessionRecorder create(File file) throws IOException {
+        return new SessionRecorder(new FileOutputStream(file));
+    }
+
+    /**
+     * The record method appends one frame to the session.
+     *
+     * @param frame landmarks of the frame
+     * @param label code of the gesture really made on the frame, or {@link #UNKNOWN_LABEL}
+     * @throws IOException when the file cannot be written
+     */
+    public synchronized void record(LandmarkFrame frame, int label) throws IOException {
+        if (closed) {
+            throw new IOException("Session recorder closed");
+        }
+        int handCount = frame.handCount();
+        if (buffer.remaining() < FRAME_HEADER_BYTES + handCount * HAND_BYTES) {
+            flushBuffer();
+        }
+        buffer.putLong(frame.timestamp()).putInt(label).putInt(handCount);
+        for (int handIndex = 0; handIndex < handCount; handIndex++) {
+            float[] hand = frame.hand(handIndex);
+            for (int i = 0; i < HandLandmarks.HAND_SIZE; i++) {
+                buffer.putFloat(hand[i]);
+            }
+        }
+        frames++;
+    }
+
+    /**
+     * @return number of frames recorded so far
+     */
+    public synchronized long frames() {
+        return frames;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(chunk, 0, buffer.position());
+        buffer.clear();
+    }
+
+    /**
+     * Writes the frames still in the buffer and closes the stream. Calling it again does nothing.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.SpellingCorrector;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordCompleter;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordTrie;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Pushes the frames of a recorded session through the {@link RecognitionPipeline} as fast as the
+ * CPU allows, without waiting for the timestamps. It is used to reproduce on the computer the
+ * sentence the phone built, as regression test and to profile the recognition.
+ *
+ * <p>As in the activity, the words of a language complete and correct the words spelled. They are
+ * read from the assets of the app, so it is run from the root of the project with the language
+ * chosen on the phone, English by default.
+ *
+ * <pre>
+ * java com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.SessionReplay session.hmsr [loops] [language]
+ * </pre>
+ */
+public final class SessionReplay {
+
+    /**
+     * What a replay produced.
+     */
+    public static final class Result {
+        final int[] gestureCounts = new int[Gestures.COUNT];
+        long frames;
+        long nanos;
+        String sentence;
+
+        public long frames() {
+            return frames;
+        }
+
+        /**
+         * @param gesture code of a gesture
+         * @return number of frames recognised as that gesture
+         */
+        public long count(int gesture) {
+            return gestureCounts[gesture];
+        }
+
+        public String sentence() {
+            return sentence;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public double framesPerSecond() {
+            return nanos == 0 ? 0 : frames * 1e9 / nanos;
+        }
+    }
+
+    // Where the words of each language are, words_<language>.trie, from the root of the project
+    private static final String WORDS_DIRECTORY = "app/src/main/assets";
+    private static final String DEFAULT_LANGUAGE = "en";
+
+    private SessionReplay() {
+    }
+
+    /**
+     * The replay method runs every remaining frame of the session through the pipeline.
+     *
+     * @param session reader of the session
+     * @param pipeline pipeline the frames go through, the sentence is added to the one it has
+     * @return gestures seen, sentence built and time taken
+     * @throws IOException when the session file is damaged
+     */
+    public static Result replay(SessionReader session, RecognitionPipeline pipeline) throws IOException {
+        Result result = new Result();
+        LandmarkFrame frame = new LandmarkFrame();
+        long start = System.nanoTime();
+        while (session.next(frame)) {
+            result.gestureCounts[pipeline.process(frame)]++;
+            result.frames++;
+        }
+        result.nanos = System.nanoTime() - start;
+        result.sentence = pipeline.sentence();
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: SessionReplay <session.hmsr> [loops] [language]");
+            System.exit(1);
+        }
+        int loops = args.length >= 2 ? Integer.parseInt(args[1]) : 1;
+        String language = args.length == 3 ? args[2] : DEFAULT_LANGUAGE;
+        RecognitionPipeline pipeline = new RecognitionPipeline();
+        // Same as the activity, J and Z also recognised from their motion
+        pipeline.setMotionClassifier(MotionClassifier.createDefault());
+        // and the words of the language completed and corrected
+        WordTrie words = WordTrie.open(new File(WORDS_DIRECTORY, "words_" + language + ".trie"));
+        pipeline.setWordCompleter(new WordCompleter(words));
+        pipeline.setSpellingCorrector(SpellingCorrector.fromTrie(words));
+        try (SessionReader session = SessionReader.open(new File(args[0]))) {
+            for (int loop = 0; loop < loops; loop++) {
+                session.rewind();
+                pipeline.reset();
+                long skipped = pipeline.motionGate().skippedFrames();
+                Result result = replay(session, pipeline);
+                System.out.println(String.format(Locale.ROOT,
+                        "loop %d: %d frames in %.1f ms, %.0f frames/s, %d not classified (still hands)",
+                        loop, result.frames(), result.nanos() / 1e6, result.framesPerSecond(),
+                        pipeline.motionGate().skippedFrames() - skipped));
+                if (loop == loops - 1) {
+                    System.out.println("Sentence: " + result.sentence());
+                }
+            }
+        } finally {
+            pipeline.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Ring buffer with the last positions of some fingertips of each hand, for the letters that are
+ * signed with a motion instead of a still pose.
+ *
+ * <p>For every hand slot of the {@link LandmarkFrame} it keeps the X and Y of the tracked
+ * landmarks and the size of the palm on the last {@code capacity} frames, all in one primitive
+ * array, so adding a frame only copies floats. When a hand disappears its trajectory is cleared,
+ * a path is only made of consecutive frames.
+ */
+public final class TrajectoryBuffer {
+
+    private final int capacity;
+    private final int[] landmarks;
+    // X and Y of each landmark on each frame: [hand][landmark][frame][2]
+    private final float[] points;
+    // Distance from the wrist to the base of the middle finger: [hand][frame]
+    private final float[] palms;
+    private final int[] sizes = new int[LandmarkFrame.MAX_HANDS];
+    // Position where the next frame of each hand is written
+    private final int[] next = new int[LandmarkFrame.MAX_HANDS];
+
+    /**
+     * @param capacity number of frames kept for each hand
+     * @param landmarks landmarks whose trajectory is kept, for example {@link HandLandmarks#INDEX_TIP}
+     */
+    public TrajectoryBuffer(int capacity, int... landmarks) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        }
+        for (int landmark : landmarks) {
+            if (landmark < 0 || landmark >= HandLandmarks.LANDMARK_COUNT) {
+                throw new IllegalArgumentException("Landmark out of range: " + landmark);
+            }
+        }
+        this.capacity = capacity;
+        this.landmarks = landmarks.clone();
+        this.points = new float[LandmarkFrame.MAX_HANDS * landmarks.length * capacity * 2];
+        this.palms = new float[LandmarkFrame.MAX_HANDS * capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @param landmark landmark number
+     * @return position of the landmark on this buffer, or -1 when it is not tracked
+     */
+    public int slotOf(int landmark) {
+        for (int slot = 0; slot < landmarks.length; slot++) {
+            if (landmarks[slot] == landmark) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The add method appends the tracked landmarks of every hand of a frame.
+     *
+     * @param frame landmarks of the frame
+     */
+    public void add(LandmarkFrame frame) {
+        for (int hand = 0; hand < LandmarkFrame.MAX_HANDS; hand++) {
+            if (hand >= frame.handCount()) {
+                clear(hand);
+                continue;
+            }
+            float[] landmarksOfHand = frame.hand(hand);
+            int position = next[hand];
+            for (int slot = 0; slot < landmarks.length; slot++) {
+                int offset = pointOffset(hand, slot, position);
+                points[offset] = HandLandmarks.x(landmarksOfHand, landmarks[slot]);
+                points[offset + 1] = HandLandmarks.y(landmarksOfHand, landmarks[slot]);
+            }
+            palms[hand * capacity + position] = (float) LandmarkMath.getEuclideanDistanceAB(
+                    HandLandmarks.x(landmarksOfHand, HandLandmarks.WRIST),
+                    HandLandmarks.y(landmarksOfHand, HandLandmarks.WRIST),
+                    HandLandmarks.x(landmarksOfHand, HandLandmarks.MIDDLE_MCP),
+                    HandLandmarks.y(landmarksOfHand, HandLandmarks.MIDDLE_MCP));
+            next[hand] = (position + 1) % capacity;
+            sizes[hand] = Math.min(sizes[hand] + 1, capacity);
+        }
+    }
+
+    private int pointOffset(int hand, int slot, int position) {
+        return ((hand * landmarks.length + slot) * capacity + position) * 2;
+    }
+
+    /**
+     * @return number of consecutive frames kept for the hand
+     */
+    public int size(int hand) {
+        return sizes[hand];
+    }
+
+    /**
+     * Forgets the trajectory of a hand, for example once its motion has been recognised.
+     */
+    public void clear(int hand) {
+        sizes[hand] = 0;
+        next[hand] = 0;
+    }
+
+    /**
+     * The resample method copies the path of a landmark over the last frames, resampled to a given
+     * number of points evenly spread in time.
+     *
+     * @param hand hand slot
+     * @param slot position of the landmark, see {@link #slotOf(int)}
+     * @param frames number of last frames taken, at most {@link #size(int)}
+     * @param out X and Y of each point, interleaved
+     * @param length number of points written to out
+     * @return mean palm size over those frames, used to compare the path with the size of the hand
+     */
+    public float resample(int hand, int slot, int frames, float[] out, int length) {
+        if (frames < 2 || frames > sizes[hand] || length < 2) {
+            throw new IllegalArgumentException("Cannot take " + frames + " of " + sizes[hand] + " frames");
+        }
+        int first = next[hand] - frames + capacity;
+        for (int i = 0; i < length; i++) {
+            float time = (float) i * (frames - 1) / (length - 1);
+            int before = (int) time;
+            float weight = time - before;
+            int after = Math.min(before + 1, frames - 1);
+            int a = pointOffset(hand, slot, (first + before) % capacity);
+            int b = pointOffset(hand, slot, (first + after) % capacity);
+            out[2 * i] = points[a] + (points[b] - points[a]) * weight;
+            out[2 * i + 1] = points[a + 1] + (points[b + 1] - points[a + 1]) * weight;
+        }
+        float palm = 0;
+        for (int i = 0; i < frames; i++) {
+            palm += palms[hand * capacity + (first + i) % capacity];
+        }
+        return palm / frames;
+    }
+}
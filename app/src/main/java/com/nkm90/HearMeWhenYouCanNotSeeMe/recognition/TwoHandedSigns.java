@@ -0,0 +1,54 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.Arrays;
+
+/**
+ * Combiner for the signs made with both hands. It takes the gestures recognised on each hand,
+ * ordered from left to right as they appear on the image, and looks the pair up in a table of
+ * {@link Gestures#COUNT} x {@link Gestures#COUNT} entries, so combining the hands is one array read.
+ */
+public class TwoHandedSigns {
+
+    private final int[] table = new int[Gestures.COUNT * Gestures.COUNT];
+
+    /**
+     * Creates a combiner without any two-handed sign.
+     */
+    public TwoHandedSigns() {
+        Arrays.fill(table, Gestures.NO_GESTURE);
+    }
+
+    /**
+     * Creates the combiner used by the app. Showing the flat hand of the letter B with both hands
+     * at the same time is taken as SPACE, which is easier to make than the inclined palm when the
+     * user has both hands in front of the camera.
+     *
+     * @return the default combiner
+     */
+    public static TwoHandedSigns createDefault() {
+        TwoHandedSigns signs = new TwoHandedSigns();
+        int b = Gestures.ofLetter('B');
+        signs.add(b, b, Gestures.SPACE);
+        return signs;
+    }
+
+    /**
+     * Adds a two-handed sign.
+     *
+     * @param left gesture of the hand on the left of the image
+     * @param right gesture of the hand on the right of the image
+     * @param result gesture returned when both hands match
+     */
+    public void add(int left, int right, int result) {
+        table[left * Gestures.COUNT + right] = result;
+    }
+
+    /**
+     * @param left gesture of the hand on the left of the image
+     * @param right gesture of the hand on the right of the image
+     * @return the two-handed sign, or {@link Gestures#NO_GESTURE} when the pair is not one
+     */
+    public int combine(int left, int right) {
+        return table[left * Gestures.COUNT + right];
+    }
+}
@@ -0,0 +1,223 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Vantage point tree over labelled float vectors, to find the templates nearest to a pose without
+ * comparing it with all of them.
+ *
+ * <p>Each node takes one vector as vantage point and splits the rest by the median of their
+ * distance to it: the nearer half goes inside, the farther half outside. A query only goes into a
+ * half when the triangle inequality says it can hold something nearer than the neighbours found
+ * so far. On top of that each query has a budget of distance evaluations, so the time per frame
+ * stays bounded with any number of templates; when the budget runs out the neighbours found so far
+ * are returned, which is still a good answer because the nearer half is always visited first.
+ *
+ * <p>The tree is stored in flat arrays: the vectors are reordered so the node starting at index
+ * {@code lo} keeps its vantage point at {@code lo}, its inside half at {@code lo + 1} to
+ * {@code split[lo]} and its outside half from there to the end of its range. The tree is
+ * immutable and can be shared between threads, each thread searching with its own
+ * {@link Neighbours}.
+ */
+public final class VpTree {
+
+    private final int dimensions;
+    private final float[] vectors;
+    private final int[] labels;
+    private final float[] thresholds;
+    private final int[] splits;
+
+    private VpTree(int dimensions, float[] vectors, int[] labels, float[] thresholds, int[] splits) {
+        this.dimensions = dimensions;
+        this.vectors = vectors;
+        this.labels = labels;
+        this.thresholds = thresholds;
+        this.splits = splits;
+    }
+
+    /**
+     * Method that builds a tree.
+     *
+     * @param dimensions length of each vector
+     * @param vectors the vectors one after the other, vectors.length / dimensions of them
+     * @param labels label of each vector
+     * @param seed seed used to choose the vantage points, the same seed gives the same tree
+     * @return the tree
+     */
+    public static VpTree build(int dimensions, float[] vectors, int[] labels, long seed) {
+        int size = labels.length;
+        if (dimensions <= 0 || vectors.length != size * dimensions) {
+            throw new IllegalArgumentException("Expected " + size + " vectors of " + dimensions + " floats");
+        }
+        VpTree tree = new VpTree(dimensions, vectors.clone(), labels.clone(), new float[size], new int[size]);
+        tree.buildRange(0, size, new Random(seed), new double[size], new Integer[size]);
+        return tree;
+    }
+
+    private void buildRange(int lo, int hi, Random random, double[] distances, Integer[] order) {
+        if (hi - lo <= 1) {
+            if (hi > lo) {
+                splits[lo] = hi;
+            }
+            return;
+        }
+        swap(lo, lo + random.nextInt(hi - lo));
+        for (int i = lo + 1; i < hi; i++) {
+            distances[i] = distance(vectors, lo * dimensions, vectors, i * dimensions, dimensions);
+            order[i] = i;
+        }
+        Arrays.sort(order, lo + 1, hi, (a, b) -> Double.compare(distances[a], distances[b]));
+        // Put the vectors in the order of their distance, nearer half first
+        float[] sortedVectors = new float[(hi - lo - 1) * dimensions];
+        int[] sortedLabels = new int[hi - lo - 1];
+        double[] sortedDistances = new double[hi - lo - 1];
+        for (int i = lo + 1; i < hi; i++) {
+            System.arraycopy(vectors, order[i] * dimensions, sortedVectors, (i - lo - 1) * dimensions, dimensions);
+            sortedLabels[i - lo - 1] = labels[order[i]];
+            sortedDistances[i - lo - 1] = distances[order[i]];
+        }
+        System.arraycopy(sortedVectors, 0, vectors, (lo + 1) * dimensions, sortedVectors.length);
+        System.arraycopy(sortedLabels, 0, labels, lo + 1, sortedLabels.length);
+
+        int split = lo + 1 + (hi - lo - 1 + 1) / 2;
+        thresholds[lo] = (float) sortedDistances[split - lo - 2];
+        splits[lo] = split;
+        buildRange(lo + 1, split, random, distances, order);
+        buildRange(split, hi, random, distances, order);
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        for (int d = 0; d < dimensions; d++) {
+            float tmp = vectors[a * dimensions + d];
+            vectors[a * dimensions + d] = vectors[b * dimensions + d];
+            vectors[b * dimensions + d] = tmp;
+        }
+        int tmp = labels[a];
+        labels[a] = labels[b];
+        labels[b] = tmp;
+    }
+
+    private static float distance(float[] a, int aOffset, float[] b, int bOffset, int dimensions) {
+        float sum = 0f;
+        for (int d = 0; d < dimensions; d++) {
+            float diff = a[aOffset + d] - b[bOffset + d];
+            sum += diff * diff;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * The search method finds the nearest vectors to the query, at most k of them.
+     *
+     * @param query vector of {@link #dimensions()} floats
+     * @param maxEvaluations maximum number of distances computed
+     * @param neighbours where the neighbours are stored, nearest first, it decides k
+     */
+    public void search(float[] query, int maxEvaluations, Neighbours neighbours) {
+        neighbours.clear();
+        searchRange(0, labels.length, query, maxEvaluations, neighbours);
+    }
+
+    private void searchRange(int lo, int hi, float[] query, int maxEvaluations, Neighbours neighbours) {
+        if (lo >= hi || neighbours.evaluations >= maxEvaluations) {
+            return;
+        }
+        float d = distance(query, 0, vectors, lo * dimensions, dimensions);
+        neighbours.evaluations++;
+        neighbours.offer(d, labels[lo]);
+        int split = splits[lo];
+        if (lo + 1 >= hi) {
+            return;
+        }
+        float threshold = thresholds[lo];
+        if (d <= threshold) {
+            searchRange(lo + 1, split, query, maxEvaluations, neighbours);
+            if (d + neighbours.radius() >= threshold) {
+                searchRange(split, hi, query, maxEvaluations, neighbours);
+            }
+        } else {
+            searchRange(split, hi, query, maxEvaluations, neighbours);
+            if (d - neighbours.radius() <= threshold) {
+                searchRange(lo + 1, split, query, maxEvaluations, neighbours);
+            }
+        }
+    }
+
+    /**
+     * The k nearest vectors found by a search, kept sorted from the nearest in preallocated
+     * arrays so a search does not create any object.
+     */
+    public static final class Neighbours {
+
+        private final float[] distances;
+        private final int[] labels;
+        private int count;
+        int evaluations;
+
+        /**
+         * @param k number of neighbours to keep
+         */
+        public Neighbours(int k) {
+            if (k <= 0) {
+                throw new IllegalArgumentException("k must be positive: " + k);
+            }
+            distances = new float[k];
+            labels = new int[k];
+        }
+
+        void clear() {
+            count = 0;
+            evaluations = 0;
+        }
+
+        void offer(float distance, int label) {
+            if (count == distances.length && distance >= distances[count - 1]) {
+                return;
+            }
+            int i = count == distances.length ? count - 1 : count++;
+            while (i > 0 && distances[i - 1] > distance) {
+                distances[i] = distances[i - 1];
+                labels[i] = labels[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            labels[i] = label;
+        }
+
+        // Distance of the farthest neighbour kept, infinite until k have been found
+        float radius() {
+            return count == distances.length ? distances[count - 1] : Float.POSITIVE_INFINITY;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public float distance(int i) {
+            return distances[i];
+        }
+
+        public int label(int i) {
+            return labels[i];
+        }
+
+        /**
+         * @return number of distances computed by the last search
+         */
+        public int evaluations() {
+            return evaluations;
+        }
+    }
+}
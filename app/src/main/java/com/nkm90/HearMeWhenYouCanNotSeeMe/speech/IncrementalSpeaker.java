@@ -0,0 +1,184 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Speaks the sentence while it is being signed: each word is queued on the {@link SpeechEngine} as
+ * soon as it is committed, instead of waiting for the whole text.
+ *
+ * <p>The phrases spoken more than once are synthesized into a {@link PhraseCache}, and the next
+ * time they are played from their file without any synthesis delay. The files are only
+ * synthesized while nothing is being spoken, because the engine queues them with the speech.
+ *
+ * <p>The methods are synchronized: words come from the recognition thread, phrases from the UI
+ * thread and the end of the utterances from a thread of the engine.
+ */
+public class IncrementalSpeaker implements SpeechEngine.Listener {
+
+    /** Times a phrase has to be spoken before it is cached. */
+    public static final int CACHE_AFTER_USES = 2;
+    // Phrases whose uses are counted, the least recently spoken are forgotten
+    private static final int MAX_COUNTED_PHRASES = 512;
+    private static final String SPEAK_PREFIX = "speak:";
+    private static final String CACHE_PREFIX = "cache:";
+
+    private final SpeechEngine engine;
+    private final PhraseCache cache;
+    private final Map<String, Integer> uses = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_COUNTED_PHRASES;
+        }
+    };
+    // Utterances queued on the engine and not finished yet
+    private final Set<String> speaking = new HashSet<>();
+    // Phrases to synthesize into the cache when the engine is idle, by key
+    private final Map<String, String> toCache = new HashMap<>();
+    private final ArrayDeque<String> cacheQueue = new ArrayDeque<>();
+    // Key and utterance of the phrase being synthesized
+    private String caching;
+    private String cachingId;
+    private String language = "en";
+    private float pitch = 1f;
+    private float speed = 1f;
+    private long nextUtterance;
+    private int cachedPlays;
+
+    /**
+     * @param engine engine that speaks, this speaker becomes its listener
+     * @param cache cache of the synthesized phrases
+     */
+    public IncrementalSpeaker(SpeechEngine engine, PhraseCache cache) {
+        this.engine = engine;
+        this.cache = cache;
+        engine.setListener(this);
+    }
+
+    /**
+     * Sets the voice used from the next phrase.
+     *
+     * @return false when the language is not available
+     */
+    public synchronized boolean setVoice(String language, float pitch, float speed) {
+        this.language = language;
+        this.pitch = pitch;
+        this.speed = speed;
+        return engine.setVoice(language, pitch, speed);
+    }
+
+    /**
+     * Queues a word after what is being spoken, called when the word is committed.
+     */
+    public synchronized void speakWord(String word) {
+        say(word, false);
+    }
+
+    /**
+     * Speaks a whole text, dropping what was being spoken.
+     */
+    public synchronized void speakPhrase(String text) {
+        say(text, true);
+    }
+
+    /**
+     * Stops speaking. The phrases waiting to be cached are kept.
+     */
+    public synchronized void stop() {
+        speaking.clear();
+        dropSynthesis();
+        engine.stop();
+    }
+
+    // The synthesis queued is dropped with the speech, it is started again when idle
+    private void dropSynthesis() {
+        if (caching != null) {
+            cacheQueue.addFirst(caching);
+            caching = null;
+            cachingId = null;
+        }
+    }
+
+    /**
+     * @return number of phrases played from the cache
+     */
+    public synchronized int cachedPlays() {
+        return cachedPlays;
+    }
+
+    private void say(String text, boolean flush) {
+        String phrase = text.trim().toLowerCase(Locale.forLanguageTag(language));
+        if (phrase.isEmpty()) {
+            return;
+        }
+        if (flush) {
+            speaking.clear();
+            dropSynthesis();
+        }
+        String key = PhraseCache.key(phrase, language, pitch, speed);
+        String id = SPEAK_PREFIX + nextUtterance++;
+        speaking.add(id);
+        File audio = cache.get(key);
+        if (audio != null) {
+            cachedPlays++;
+            engine.play(audio, flush, id);
+            return;
+        }
+        engine.speak(phrase, flush, id);
+        int count = uses.merge(key, 1, Integer::sum);
+        if (count >= CACHE_AFTER_USES && !toCache.containsKey(key)) {
+            toCache.put(key, phrase);
+            cacheQueue.add(key);
+        }
+    }
+
+    @Override
+    public synchronized void onDone(String utteranceId) {
+        if (utteranceId.equals(cachingId)) {
+            cache.put(caching);
+            toCache.remove(caching);
+            caching = null;
+            cachingId = null;
+        } else {
+            speaking.remove(utteranceId);
+        }
+        cacheWhenIdle();
+    }
+
+    @Override
+    public synchronized void onError(String utteranceId) {
+        if (utteranceId.equals(cachingId)) {
+            // The phrase cannot be synthesized, it is spoken live from now on
+            cache.temporaryFile(caching).delete();
+            toCache.remove(caching);
+            caching = null;
+            cachingId = null;
+        } else {
+            speaking.remove(utteranceId);
+        }
+        cacheWhenIdle();
+    }
+
+    private void cacheWhenIdle() {
+        if (!speaking.isEmpty() || caching != null) {
+            return;
+        }
+        String key;
+        while ((key = cacheQueue.poll()) != null) {
+            String phrase = toCache.get(key);
+            if (phrase != null && cache.get(key) == null) {
+                caching = key;
+                cachingId = CACHE_PREFIX + nextUtterance++;
+                engine.synthesizeToFile(phrase, cache.temporaryFile(key), cachingId);
+                return;
+            }
+            toCache.remove(key);
+        }
+    }
+}
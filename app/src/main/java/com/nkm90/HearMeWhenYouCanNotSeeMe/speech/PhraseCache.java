@@ -0,0 +1,146 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Least recently used cache of synthesized phrases on disk, so the frequent phrases of a
+ * conversation are played straight away instead of waiting for the speech engine to synthesize
+ * them again.
+ *
+ * <p>Each phrase is a file of the directory named after the hash of its text, language, pitch and
+ * speed, since the same text spoken with another voice is another audio. The order of use is kept
+ * in the last modified time of the files, so it survives the app being closed. When the files
+ * take more than the maximum size the least recently used ones are deleted. The methods are
+ * synchronized, the cache can be used from the recognition thread and the engine callbacks.
+ */
+public class PhraseCache {
+
+    static final String EXTENSION = ".wav";
+    static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    // Key to size of the file, in order of use, the least recent first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    /**
+     * Opens the cache, creating the directory if needed and reading the files already there.
+     *
+     * @param directory directory only used by this cache
+     * @param maxBytes size the files of the cache must stay under
+     */
+    public PhraseCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        directory.mkdirs();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(EXTENSION)) {
+                String key = name.substring(0, name.length() - EXTENSION.length());
+                entries.put(key, file.length());
+                bytes += file.length();
+            } else if (name.endsWith(TEMPORARY_EXTENSION)) {
+                file.delete(); // synthesis interrupted when the app was closed
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Method that computes the key of a phrase.
+     *
+     * @param text text of the phrase
+     * @param language language tag of the voice
+     * @param pitch pitch of the voice
+     * @param speed speed of the voice
+     * @return key made of hexadecimal digits, usable as file name
+     */
+    public static String key(String text, String language, float pitch, float speed) {
+        String phrase = String.format(Locale.ROOT, "%s\n%s\n%.2f\n%.2f", text, language, pitch, speed);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(phrase.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is always available", e);
+        }
+    }
+
+    /**
+     * @return the audio of the phrase, marked as just used, or null when it is not cached
+     */
+    public synchronized File get(String key) {
+        if (entries.get(key) == null) {
+            return null;
+        }
+        File file = new File(directory, key + EXTENSION);
+        if (!file.isFile()) {
+            bytes -= entries.remove(key);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * @return the file where the speech engine writes the audio of the phrase before {@link #put}
+     */
+    public File temporaryFile(String key) {
+        return new File(directory, key + TEMPORARY_EXTENSION);
+    }
+
+    /**
+     * Method that adds the audio written in the temporary file of the phrase to the cache, and
+     * deletes the least recently used phrases if the cache gets too big.
+     *
+     * @param key key of the phrase
+     * @return false when the temporary file is missing or empty
+     */
+    public synchronized boolean put(String key) {
+        File temporary = temporaryFile(key);
+        File file = new File(directory, key + EXTENSION);
+        if (temporary.length() == 0 || !temporary.renameTo(file)) {
+            temporary.delete();
+            return false;
+        }
+        Long previous = entries.put(key, file.length());
+        bytes += file.length() - (previous == null ? 0 : previous);
+        evict();
+        return true;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey() + EXTENSION).delete();
+            bytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import java.io.File;
+
+/**
+ * The operations of the Android TextToSpeech used by the app, so the {@link IncrementalSpeaker}
+ * can be tested on the development machine with a fake engine.
+ *
+ * <p>Every request is queued by the engine and identified by an utterance id, and the engine
+ * reports on its own thread when each one ends.
+ */
+public interface SpeechEngine {
+
+    /**
+     * Receives the end of the utterances, on a thread of the engine.
+     */
+    interface Listener {
+        /**
+         * The utterance was spoken, or its file was written.
+         */
+        void onDone(String utteranceId);
+
+        /**
+         * The utterance failed, or it was stopped before the end.
+         */
+        void onError(String utteranceId);
+    }
+
+    void setListener(Listener listener);
+
+    /**
+     * Sets the voice of the next utterances.
+     *
+     * @param language language tag, for example "en" or "es"
+     * @param pitch 1 is the normal pitch
+     * @param speed 1 is the normal speed
+     * @return false when the language is not available
+     */
+    boolean setVoice(String language, float pitch, float speed);
+
+    /**
+     * Synthesizes and speaks a text.
+     *
+     * @param text text to speak
+     * @param flush true to drop what is queued, false to speak after it
+     * @param utteranceId id reported to the listener
+     */
+    void speak(String text, boolean flush, String utteranceId);
+
+    /**
+     * Plays an audio file written by {@link #synthesizeToFile}.
+     *
+     * @param audio file to play
+     * @param flush true to drop what is queued, false to play after it
+     * @param utteranceId id reported to the listener
+     */
+    void play(File audio, boolean flush, String utteranceId);
+
+    /**
+     * Synthesizes a text into an audio file instead of speaking it. The request is queued after
+     * the utterances already queued.
+     *
+     * @param text text to synthesize
+     * @param file where the audio is written
+     * @param utteranceId id reported to the listener when the file is complete
+     */
+    void synthesizeToFile(String text, File file, String utteranceId);
+
+    /**
+     * Stops speaking and drops everything queued.
+     */
+    void stop();
+
+    /**
+     * Releases the engine, it cannot be used anymore.
+     */
+    void shutdown();
+}
@@ -0,0 +1,71 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import java.util.Arrays;
+
+/**
+ * Cost of reading one letter instead of another, used by the {@link SpellingCorrector}. Handshapes
+ * that differ only in small details, like the closed fists of M, N, S and T, are easily swapped by
+ * the recognition, so replacing one of them by another costs less than an unrelated letter.
+ */
+public final class LetterConfusion {
+
+    /** Cost of replacing a letter by any other one. */
+    public static final float SUBSTITUTION_COST = 1f;
+    /** Cost of replacing a letter by one often confused with it. */
+    public static final float CONFUSABLE_COST = 0.5f;
+
+    // Letters of the manual alphabet made with similar handshapes, each group confused within
+    private static final String[] FINGERSPELLING_GROUPS = {"AEMNST", "KRUV", "GHPQ", "IJY", "CO", "DXZ"};
+
+    private final float[] costs = new float[26 * 26];
+
+    /**
+     * Creates a table where every substitution costs {@link #SUBSTITUTION_COST}.
+     */
+    public LetterConfusion() {
+        Arrays.fill(costs, SUBSTITUTION_COST);
+        for (int letter = 0; letter < 26; letter++) {
+            costs[letter * 26 + letter] = 0f;
+        }
+    }
+
+    /**
+     * @return a table with the letters of the manual alphabet that are easily confused
+     */
+    public static LetterConfusion forFingerspelling() {
+        LetterConfusion confusion = new LetterConfusion();
+        for (String group : FINGERSPELLING_GROUPS) {
+            for (int i = 0; i < group.length(); i++) {
+                for (int j = i + 1; j < group.length(); j++) {
+                    confusion.setCost(group.charAt(i), group.charAt(j), CONFUSABLE_COST);
+                }
+            }
+        }
+        return confusion;
+    }
+
+    /**
+     * Sets the cost of replacing a by b and b by a.
+     *
+     * @param a letter from A to Z
+     * @param b letter from A to Z
+     * @param cost cost bigger than 0 and up to {@link #SUBSTITUTION_COST}
+     */
+    public void setCost(char a, char b, float cost) {
+        if (a < 'A' || a > 'Z' || b < 'A' || b > 'Z' || a == b) {
+            throw new IllegalArgumentException("Not two different letters: " + a + " " + b);
+        }
+        if (!(cost > 0f && cost <= SUBSTITUTION_COST)) {
+            throw new IllegalArgumentException("Cost out of range: " + cost);
+        }
+        costs[(a - 'A') * 26 + (b - 'A')] = cost;
+        costs[(b - 'A') * 26 + (a - 'A')] = cost;
+    }
+
+    /**
+     * @return cost of reading the letter a when b was signed, 0 when they are the same
+     */
+    public float cost(char a, char b) {
+        return costs[(a - 'A') * 26 + (b - 'A')];
+    }
+}
@@ -0,0 +1,370 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Corrects the letters misread while a word was fingerspelled, when the word is committed.
+ *
+ * <p>It follows the symmetric delete idea of SymSpell: every string that can be made by deleting
+ * up to {@link #maxEdits()} letters of a dictionary word is hashed once, when the corrector is
+ * built, into a table that points to the words it came from. Correcting a word generates the
+ * deletions of the word read and looks each one up in the table, so finding the candidates costs a
+ * few hash probes whatever the size of the dictionary, instead of comparing the word with every
+ * entry. The candidates are then ranked with an edit distance whose substitution costs come from a
+ * {@link LetterConfusion} table, so a T read as S is a smaller mistake than a T read as B, and
+ * where reading a letter twice in a row, as happens when a sign is held too long, costs half an
+ * edit.
+ *
+ * <p>By default a word is only corrected when the difference is a mistake the recognition is
+ * likely to make, one confusable letter or one letter read twice, so the cost stays below
+ * {@link LetterConfusion#SUBSTITUTION_COST}. Fingerspelling is mostly used for names and words
+ * without a sign, which are not in the dictionary, and any plain edit would turn them into the
+ * nearest common word.
+ *
+ * <p>The index is immutable, but the buffers used to correct a word belong to the instance, so a
+ * corrector must only be used from one thread at a time.
+ */
+public final class SpellingCorrector {
+
+    /** Deletions indexed for each word by default, SymSpell uses 2 as well. */
+    public static final int DEFAULT_MAX_EDITS = 2;
+    /** Highest cost of a correction by default: one confusable letter or one letter read twice. */
+    public static final float DEFAULT_MAX_COST = LetterConfusion.CONFUSABLE_COST;
+    /** Words shorter than this are left as they are, there is not enough of them to guess. */
+    public static final int MIN_WORD_LENGTH = 3;
+    static final int MAX_EDITS_LIMIT = 3;
+
+    // Letter of the word that was not read
+    static final float INSERTION_COST = 1f;
+    // Letter read that is not in the word
+    static final float DELETION_COST = 1f;
+    // Letter read twice in a row that is once in the word
+    static final float REPEAT_DELETION_COST = 0.5f;
+    static final float TRANSPOSITION_COST = 1f;
+
+    private final char[][] words;
+    private final int[] frequencies;
+    private final int maxEdits;
+    private final float maxCost;
+    private final LetterConfusion confusion;
+
+    // Open addressing table from the hash of a deletion to its words,
+    // postings[postingStart[slot]] to postings[postingStart[slot + 1]]
+    private final long[] keys;
+    private final int mask;
+    private final int[] postingStart;
+    private final int[] postings;
+
+    // Buffers of the correction: the word and its deletions, the hashes and the rows of the distance
+    private final char[] read = new char[WordTrie.MAX_WORD_LENGTH];
+    private final char[][] levels;
+    private final long[] deletions;
+    private final int[] seen;
+    private int query;
+    private final float[] row0 = new float[WordTrie.MAX_WORD_LENGTH + 1];
+    private final float[] row1 = new float[WordTrie.MAX_WORD_LENGTH + 1];
+    private final float[] row2 = new float[WordTrie.MAX_WORD_LENGTH + 1];
+
+    /**
+     * Creates a corrector with the default number of edits and cost, and the confusions of the
+     * manual alphabet.
+     *
+     * @param trie words of the language
+     * @return the corrector
+     */
+    public static SpellingCorrector fromTrie(WordTrie trie) {
+        List<String> words = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        trie.forEachWord((letters, length, frequency) -> {
+            words.add(new String(letters, 0, length));
+            frequencies.add(frequency);
+        });
+        int[] counts = new int[frequencies.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = frequencies.get(i);
+        }
+        return new SpellingCorrector(words.toArray(new String[0]), counts, DEFAULT_MAX_EDITS, DEFAULT_MAX_COST,
+                LetterConfusion.forFingerspelling());
+    }
+
+    /**
+     * @param words dictionary, in upper case letters A to Z
+     * @param frequencies frequency of each word, used to choose between corrections of the same cost
+     * @param maxEdits deletions indexed for each word, from 1 to 3
+     * @param maxCost highest cost of a correction
+     * @param confusion cost of each substitution
+     */
+    public SpellingCorrector(String[] words, int[] frequencies, int maxEdits, float maxCost,
+                             LetterConfusion confusion) {
+        if (words.length != frequencies.length) {
+            throw new IllegalArgumentException(words.length + " words but " + frequencies.length + " frequencies");
+        }
+        if (maxEdits < 1 || maxEdits > MAX_EDITS_LIMIT) {
+            throw new IllegalArgumentException("Edits out of range: " + maxEdits);
+        }
+        this.maxEdits = maxEdits;
+        this.maxCost = maxCost;
+        this.confusion = confusion;
+        this.frequencies = frequencies.clone();
+        this.words = new char[words.length][];
+        this.levels = new char[maxEdits + 1][WordTrie.MAX_WORD_LENGTH];
+        this.deletions = new long[deletionCount(WordTrie.MAX_WORD_LENGTH, maxEdits)];
+        this.seen = new int[words.length];
+
+        // First pass: the distinct deletions of every word, and how many words each one has
+        LongIntTable counts = new LongIntTable();
+        int total = 0;
+        for (int id = 0; id < words.length; id++) {
+            this.words[id] = checkWord(words[id]);
+            int count = uniqueDeletions(this.words[id]);
+            for (int k = 0; k < count; k++) {
+                counts.increment(deletions[k]);
+            }
+            total += count;
+        }
+        this.keys = counts.keys;
+        this.mask = keys.length - 1;
+        this.postingStart = new int[keys.length + 1];
+        for (int slot = 0; slot < keys.length; slot++) {
+            postingStart[slot + 1] = postingStart[slot] + counts.values[slot];
+        }
+        // Second pass: the words of each deletion
+        this.postings = new int[total];
+        int[] next = Arrays.copyOf(postingStart, keys.length);
+        for (int id = 0; id < words.length; id++) {
+            int count = uniqueDeletions(this.words[id]);
+            for (int k = 0; k < count; k++) {
+                postings[next[find(deletions[k])]++] = id;
+            }
+        }
+    }
+
+    private static char[] checkWord(String word) {
+        if (word.isEmpty() || word.length() > WordTrie.MAX_WORD_LENGTH) {
+            throw new IllegalArgumentException("Word length out of range: " + word);
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < 'A' || word.charAt(i) > 'Z') {
+                throw new IllegalArgumentException("Not a word of letters A to Z: " + word);
+            }
+        }
+        return word.toCharArray();
+    }
+
+    // Number of strings made by deleting up to maxEdits letters of a word, counting the word
+    private static int deletionCount(int length, int maxEdits) {
+        int total = 0;
+        long combinations = 1;
+        for (int k = 0; k <= maxEdits && k <= length; k++) {
+            total += combinations;
+            combinations = combinations * (length - k) / (k + 1);
+        }
+        return total;
+    }
+
+    private int uniqueDeletions(char[] word) {
+        System.arraycopy(word, 0, levels[0], 0, word.length);
+        int count = addDeletions(0, word.length, 0, 0);
+        Arrays.sort(deletions, 0, count);
+        int unique = 0;
+        for (int k = 0; k < count; k++) {
+            if (unique == 0 || deletions[unique - 1] != deletions[k]) {
+                deletions[unique++] = deletions[k];
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Adds the hash of the string in levels[level] and of every string made by deleting letters of
+     * it from position `from`, so each set of positions is deleted once.
+     */
+    private int addDeletions(int level, int length, int from, int count) {
+        char[] source = levels[level];
+        deletions[count++] = hash(source, length);
+        if (level < maxEdits && length > 1) {
+            char[] target = levels[level + 1];
+            for (int i = from; i < length; i++) {
+                System.arraycopy(source, 0, target, 0, i);
+                System.arraycopy(source, i + 1, target, i, length - i - 1);
+                count = addDeletions(level + 1, length - 1, i, count);
+            }
+        }
+        return count;
+    }
+
+    // 64-bit FNV-1a, 0 marks the empty slots of the table
+    static long hash(char[] letters, int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash ^= letters[i];
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int find(long hash) {
+        for (int slot = slot(hash, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == hash) {
+                return slot;
+            }
+            if (keys[slot] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    public int maxEdits() {
+        return maxEdits;
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * The correct method finds the dictionary word closest to a word read from the signs.
+     *
+     * @param text text with the word
+     * @param start index of the first letter of the word
+     * @param end index after the last letter of the word
+     * @return the correction, or null when the word is in the dictionary, it is too short or too
+     * long, or no word is close enough
+     */
+    public String correct(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < MIN_WORD_LENGTH || length > WordTrie.MAX_WORD_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            char letter = Character.toUpperCase(text.charAt(start + i));
+            if (letter < 'A' || letter > 'Z') {
+                return null;
+            }
+            read[i] = letter;
+        }
+        System.arraycopy(read, 0, levels[0], 0, length);
+        int count = addDeletions(0, length, 0, 0);
+        if (++query == 0) {
+            Arrays.fill(seen, 0);
+            query = 1;
+        }
+        int best = -1;
+        float bestCost = maxCost;
+        for (int k = 0; k < count; k++) {
+            int slot = find(deletions[k]);
+            if (slot < 0) {
+                continue;
+            }
+            for (int p = postingStart[slot], last = postingStart[slot + 1]; p < last; p++) {
+                int id = postings[p];
+                if (seen[id] == query) {
+                    continue;
+                }
+                seen[id] = query;
+                float cost = distance(read, length, words[id], bestCost);
+                if (cost == 0f) {
+                    return null; // already a word
+                }
+                if (cost < bestCost || (cost == bestCost && (best < 0 || frequencies[id] > frequencies[best]))) {
+                    best = id;
+                    bestCost = cost;
+                }
+            }
+        }
+        return best < 0 ? null : new String(words[best]);
+    }
+
+    /**
+     * Weighted edit distance between the letters read and a dictionary word, with adjacent
+     * transpositions. It gives up as soon as every path costs more than the limit.
+     *
+     * @return the distance, or a value bigger than the limit
+     */
+    float distance(char[] letters, int length, char[] word, float limit) {
+        int wordLength = word.length;
+        if (Math.abs(length - wordLength) * Math.min(INSERTION_COST, REPEAT_DELETION_COST) > limit) {
+            return Float.POSITIVE_INFINITY;
+        }
+        float[] before = row0;
+        float[] previous = row1;
+        float[] current = row2;
+        previous[0] = 0f;
+        for (int j = 1; j <= wordLength; j++) {
+            previous[j] = previous[j - 1] + INSERTION_COST;
+        }
+        for (int i = 1; i <= length; i++) {
+            char letter = letters[i - 1];
+            float deletion = i > 1 && letters[i - 2] == letter ? REPEAT_DELETION_COST : DELETION_COST;
+            current[0] = previous[0] + deletion;
+            float rowMin = current[0];
+            for (int j = 1; j <= wordLength; j++) {
+                char expected = word[j - 1];
+                float cost = Math.min(previous[j] + deletion, current[j - 1] + INSERTION_COST);
+                cost = Math.min(cost, previous[j - 1] + confusion.cost(letter, expected));
+                if (i > 1 && j > 1 && letter == word[j - 2] && letters[i - 2] == expected && letter != expected) {
+                    cost = Math.min(cost, before[j - 2] + TRANSPOSITION_COST);
+                }
+                current[j] = cost;
+                rowMin = Math.min(rowMin, cost);
+            }
+            if (rowMin > limit) {
+                return rowMin;
+            }
+            float[] free = before;
+            before = previous;
+            previous = current;
+            current = free;
+        }
+        return previous[wordLength];
+    }
+
+    /**
+     * Open addressing map from long to int used while building the index.
+     */
+    private static final class LongIntTable {
+        long[] keys = new long[64];
+        int[] values = new int[64];
+        private int size;
+
+        void increment(long key) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot]++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
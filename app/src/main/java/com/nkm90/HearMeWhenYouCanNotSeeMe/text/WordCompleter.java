@@ -0,0 +1,92 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+/**
+ * Suggests the words that complete the last word of the sentence being fingerspelled, using a
+ * {@link WordTrie}.
+ *
+ * <p>The suggestions are only looked up again when the sentence changes, which the caller tells by
+ * passing a new String instance, so calling {@link #update} on every camera frame costs a
+ * reference compare. It must only be used from one thread.
+ */
+public class WordCompleter {
+
+    /** Number of words suggested by default. */
+    public static final int DEFAULT_SUGGESTIONS = 3;
+    /** Text put between the suggestions shown. */
+    public static final String SEPARATOR = "  ";
+
+    private final WordTrie trie;
+    private final WordTrie.Completions completions;
+    private final StringBuilder text = new StringBuilder();
+    private String sentence;
+    private String suggestions = "";
+
+    public WordCompleter(WordTrie trie) {
+        this(trie, DEFAULT_SUGGESTIONS);
+    }
+
+    /**
+     * @param trie words of the language
+     * @param k number of words suggested
+     */
+    public WordCompleter(WordTrie trie, int k) {
+        this.trie = trie;
+        this.completions = new WordTrie.Completions(k);
+    }
+
+    /**
+     * The update method finds the completions of the word being spelled at the end of the
+     * sentence. Nothing is suggested when the sentence is empty or ends with a space.
+     *
+     * @param sentence current sentence, compared by reference with the last one
+     * @return the suggestions separated by {@link #SEPARATOR}, the same instance while they do not change
+     */
+    public String update(String sentence) {
+        if (sentence == this.sentence) {
+            return suggestions;
+        }
+        this.sentence = sentence;
+        int start = wordStart(sentence);
+        if (start == sentence.length()) {
+            completions.clear();
+        } else {
+            trie.complete(sentence, start, sentence.length(), completions);
+        }
+        text.setLength(0);
+        for (int i = 0; i < completions.count(); i++) {
+            if (i > 0) {
+                text.append(SEPARATOR);
+            }
+            completions.appendTo(i, text);
+        }
+        if (!suggestions.contentEquals(text)) {
+            suggestions = text.toString();
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return the suggestions of the last update
+     */
+    public String suggestions() {
+        return suggestions;
+    }
+
+    /**
+     * @return the most frequent completion of the last update, or null when there is none
+     */
+    public String best() {
+        return completions.count() == 0 ? null : completions.word(0);
+    }
+
+    /**
+     * @return index of the first letter of the last word of the sentence
+     */
+    public static int wordStart(CharSequence sentence) {
+        int start = sentence.length();
+        while (start > 0 && sentence.charAt(start - 1) != ' ') {
+            start--;
+        }
+        return start;
+    }
+}
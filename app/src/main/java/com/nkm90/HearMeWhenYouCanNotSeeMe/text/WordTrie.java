@@ -0,0 +1,260 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Prefix tree of the words of a language with their frequency, read straight from a packed
+ * binary file written by {@link WordTrieBuilder}, usually memory-mapped from the assets.
+ *
+ * <p>Each node is stored as its own frequency (0 when the path to it is not a word), the best
+ * frequency of any word below it, the number of children and, for each child, its letter and the
+ * offset of its node. The children are sorted by their best frequency, so the most frequent
+ * completions are found first and the search stops as soon as no branch left can beat the k words
+ * already found. Finding the completions of a prefix does not create any object and only touches
+ * the nodes on the way, so it takes microseconds and the file does not need to be loaded.
+ *
+ * <p>The keys are the letters A to Z that can be fingerspelled: the words are stored in upper
+ * case without accents. The trie is immutable and can be shared between threads, each thread
+ * using its own {@link Completions}.
+ */
+public final class WordTrie {
+
+    /** First bytes of a trie file, "HMWT". */
+    static final int MAGIC = 0x484D5754;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ROOT = HEADER_BYTES;
+    // frequency (int), best frequency below (int) and child count (byte)
+    static final int NODE_HEADER_BYTES = 9;
+    // letter (byte) and node offset (int)
+    static final int CHILD_BYTES = 5;
+    /** Longest word stored. */
+    public static final int MAX_WORD_LENGTH = 48;
+
+    private final ByteBuffer data;
+    private final int wordCount;
+
+    /**
+     * @param data bytes of a trie file, from its first byte
+     * @throws IOException when the bytes are not a word trie
+     */
+    public WordTrie(ByteBuffer data) throws IOException {
+        this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (this.data.limit() < HEADER_BYTES + NODE_HEADER_BYTES || this.data.getInt(0) != MAGIC) {
+            throw new IOException("Not a word trie");
+        }
+        if (this.data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported word trie version " + this.data.getInt(4));
+        }
+        this.wordCount = this.data.getInt(12);
+    }
+
+    /**
+     * Method that memory-maps a trie file.
+     *
+     * @param file trie written by {@link WordTrieBuilder}
+     * @return the trie
+     * @throws IOException when the file cannot be read or it is not a trie
+     */
+    public static WordTrie open(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            // The mapping stays valid after the channel is closed
+            return new WordTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * The complete method finds the most frequent words starting with the prefix. Letters other
+     * than A to Z in the prefix never match.
+     *
+     * @param prefix text with the start of the word, in upper or lower case
+     * @param start index of the first letter of the prefix in the text
+     * @param end index after the last letter of the prefix
+     * @param out where the completions are stored, most frequent first; its size decides k
+     * @return number of completions found
+     */
+    public int complete(CharSequence prefix, int start, int end, Completions out) {
+        out.clear();
+        if (end - start > MAX_WORD_LENGTH) {
+            return 0;
+        }
+        int node = ROOT;
+        for (int i = start; i < end; i++) {
+            char letter = Character.toUpperCase(prefix.charAt(i));
+            node = child(node, letter);
+            if (node < 0) {
+                return 0;
+            }
+            out.path[i - start] = letter;
+        }
+        search(node, end - start, out);
+        return out.count();
+    }
+
+    /**
+     * @return frequency of the word, 0 when it is not in the trie
+     */
+    public int frequency(CharSequence word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length() && node >= 0; i++) {
+            node = child(node, Character.toUpperCase(word.charAt(i)));
+        }
+        return node < 0 ? 0 : data.getInt(node);
+    }
+
+    /**
+     * Receives the words of the trie, see {@link #forEachWord}.
+     */
+    public interface WordVisitor {
+        /**
+         * @param letters buffer with the word, only valid during the call
+         * @param length number of letters of the word
+         * @param frequency frequency of the word
+         */
+        void word(char[] letters, int length, int frequency);
+    }
+
+    /**
+     * The forEachWord method goes through every word of the trie, the most frequent branches
+     * first. It is meant to build other indexes from the words, not for the camera frames.
+     *
+     * @param visitor receives each word
+     */
+    public void forEachWord(WordVisitor visitor) {
+        visit(ROOT, new char[MAX_WORD_LENGTH], 0, visitor);
+    }
+
+    private void visit(int node, char[] path, int depth, WordVisitor visitor) {
+        int frequency = data.getInt(node);
+        if (frequency > 0) {
+            visitor.word(path, depth, frequency);
+        }
+        int count = data.get(node + 8) & 0xFF;
+        int entry = node + NODE_HEADER_BYTES;
+        for (int i = 0; i < count; i++, entry += CHILD_BYTES) {
+            path[depth] = (char) data.get(entry);
+            visit(data.getInt(entry + 1), path, depth + 1, visitor);
+        }
+    }
+
+    private int child(int node, char letter) {
+        int count = data.get(node + 8) & 0xFF;
+        int entry = node + NODE_HEADER_BYTES;
+        for (int i = 0; i < count; i++, entry += CHILD_BYTES) {
+            if (data.get(entry) == (byte) letter) {
+                return data.getInt(entry + 1);
+            }
+        }
+        return -1;
+    }
+
+    private void search(int node, int depth, Completions out) {
+        ByteBuffer buffer = data;
+        if (out.isFull() && buffer.getInt(node + 4) <= out.lowestFrequency()) {
+            return;
+        }
+        int frequency = buffer.getInt(node);
+        if (frequency > 0) {
+            out.offer(depth, frequency);
+        }
+        int count = buffer.get(node + 8) & 0xFF;
+        int entry = node + NODE_HEADER_BYTES;
+        for (int i = 0; i < count; i++, entry += CHILD_BYTES) {
+            int child = buffer.getInt(entry + 1);
+            // Sorted by best frequency, none of the next children can do better
+            if (out.isFull() && buffer.getInt(child + 4) <= out.lowestFrequency()) {
+                return;
+            }
+            out.path[depth] = (char) buffer.get(entry);
+            search(child, depth + 1, out);
+        }
+    }
+
+    /**
+     * The k best completions found by {@link #complete}, kept in preallocated char arrays sorted
+     * from the most frequent, so finding them does not create any object.
+     */
+    public static final class Completions {
+
+        final char[] path = new char[MAX_WORD_LENGTH];
+        private final char[][] words;
+        private final int[] lengths;
+        private final int[] frequencies;
+        private int count;
+
+        /**
+         * @param k number of completions to keep
+         */
+        public Completions(int k) {
+            if (k <= 0) {
+                throw new IllegalArgumentException("k must be positive: " + k);
+            }
+            words = new char[k][MAX_WORD_LENGTH];
+            lengths = new int[k];
+            frequencies = new int[k];
+        }
+
+        void clear() {
+            count = 0;
+        }
+
+        boolean isFull() {
+            return count == words.length;
+        }
+
+        int lowestFrequency() {
+            return frequencies[count - 1];
+        }
+
+        // Inserts the word on the path, keeping the arrays sorted, the least frequent drops out
+        void offer(int length, int frequency) {
+            if (isFull() && frequency <= lowestFrequency()) {
+                return;
+            }
+            int i = isFull() ? count - 1 : count++;
+            char[] free = words[i];
+            while (i > 0 && frequencies[i - 1] < frequency) {
+                words[i] = words[i - 1];
+                lengths[i] = lengths[i - 1];
+                frequencies[i] = frequencies[i - 1];
+                i--;
+            }
+            System.arraycopy(path, 0, free, 0, length);
+            words[i] = free;
+            lengths[i] = length;
+            frequencies[i] = frequency;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int frequency(int i) {
+            return frequencies[i];
+        }
+
+        /**
+         * @return the completion, as a new String
+         */
+        public String word(int i) {
+            return new String(words[i], 0, lengths[i]);
+        }
+
+        /**
+         * Appends the completion to the builder without creating a String.
+         */
+        public void appendTo(int i, StringBuilder out) {
+            out.append(words[i], 0, lengths[i]);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tool that packs a word frequency list into the binary file read by {@link WordTrie}. It runs on
+ * the development machine to produce the assets of the app:
+ * <pre>
+ * java com.nkm90.HearMeWhenYouCanNotSeeMe.text.WordTrieBuilder words_en.txt app/src/main/assets/words_en.trie
+ * </pre>
+ *
+ * <p>The list has one word per line followed by its count, separated by spaces or a tab, and the
+ * lines starting with # are comments. The words are turned to upper case and their accents are
+ * removed, because only the letters A to Z can be fingerspelled; the words with other characters
+ * are skipped and the counts of the words that end up the same are added. The words with an N with
+ * tilde are skipped too, as dropping its tilde gives a different Spanish word.
+ */
+public final class WordTrieBuilder {
+
+    private final Node root = new Node();
+    private int wordCount;
+
+    private static final class Node {
+        final Map<Character, Node> children = new TreeMap<>();
+        int frequency;
+        int best;
+        int offset;
+    }
+
+    /**
+     * Method that turns a word into the letters used as key, or returns null when it cannot be
+     * fingerspelled.
+     *
+     * @param word word as written
+     * @return the word in upper case without accents, or null
+     */
+    public static String normalize(String word) {
+        if (word.indexOf('\u00F1') >= 0 || word.indexOf('\u00D1') >= 0) {
+            return null;
+        }
+        String plain = Normalizer.normalize(word, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase(Locale.ROOT);
+        if (plain.isEmpty() || plain.length() > WordTrie.MAX_WORD_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return null;
+            }
+        }
+        return plain;
+    }
+
+    /**
+     * The add method adds a word to the trie, or adds its frequency if it is already there.
+     *
+     * @param word word as written
+     * @param frequency count of the word, positive
+     * @return false when the word cannot be fingerspelled and was skipped
+     */
+    public boolean add(String word, int frequency) {
+        if (frequency <= 0) {
+            throw new IllegalArgumentException("Frequency must be positive: " + word + " " + frequency);
+        }
+        String key = normalize(word);
+        if (key == null) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        if (node.frequency == 0) {
+            wordCount++;
+        }
+        node.frequency = (int) Math.min(Integer.MAX_VALUE, (long) node.frequency + frequency);
+        return true;
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Method that reads a word frequency list.
+     *
+     * @param in text of the list
+     * @throws IOException when reading fails or a line is not valid
+     */
+    public void read(Reader in) throws IOException {
+        BufferedReader lines = new BufferedReader(in);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                add(parts[0], Integer.parseInt(parts[parts.length - 1]));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Line " + number + " is not 'word count': " + line);
+            }
+        }
+    }
+
+    /**
+     * Method that writes the packed trie.
+     *
+     * @param out where the file is written, it is not closed
+     * @throws IOException when writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        computeBest(root);
+        List<Node> nodes = new ArrayList<>();
+        int size = layout(root, WordTrie.ROOT, nodes);
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(WordTrie.MAGIC).putInt(WordTrie.VERSION).putInt(nodes.size()).putInt(wordCount);
+        for (Node node : nodes) {
+            buffer.putInt(node.frequency).putInt(node.best).put((byte) node.children.size());
+            for (Map.Entry<Character, Node> child : sortedChildren(node)) {
+                buffer.put((byte) child.getKey().charValue()).putInt(child.getValue().offset);
+            }
+        }
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    private static int computeBest(Node node) {
+        int best = node.frequency;
+        for (Node child : node.children.values()) {
+            best = Math.max(best, computeBest(child));
+        }
+        node.best = best;
+        return best;
+    }
+
+    // Assigns the offsets in depth-first order, so the nodes of a word are close in the file
+    private static int layout(Node node, int offset, List<Node> nodes) {
+        node.offset = offset;
+        nodes.add(node);
+        offset += WordTrie.NODE_HEADER_BYTES + node.children.size() * WordTrie.CHILD_BYTES;
+        for (Map.Entry<Character, Node> child : sortedChildren(node)) {
+            offset = layout(child.getValue(), offset, nodes);
+        }
+        return offset;
+    }
+
+    private static List<Map.Entry<Character, Node>> sortedChildren(Node node) {
+        List<Map.Entry<Character, Node>> children = new ArrayList<>(node.children.entrySet());
+        // Most frequent branch first, then alphabetical so the file is always the same
+        children.sort((a, b) -> a.getValue().best != b.getValue().best
+                ? Integer.compare(b.getValue().best, a.getValue().best)
+                : Character.compare(a.getKey(), b.getKey()));
+        return children;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: WordTrieBuilder <words.txt> <words.trie>");
+            System.exit(1);
+        }
+        WordTrieBuilder builder = new WordTrieBuilder();
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            builder.read(in);
+        }
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            builder.write(out);
+        }
+        System.out.println(builder.wordCount() + " words written to " + args[1]);
+    }
+}
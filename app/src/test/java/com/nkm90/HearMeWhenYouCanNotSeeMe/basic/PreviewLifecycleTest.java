@@ -0,0 +1,136 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreviewLifecycleTest {
+
+    /** Fake resource factory that counts what is open and records the order of the calls. */
+    private static final class Counter implements PreviewLifecycle.Opener {
+        private final String name;
+        private final List<String> calls;
+        int open;
+
+        Counter(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public PreviewLifecycle.Resource open() {
+            open++;
+            calls.add("open " + name);
+            boolean[] closed = new boolean[1];
+            return () -> {
+                assertTrue(name + " closed twice", !closed[0]);
+                closed[0] = true;
+                open--;
+                calls.add("close " + name);
+            };
+        }
+    }
+
+    @Test
+    public void pauseAndResume_reopenWithoutLeaking() {
+        List<String> calls = new ArrayList<>();
+        Counter converters = new Counter("converter", calls);
+        Counter cameras = new Counter("camera", calls);
+        PreviewLifecycle lifecycle = new PreviewLifecycle(converters, cameras);
+        for (int cycle = 0; cycle < 100; cycle++) {
+            lifecycle.resume(true);
+            assertEquals(1, converters.open);
+            assertEquals(1, cameras.open);
+            lifecycle.pause();
+            assertEquals(0, converters.open);
+            assertEquals(0, cameras.open);
+        }
+        // The camera restarts on every resume, not only the first one
+        assertEquals(100, lifecycle.camerasOpened());
+        assertEquals(100, lifecycle.convertersOpened());
+        assertEquals("[open converter, open camera, close camera, close converter]", calls.subList(0, 4).toString());
+    }
+
+    @Test
+    public void camera_startsWhenThePermissionArrives() {
+        List<String> calls = new ArrayList<>();
+        Counter converters = new Counter("converter", calls);
+        Counter cameras = new Counter("camera", calls);
+        PreviewLifecycle lifecycle = new PreviewLifecycle(converters, cameras);
+        lifecycle.resume(false);
+        assertEquals(0, lifecycle.openCameras());
+        lifecycle.allowCamera();
+        assertEquals(1, lifecycle.openCameras());
+        lifecycle.allowCamera();
+        assertEquals(1, cameras.open);
+
+        // Granted while paused, the camera waits for the next resume
+        lifecycle.pause();
+        lifecycle.allowCamera();
+        assertEquals(0, cameras.open);
+        lifecycle.resume(false);
+        assertEquals(1, cameras.open);
+        lifecycle.destroy();
+        assertEquals(0, converters.open + cameras.open);
+    }
+
+    @Test
+    public void anySequenceOfCallbacks_keepsAtMostOneOfEach() {
+        Random random = new Random(5);
+        List<String> calls = new ArrayList<>();
+        Counter converters = new Counter("converter", calls);
+        Counter cameras = new Counter("camera", calls);
+        PreviewLifecycle lifecycle = new PreviewLifecycle(converters, cameras);
+        for (int n = 0; n < 10000; n++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    lifecycle.resume(random.nextBoolean());
+                    break;
+                case 1:
+                    lifecycle.allowCamera();
+                    break;
+                default:
+                    lifecycle.pause();
+                    break;
+            }
+            assertTrue(converters.open <= 1 && cameras.open <= 1);
+            assertTrue("camera without converter", cameras.open <= converters.open);
+            assertEquals(converters.open, lifecycle.openConverters());
+            assertEquals(cameras.open, lifecycle.openCameras());
+        }
+        lifecycle.destroy();
+        assertEquals(0, lifecycle.openConverters() + lifecycle.openCameras());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resume_failsAfterDestroy() {
+        List<String> calls = new ArrayList<>();
+        PreviewLifecycle lifecycle = new PreviewLifecycle(new Counter("converter", calls), new Counter("camera", calls));
+        lifecycle.destroy();
+        lifecycle.resume(true);
+    }
+
+    @Test
+    public void restartCamera_keepsTheConverter() {
+        List<String> calls = new ArrayList<>();
+        Counter converters = new Counter("converter", calls);
+        Counter cameras = new Counter("camera", calls);
+        PreviewLifecycle lifecycle = new PreviewLifecycle(converters, cameras);
+        lifecycle.restartCamera();
+        assertEquals(0, cameras.open);
+        lifecycle.resume(true);
+        lifecycle.restartCamera();
+        assertEquals(1, cameras.open);
+        assertEquals(2, lifecycle.camerasOpened());
+        assertEquals(1, lifecycle.convertersOpened());
+        lifecycle.pause();
+        lifecycle.restartCamera();
+        assertEquals(0, cameras.open);
+        assertEquals(0, converters.open);
+    }
+}
@@ -0,0 +1,134 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.basic;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionControllerTest {
+
+    /**
+     * Simulated phone: the latency of a frame is a fixed part plus a part proportional to its
+     * pixels, scaled by the load of the phone, with some noise.
+     */
+    private static final class SimulatedPipeline {
+        private final Random random = new Random(7);
+        private final long fixedMicros;
+        private final double microsPerPixel;
+        double load = 1;
+
+        SimulatedPipeline(long fixedMicros, double microsPerPixel) {
+            this.fixedMicros = fixedMicros;
+            this.microsPerPixel = microsPerPixel;
+        }
+
+        long latency(ResolutionController controller) {
+            double pixels = (double) controller.width() * controller.height();
+            double latency = (fixedMicros + pixels * microsPerPixel) * load;
+            return (long) (latency * (1 + 0.05 * random.nextGaussian()));
+        }
+    }
+
+    private static void run(ResolutionController controller, SimulatedPipeline pipeline, int frames) {
+        for (int i = 0; i < frames; i++) {
+            controller.addLatency(pipeline.latency(controller));
+        }
+    }
+
+    @Test
+    public void addLatency_settlesOnTheBiggestResolutionWithinTheBudget() {
+        // 20 ms + 0.1 us per pixel: 1280x720 takes 112 ms, 960x540 72 ms, 640x480 51 ms
+        SimulatedPipeline pipeline = new SimulatedPipeline(20_000, 0.1);
+        ResolutionController controller = ResolutionController.createDefault(0);
+        run(controller, pipeline, 3000);
+        assertEquals(640, controller.width());
+        assertEquals(480, controller.height());
+        // Two steps down, and no oscillation afterwards
+        assertEquals(2, controller.changes());
+    }
+
+    @Test
+    public void addLatency_stepsUpWithHeadroom() {
+        SimulatedPipeline pipeline = new SimulatedPipeline(10_000, 0.02);
+        ResolutionController controller = ResolutionController.createDefault(3);
+        run(controller, pipeline, 3000);
+        assertEquals(0, controller.index());
+        assertEquals(3, controller.changes());
+    }
+
+    @Test
+    public void addLatency_followsTheLoadOfThePhone() {
+        SimulatedPipeline pipeline = new SimulatedPipeline(10_000, 0.02);
+        ResolutionController controller = ResolutionController.createDefault(0);
+        run(controller, pipeline, 1000);
+        assertEquals(0, controller.index());
+
+        // The phone heats up and everything takes four times longer
+        pipeline.load = 4;
+        run(controller, pipeline, 1000);
+        assertEquals(3, controller.index());
+
+        pipeline.load = 1;
+        run(controller, pipeline, 5000);
+        assertEquals(0, controller.index());
+    }
+
+    @Test
+    public void addLatency_backsOffFromAResolutionThatFailed() {
+        // 960x540 takes 63 ms, on the edge of the budget, so it fails now and then
+        SimulatedPipeline pipeline = new SimulatedPipeline(30_000, 0.064);
+        ResolutionController controller = ResolutionController.createDefault(2);
+        run(controller, pipeline, 30 * 60 * 10);
+        // Without the back off it would change every few seconds
+        assertTrue("Changed " + controller.changes() + " times", controller.changes() < 20);
+    }
+
+    @Test
+    public void addLatency_ignoresTheFramesAfterAChange() {
+        ResolutionController controller = ResolutionController.createDefault(0);
+        boolean changed = false;
+        for (int i = 0; i < ResolutionController.WINDOW_FRAMES; i++) {
+            changed = controller.addLatency(200_000);
+        }
+        assertTrue(changed);
+        assertEquals(1, controller.index());
+        for (int i = 0; i < ResolutionController.SETTLE_FRAMES + ResolutionController.WINDOW_FRAMES - 1; i++) {
+            assertFalse(controller.addLatency(200_000));
+        }
+        assertTrue(controller.addLatency(200_000));
+        assertEquals(2, controller.index());
+    }
+
+    @Test
+    public void addLatency_ignoresFramesWithoutLatency() {
+        ResolutionController controller = ResolutionController.createDefault(0);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(controller.addLatency(-1));
+            assertFalse(controller.addLatency(ResolutionController.MAX_LATENCY_MICROS + 1));
+        }
+        assertEquals(0, controller.changes());
+    }
+
+    @Test
+    public void latencyMicros_usesTheClockOfTheCamera() {
+        long monotonic = 5_000_000_000L;
+        long realtime = 90_000_000_000L;
+        assertEquals(40_000, ResolutionController.latencyMicros(monotonic / 1000 - 40_000, monotonic, realtime));
+        assertEquals(40_000, ResolutionController.latencyMicros(realtime / 1000 - 40_000, monotonic, realtime));
+        assertEquals(-1, ResolutionController.latencyMicros(realtime / 1000 + 40_000, monotonic, realtime));
+    }
+
+    @Test
+    public void createDefault_movesTheStartIntoRange() {
+        assertEquals(3, ResolutionController.createDefault(9).index());
+        assertEquals(0, ResolutionController.createDefault(-1).index());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsResolutionsOutOfOrder() {
+        new ResolutionController(new int[]{640, 1280}, new int[]{480, 720}, 0, 66_000);
+    }
+}
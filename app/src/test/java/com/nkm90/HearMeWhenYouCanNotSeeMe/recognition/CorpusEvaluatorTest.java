@@ -0,0 +1,79 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CorpusEvaluatorTest {
+
+    private static void add(LandmarkCorpus corpus, float[] hand, int label) {
+        LandmarkFrame frame = new LandmarkFrame();
+        System.arraycopy(hand, 0, frame.hand(0), 0, HandLandmarks.HAND_SIZE);
+        frame.setHandCount(1);
+        corpus.add(frame, label);
+    }
+
+    @Test
+    public void evaluate_countsEveryLabelAgainstTheGestureRecognised() throws IOException {
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        for (int i = 0; i < 10; i++) {
+            add(corpus, TestHands.letterA(), Gestures.ofLetter('A'));
+            add(corpus, TestHands.letterB(), Gestures.ofLetter('B'));
+        }
+        // Frames recorded as S that the rules read as A
+        for (int i = 0; i < 5; i++) {
+            add(corpus, TestHands.letterA(), Gestures.ofLetter('S'));
+        }
+        corpus.add(new LandmarkFrame(), Gestures.NO_HAND);
+
+        EvaluationReport report = CorpusEvaluator.evaluate(corpus, AslRules.table());
+        assertEquals(26, report.frames());
+        assertEquals(10, report.confusion(Gestures.ofLetter('A'), Gestures.ofLetter('A')));
+        assertEquals(10, report.confusion(Gestures.ofLetter('B'), Gestures.ofLetter('B')));
+        assertEquals(5, report.confusion(Gestures.ofLetter('S'), Gestures.ofLetter('A')));
+        assertEquals(1, report.confusion(Gestures.NO_HAND, Gestures.NO_HAND));
+        assertEquals(0.0, report.accuracy(Gestures.ofLetter('S')), 0.0);
+        assertEquals(21.0 / 26, report.accuracy(), 1e-9);
+        assertTrue(Double.isNaN(report.accuracy(Gestures.ofLetter('Z'))));
+        assertTrue(report.latencyPercentile(50) <= report.latencyPercentile(99));
+
+        StringBuilder text = new StringBuilder();
+        report.format(text);
+        assertTrue(text.toString().contains("S                     5 frames    0.00%  A:5"));
+    }
+
+    @Test
+    public void evaluate_classifiesTheHandsAsTheApp() {
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        // A left hand is mirrored into a right one before the rules see it
+        add(corpus, TestHands.mirror(TestHands.letterL()), Gestures.ofLetter('L'));
+        add(corpus, TestHands.letterL(), Gestures.ofLetter('L'));
+
+        EvaluationReport report = CorpusEvaluator.evaluate(corpus, AslRules.table());
+        assertEquals(1.0, report.accuracy(Gestures.ofLetter('L')), 0.0);
+    }
+
+    @Test
+    public void evaluate_splitsTheCorpusBetweenThreads() {
+        // Frames labelled by the classifier of the app, so every frame must be recognised as its label
+        HandClassifier app = new CanonicalHandClassifier(new GestureClassifier(AslRules.table()));
+        RandomHands hands = new RandomHands(11);
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        int frames = 5 * CorpusEvaluator.RANGE_FRAMES + 17;
+        for (int i = 0; i < frames; i++) {
+            float[] hand = hands.next();
+            add(corpus, hand, app.classify(hand));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        EvaluationReport report = CorpusEvaluator.evaluate(corpus, AslRules.table(), pool);
+        pool.shutdown();
+        assertEquals(frames, report.frames());
+        assertEquals(1.0, report.accuracy(), 0.0);
+        assertTrue(report.framesPerSecond() > 0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecisionTableTest {
+
+    @Test
+    public void compiledRules_matchTheReferenceChain() {
+        ReferenceGestureRules reference = new ReferenceGestureRules();
+        GestureClassifier classifier = new GestureClassifier();
+        RandomHands hands = new RandomHands(2021);
+        int[] seen = new int[Gestures.COUNT];
+        for (int n = 0; n < 200000; n++) {
+            float[] hand = hands.next();
+            int expected = reference.classify(hand);
+            assertEquals("sample " + n + " " + Arrays.toString(hand), expected, classifier.classify(hand));
+            seen[expected]++;
+        }
+        int letters = 0;
+        for (int code = 0; code <= Gestures.SPACE; code++) {
+            if (seen[code] > 0) {
+                letters++;
+            }
+        }
+        assertTrue("Only " + letters + " gestures covered: " + Arrays.toString(seen), letters >= 20);
+    }
+
+    @Test
+    public void compile_splitsTheRulesIntoBuckets() {
+        DecisionTable table = AslRules.table();
+        assertEquals(AslRules.create().size(), table.ruleCount());
+        assertTrue(table.keyBits() > 0 && table.keyBits() <= DecisionTable.MAX_KEY_BITS);
+        assertTrue(table.longestBucket() < table.ruleCount());
+    }
+
+    @Test
+    public void lookup_returnsNoGestureWithoutRules() {
+        DecisionTable table = DecisionTable.compile(
+                new GestureRuleSet("empty", java.util.Collections.<GestureRule>emptyList()));
+        assertEquals(Gestures.NO_GESTURE, table.lookup(table.newBitmask()));
+    }
+
+    @Test
+    public void lookup_keepsTheOrderOfTheRules() {
+        GestureRule first = GestureRule.builder(Gestures.ofLetter('A')).rightHand().thumbBent().build();
+        GestureRule second = GestureRule.builder(Gestures.ofLetter('B')).rightHand().build();
+        DecisionTable table = DecisionTable.compile(new GestureRuleSet("order", Arrays.asList(first, second)));
+        GestureClassifier classifier = new GestureClassifier(table);
+        assertEquals(Gestures.ofLetter('A'), classifier.classify(TestHands.letterB()));
+        assertEquals(Gestures.ofLetter('B'), classifier.classify(TestHands.openHand()));
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(TestHands.mirror(TestHands.openHand())));
+    }
+
+    // Every rule scored, without the bounds
+    private static float[] bruteForceScores(DecisionTable table, long[] bits) {
+        float[] scores = new float[Gestures.COUNT];
+        Arrays.fill(scores, -1);
+        for (int rule = 0; rule < table.ruleCount(); rule++) {
+            int conditions = 0;
+            int failed = 0;
+            for (int w = 0; w < table.words(); w++) {
+                conditions += Long.bitCount(table.mask(rule, w));
+                failed += Long.bitCount((bits[w] ^ table.value(rule, w)) & table.mask(rule, w));
+            }
+            float score = 1 - failed * (1f / conditions);
+            int gesture = table.gesture(rule);
+            scores[gesture] = Math.max(scores[gesture], score);
+        }
+        return scores;
+    }
+
+    @Test
+    public void score_givesTheExactLeaderAndMargin() {
+        DecisionTable table = AslRules.table();
+        DistanceMatrix distances = table.newDistanceMatrix();
+        long[] bits = table.newBitmask();
+        GestureScores scores = new GestureScores(3);
+        RandomHands hands = new RandomHands(7);
+        for (int n = 0; n < 50000; n++) {
+            table.extract(hands.next(), distances, bits);
+            table.score(bits, scores);
+            assertEquals(table.lookup(bits), scores.best());
+
+            float[] expected = bruteForceScores(table, bits);
+            float[] sorted = expected.clone();
+            Arrays.sort(sorted);
+            for (int rank = 0; rank < 2; rank++) {
+                assertEquals("sample " + n + " rank " + rank,
+                        sorted[sorted.length - 1 - rank], scores.score(rank), 0f);
+                assertEquals(scores.score(rank), expected[scores.gesture(rank)], 0f);
+            }
+            assertEquals(scores.score(0) - scores.score(1), scores.margin(), 0f);
+            // The later ranks are real scores of their gestures, possibly not the best ones
+            for (int rank = 2; rank < scores.count(); rank++) {
+                assertTrue(scores.score(rank) <= expected[scores.gesture(rank)]);
+                assertTrue(scores.score(rank) <= scores.score(rank - 1));
+            }
+        }
+    }
+
+    @Test
+    public void score_skipsTheRulesThatCannotOvertakeTheLeader() {
+        DecisionTable table = AslRules.table();
+        DistanceMatrix distances = table.newDistanceMatrix();
+        long[] bits = table.newBitmask();
+        GestureScores scores = new GestureScores(2);
+        for (float[] hand : new float[][] {
+                TestHands.letterA(), TestHands.letterB(), TestHands.letterL(), TestHands.letterY()}) {
+            table.extract(hand, distances, bits);
+            int scored = table.score(bits, scores);
+            assertEquals(table.lookup(bits), scores.best());
+            assertTrue(scored + " rules scored", scored < table.ruleCount());
+        }
+    }
+
+    @Test
+    public void score_ranksMatchingRulesInTheirOrder() {
+        GestureRule first = GestureRule.builder(Gestures.ofLetter('A')).rightHand().thumbBent().build();
+        GestureRule second = GestureRule.builder(Gestures.ofLetter('B')).rightHand().build();
+        DecisionTable table = DecisionTable.compile(new GestureRuleSet("order", Arrays.asList(first, second)));
+        GestureClassifier classifier = new GestureClassifier(table);
+        GestureScores scores = new GestureScores(2);
+
+        assertEquals(Gestures.ofLetter('A'), classifier.classify(TestHands.letterB(), scores));
+        assertEquals(Gestures.ofLetter('B'), scores.gesture(1));
+        assertEquals(0f, scores.margin(), 0f);
+
+        assertEquals(Gestures.ofLetter('B'), classifier.classify(TestHands.openHand(), scores));
+        assertEquals(Gestures.ofLetter('A'), scores.gesture(1));
+        assertEquals(0.5f, scores.margin(), 0f);
+
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(TestHands.mirror(TestHands.openHand()), scores));
+        // Nothing holds, the tie keeps the order of the rules
+        assertEquals(Gestures.ofLetter('A'), scores.gesture(0));
+        assertEquals(0f, scores.score(0), 0f);
+        assertEquals(0f, scores.margin(), 0f);
+    }
+
+    @Test
+    public void distanceMatrix_onlyFillsThePairsOfTheRules() {
+        DistanceMatrix distances = AslRules.table().newDistanceMatrix();
+        assertTrue(distances.pairCount() > 0 && distances.pairCount() < 210);
+
+        DistanceMatrix pair = new DistanceMatrix(new int[]{DistanceMatrix.pair(8, 4)});
+        float[] hand = TestHands.letterL();
+        pair.fill(hand);
+        double distance = LandmarkMath.getEuclideanDistanceAB(HandLandmarks.x(hand, 4), HandLandmarks.y(hand, 4),
+                HandLandmarks.x(hand, 8), HandLandmarks.y(hand, 8));
+        assertEquals(distance * distance, pair.get(4, 8), 1e-12);
+        assertEquals(pair.get(4, 8), pair.get(8, 4), 0.0);
+        assertEquals(0.0, pair.get(4, 12), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsContradictoryConditions() {
+        GestureRule.builder(Gestures.ofLetter('A')).xLess(4, 6).xGreaterOrEqual(4, 6);
+    }
+}
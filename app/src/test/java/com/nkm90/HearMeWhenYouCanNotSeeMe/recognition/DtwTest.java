@@ -0,0 +1,125 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DtwTest {
+
+    private static final int LENGTH = 24;
+
+    private static float[] randomPath(Random random) {
+        float[] path = new float[2 * LENGTH];
+        for (int i = 2; i < path.length; i++) {
+            path[i] = path[i - 2] + (float) random.nextGaussian() * 0.2f;
+        }
+        Dtw.normalize(path, LENGTH);
+        return path;
+    }
+
+    // Full matrix with the same band, without pruning
+    private static float naiveDistance(float[] a, float[] b, int band) {
+        double[][] cost = new double[LENGTH][LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            for (int j = 0; j < LENGTH; j++) {
+                double dx = a[2 * i] - b[2 * j];
+                double dy = a[2 * i + 1] - b[2 * j + 1];
+                double before;
+                if (Math.abs(i - j) > band) {
+                    cost[i][j] = Double.POSITIVE_INFINITY;
+                    continue;
+                } else if (i == 0 && j == 0) {
+                    before = 0;
+                } else {
+                    before = Double.POSITIVE_INFINITY;
+                    if (i > 0) {
+                        before = Math.min(before, cost[i - 1][j]);
+                    }
+                    if (j > 0) {
+                        before = Math.min(before, cost[i][j - 1]);
+                    }
+                    if (i > 0 && j > 0) {
+                        before = Math.min(before, cost[i - 1][j - 1]);
+                    }
+                }
+                cost[i][j] = dx * dx + dy * dy + before;
+            }
+        }
+        return (float) cost[LENGTH - 1][LENGTH - 1];
+    }
+
+    @Test
+    public void normalize_centersAndScalesThePath() {
+        float[] path = {1, 1, 3, 1, 3, 3, 1, 3};
+        float size = Dtw.normalize(path, 4);
+
+        assertEquals(Math.sqrt(2), size, 1e-6);
+        assertEquals(-1 / Math.sqrt(2), path[0], 1e-6);
+        assertEquals(1 / Math.sqrt(2), path[5], 1e-6);
+    }
+
+    @Test
+    public void distance_isTheBandedWarpingDistance() {
+        Random random = new Random(7);
+        float[] previous = new float[LENGTH];
+        float[] current = new float[LENGTH];
+        for (int band : new int[] {0, 3, LENGTH}) {
+            for (int i = 0; i < 50; i++) {
+                float[] a = randomPath(random);
+                float[] b = randomPath(random);
+                float expected = naiveDistance(a, b, band);
+                assertEquals(expected, Dtw.distance(a, b, LENGTH, band, Float.POSITIVE_INFINITY,
+                        previous, current), expected * 1e-5);
+            }
+        }
+    }
+
+    @Test
+    public void distance_ofAPathWithItselfIsZero() {
+        float[] path = randomPath(new Random(1));
+        assertEquals(0, Dtw.distance(path, path, LENGTH, 4, Float.POSITIVE_INFINITY,
+                new float[LENGTH], new float[LENGTH]), 0);
+    }
+
+    @Test
+    public void lowerBound_neverExceedsTheDistance() {
+        Random random = new Random(11);
+        float[] upper = new float[2 * LENGTH];
+        float[] lower = new float[2 * LENGTH];
+        float[] previous = new float[LENGTH];
+        float[] current = new float[LENGTH];
+        for (int i = 0; i < 500; i++) {
+            float[] path = randomPath(random);
+            float[] template = randomPath(random);
+            Dtw.envelope(template, LENGTH, 4, upper, lower);
+            float distance = Dtw.distance(path, template, LENGTH, 4, Float.POSITIVE_INFINITY,
+                    previous, current);
+            float bound = Dtw.lowerBound(path, upper, lower, LENGTH, Float.POSITIVE_INFINITY);
+            assertTrue(bound + " > " + distance, bound <= distance * (1 + 1e-5f));
+        }
+    }
+
+    @Test
+    public void distance_isOnlyAbandonedWhenItCannotBeatTheBest() {
+        Random random = new Random(3);
+        float[] previous = new float[LENGTH];
+        float[] current = new float[LENGTH];
+        int abandoned = 0;
+        for (int i = 0; i < 500; i++) {
+            float[] a = randomPath(random);
+            float[] b = randomPath(random);
+            float full = Dtw.distance(a, b, LENGTH, 4, Float.POSITIVE_INFINITY, previous, current);
+            float best = 10 + random.nextFloat() * 30;
+            float pruned = Dtw.distance(a, b, LENGTH, 4, best, previous, current);
+            if (full < best) {
+                assertEquals(full, pruned, 0);
+            } else {
+                abandoned += pruned == Float.POSITIVE_INFINITY ? 1 : 0;
+            }
+        }
+        assertTrue(abandoned > 0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrameTracerTest {
+
+    private static LandmarkFrame frame(long timestamp, float[]... hands) {
+        LandmarkFrame frame = new LandmarkFrame();
+        for (int i = 0; i < hands.length; i++) {
+            System.arraycopy(hands[i], 0, frame.hand(i), 0, HandLandmarks.HAND_SIZE);
+        }
+        frame.setHandCount(hands.length);
+        frame.setTimestamp(timestamp);
+        return frame;
+    }
+
+    private static String decode(FrameTracer tracer) throws IOException {
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        int count = tracer.dump(dump);
+        StringBuilder text = new StringBuilder();
+        assertEquals(count, FrameTraceDecoder.decode(new ByteArrayInputStream(dump.toByteArray()), text));
+        return text.toString();
+    }
+
+    @Test
+    public void dump_decodesFramesInOrder() throws IOException {
+        FrameTracer tracer = new FrameTracer(4);
+        tracer.record(frame(10L, TestHands.letterA()), Gestures.ofLetter('A'));
+        tracer.record(frame(20L), Gestures.NO_HAND);
+        tracer.record(frame(30L, TestHands.letterB(), TestHands.letterL()), Gestures.ofLetter('B'));
+
+        String text = decode(tracer);
+        assertTrue(text.indexOf("[TS:10] gesture=A hands=1") < text.indexOf("[TS:20] gesture=No hand detected hands=0"));
+        assertTrue(text.indexOf("[TS:20]") < text.indexOf("[TS:30] gesture=B hands=2"));
+        assertTrue(text.contains("hand[1]:"));
+        assertTrue(text.contains(" 0(0.5000, 0.8000, 0.0000)"));
+    }
+
+    @Test
+    public void record_overwritesTheOldestFrames() throws IOException {
+        FrameTracer tracer = new FrameTracer(3);
+        for (long ts = 1; ts <= 7; ts++) {
+            tracer.record(frame(ts, TestHands.openHand()), Gestures.NO_GESTURE);
+        }
+        assertEquals(3, tracer.size());
+        String text = decode(tracer);
+        assertFalse(text.contains("[TS:4]"));
+        assertTrue(text.indexOf("[TS:5]") < text.indexOf("[TS:6]"));
+        assertTrue(text.indexOf("[TS:6]") < text.indexOf("[TS:7]"));
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsOtherFiles() throws IOException {
+        FrameTraceDecoder.decode(new ByteArrayInputStream(new byte[32]), new StringBuilder());
+    }
+}
@@ -0,0 +1,44 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GestureClassifierTest {
+
+    private final GestureClassifier classifier = new GestureClassifier();
+
+    @Test
+    public void classify_recognisesLetters() {
+        assertEquals("A", Gestures.label(classifier.classify(TestHands.letterA())));
+        assertEquals("B", Gestures.label(classifier.classify(TestHands.letterB())));
+        assertEquals("L", Gestures.label(classifier.classify(TestHands.letterL())));
+        assertEquals("Y", Gestures.label(classifier.classify(TestHands.letterY())));
+    }
+
+    @Test
+    public void classify_openHandIsNoGesture() {
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(TestHands.openHand()));
+    }
+
+    @Test
+    public void classify_leftHandIsNoGesture() {
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(TestHands.mirror(TestHands.letterB())));
+    }
+
+    @Test
+    public void classify_reusesTheSameInstance() {
+        float[] hand = TestHands.letterA();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Gestures.ofLetter('A'), classifier.classify(hand));
+        }
+        assertEquals(Gestures.ofLetter('B'), classifier.classify(TestHands.letterB()));
+    }
+
+    @Test
+    public void labels_roundTrip() {
+        for (int code = 0; code < Gestures.COUNT; code++) {
+            assertEquals(code, Gestures.ofLabel(Gestures.label(code)));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HandCanonicalizerTest {
+
+    // Rotates and scales the hand around its wrist and moves it on the image
+    private static float[] transform(float[] hand, double degrees, float scale, float moveX, float moveY) {
+        float cx = HandLandmarks.x(hand, 0);
+        float cy = HandLandmarks.y(hand, 0);
+        double cos = Math.cos(Math.toRadians(degrees));
+        double sin = Math.sin(Math.toRadians(degrees));
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            double dx = HandLandmarks.x(hand, i) - cx;
+            double dy = HandLandmarks.y(hand, i) - cy;
+            HandLandmarks.set(hand, i,
+                    (float) (cx + moveX + scale * (dx * cos - dy * sin)),
+                    (float) (cy + moveY + scale * (dx * sin + dy * cos)),
+                    HandLandmarks.z(hand, i) * scale);
+        }
+        return hand;
+    }
+
+    private static float[] canonical(float[] hand) {
+        assertTrue(HandCanonicalizer.canonicalize(hand));
+        return hand;
+    }
+
+    @Test
+    public void canonicalize_removesPositionScaleAndTilt() {
+        float[] expected = canonical(TestHands.letterL());
+        assertEquals(0f, HandLandmarks.x(expected, 0), 0f);
+        assertEquals(0f, HandLandmarks.y(expected, 0), 0f);
+        assertEquals(-HandCanonicalizer.REFERENCE_PALM_LENGTH, HandLandmarks.y(expected, 9), 1e-6f);
+
+        assertArrayEquals(expected, canonical(transform(TestHands.letterL(), 15, 0.6f, 0.1f, -0.2f)), 1e-5f);
+        assertArrayEquals(expected, canonical(transform(TestHands.letterL(), -20, 1.7f, -0.1f, 0.05f)), 1e-5f);
+    }
+
+    @Test
+    public void canonicalize_mirrorsLeftHands() {
+        float[] left = TestHands.mirror(TestHands.letterB());
+        assertTrue(HandCanonicalizer.isLeftHand(left));
+        assertFalse(HandCanonicalizer.isLeftHand(TestHands.letterB()));
+        // Turning the hand upside down does not change which hand it is
+        assertFalse(HandCanonicalizer.isLeftHand(transform(TestHands.letterB(), 180, 1f, 0f, 0f)));
+
+        assertArrayEquals(canonical(TestHands.letterB()), canonical(transform(left, 10, 0.8f, 0f, 0f)), 1e-5f);
+    }
+
+    @Test
+    public void canonicalize_keepsTheOrientationClass() {
+        // Inclined by 50 degrees, it is snapped to 45 degrees and not straightened
+        float[] hand = canonical(transform(TestHands.openHand(), 50, 1f, 0f, 0f));
+        double angle = Math.toDegrees(Math.atan2(HandLandmarks.y(hand, 9), HandLandmarks.x(hand, 9)));
+        assertEquals(-90 + 45, angle, 1e-3);
+    }
+
+    @Test
+    public void canonicalize_leavesCollapsedHands() {
+        float[] hand = HandLandmarks.newHand();
+        assertFalse(HandCanonicalizer.canonicalize(hand));
+        assertArrayEquals(HandLandmarks.newHand(), hand, 0f);
+    }
+
+    @Test
+    public void canonicalClassifier_recognisesTiltedFarAndLeftHands() {
+        HandClassifier classifier = new CanonicalHandClassifier(new GestureClassifier());
+        float[] tilted = transform(TestHands.letterY(), 18, 1f, 0f, 0f);
+        float[] near = transform(TestHands.letterA(), 0, 1.8f, 0f, -0.3f);
+        float[] left = TestHands.mirror(TestHands.letterL());
+        float[] copy = left.clone();
+        assertEquals(Gestures.ofLetter('Y'), classifier.classify(tilted));
+        assertEquals(Gestures.ofLetter('A'), classifier.classify(near));
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(left));
+        // The landmarks given to the classifier are not modified
+        assertArrayEquals(copy, left, 0f);
+        assertEquals(Gestures.NO_GESTURE, new GestureClassifier().classify(left));
+    }
+}
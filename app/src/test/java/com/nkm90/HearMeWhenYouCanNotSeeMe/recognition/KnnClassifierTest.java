@@ -0,0 +1,131 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KnnClassifierTest {
+
+    private static float[] noisy(float[] hand, Random random, float noise) {
+        float[] copy = hand.clone();
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] += (float) random.nextGaussian() * noise;
+        }
+        return copy;
+    }
+
+    private static LandmarkCorpus letters(Random random, int perLetter) {
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        LandmarkFrame frame = new LandmarkFrame();
+        frame.setHandCount(1);
+        float[][] hands = {TestHands.letterA(), TestHands.letterB(), TestHands.letterL(), TestHands.letterY()};
+        char[] labels = {'A', 'B', 'L', 'Y'};
+        for (int n = 0; n < perLetter; n++) {
+            for (int i = 0; i < hands.length; i++) {
+                System.arraycopy(noisy(hands[i], random, 0.005f), 0, frame.hand(0), 0, HandLandmarks.HAND_SIZE);
+                corpus.add(frame, Gestures.ofLetter(labels[i]));
+            }
+        }
+        return corpus;
+    }
+
+    @Test
+    public void search_findsTheSameNeighboursAsBruteForce() {
+        Random random = new Random(5);
+        int dimensions = 8;
+        int size = 2000;
+        float[] vectors = new float[size * dimensions];
+        int[] labels = new int[size];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = random.nextFloat();
+        }
+        for (int i = 0; i < size; i++) {
+            labels[i] = i;
+        }
+        VpTree tree = VpTree.build(dimensions, vectors, labels, 1L);
+        VpTree.Neighbours neighbours = new VpTree.Neighbours(3);
+        float[] query = new float[dimensions];
+        int totalEvaluations = 0;
+        for (int q = 0; q < 200; q++) {
+            for (int d = 0; d < dimensions; d++) {
+                query[d] = random.nextFloat();
+            }
+            tree.search(query, Integer.MAX_VALUE, neighbours);
+            totalEvaluations += neighbours.evaluations();
+
+            double[] expected = new double[size];
+            for (int i = 0; i < size; i++) {
+                double sum = 0;
+                for (int d = 0; d < dimensions; d++) {
+                    double diff = query[d] - vectors[i * dimensions + d];
+                    sum += diff * diff;
+                }
+                expected[i] = Math.sqrt(sum);
+            }
+            Arrays.sort(expected);
+            assertEquals(3, neighbours.count());
+            for (int k = 0; k < 3; k++) {
+                assertEquals(expected[k], neighbours.distance(k), 1e-5);
+            }
+        }
+        assertTrue("Pruning should skip templates", totalEvaluations < 200 * size);
+    }
+
+    @Test
+    public void search_staysWithinTheBudget() {
+        Random random = new Random(9);
+        VpTree tree = KnnClassifier.buildTemplates(letters(random, 500));
+        KnnClassifier classifier = new KnnClassifier(tree, 5, 32, KnnClassifier.DEFAULT_MAX_DISTANCE);
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(noisy(TestHands.letterL(), random, 0.005f)));
+        assertTrue(classifier.lastEvaluations() <= 32);
+    }
+
+    @Test
+    public void classify_recognisesTheRecordedLetters() {
+        Random random = new Random(3);
+        KnnClassifier classifier = new KnnClassifier(KnnClassifier.buildTemplates(letters(random, 50)));
+        for (int n = 0; n < 20; n++) {
+            assertEquals(Gestures.ofLetter('A'), classifier.classify(noisy(TestHands.letterA(), random, 0.005f)));
+            assertEquals(Gestures.ofLetter('B'), classifier.classify(noisy(TestHands.letterB(), random, 0.005f)));
+            assertEquals(Gestures.ofLetter('L'), classifier.classify(noisy(TestHands.letterL(), random, 0.005f)));
+            assertEquals(Gestures.ofLetter('Y'), classifier.classify(noisy(TestHands.letterY(), random, 0.005f)));
+        }
+        // Moving and scaling the hand does not change the embedding
+        float[] moved = TestHands.letterL();
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            HandLandmarks.set(moved, i, HandLandmarks.x(moved, i) * 0.5f + 0.1f,
+                    HandLandmarks.y(moved, i) * 0.5f + 0.2f, 0f);
+        }
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(moved));
+    }
+
+    @Test
+    public void classify_rejectsUnknownPoses() {
+        KnnClassifier classifier = new KnnClassifier(KnnClassifier.buildTemplates(letters(new Random(4), 10)));
+        float[] collapsed = HandLandmarks.newHand();
+        assertFalse(PoseEmbedding.embed(collapsed, new float[PoseEmbedding.DIMENSIONS]));
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(collapsed));
+        // The same letter upside down is far from every template
+        float[] flipped = TestHands.letterB();
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            HandLandmarks.set(flipped, i, HandLandmarks.x(flipped, i), 1f - HandLandmarks.y(flipped, i), 0f);
+        }
+        assertEquals(Gestures.NO_GESTURE, classifier.classify(flipped));
+    }
+
+    @Test
+    public void multiHandClassifier_usesAnyHandClassifier() {
+        VpTree templates = KnnClassifier.buildTemplates(letters(new Random(6), 20));
+        MultiHandClassifier classifier = new MultiHandClassifier(
+                () -> new KnnClassifier(templates), TwoHandedSigns.createDefault(), false);
+        LandmarkFrame frame = new LandmarkFrame();
+        System.arraycopy(TestHands.letterY(), 0, frame.hand(0), 0, HandLandmarks.HAND_SIZE);
+        frame.setHandCount(1);
+        assertEquals(Gestures.ofLetter('Y'), classifier.classify(frame));
+    }
+}
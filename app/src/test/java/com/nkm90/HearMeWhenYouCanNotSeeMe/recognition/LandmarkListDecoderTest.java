@@ -0,0 +1,100 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmark;
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmarkList;
+import com.google.protobuf.CodedOutputStream;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class LandmarkListDecoderTest {
+
+    private final LandmarkListDecoder decoder = new LandmarkListDecoder();
+
+    private static NormalizedLandmarkList randomList(Random random) {
+        NormalizedLandmarkList.Builder list = NormalizedLandmarkList.newBuilder();
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            list.addLandmark(NormalizedLandmark.newBuilder()
+                    .setX(random.nextFloat())
+                    .setY(random.nextFloat())
+                    .setZ(random.nextFloat() - 0.5f));
+        }
+        return list.build();
+    }
+
+    private static float[] toHand(NormalizedLandmarkList list) {
+        float[] hand = HandLandmarks.newHand();
+        for (int i = 0; i < list.getLandmarkCount(); i++) {
+            NormalizedLandmark landmark = list.getLandmark(i);
+            HandLandmarks.set(hand, i, landmark.getX(), landmark.getY(), landmark.getZ());
+        }
+        return hand;
+    }
+
+    @Test
+    public void decode_matchesProtobufParser() throws IOException {
+        Random random = new Random(42);
+        float[] hand = HandLandmarks.newHand();
+        for (int n = 0; n < 100; n++) {
+            byte[] data = randomList(random).toByteArray();
+            assertEquals(HandLandmarks.LANDMARK_COUNT, decoder.decode(data, 0, data.length, hand));
+            assertArrayEquals(toHand(NormalizedLandmarkList.parseFrom(data)), hand, 0f);
+        }
+    }
+
+    @Test
+    public void decode_skipsUnknownFieldsAndKeepsDefaults() throws IOException {
+        ByteArrayOutputStream landmarkBytes = new ByteArrayOutputStream();
+        CodedOutputStream landmark = CodedOutputStream.newInstance(landmarkBytes);
+        landmark.writeFloat(2, 0.25f);
+        landmark.writeFloat(4, 0.9f);          // visibility in newer MediaPipe versions
+        landmark.writeUInt64(7, 1L << 40);
+        landmark.writeString(8, "ignored");
+        landmark.writeFloat(1, 0.75f);
+        landmark.flush();
+
+        ByteArrayOutputStream listBytes = new ByteArrayOutputStream();
+        CodedOutputStream list = CodedOutputStream.newInstance(listBytes);
+        list.writeFixed64(9, 123L);
+        list.writeByteArray(1, landmarkBytes.toByteArray());
+        list.flush();
+        byte[] data = listBytes.toByteArray();
+
+        float[] hand = TestHands.openHand();
+        assertEquals(1, decoder.decode(data, 0, data.length, hand));
+        float[] expected = HandLandmarks.newHand();
+        HandLandmarks.set(expected, 0, 0.75f, 0.25f, 0f);
+        assertArrayEquals(expected, hand, 0f);
+    }
+
+    @Test
+    public void decode_rejectsTruncatedMessages() {
+        byte[] data = randomList(new Random(1)).toByteArray();
+        try {
+            decoder.decode(data, 0, data.length - 3, HandLandmarks.newHand());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void decodeFrame_storesEveryHand() {
+        Random random = new Random(7);
+        NormalizedLandmarkList first = randomList(random);
+        NormalizedLandmarkList second = randomList(random);
+        LandmarkFrame frame = new LandmarkFrame();
+        decoder.decodeFrame(new byte[][]{first.toByteArray(), second.toByteArray()}, 1234L, frame);
+        assertEquals(2, frame.handCount());
+        assertEquals(1234L, frame.timestamp());
+        assertArrayEquals(toHand(first), frame.hand(0), 0f);
+        assertArrayEquals(toHand(second), frame.hand(1), 0f);
+    }
+}
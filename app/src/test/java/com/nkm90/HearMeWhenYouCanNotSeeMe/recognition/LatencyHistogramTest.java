@@ -0,0 +1,79 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverEveryValueOnce() {
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.lowestValue(bucket) <= value);
+            if (bucket + 1 < LatencyHistogram.BUCKET_COUNT) {
+                assertTrue(value < LatencyHistogram.lowestValue(bucket + 1));
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(LatencyHistogram.MAX_VALUE));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentile_isCloseToTheExactOne() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(3);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal latencies around 30 ms, with a long tail
+            values[i] = (long) (30_000 * Math.exp(0.6 * random.nextGaussian()));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double quantile : new double[]{0.5, 0.95, 0.99}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            assertEquals("p" + quantile, exact, histogram.percentile(quantile), exact * 0.035);
+        }
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.max());
+    }
+
+    @Test
+    public void record_isSafeFromSeveralThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long value = 1000 * (t + 1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400_000, histogram.count());
+        assertEquals(100_000L * (1000 + 2000 + 3000 + 4000), histogram.sum());
+        assertEquals(4000, histogram.max());
+        assertEquals(2000, histogram.percentile(0.5), 2000 * 0.035);
+    }
+
+    @Test
+    public void reset_forgetsTheValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+        histogram.record(5000);
+        histogram.record(-10);
+        assertEquals(5000, histogram.percentile(1), 5000 * 0.035);
+        assertEquals(0, histogram.percentile(0.5));
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+}
@@ -0,0 +1,102 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LetterStabilizerTest {
+
+    private static final int A = Gestures.ofLetter('A');
+    private static final int B = Gestures.ofLetter('B');
+    private static final int M = Gestures.ofLetter('M');
+    private static final int NO = Gestures.NO_GESTURE;
+
+    private static List<Integer> feed(LetterStabilizer stabilizer, int... codes) {
+        List<Integer> committed = new ArrayList<>();
+        for (int code : codes) {
+            int letter = stabilizer.add(code);
+            if (letter != LetterStabilizer.NONE) {
+                committed.add(letter);
+            }
+        }
+        return committed;
+    }
+
+    @Test
+    public void add_commitsOnceTheMajorityIsReached() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(A));
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(A));
+        assertEquals(A, stabilizer.add(A));
+    }
+
+    @Test
+    public void add_ignoresTransientFrames() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        assertEquals(Arrays.asList(A), feed(stabilizer, A, B, A, NO, A, B, A, A));
+    }
+
+    @Test
+    public void add_doesNotRepeatAHeldLetter() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        int[] held = new int[60];
+        Arrays.fill(held, A);
+        assertEquals(Arrays.asList(A), feed(stabilizer, held));
+    }
+
+    @Test
+    public void add_repeatsALetterAfterItIsReleased() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        assertEquals(Arrays.asList(A, A), feed(stabilizer, A, A, A, A, NO, NO, NO, NO, A, A, A));
+        // Breaking the sign for less frames keeps it latched
+        stabilizer.reset();
+        assertEquals(Arrays.asList(A), feed(stabilizer, A, A, A, NO, NO, A, A, A));
+    }
+
+    @Test
+    public void add_neverCommitsNoGestureOrNoHand() {
+        LetterStabilizer stabilizer = new LetterStabilizer();
+        for (int i = 0; i < 50; i++) {
+            assertEquals(LetterStabilizer.NONE, stabilizer.add(i % 2 == 0 ? NO : Gestures.NO_HAND));
+            assertEquals(LetterStabilizer.NONE, stabilizer.add(Gestures.NO_HAND));
+        }
+    }
+
+    @Test
+    public void add_switchesBetweenLetters() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        assertEquals(Arrays.asList(A, B, Gestures.SPACE),
+                feed(stabilizer, A, A, A, B, B, B, Gestures.SPACE, Gestures.SPACE, Gestures.SPACE));
+    }
+
+    @Test
+    public void add_doesNotCommitATieOnItsOwn() {
+        LetterStabilizer stabilizer = new LetterStabilizer();
+        // M wins every frame, but tied with N
+        for (int i = 0; i < 50; i++) {
+            assertEquals(LetterStabilizer.NONE, stabilizer.add(M, 0f));
+        }
+        // Clear frames still commit it, the ties in the window count as half votes
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(M, 0.2f));
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(M, 0.2f));
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(M, 0.2f));
+        assertEquals(M, stabilizer.add(M, 0.2f));
+    }
+
+    @Test
+    public void add_countsAClearFrameAsAFullVote() {
+        LetterStabilizer stabilizer = new LetterStabilizer(5, 3, 1);
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(A, 1f));
+        assertEquals(LetterStabilizer.NONE, stabilizer.add(A, LetterStabilizer.MIN_MARGIN));
+        assertEquals(A, stabilizer.add(A, 0.5f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNoMajority() {
+        new LetterStabilizer(8, 4, 1);
+    }
+}
@@ -0,0 +1,173 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MotionClassifierTest {
+
+    private static final int J = Gestures.ofLetter('J');
+    private static final int Z = Gestures.ofLetter('Z');
+
+    // Paths of the fingertip in image coordinates, Y down, with the size of a hand
+    private static final float[] Z_PATH = {0, 0, 0.2f, 0, 0, 0.2f, 0.2f, 0.2f};
+    private static final float[] J_PATH = {0, 0, 0, 0.14f, -0.01f, 0.18f, -0.04f, 0.2f, -0.07f, 0.19f, -0.08f, 0.16f};
+
+    private static float[] transform(float[] path, float scale, boolean mirror) {
+        float[] points = new float[path.length];
+        for (int i = 0; i < path.length; i += 2) {
+            points[i] = path[i] * scale * (mirror ? -1 : 1);
+            points[i + 1] = path[i + 1] * scale;
+        }
+        return points;
+    }
+
+    // Position along the polyline after a fraction of its length
+    private static float[] pointAt(float[] path, double fraction) {
+        double total = 0;
+        for (int i = 2; i < path.length; i += 2) {
+            total += Math.hypot(path[i] - path[i - 2], path[i + 1] - path[i - 1]);
+        }
+        double remaining = total * fraction;
+        for (int i = 2; i < path.length; i += 2) {
+            double length = Math.hypot(path[i] - path[i - 2], path[i + 1] - path[i - 1]);
+            if (remaining <= length || i == path.length - 2) {
+                double weight = length == 0 ? 0 : Math.min(1, remaining / length);
+                return new float[] {
+                        (float) (path[i - 2] + (path[i] - path[i - 2]) * weight),
+                        (float) (path[i - 1] + (path[i + 1] - path[i - 1]) * weight)};
+            }
+            remaining -= length;
+        }
+        throw new AssertionError();
+    }
+
+    private static LandmarkFrame frame(float dx, float dy) {
+        return frame(TestHands.openHand(), dx, dy);
+    }
+
+    private static LandmarkFrame frame(float[] pose, float dx, float dy) {
+        LandmarkFrame frame = new LandmarkFrame();
+        float[] hand = pose.clone();
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            hand[i * HandLandmarks.DIMENSIONS] += dx;
+            hand[i * HandLandmarks.DIMENSIONS + 1] += dy;
+        }
+        System.arraycopy(hand, 0, frame.hand(0), 0, HandLandmarks.HAND_SIZE);
+        frame.setHandCount(1);
+        return frame;
+    }
+
+    /**
+     * Holds the hand still, moves it along the path with a smooth start and stop and holds it
+     * again, returning the letters recognised on the way.
+     */
+    private static String sign(MotionClassifier classifier, float[] path, int frames, float noise,
+                               Random random) {
+        StringBuilder letters = new StringBuilder();
+        int total = 10 + frames + 10;
+        for (int t = 0; t < total; t++) {
+            double progress = Math.min(1, Math.max(0, (t - 10) / (double) (frames - 1)));
+            float[] point = pointAt(path, (1 - Math.cos(Math.PI * progress)) / 2);
+            int gesture = classifier.classify(frame(
+                    point[0] + (float) random.nextGaussian() * noise,
+                    point[1] + (float) random.nextGaussian() * noise));
+            if (gesture != Gestures.NO_GESTURE) {
+                letters.append(Gestures.label(gesture));
+            }
+        }
+        return letters.toString();
+    }
+
+    @Test
+    public void classify_recognisesZAndJAtSeveralSpeedsAndSizes() {
+        Random random = new Random(5);
+        for (int frames : new int[] {14, 20, 28}) {
+            for (float scale : new float[] {0.7f, 1f, 1.4f}) {
+                for (boolean mirror : new boolean[] {false, true}) {
+                    String where = frames + " frames, scale " + scale + ", mirror " + mirror;
+                    assertEquals(where, "Z", sign(MotionClassifier.createDefault(),
+                            transform(Z_PATH, scale, mirror), frames, 0.003f, random));
+                    assertEquals(where, "J", sign(MotionClassifier.createDefault(),
+                            transform(J_PATH, scale, mirror), frames, 0.003f, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void classify_ignoresStillAndOtherMotions() {
+        Random random = new Random(9);
+        MotionClassifier classifier = MotionClassifier.createDefault();
+        // A hand holding a pose, with the jitter of the landmarks
+        assertEquals("", sign(classifier, new float[] {0, 0, 0.001f, 0}, 20, 0.003f, random));
+        // Straight lines
+        assertEquals("", sign(classifier, new float[] {0, 0, 0.2f, 0}, 20, 0.003f, random));
+        assertEquals("", sign(classifier, new float[] {0, 0, 0, 0.2f}, 20, 0.003f, random));
+        // A circle
+        float[] circle = new float[2 * 33];
+        for (int i = 0; i < 33; i++) {
+            circle[2 * i] = (float) Math.cos(2 * Math.PI * i / 32) * 0.1f;
+            circle[2 * i + 1] = (float) Math.sin(2 * Math.PI * i / 32) * 0.1f;
+        }
+        assertEquals("", sign(classifier, circle, 24, 0.003f, random));
+    }
+
+    @Test
+    public void classify_prunesMostComparisons() {
+        MotionClassifier classifier = MotionClassifier.createDefault();
+        Random random = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            sign(classifier, transform(Z_PATH, 1, i % 2 == 0), 20, 0.003f, random);
+            sign(classifier, transform(J_PATH, 1, i % 2 == 0), 20, 0.003f, random);
+        }
+        long computed = classifier.comparisons() - classifier.pruned();
+        assertTrue(classifier.pruned() + classifier.abandoned() > computed / 2);
+    }
+
+    @Test
+    public void pipeline_commitsTheMotionLetter() {
+        RecognitionPipeline pipeline = new RecognitionPipeline();
+        pipeline.setMotionClassifier(MotionClassifier.createDefault());
+        Random random = new Random(4);
+        for (float[] path : new float[][] {Z_PATH, J_PATH}) {
+            for (int t = 0; t < 50; t++) {
+                double progress = Math.min(1, Math.max(0, (t - 10) / 19.0));
+                float[] point = pointAt(path, (1 - Math.cos(Math.PI * progress)) / 2);
+                pipeline.process(frame(point[0] + (float) random.nextGaussian() * 0.002f,
+                        point[1] + (float) random.nextGaussian() * 0.002f));
+            }
+        }
+        assertEquals("ZJ", pipeline.sentence());
+    }
+
+    // Feeds a pose held still, moved along the path and held again
+    private static void signWithPose(RecognitionPipeline pipeline, float[] pose, float[] path, int still,
+                                     Random random) {
+        for (int t = 0; t < still + 19 + 30; t++) {
+            double progress = Math.min(1, Math.max(0, (t - still) / 19.0));
+            float[] point = pointAt(path, (1 - Math.cos(Math.PI * progress)) / 2);
+            pipeline.process(frame(pose, point[0] + (float) random.nextGaussian() * 0.002f,
+                    point[1] + (float) random.nextGaussian() * 0.002f));
+        }
+    }
+
+    @Test
+    public void pipeline_doesNotAddTheHandshapeOfTheMotion() {
+        RecognitionPipeline pipeline = new RecognitionPipeline();
+        pipeline.setMotionClassifier(MotionClassifier.createDefault());
+        Random random = new Random(4);
+        // Y and L are committed by the rules before the hand starts moving, and held after it stops
+        signWithPose(pipeline, TestHands.letterY(), J_PATH, 10, random);
+        signWithPose(pipeline, TestHands.letterL(), Z_PATH, 10, random);
+        assertEquals("JZ", pipeline.sentence());
+
+        // A letter held well before the motion starts is a letter of its own
+        pipeline.reset();
+        signWithPose(pipeline, TestHands.letterY(), J_PATH, 60, random);
+        assertEquals("YJ", pipeline.sentence());
+    }
+}
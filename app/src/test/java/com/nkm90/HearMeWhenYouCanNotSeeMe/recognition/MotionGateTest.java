@@ -0,0 +1,71 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MotionGateTest {
+
+    private static LandmarkFrame frame(float[]... hands) {
+        LandmarkFrame frame = new LandmarkFrame();
+        for (int i = 0; i < hands.length; i++) {
+            System.arraycopy(hands[i], 0, frame.hand(i), 0, HandLandmarks.HAND_SIZE);
+        }
+        frame.setHandCount(hands.length);
+        return frame;
+    }
+
+    private static float[] shift(float[] hand, float dx) {
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            hand[i * HandLandmarks.DIMENSIONS] += dx;
+        }
+        return hand;
+    }
+
+    @Test
+    public void isStill_comparesAgainstTheLastClassifiedPose() {
+        MotionGate gate = new MotionGate(0.01f);
+        LandmarkFrame first = frame(TestHands.letterB());
+        assertFalse(gate.isStill(first));
+        gate.classified(first);
+
+        assertTrue(gate.isStill(frame(shift(TestHands.letterB(), 0.006f))));
+        // The drift adds up against the classified pose, not the previous frame
+        assertFalse(gate.isStill(frame(shift(TestHands.letterB(), 0.012f))));
+        assertEquals(3, gate.frames());
+        assertEquals(1, gate.skippedFrames());
+    }
+
+    @Test
+    public void isStill_needsTheSameHands() {
+        MotionGate gate = new MotionGate(0.01f);
+        gate.classified(frame(TestHands.letterB()));
+        assertFalse(gate.isStill(frame(TestHands.letterB(), TestHands.letterL())));
+        assertFalse(gate.isStill(frame()));
+
+        // The depth is not compared
+        float[] hand = TestHands.letterB();
+        hand[HandLandmarks.DIMENSIONS * 8 + 2] = 0.5f;
+        assertTrue(gate.isStill(frame(hand)));
+
+        gate.reset();
+        assertFalse(gate.isStill(frame(TestHands.letterB())));
+    }
+
+    @Test
+    public void pipeline_reusesTheGestureOfStillHands() {
+        RecognitionPipeline pipeline = new RecognitionPipeline(
+                new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), false),
+                new LetterStabilizer(), new SentenceBuilder());
+        LandmarkFrame held = frame(TestHands.letterL());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(Gestures.ofLetter('L'), pipeline.process(held));
+        }
+        assertEquals(Gestures.ofLetter('Y'), pipeline.process(frame(TestHands.letterY())));
+        assertEquals(29, pipeline.motionGate().skippedFrames());
+        assertEquals("L", pipeline.sentence());
+        pipeline.close();
+    }
+}
@@ -0,0 +1,124 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiHandClassifierTest {
+
+    private static LandmarkFrame frame(float[]... hands) {
+        LandmarkFrame frame = new LandmarkFrame();
+        for (int i = 0; i < hands.length; i++) {
+            System.arraycopy(hands[i], 0, frame.hand(i), 0, HandLandmarks.HAND_SIZE);
+        }
+        frame.setHandCount(hands.length);
+        return frame;
+    }
+
+    private static float[] shift(float[] hand, float dx) {
+        for (int i = 0; i < HandLandmarks.HAND_SIZE; i += HandLandmarks.DIMENSIONS) {
+            hand[i] += dx;
+        }
+        return hand;
+    }
+
+    // M and N both hold on a hand with the thumb bent, only N without it
+    private static DecisionTable tiedTable() {
+        GestureRule m = GestureRule.builder(Gestures.ofLetter('M')).rightHand().thumbBent().build();
+        GestureRule n = GestureRule.builder(Gestures.ofLetter('N')).rightHand().build();
+        return DecisionTable.compile(new GestureRuleSet("tied", Arrays.asList(m, n)));
+    }
+
+    @Test
+    public void classify_keepsTheMarginOfTheGesture() {
+        MultiHandClassifier classifier = new MultiHandClassifier(tiedTable(), new TwoHandedSigns(), false);
+        assertEquals(Gestures.ofLetter('M'), classifier.classify(frame(TestHands.letterB())));
+        assertEquals(0f, classifier.margin(), 0f);
+        assertEquals(Gestures.ofLetter('N'), classifier.classify(frame(TestHands.openHand())));
+        assertEquals(0.5f, classifier.margin(), 0f);
+        assertEquals(Gestures.NO_HAND, classifier.classify(frame()));
+        assertEquals(1f, classifier.margin(), 0f);
+    }
+
+    @Test
+    public void pipeline_doesNotCommitATieOnItsOwn() {
+        RecognitionPipeline pipeline = new RecognitionPipeline(
+                new MultiHandClassifier(tiedTable(), new TwoHandedSigns(), false),
+                new LetterStabilizer(), new SentenceBuilder());
+        LandmarkFrame tied = frame(TestHands.letterB());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(Gestures.ofLetter('M'), pipeline.process(tied));
+        }
+        assertEquals("", pipeline.sentence());
+        LandmarkFrame clear = frame(TestHands.openHand());
+        for (int i = 0; i < 8; i++) {
+            pipeline.process(clear);
+        }
+        assertEquals("N", pipeline.sentence());
+        pipeline.close();
+    }
+
+    @Test
+    public void classify_keepsTheResultOfEachHand() {
+        MultiHandClassifier classifier = new MultiHandClassifier(AslRules.table(), new TwoHandedSigns(), true);
+        try {
+            assertEquals(Gestures.NO_HAND, classifier.classify(frame()));
+            assertEquals(Gestures.ofLetter('L'), classifier.classify(frame(TestHands.openHand(), TestHands.letterL())));
+            assertEquals(2, classifier.handCount());
+            assertEquals(Gestures.NO_GESTURE, classifier.result(0));
+            assertEquals(Gestures.ofLetter('L'), classifier.result(1));
+        } finally {
+            classifier.close();
+        }
+    }
+
+    @Test
+    public void classify_parallelMatchesSequential() {
+        MultiHandClassifier parallel = new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), true);
+        MultiHandClassifier sequential = new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), false);
+        RandomHands hands = new RandomHands(11);
+        try {
+            for (int n = 0; n < 20000; n++) {
+                LandmarkFrame frame = frame(hands.next(), hands.next());
+                assertEquals(sequential.classify(frame), parallel.classify(frame));
+                assertEquals(sequential.result(0), parallel.result(0));
+                assertEquals(sequential.result(1), parallel.result(1));
+            }
+        } finally {
+            parallel.close();
+        }
+    }
+
+    @Test
+    public void classify_recognisesTwoHandedSigns() {
+        MultiHandClassifier classifier = new MultiHandClassifier();
+        try {
+            LandmarkFrame frame = frame(shift(TestHands.letterB(), 0.3f), shift(TestHands.letterB(), -0.3f));
+            assertEquals(Gestures.SPACE, classifier.classify(frame));
+            assertEquals(Gestures.ofLetter('B'), classifier.result(0));
+        } finally {
+            classifier.close();
+        }
+    }
+
+    @Test
+    public void combine_usesTheOrderOnTheImage() {
+        TwoHandedSigns signs = new TwoHandedSigns();
+        signs.add(Gestures.ofLetter('A'), Gestures.ofLetter('L'), Gestures.ofLetter('Z'));
+        MultiHandClassifier classifier = new MultiHandClassifier(AslRules.table(), signs, false);
+        float[] a = shift(TestHands.letterA(), -0.3f);
+        float[] l = shift(TestHands.letterL(), 0.3f);
+        assertEquals(Gestures.ofLetter('Z'), classifier.classify(frame(l, a)));
+        assertEquals(Gestures.ofLetter('Z'), classifier.classify(frame(a, l)));
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(frame(shift(l, -0.6f), shift(a, 0.6f))));
+    }
+
+    @Test
+    public void classify_worksAfterClose() {
+        MultiHandClassifier classifier = new MultiHandClassifier(AslRules.table(), new TwoHandedSigns(), true);
+        classifier.close();
+        assertEquals(Gestures.ofLetter('B'), classifier.classify(frame(TestHands.openHand(), TestHands.letterB())));
+    }
+}
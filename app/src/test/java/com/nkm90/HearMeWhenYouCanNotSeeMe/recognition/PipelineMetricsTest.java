@@ -0,0 +1,57 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineMetricsTest {
+
+    @Test
+    public void writeText_writesASummaryPerStage() throws IOException {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.record(PipelineMetrics.DECODE, 1000);
+        metrics.record(PipelineMetrics.DECODE, 3000);
+        StringWriter out = new StringWriter();
+        metrics.writeText(out);
+        String text = out.toString();
+        assertTrue(text, text.startsWith("# HELP " + PipelineMetrics.METRIC_NAME));
+        assertTrue(text, text.contains("# TYPE " + PipelineMetrics.METRIC_NAME + " summary\n"));
+        assertTrue(text, text.contains(PipelineMetrics.METRIC_NAME + "{stage=\"decode\",quantile=\"0.99\"} 0.003000\n"));
+        assertTrue(text, text.contains(PipelineMetrics.METRIC_NAME + "_sum{stage=\"decode\"} 0.004000\n"));
+        assertTrue(text, text.contains(PipelineMetrics.METRIC_NAME + "_count{stage=\"decode\"} 2\n"));
+        assertTrue(text, text.contains(PipelineMetrics.METRIC_NAME + "_count{stage=\"end_to_end\"} 0\n"));
+        // Comments, and three quantiles, the sum and the count of each stage
+        assertEquals(2 + 5 * PipelineMetrics.STAGE_COUNT, text.split("\n").length);
+    }
+
+    @Test
+    public void overlayText_hasALinePerStage() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.record(PipelineMetrics.ARRIVAL, 44_000);
+        String[] lines = metrics.overlayText().split("\n");
+        assertEquals(1 + PipelineMetrics.STAGE_COUNT, lines.length);
+        assertTrue(lines[1], lines[1].startsWith("arrival") && lines[1].endsWith("44.0   44.0   44.0"));
+    }
+
+    @Test
+    public void pipeline_recordsItsStages() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RecognitionPipeline pipeline = new RecognitionPipeline(
+                new MultiHandClassifier(AslRules.table(), new TwoHandedSigns(), false),
+                new LetterStabilizer(), new SentenceBuilder());
+        pipeline.setMetrics(metrics);
+        LandmarkFrame frame = new LandmarkFrame();
+        System.arraycopy(TestHands.letterL(), 0, frame.hand(0), 0, HandLandmarks.HAND_SIZE);
+        frame.setHandCount(1);
+        for (int i = 0; i < 10; i++) {
+            pipeline.process(frame);
+        }
+        assertEquals(10, metrics.histogram(PipelineMetrics.CLASSIFICATION).count());
+        assertEquals(10, metrics.histogram(PipelineMetrics.STABILIZATION).count());
+        assertEquals(0, metrics.histogram(PipelineMetrics.DECODE).count());
+    }
+}
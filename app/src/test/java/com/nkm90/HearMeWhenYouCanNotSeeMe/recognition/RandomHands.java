@@ -0,0 +1,99 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.util.Random;
+
+/**
+ * Generator of random but hand-like poses, used to compare implementations of the rules on many
+ * different inputs. It starts from {@link TestHands#openHand()}, folds some fingers, moves the
+ * thumb, sometimes pinches fingertips together, and then adds noise, rotation and scale.
+ */
+final class RandomHands {
+
+    private static final int[] KNUCKLES = {TestHands.INDEX, TestHands.MIDDLE, TestHands.RING, TestHands.PINKY};
+    private static final float[] NOISE = {0.002f, 0.01f, 0.03f};
+
+    private final Random random;
+
+    RandomHands(long seed) {
+        random = new Random(seed);
+    }
+
+    float[] next() {
+        float[] hand = TestHands.openHand();
+        for (int knuckle : KNUCKLES) {
+            switch (random.nextInt(3)) {
+                case 1:
+                    TestHands.curl(hand, knuckle);
+                    break;
+                case 2:
+                    hook(hand, knuckle);
+                    break;
+                default:
+                    break;
+            }
+        }
+        switch (random.nextInt(4)) {
+            case 1:
+                TestHands.bendThumb(hand);
+                break;
+            case 2:
+                TestHands.thumbAlongIndex(hand);
+                break;
+            case 3:
+                TestHands.thumbOut(hand);
+                break;
+            default:
+                break;
+        }
+        if (random.nextInt(3) == 0) {
+            pinch(hand);
+        }
+        float noise = NOISE[random.nextInt(NOISE.length)];
+        for (int i = 0; i < HandLandmarks.HAND_SIZE; i++) {
+            hand[i] += (float) random.nextGaussian() * noise;
+        }
+        double[] angles = {0, -Math.PI / 2, Math.PI / 2, random.nextDouble() * 2 * Math.PI};
+        rotateAndScale(hand, angles[random.nextInt(angles.length)] + random.nextGaussian() * 0.2,
+                0.6f + random.nextFloat());
+        if (random.nextInt(10) == 0) {
+            TestHands.mirror(hand);
+        }
+        return hand;
+    }
+
+    // Bends the finger forward at the middle joint, the tip ends between the knuckle and the middle joint
+    private static void hook(float[] hand, int knuckle) {
+        float x = HandLandmarks.x(hand, knuckle);
+        float y = HandLandmarks.y(hand, knuckle);
+        HandLandmarks.set(hand, knuckle + 1, x, y - 0.07f, 0f);
+        HandLandmarks.set(hand, knuckle + 2, x - 0.01f, y - 0.04f, 0f);
+        HandLandmarks.set(hand, knuckle + 3, x - 0.01f, y - 0.01f, 0f);
+    }
+
+    // Moves the thumb tip and some fingertips close to the same point
+    private void pinch(float[] hand) {
+        float x = 0.38f + random.nextFloat() * 0.2f;
+        float y = 0.40f + random.nextFloat() * 0.2f;
+        for (int tip = 4; tip <= 20; tip += 4) {
+            if (tip == 4 || random.nextBoolean()) {
+                HandLandmarks.set(hand, tip, x + random.nextFloat() * 0.06f - 0.03f,
+                        y + random.nextFloat() * 0.06f - 0.03f, 0f);
+            }
+        }
+    }
+
+    private static void rotateAndScale(float[] hand, double angle, float scale) {
+        float cx = HandLandmarks.x(hand, 0);
+        float cy = HandLandmarks.y(hand, 0);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            double dx = HandLandmarks.x(hand, i) - cx;
+            double dy = HandLandmarks.y(hand, i) - cy;
+            HandLandmarks.set(hand, i,
+                    (float) (cx + scale * (dx * cos - dy * sin)),
+                    (float) (cy + scale * (dx * sin + dy * cos)),
+                    HandLandmarks.z(hand, i));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RecognitionMailboxTest {
+
+    @Test
+    public void publish_schedulesTheReaderOnlyOncePerDrain() {
+        RecognitionMailbox mailbox = new RecognitionMailbox();
+        assertTrue(mailbox.publish(Gestures.ofLetter('A'), ""));
+        assertFalse(mailbox.publish(Gestures.ofLetter('B'), ""));
+        assertFalse(mailbox.publish(Gestures.ofLetter('C'), "C"));
+
+        assertTrue(mailbox.drain());
+        assertEquals(Gestures.ofLetter('C'), mailbox.gesture());
+        assertEquals("C", mailbox.sentence());
+        assertFalse(mailbox.drain());
+
+        assertTrue(mailbox.publish(Gestures.NO_HAND, "C"));
+    }
+
+    @Test
+    public void publish_ignoresUnchangedValues() {
+        RecognitionMailbox mailbox = new RecognitionMailbox();
+        String sentence = "AB";
+        assertTrue(mailbox.publish(Gestures.ofLetter('B'), sentence));
+        mailbox.drain();
+        assertFalse(mailbox.publish(Gestures.ofLetter('B'), sentence));
+        assertFalse(mailbox.isPending());
+    }
+
+    @Test
+    public void sentenceBuilder_keepsTheSameTextUntilALetterIsAdded() {
+        SentenceBuilder sentence = new SentenceBuilder();
+        sentence.append(Gestures.ofLetter('H'));
+        sentence.append(Gestures.ofLetter('I'));
+        sentence.append(Gestures.SPACE);
+        String text = sentence.text();
+        assertEquals("HI ", text);
+        assertSame(text, sentence.text());
+        sentence.append(Gestures.ofLetter('Y'));
+        assertEquals("HI Y", sentence.text());
+    }
+
+    @Test
+    public void publish_fromAnotherThreadIsSeenByTheReader() throws InterruptedException {
+        RecognitionMailbox mailbox = new RecognitionMailbox();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                mailbox.publish(i % Gestures.COUNT, "");
+            }
+            mailbox.publish(Gestures.ofLetter('Z'), "done");
+        });
+        writer.start();
+        writer.join();
+        assertTrue(mailbox.drain());
+        assertEquals(Gestures.ofLetter('Z'), mailbox.gesture());
+        assertEquals("done", mailbox.sentence());
+    }
+}
@@ -0,0 +1,233 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * The if/else chain that classified the letters before the rules were compiled into a
+ * {@link DecisionTable}. The conditions are the ones MediaPipeActivity.handGestureCalculator had,
+ * only reading the landmarks from a float array. The tests use it as the reference behaviour for
+ * the compiled rules.
+ */
+final class ReferenceGestureRules {
+
+    private static final double NEAR_DISTANCE = 0.1;
+
+    // Hand currently being classified
+    private float[] hand;
+
+    /**
+     * The classify method takes the different position of the points obtained from MediaPipe for
+     * one hand in post to return the code of the letter for that gesture.
+     *
+     * @param landmarks float array with the 21 landmarks of the hand, laid out as in {@link HandLandmarks}
+     * @return code of the letter, or {@link Gestures#NO_GESTURE} when no letter matches
+     */
+    public int classify(float[] landmarks) {
+        hand = landmarks;
+
+        // Different conditions for each of the finger positions
+        boolean isLeft = false;
+        boolean isRight = false;
+        boolean indexStraightUp = false;
+        boolean indexStraightDown = false;
+        boolean middleStraightUp = false;
+        boolean middleStraightDown = false;
+        boolean ringStraightUp = false;
+        boolean ringStraightDown = false;
+        boolean pinkyStraightUp = false;
+        boolean pinkyStraightDown = false;
+        boolean thumbIsOpen = false;
+        boolean thumbIsBend = false;
+        boolean palmIsVertical = false;
+        boolean palmIsInclined = false;
+
+        /*The parameter pseudoFixKeyPoint will help me to set a point of reference used to verify
+         the different conditions for the position of the hand and the fingers.*/
+        float pseudoFixKeyPoint = x(2);
+
+        /*1st CONDITION
+         * Check if hand used is right or left based on the position of the base of the thumb,
+         * if the join number 2 is bigger than the join 17 (base of the pinky finger) on the
+         * X-axis, the hand used is left, otherwise is right*/
+        if (pseudoFixKeyPoint > x(17)) {
+            isLeft = true;
+        } else if (pseudoFixKeyPoint < x(17)) {
+            isRight = true;
+        }
+
+        /*2nd CONDITION
+         * To identify when a finger is straight up or straight down.
+         * Each of the following conditions allowed me to create the state straightUp on each finger.
+         * INDEX_FINGER */
+        if (y(8) < y(7) && y(7) < y(6) && y(6) < y(5)) {
+            indexStraightUp = true;
+        } else if (distance(8, 0) < distance(5, 0)) {
+            indexStraightDown = true;
+        }
+        /*MIDDLE_FINGER */
+        if (y(12) < y(11) && y(11) < y(10) && y(10) < y(9)) {
+            middleStraightUp = true;
+        } else if (distance(12, 0) < distance(9, 0)) {
+            middleStraightDown = true;
+        }
+        /*RING_FINGER */
+        if (y(16) < y(15) && y(15) < y(14) && y(14) < y(13)) {
+            ringStraightUp = true;
+        } else if (distance(16, 0) < distance(13, 0)) {
+            ringStraightDown = true;
+        }
+        /*PINKY_FINGER */
+        if (y(20) < y(19) && y(19) < y(18) && y(18) < y(17)) {
+            pinkyStraightUp = true;
+        } else if (distance(20, 0) < distance(17, 0)) {
+            pinkyStraightDown = true;
+        }
+        /*THUMB */
+        if (distance(4, 9) < distance(3, 9)) {
+            thumbIsBend = true;
+        } else {
+            thumbIsOpen = true;
+        }
+
+        /*3rd CONDITION
+         * In post to generate a possible split between gestures, made with palm facing front or
+         * other kind of rotations. By checking the position of three static points and their
+         * relative position to the others. The three static join selected for this are 0, 2, 17*/
+        if (y(0) > y(2) && y(2) > y(17)) {
+            palmIsVertical = true;
+        } else if (y(0) > y(17) && y(17) >= y(2)) {
+            palmIsInclined = true;
+        }
+
+        // Hand gesture recognition conditions for each letter
+        if (isRight) {
+            if (palmIsVertical) {
+                if (indexStraightDown && middleStraightDown && ringStraightDown
+                        && pinkyStraightDown && thumbIsOpen
+                        && near(4, 6) && x(4) < x(6))
+                    return letter('A');
+                else if (thumbIsBend && indexStraightUp && middleStraightUp
+                        && ringStraightUp && pinkyStraightUp)
+                    return letter('B');
+                else if (thumbIsOpen && !near(4, 8) && x(4) >= x(8)
+                        && !near(4, 12) && near(8, 12) && near(12, 16)
+                        && !near(4, 16) && !near(4, 20) && near(16, 20))
+                    return letter('C');
+                else if (indexStraightUp && thumbIsOpen && x(12) <= x(4)
+                        && near(12, 4) && near(12, 16) && near(12, 20))
+                    return letter('D');
+                else if (thumbIsBend && y(8) < y(4) && y(12) < y(4) && y(16) < y(4) && y(20) < y(4)
+                        && y(8) >= y(5) && y(12) >= y(9) && y(16) >= y(13) && y(20) >= y(17))
+                    return letter('E');
+                else if (middleStraightUp && ringStraightUp && pinkyStraightUp
+                        && thumbIsOpen && !indexStraightUp && near(8, 4))
+                    return letter('F');
+                else if (near(4, 6) && x(4) < x(6)
+                        && indexStraightDown && middleStraightDown && ringStraightDown
+                        && pinkyStraightUp)
+                    return letter('I');
+                else if (thumbIsOpen && x(4) >= x(5) && x(4) <= x(9)
+                        && indexStraightUp && middleStraightUp && ringStraightDown && pinkyStraightDown
+                        && distance(8, 12) > distance(5, 9))
+                    return letter('K');
+                else if (thumbIsOpen && x(4) < x(3) && y(4) >= y(3)
+                        && indexStraightUp && middleStraightDown && ringStraightDown && pinkyStraightDown)
+                    return letter('L');
+                else if (y(8) > y(5) && y(12) > y(9) && y(16) > y(13)
+                        && y(0) < y(4) && y(0) < y(20))
+                    return letter('M');
+                else if (y(8) > y(5) && y(12) > y(9) && y(16) < y(13)
+                        && y(0) < y(4) && y(0) < y(20))
+                    return letter('N');
+                else if (thumbIsOpen && near(4, 8) && near(8, 12)
+                        && near(12, 16) && near(16, 20))
+                    return letter('O');
+                else if (thumbIsBend && indexStraightUp && x(8) >= x(12)
+                        && middleStraightUp && ringStraightDown
+                        && x(4) >= x(15) && pinkyStraightDown)
+                    return letter('R');
+                else if (thumbIsBend && indexStraightDown && middleStraightDown
+                        && ringStraightDown && pinkyStraightDown
+                        && y(8) >= y(5) && y(7) >= y(5)
+                        && y(12) >= y(9) && y(11) >= y(9)
+                        && y(16) >= y(13) && y(15) >= y(13)
+                        && y(20) >= y(17) && y(19) >= y(17)
+                        && x(4) > x(7) && y(4) <= y(11))
+                    return letter('S');
+                else if (thumbIsOpen && indexStraightDown && middleStraightDown && ringStraightDown
+                        && pinkyStraightDown && x(4) > x(6) && x(4) < x(10))
+                    return letter('T');
+                else if (thumbIsBend && indexStraightUp && middleStraightUp
+                        && ringStraightDown && pinkyStraightDown && near(8, 12))
+                    return letter('U');
+                else if (thumbIsBend && indexStraightUp && middleStraightUp
+                        && ringStraightDown && pinkyStraightDown && !near(8, 12))
+                    return letter('V');
+                else if (thumbIsBend && indexStraightUp && middleStraightUp
+                        && ringStraightUp && pinkyStraightDown
+                        && !near(8, 12) && !near(16, 12))
+                    return letter('W');
+                else if (thumbIsBend && y(8) <= y(5) && y(8) >= y(6) && y(7) >= y(5)
+                        && y(12) >= y(9) && y(11) >= y(9)
+                        && y(16) >= y(13) && y(15) >= y(13)
+                        && y(20) >= y(17) && y(19) >= y(17)
+                        && x(4) > x(11))
+                    return letter('X');
+                else if (thumbIsOpen && indexStraightDown && middleStraightDown
+                        && ringStraightDown && pinkyStraightUp)
+                    return letter('Y');
+                else if (thumbIsOpen && y(8) < y(5) && x(8) < x(5)
+                        && y(4) >= y(3) && x(4) >= x(9)
+                        && y(12) > y(9) && y(16) > y(13) && y(20) > y(17))
+                    return letter('Z');
+            } else if (palmIsInclined) {
+                if (y(4) < y(3) && y(3) < y(2)
+                        && y(8) < y(5) && y(12) < y(9) && y(16) < y(13) && y(20) < y(17)
+                        && y(17) >= y(2))
+                    return Gestures.SPACE;
+                else if (thumbIsOpen && indexStraightUp && middleStraightDown
+                        && ringStraightDown && pinkyStraightDown && x(8) >= x(13))
+                    return letter('G');
+                else if (thumbIsBend && ringStraightDown && pinkyStraightDown
+                        && indexStraightUp && middleStraightUp)
+                    return letter('H');
+                else if (thumbIsBend && indexStraightDown && middleStraightDown
+                        && ringStraightDown && pinkyStraightUp)
+                    return letter('J');
+                else if (y(4) > y(3) && y(3) > y(2)
+                        && x(8) < x(7) && x(7) < x(6) && x(6) < x(5)
+                        && y(12) > y(11) && y(11) > y(9)
+                        && y(16) > y(15) && y(15) > y(13)
+                        && y(20) > y(19) && y(19) > y(17)
+                        && near(4, 12))
+                    return letter('P');
+                else if (y(4) > y(3) && y(3) > y(2) && y(8) > y(7))
+                    return letter('Q');
+            }
+        }
+        // The rules for the left hand have not been written yet
+        return Gestures.NO_GESTURE;
+    }
+
+    private static int letter(char letter) {
+        return letter - 'A';
+    }
+
+    private float x(int landmark) {
+        return hand[landmark * HandLandmarks.DIMENSIONS];
+    }
+
+    private float y(int landmark) {
+        return hand[landmark * HandLandmarks.DIMENSIONS + 1];
+    }
+
+    private double distance(int a, int b) {
+        return LandmarkMath.getEuclideanDistanceAB(x(a), y(a), x(b), y(b));
+    }
+
+    /**
+     * This Boolean method returns true when the Euclidean distance between 2 landmarks is smaller
+     * than 0.1, so the points are near.
+     */
+    private boolean near(int a, int b) {
+        return distance(a, b) < NEAR_DISTANCE;
+    }
+}
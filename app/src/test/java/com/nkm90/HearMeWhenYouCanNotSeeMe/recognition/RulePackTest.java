@@ -0,0 +1,122 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RulePackTest {
+
+    private static byte[] pack(DecisionTable table) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RulePack.write(table, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void read_givesTheSameLettersAsTheCompiledRules() throws IOException {
+        DecisionTable compiled = AslRules.table();
+        DecisionTable loaded = RulePack.read(ByteBuffer.wrap(pack(compiled)));
+        assertEquals(compiled.name(), loaded.name());
+        assertEquals(compiled.ruleCount(), loaded.ruleCount());
+        assertEquals(compiled.keyBits(), loaded.keyBits());
+        GestureClassifier expected = new GestureClassifier(compiled);
+        GestureClassifier actual = new GestureClassifier(loaded);
+        RandomHands hands = new RandomHands(22);
+        for (int n = 0; n < 50000; n++) {
+            float[] hand = hands.next();
+            assertEquals(expected.classify(hand), actual.classify(hand));
+        }
+    }
+
+    @Test
+    public void asset_isUpToDateWithTheScript() throws IOException {
+        byte[] asset = Files.readAllBytes(Paths.get("src/main/assets/rules_asl.hmrp"));
+        DecisionTable script = DecisionTable.compile(RuleScriptTest.aslScript());
+        assertArrayEquals("Run RulePack to regenerate rules_asl.hmrp", pack(script), asset);
+        assertEquals(0.1, RulePack.read(ByteBuffer.wrap(asset)).nearDistance(), 0.0);
+    }
+
+    @Test
+    public void read_rejectsDamagedPacks() throws IOException {
+        byte[] good = pack(AslRules.table());
+        byte[] magic = good.clone();
+        magic[0] ^= 1;
+        byte[] truncated = Arrays.copyOf(good, good.length - 8);
+        byte[] feature = good.clone();
+        // First feature, after the header and the padded name "asl"
+        feature[RulePack.HEADER_BYTES + 4 + 3] = (byte) 0x7F;
+        for (byte[] bad : Arrays.asList(magic, truncated, feature)) {
+            try {
+                RulePack.read(ByteBuffer.wrap(bad));
+                fail("Damaged pack read");
+            } catch (IOException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void rulePacks_loadOnlyTheSelectedPackOnFirstUse() {
+        List<String> loaded = new ArrayList<>();
+        DecisionTable asl = AslRules.table();
+        DecisionTable other = DecisionTable.compile(new GestureRuleSet("other", Arrays.asList(
+                GestureRule.builder(Gestures.ofLetter('Y')).rightHand().build())));
+        RulePacks packs = new RulePacks(pack -> {
+            loaded.add(pack);
+            if (pack.equals("asl")) {
+                return asl;
+            }
+            if (pack.equals("other")) {
+                return other;
+            }
+            throw new IOException("No pack " + pack);
+        }, "asl", "asl");
+        assertFalse(packs.isLoaded());
+        assertEquals(0, packs.loads());
+
+        GestureClassifier classifier = new GestureClassifier(packs);
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(TestHands.letterL()));
+        assertEquals(Gestures.ofLetter('B'), classifier.classify(TestHands.letterB()));
+        assertEquals(Arrays.asList("asl"), loaded);
+
+        // Swapped on the next hand, without a new classifier
+        packs.select("other");
+        assertFalse(packs.isLoaded());
+        assertEquals(Gestures.ofLetter('Y'), classifier.classify(TestHands.letterL()));
+        assertSame(other, classifier.table());
+        packs.select("other");
+        classifier.classify(TestHands.letterL());
+        assertEquals(Arrays.asList("asl", "other"), loaded);
+
+        // A missing pack falls back
+        packs.select("lse");
+        assertEquals(Gestures.ofLetter('L'), classifier.classify(TestHands.letterL()));
+        assertEquals(Arrays.asList("asl", "other", "lse", "asl"), loaded);
+        assertTrue(packs.isLoaded());
+    }
+
+    @Test
+    public void rulePacks_useTheBuiltInRulesWithoutAnyPack() {
+        RulePacks packs = new RulePacks(pack -> {
+            throw new IOException("No packs");
+        }, "lse", "asl");
+        List<String> errors = new ArrayList<>();
+        packs.setErrorListener((pack, error) -> errors.add(pack));
+        assertSame(AslRules.table(), packs.table());
+        assertEquals(Arrays.asList("lse", "asl"), errors);
+    }
+}
@@ -0,0 +1,104 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RuleScriptTest {
+
+    /** The script the ASL pack is compiled from, app/rules/asl.rules. */
+    static GestureRuleSet aslScript() throws IOException {
+        try (Reader in = new InputStreamReader(Files.newInputStream(Paths.get("rules/asl.rules")),
+                StandardCharsets.UTF_8)) {
+            return RuleScript.parse(in);
+        }
+    }
+
+    private static byte[] pack(DecisionTable table) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RulePack.write(table, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void aslScript_matchesTheReferenceChain() throws IOException {
+        GestureClassifier classifier = new GestureClassifier(DecisionTable.compile(aslScript()));
+        ReferenceGestureRules reference = new ReferenceGestureRules();
+        RandomHands hands = new RandomHands(2023);
+        for (int n = 0; n < 200000; n++) {
+            float[] hand = hands.next();
+            assertEquals("sample " + n + " " + Arrays.toString(hand), reference.classify(hand), classifier.classify(hand));
+        }
+    }
+
+    @Test
+    public void aslScript_compilesToTheSameTableAsTheJavaRules() throws IOException {
+        // Same features, masks and key as AslRules, so it is evaluated exactly as fast
+        GestureRuleSet java = new GestureRuleSet("asl", AslRules.create().rules());
+        assertArrayEquals(pack(DecisionTable.compile(java)), pack(DecisionTable.compile(aslScript())));
+    }
+
+    @Test
+    public void write_isReadBackIntoTheSameRules() throws IOException {
+        GestureRuleSet rules = AslRules.create();
+        StringWriter script = new StringWriter();
+        RuleScript.write(rules, script);
+        GestureRuleSet read = RuleScript.parse(new StringReader(script.toString()));
+        assertEquals(rules.name(), read.name());
+        assertEquals(rules.nearDistance(), read.nearDistance(), 0.0);
+        assertEquals(rules.rules().toString(), read.rules().toString());
+    }
+
+    @Test
+    public void parse_acceptsSpacesCommentsAndATunedNearDistance() throws IOException {
+        GestureRuleSet rules = RuleScript.parse(new StringReader(
+                "# tuned\n\nnear 0.25\n  O: rightHand   near(4, 8) palmVertical\n"));
+        assertEquals(RuleScript.DEFAULT_NAME, rules.name());
+        assertEquals(1, rules.size());
+        assertEquals("O: rightHand near(4,8) palmVertical", rules.rules().get(0).toString());
+
+        // Tip of the thumb 0.15 from the tip of the index finger: near with 0.25, not with 0.1
+        float[] hand = TestHands.letterB();
+        HandLandmarks.set(hand, 4, HandLandmarks.x(hand, 8) + 0.15f, HandLandmarks.y(hand, 8), 0);
+        GestureClassifier tuned = new GestureClassifier(DecisionTable.compile(rules));
+        GestureClassifier strict = new GestureClassifier(DecisionTable.compile(
+                new GestureRuleSet("strict", rules.rules())));
+        assertEquals(Gestures.ofLetter('O'), tuned.classify(hand));
+        assertEquals(Gestures.NO_GESTURE, strict.classify(hand));
+    }
+
+    @Test
+    public void parse_reportsTheLineOfTheError() {
+        String[] bad = {
+                "A: rightHand fingerUp(6)",
+                "A: rightHand near(4)",
+                "A: rightHand wristUp",
+                "\u00d1: rightHand",
+                "A rightHand",
+                "A: thumbBent !thumbBent",
+                "near zero",
+                "near -1"};
+        for (String line : bad) {
+            try {
+                RuleScript.parse(new StringReader("# first\n" + line + "\n"));
+                fail("Parsed " + line);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2: "));
+            }
+        }
+    }
+}
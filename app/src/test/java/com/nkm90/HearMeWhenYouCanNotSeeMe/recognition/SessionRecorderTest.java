@@ -0,0 +1,131 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SessionRecorderTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static LandmarkFrame frame(long timestamp, float[]... hands) {
+        LandmarkFrame frame = new LandmarkFrame();
+        for (int i = 0; i < hands.length; i++) {
+            System.arraycopy(hands[i], 0, frame.hand(i), 0, HandLandmarks.HAND_SIZE);
+        }
+        frame.setHandCount(hands.length);
+        frame.setTimestamp(timestamp);
+        return frame;
+    }
+
+    @Test
+    public void reader_returnsTheRecordedFrames() throws IOException {
+        File file = folder.newFile("session.hmsr");
+        try (SessionRecorder recorder = SessionRecorder.create(file)) {
+            recorder.record(frame(10L, TestHands.letterA()), Gestures.ofLetter('A'));
+            recorder.record(frame(20L), SessionRecorder.UNKNOWN_LABEL);
+            recorder.record(frame(30L, TestHands.letterB(), TestHands.letterL()), Gestures.ofLetter('B'));
+            assertEquals(3, recorder.frames());
+        }
+
+        LandmarkFrame frame = new LandmarkFrame();
+        try (SessionReader reader = SessionReader.open(file)) {
+            assertTrue(reader.next(frame));
+            assertEquals(10L, frame.timestamp());
+            assertEquals(1, frame.handCount());
+            assertEquals(Gestures.ofLetter('A'), reader.label());
+            assertArrayEquals(TestHands.letterA(), frame.hand(0), 0f);
+
+            assertTrue(reader.next(frame));
+            assertEquals(20L, frame.timestamp());
+            assertEquals(0, frame.handCount());
+            assertEquals(SessionRecorder.UNKNOWN_LABEL, reader.label());
+
+            assertTrue(reader.next(frame));
+            assertEquals(2, frame.handCount());
+            assertArrayEquals(TestHands.letterB(), frame.hand(0), 0f);
+            assertArrayEquals(TestHands.letterL(), frame.hand(1), 0f);
+            assertFalse(reader.next(frame));
+
+            reader.rewind();
+            assertTrue(reader.next(frame));
+            assertEquals(10L, frame.timestamp());
+        }
+    }
+
+    @Test
+    public void record_writesLongSessionsInChunks() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int frames = 1000;
+        try (SessionRecorder recorder = new SessionRecorder(out)) {
+            LandmarkFrame frame = frame(0L, TestHands.openHand(), TestHands.letterY());
+            for (int i = 0; i < frames; i++) {
+                frame.setTimestamp(i);
+                recorder.record(frame, SessionRecorder.UNKNOWN_LABEL);
+            }
+        }
+        byte[] data = out.toByteArray();
+        assertEquals(SessionRecorder.HEADER_BYTES
+                + frames * (SessionRecorder.FRAME_HEADER_BYTES + 2 * SessionRecorder.HAND_BYTES), data.length);
+
+        SessionReader reader = new SessionReader(ByteBuffer.wrap(data));
+        LandmarkFrame frame = new LandmarkFrame();
+        long count = 0;
+        while (reader.next(frame)) {
+            assertEquals(count++, frame.timestamp());
+        }
+        assertEquals(frames, count);
+    }
+
+    @Test(expected = IOException.class)
+    public void reader_rejectsTruncatedFrames() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SessionRecorder recorder = new SessionRecorder(out)) {
+            recorder.record(frame(1L, TestHands.openHand()), SessionRecorder.UNKNOWN_LABEL);
+        }
+        byte[] data = out.toByteArray();
+        SessionReader reader = new SessionReader(ByteBuffer.wrap(Arrays.copyOf(data, data.length - 8)));
+        reader.next(new LandmarkFrame());
+    }
+
+    @Test
+    public void replay_buildsTheSentenceOfTheSession() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SessionRecorder recorder = new SessionRecorder(out)) {
+            long timestamp = 0;
+            float[][] letters = {TestHands.letterA(), TestHands.letterB(), TestHands.letterB(), TestHands.letterL()};
+            for (float[] letter : letters) {
+                for (int i = 0; i < 10; i++) {
+                    recorder.record(frame(timestamp++, letter), SessionRecorder.UNKNOWN_LABEL);
+                }
+                // The hand goes away between letters, so the same letter can be signed twice
+                for (int i = 0; i < 10; i++) {
+                    recorder.record(frame(timestamp++), SessionRecorder.UNKNOWN_LABEL);
+                }
+            }
+        }
+
+        RecognitionPipeline pipeline = new RecognitionPipeline(
+                new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), false),
+                new LetterStabilizer(), new SentenceBuilder());
+        SessionReader session = new SessionReader(ByteBuffer.wrap(out.toByteArray()));
+        SessionReplay.Result result = SessionReplay.replay(session, pipeline);
+        pipeline.close();
+
+        assertEquals(80, result.frames());
+        assertEquals(40, result.count(Gestures.NO_HAND));
+        assertEquals("ABBL", result.sentence());
+    }
+}
@@ -0,0 +1,111 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+/**
+ * Synthetic hands used by the tests. All of them are right hands seen with the palm facing the
+ * camera, with normalised image coordinates (Y grows downwards).
+ */
+final class TestHands {
+
+    static final int INDEX = 5;
+    static final int MIDDLE = 9;
+    static final int RING = 13;
+    static final int PINKY = 17;
+
+    private TestHands() {
+    }
+
+    /** Hand with every finger straight up and the thumb open to the side. */
+    static float[] openHand() {
+        float[] hand = HandLandmarks.newHand();
+        HandLandmarks.set(hand, 0, 0.50f, 0.80f, 0f);
+        HandLandmarks.set(hand, 1, 0.42f, 0.75f, 0f);
+        HandLandmarks.set(hand, 2, 0.36f, 0.70f, 0f);
+        HandLandmarks.set(hand, 3, 0.32f, 0.64f, 0f);
+        HandLandmarks.set(hand, 4, 0.29f, 0.59f, 0f);
+        HandLandmarks.set(hand, 5, 0.44f, 0.56f, 0f);
+        HandLandmarks.set(hand, 6, 0.43f, 0.46f, 0f);
+        HandLandmarks.set(hand, 7, 0.425f, 0.40f, 0f);
+        HandLandmarks.set(hand, 8, 0.42f, 0.35f, 0f);
+        HandLandmarks.set(hand, 9, 0.50f, 0.55f, 0f);
+        HandLandmarks.set(hand, 10, 0.50f, 0.44f, 0f);
+        HandLandmarks.set(hand, 11, 0.50f, 0.38f, 0f);
+        HandLandmarks.set(hand, 12, 0.50f, 0.32f, 0f);
+        HandLandmarks.set(hand, 13, 0.56f, 0.56f, 0f);
+        HandLandmarks.set(hand, 14, 0.565f, 0.46f, 0f);
+        HandLandmarks.set(hand, 15, 0.57f, 0.40f, 0f);
+        HandLandmarks.set(hand, 16, 0.575f, 0.35f, 0f);
+        HandLandmarks.set(hand, 17, 0.61f, 0.59f, 0f);
+        HandLandmarks.set(hand, 18, 0.62f, 0.51f, 0f);
+        HandLandmarks.set(hand, 19, 0.625f, 0.46f, 0f);
+        HandLandmarks.set(hand, 20, 0.63f, 0.42f, 0f);
+        return hand;
+    }
+
+    /** Folds the finger that starts on the given knuckle so the tip points back to the wrist. */
+    static float[] curl(float[] hand, int knuckle) {
+        float x = HandLandmarks.x(hand, knuckle);
+        float y = HandLandmarks.y(hand, knuckle);
+        HandLandmarks.set(hand, knuckle + 1, x, y - 0.06f, 0f);
+        HandLandmarks.set(hand, knuckle + 2, x + 0.01f, y, 0f);
+        HandLandmarks.set(hand, knuckle + 3, x + 0.01f, y + 0.06f, 0f);
+        return hand;
+    }
+
+    /** Crosses the thumb over the palm. */
+    static float[] bendThumb(float[] hand) {
+        HandLandmarks.set(hand, 3, 0.42f, 0.66f, 0f);
+        HandLandmarks.set(hand, 4, 0.50f, 0.62f, 0f);
+        return hand;
+    }
+
+    /** Places the thumb pointing up, next to the side of the index finger. */
+    static float[] thumbAlongIndex(float[] hand) {
+        HandLandmarks.set(hand, 3, 0.40f, 0.58f, 0f);
+        HandLandmarks.set(hand, 4, 0.39f, 0.50f, 0f);
+        return hand;
+    }
+
+    /** Stretches the thumb horizontally, away from the palm. */
+    static float[] thumbOut(float[] hand) {
+        HandLandmarks.set(hand, 3, 0.33f, 0.66f, 0f);
+        HandLandmarks.set(hand, 4, 0.26f, 0.66f, 0f);
+        return hand;
+    }
+
+    /** Mirrors the hand horizontally, turning a right hand into a left hand. */
+    static float[] mirror(float[] hand) {
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            hand[i * HandLandmarks.DIMENSIONS] = 1f - hand[i * HandLandmarks.DIMENSIONS];
+        }
+        return hand;
+    }
+
+    static float[] letterA() {
+        float[] hand = openHand();
+        curl(hand, INDEX);
+        curl(hand, MIDDLE);
+        curl(hand, RING);
+        curl(hand, PINKY);
+        return thumbAlongIndex(hand);
+    }
+
+    static float[] letterB() {
+        return bendThumb(openHand());
+    }
+
+    static float[] letterL() {
+        float[] hand = openHand();
+        curl(hand, MIDDLE);
+        curl(hand, RING);
+        curl(hand, PINKY);
+        return thumbOut(hand);
+    }
+
+    static float[] letterY() {
+        float[] hand = openHand();
+        curl(hand, INDEX);
+        curl(hand, MIDDLE);
+        curl(hand, RING);
+        return thumbOut(hand);
+    }
+}
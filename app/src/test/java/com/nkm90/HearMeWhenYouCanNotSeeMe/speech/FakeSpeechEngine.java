@@ -0,0 +1,117 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for the Android TextToSpeech: it records every request and keeps them queued until the
+ * test finishes them, like the real engine does on its own thread.
+ */
+class FakeSpeechEngine implements SpeechEngine {
+
+    /** One queued request. */
+    static final class Request {
+        final String kind;
+        final String text;
+        final File file;
+        final String utteranceId;
+
+        Request(String kind, String text, File file, String utteranceId) {
+            this.kind = kind;
+            this.text = text;
+            this.file = file;
+            this.utteranceId = utteranceId;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ":" + text;
+        }
+    }
+
+    final List<Request> log = new ArrayList<>();
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private Listener listener;
+    String language;
+    boolean languageAvailable = true;
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean setVoice(String language, float pitch, float speed) {
+        this.language = language;
+        return languageAvailable;
+    }
+
+    @Override
+    public void speak(String text, boolean flush, String utteranceId) {
+        enqueue(new Request("speak", text, null, utteranceId), flush);
+    }
+
+    @Override
+    public void play(File audio, boolean flush, String utteranceId) {
+        enqueue(new Request("play", audio.getName(), audio, utteranceId), flush);
+    }
+
+    @Override
+    public void synthesizeToFile(String text, File file, String utteranceId) {
+        enqueue(new Request("synthesize", text, file, utteranceId), false);
+    }
+
+    private void enqueue(Request request, boolean flush) {
+        if (flush) {
+            stop();
+        }
+        log.add(request);
+        queue.add(request);
+    }
+
+    @Override
+    public void stop() {
+        List<Request> dropped = new ArrayList<>(queue);
+        queue.clear();
+        for (Request request : dropped) {
+            listener.onError(request.utteranceId);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        queue.clear();
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Finishes the first queued request, writing the audio file when it is a synthesis.
+     */
+    Request finishNext() throws IOException {
+        Request request = queue.poll();
+        if (request == null) {
+            return null;
+        }
+        if (request.kind.equals("synthesize")) {
+            try (FileOutputStream out = new FileOutputStream(request.file)) {
+                out.write(("RIFF " + request.text).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        listener.onDone(request.utteranceId);
+        return request;
+    }
+
+    void finishAll() throws IOException {
+        while (finishNext() != null) {
+            // the listener may queue more requests
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class IncrementalSpeakerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void speakWord_queuesEachWordAfterTheOthers() throws IOException {
+        FakeSpeechEngine engine = new FakeSpeechEngine();
+        IncrementalSpeaker speaker = new IncrementalSpeaker(engine, new PhraseCache(folder.newFolder(), 1 << 20));
+        speaker.setVoice("en", 1f, 1f);
+        speaker.speakWord("HELLO");
+        speaker.speakWord("WORLD");
+        speaker.speakWord(" ");
+        assertEquals("[speak:hello, speak:world]", engine.log.toString());
+        assertEquals(2, engine.queued());
+    }
+
+    @Test
+    public void repeatedPhrases_areCachedWhenIdleAndPlayedFromTheFile() throws IOException {
+        FakeSpeechEngine engine = new FakeSpeechEngine();
+        PhraseCache cache = new PhraseCache(folder.newFolder(), 1 << 20);
+        IncrementalSpeaker speaker = new IncrementalSpeaker(engine, cache);
+        speaker.setVoice("en", 1f, 1f);
+
+        speaker.speakWord("THANKS");
+        engine.finishAll();
+        speaker.speakWord("THANKS");
+        speaker.speakWord("BYE");
+        // Nothing is synthesized while words are waiting to be spoken
+        assertEquals(2, engine.queued());
+        engine.finishNext();
+        assertEquals(1, engine.queued());
+        engine.finishNext();
+        assertEquals("synthesize:thanks", engine.log.get(engine.log.size() - 1).toString());
+        engine.finishAll();
+        assertEquals(1, cache.size());
+
+        speaker.speakWord("THANKS");
+        assertEquals("play", engine.log.get(engine.log.size() - 1).kind);
+        assertEquals(1, speaker.cachedPlays());
+    }
+
+    @Test
+    public void cacheKey_dependsOnTheVoice() throws IOException {
+        String key = PhraseCache.key("hello", "en", 1f, 1f);
+        assertEquals(key, PhraseCache.key("hello", "en", 1.001f, 1f));
+        assertNotEquals(key, PhraseCache.key("hello", "es", 1f, 1f));
+        assertNotEquals(key, PhraseCache.key("hello", "en", 1.5f, 1f));
+        assertNotEquals(key, PhraseCache.key("hello", "en", 1f, 0.5f));
+
+        FakeSpeechEngine engine = new FakeSpeechEngine();
+        IncrementalSpeaker speaker = new IncrementalSpeaker(engine, new PhraseCache(folder.newFolder(), 1 << 20));
+        speaker.setVoice("en", 1f, 1f);
+        speaker.speakPhrase("good morning");
+        speaker.speakPhrase("good morning");
+        engine.finishAll();
+        speaker.setVoice("en", 1.5f, 1f);
+        speaker.speakPhrase("good morning");
+        assertEquals("speak", engine.log.get(engine.log.size() - 1).kind);
+    }
+
+    @Test
+    public void speakPhrase_flushesAndRetriesTheInterruptedSynthesis() throws IOException {
+        FakeSpeechEngine engine = new FakeSpeechEngine();
+        PhraseCache cache = new PhraseCache(folder.newFolder(), 1 << 20);
+        IncrementalSpeaker speaker = new IncrementalSpeaker(engine, cache);
+        speaker.setVoice("en", 1f, 1f);
+        speaker.speakWord("YES");
+        speaker.speakWord("YES");
+        engine.finishNext();
+        engine.finishNext();
+        assertEquals("synthesize:yes", engine.log.get(engine.log.size() - 1).toString());
+
+        // A new phrase drops the synthesis queued, it is done again once the phrase is spoken
+        speaker.speakPhrase("no");
+        assertEquals(1, engine.queued());
+        engine.finishAll();
+        assertEquals(1, cache.size());
+        assertEquals("synthesize:yes", engine.log.get(engine.log.size() - 1).toString());
+    }
+
+    @Test
+    public void setVoice_reportsMissingLanguages() throws IOException {
+        FakeSpeechEngine engine = new FakeSpeechEngine();
+        engine.languageAvailable = false;
+        IncrementalSpeaker speaker = new IncrementalSpeaker(engine, new PhraseCache(folder.newFolder(), 1 << 20));
+        assertFalse(speaker.setVoice("xx", 1f, 1f));
+        assertEquals("xx", engine.language);
+    }
+}
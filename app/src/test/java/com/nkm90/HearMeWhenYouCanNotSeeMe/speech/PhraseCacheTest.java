@@ -0,0 +1,52 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.speech;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PhraseCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void put_evictsTheLeastRecentlyUsed() throws IOException {
+        File directory = folder.newFolder();
+        PhraseCache cache = new PhraseCache(directory, 250);
+        for (String key : new String[]{"a", "b", "c"}) {
+            write(cache.temporaryFile(key), 100);
+            assertTrue(cache.put(key));
+            if (key.equals("b")) {
+                assertNotNull(cache.get("a"));
+            }
+        }
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertFalse(cache.put("missing"));
+
+        // The files are found again when the app starts
+        write(cache.temporaryFile("interrupted"), 10);
+        PhraseCache reopened = new PhraseCache(directory, 250);
+        assertEquals(2, reopened.size());
+        assertEquals(200, reopened.bytes());
+        assertFalse(cache.temporaryFile("interrupted").exists());
+    }
+
+    private static void write(File file, int bytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[bytes]);
+        }
+    }
+}
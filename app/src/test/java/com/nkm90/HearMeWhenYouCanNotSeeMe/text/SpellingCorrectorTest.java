@@ -0,0 +1,123 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SpellingCorrectorTest {
+
+    private static final String[] WORDS = {"HELLO", "HELP", "THE", "THAT", "TEA", "MEAN", "NAME", "SEAT", "TOUCH"};
+    private static final int[] FREQUENCIES = {50, 80, 1000, 600, 30, 40, 70, 20, 10};
+
+    private static SpellingCorrector corrector() {
+        return new SpellingCorrector(WORDS, FREQUENCIES, SpellingCorrector.DEFAULT_MAX_EDITS,
+                SpellingCorrector.DEFAULT_MAX_COST, LetterConfusion.forFingerspelling());
+    }
+
+    private static String correct(SpellingCorrector corrector, String word) {
+        return corrector.correct(word, 0, word.length());
+    }
+
+    @Test
+    public void correct_fixesConfusedAndRepeatedLetters() {
+        SpellingCorrector corrector = corrector();
+        // N and M are both closed fists, S and T too
+        assertEquals("MEAN", correct(corrector, "NEAN"));
+        assertEquals("SEAT", correct(corrector, "SEAS"));
+        // A letter held too long is read twice
+        assertEquals("HELLO", correct(corrector, "HELLLO"));
+        assertEquals("HELP", correct(corrector, "HHELP"));
+    }
+
+    @Test
+    public void correct_keepsWordsThatNeedAPlainEdit() {
+        SpellingCorrector corrector = corrector();
+        // Swapped, missing, extra or unrelated letters are not mistakes of the recognition
+        assertNull(correct(corrector, "TEH"));
+        assertNull(correct(corrector, "HELO"));
+        assertNull(correct(corrector, "HELPO"));
+        assertNull(correct(corrector, "THEB"));
+        // Two confusable letters cost as much as a plain edit
+        assertNull(correct(corrector, "NEAS"));
+    }
+
+    @Test
+    public void correct_keepsNamesWithTheShippedDictionaries() throws IOException {
+        SpellingCorrector english = SpellingCorrector.fromTrie(WordTrie.open(new File("src/main/assets/words_en.trie")));
+        for (String name : new String[]{"TOM", "SAM", "ANA", "JUAN", "MAMA", "MARIA", "PETER"}) {
+            assertNull(name, correct(english, name));
+        }
+        SpellingCorrector spanish = SpellingCorrector.fromTrie(WordTrie.open(new File("src/main/assets/words_es.trie")));
+        for (String name : new String[]{"PEDRO", "SARA", "JUAN", "LUCIA", "CARLOS"}) {
+            assertNull(name, correct(spanish, name));
+        }
+    }
+
+    @Test
+    public void correct_keepsKnownShortAndFarWords() {
+        SpellingCorrector corrector = corrector();
+        assertNull(correct(corrector, "HELLO"));
+        assertNull(correct(corrector, "help"));
+        assertNull(correct(corrector, "TH"));
+        assertNull(correct(corrector, "QWERTY"));
+        assertNull(correct(corrector, "HEL LO"));
+    }
+
+    @Test
+    public void correct_prefersTheMostFrequentOfTheSameCost() {
+        SpellingCorrector corrector = corrector();
+        // One confusable letter from MEAN (S for M) and from SEAT (N for T)
+        assertEquals("MEAN", correct(corrector, "SEAN"));
+        assertEquals("THAT", correct(corrector, "THAS"));
+    }
+
+    @Test
+    public void correct_readsPartOfALongerText() {
+        String sentence = "I NEED HELLP ";
+        assertEquals("HELP", corrector().correct(sentence, 7, 12));
+    }
+
+    @Test
+    public void correct_findsTheSameCostAsAFullScan() {
+        Random random = new Random(3);
+        String[] words = new String[2000];
+        int[] frequencies = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 3 + random.nextInt(6));
+            frequencies[i] = 1 + random.nextInt(1000);
+        }
+        SpellingCorrector corrector = new SpellingCorrector(words, frequencies, 2, 1f,
+                LetterConfusion.forFingerspelling());
+        SpellingCorrector scan = new SpellingCorrector(new String[0], new int[0], 1, 1f,
+                LetterConfusion.forFingerspelling());
+        for (int n = 0; n < 3000; n++) {
+            char[] read = words[random.nextInt(words.length)].toCharArray();
+            read[random.nextInt(read.length)] = (char) ('A' + random.nextInt(26));
+            String typed = random.nextBoolean() ? new String(read) : new String(read) + read[read.length - 1];
+            float best = Float.POSITIVE_INFINITY;
+            for (String word : words) {
+                best = Math.min(best, scan.distance(typed.toCharArray(), typed.length(), word.toCharArray(), 100f));
+            }
+            String correction = corrector.correct(typed, 0, typed.length());
+            if (best == 0f || best > 1f) {
+                assertNull(typed, correction);
+            } else {
+                assertEquals(typed, best, scan.distance(typed.toCharArray(), typed.length(),
+                        correction.toCharArray(), 100f), 0f);
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('A' + random.nextInt(12));
+        }
+        return new String(word);
+    }
+}
@@ -0,0 +1,143 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.Gestures;
+import com.nkm90.HearMeWhenYouCanNotSeeMe.recognition.SentenceBuilder;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WordTrieTest {
+
+    private static WordTrie pack(WordTrieBuilder builder) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.write(out);
+        return new WordTrie(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private static WordTrie trie(String words) throws IOException {
+        WordTrieBuilder builder = new WordTrieBuilder();
+        builder.read(new StringReader(words));
+        return pack(builder);
+    }
+
+    private static List<String> complete(WordTrie trie, String prefix, int k) {
+        WordTrie.Completions completions = new WordTrie.Completions(k);
+        trie.complete(prefix, 0, prefix.length(), completions);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < completions.count(); i++) {
+            words.add(completions.word(i));
+        }
+        return words;
+    }
+
+    @Test
+    public void complete_returnsTheMostFrequentWordsFirst() throws IOException {
+        WordTrie trie = trie("# comment\nhello 50\nhelp 80\nhe 500\nhead 20\nheld 10\nhi 300\n");
+        assertEquals(6, trie.wordCount());
+        assertEquals("[HE, HELP, HELLO]", complete(trie, "he", 3).toString());
+        assertEquals("[HELP, HELLO, HELD]", complete(trie, "HEL", 5).toString());
+        assertEquals("[]", complete(trie, "hex", 3).toString());
+        assertEquals("[HE, HI]", complete(trie, "", 2).toString());
+        assertEquals(80, trie.frequency("help"));
+        assertEquals(0, trie.frequency("hel"));
+    }
+
+    @Test
+    public void builder_removesTheAccentsAndSkipsOtherWords() throws IOException {
+        WordTrieBuilder builder = new WordTrieBuilder();
+        builder.add("est\u00E1", 10);
+        builder.add("ESTA", 5);
+        assertEquals(false, builder.add("can't", 10));
+        assertEquals(false, builder.add("a\u00F1o", 10));
+        WordTrie trie = pack(builder);
+        assertEquals(1, trie.wordCount());
+        assertEquals(15, trie.frequency("esta"));
+        assertEquals("ESTA", WordTrieBuilder.normalize("Est\u00E1"));
+    }
+
+    @Test
+    public void complete_matchesABruteForceSearch() throws IOException {
+        Random random = new Random(7);
+        WordTrieBuilder builder = new WordTrieBuilder();
+        Map<String, Integer> words = new HashMap<>();
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('A' + random.nextInt(6)));
+            }
+            int frequency = 1 + random.nextInt(100000);
+            builder.add(word.toString(), frequency);
+            words.merge(word.toString(), frequency, Integer::sum);
+        }
+        WordTrie trie = pack(builder);
+        WordTrie.Completions completions = new WordTrie.Completions(4);
+        for (int n = 0; n < 500; n++) {
+            StringBuilder prefix = new StringBuilder();
+            int length = random.nextInt(4);
+            for (int i = 0; i < length; i++) {
+                prefix.append((char) ('A' + random.nextInt(6)));
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (Map.Entry<String, Integer> word : words.entrySet()) {
+                if (word.getKey().startsWith(prefix.toString())) {
+                    expected.add(word.getValue());
+                }
+            }
+            expected.sort((a, b) -> Integer.compare(b, a));
+            int count = trie.complete(prefix, 0, prefix.length(), completions);
+            assertEquals(Math.min(4, expected.size()), count);
+            for (int i = 0; i < count; i++) {
+                String word = completions.word(i);
+                assertEquals(prefix.toString(), word.substring(0, prefix.length()));
+                assertEquals(expected.get(i).intValue(), completions.frequency(i));
+                assertEquals(words.get(word).intValue(), completions.frequency(i));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void wordTrie_rejectsOtherFiles() throws IOException {
+        new WordTrie(ByteBuffer.wrap(new byte[64]));
+    }
+
+    @Test
+    public void completer_suggestsForTheLastWordOnly() throws IOException {
+        WordCompleter completer = new WordCompleter(trie("hello 50\nhelp 80\nhow 20\nyou 30\n"), 2);
+        String sentence = "HOW ARE YOU HEL";
+        String suggestions = completer.update(sentence);
+        assertEquals("HELP" + WordCompleter.SEPARATOR + "HELLO", suggestions);
+        assertSame(suggestions, completer.update(sentence));
+        assertSame(suggestions, completer.update(new String(sentence)));
+        assertEquals("HELP", completer.best());
+        assertEquals("", completer.update("HELLO "));
+        assertNull(completer.best());
+    }
+
+    @Test
+    public void sentenceBuilder_completesTheLastWord() {
+        SentenceBuilder sentence = new SentenceBuilder();
+        sentence.append(Gestures.ofLetter('H'));
+        sentence.append(Gestures.ofLetter('I'));
+        sentence.append(Gestures.SPACE);
+        sentence.append(Gestures.ofLetter('H'));
+        sentence.append(Gestures.ofLetter('E'));
+        sentence.completeWord("HELP");
+        assertEquals("HI HELP ", sentence.text());
+        sentence.completeWord("YOU");
+        assertEquals("HI HELP YOU ", sentence.text());
+    }
+}
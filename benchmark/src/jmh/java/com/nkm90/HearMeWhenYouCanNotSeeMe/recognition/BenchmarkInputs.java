@@ -0,0 +1,91 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Landmark frames used by the benchmarks. When the system property benchmark.session points to a
+ * file written by {@link SessionRecorder} its frames are used, otherwise a fixed mix of synthetic
+ * hands: the letters of the unit tests, random hand-like poses and frames with two hands or none.
+ */
+final class BenchmarkInputs {
+
+    static final String SESSION_PROPERTY = "benchmark.session";
+
+    // Power of two so the benchmarks can go through the frames with a mask
+    static final int SYNTHETIC_FRAMES = 1024;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * @return the frames of the session, or the synthetic frames
+     */
+    static LandmarkFrame[] frames() throws IOException {
+        String session = System.getProperty(SESSION_PROPERTY);
+        if (session != null && !session.isEmpty()) {
+            return recorded(new File(session));
+        }
+        return synthetic();
+    }
+
+    private static LandmarkFrame[] recorded(File file) throws IOException {
+        List<LandmarkFrame> frames = new ArrayList<>();
+        try (SessionReader reader = SessionReader.open(file)) {
+            LandmarkFrame frame = new LandmarkFrame();
+            while (reader.next(frame)) {
+                LandmarkFrame copy = new LandmarkFrame();
+                copy.copyFrom(frame);
+                frames.add(copy);
+            }
+        }
+        if (frames.isEmpty()) {
+            throw new IOException("No frames in " + file);
+        }
+        return frames.toArray(new LandmarkFrame[0]);
+    }
+
+    private static LandmarkFrame[] synthetic() {
+        RandomHands random = new RandomHands(2021);
+        float[][] letters = {TestHands.letterA(), TestHands.letterB(), TestHands.letterL(), TestHands.letterY()};
+        LandmarkFrame[] frames = new LandmarkFrame[SYNTHETIC_FRAMES];
+        for (int i = 0; i < frames.length; i++) {
+            LandmarkFrame frame = new LandmarkFrame();
+            // Mostly one hand, like when spelling, with some frames of two hands and of none
+            int hands = i % 16 == 0 ? 0 : i % 8 == 0 ? 2 : 1;
+            for (int h = 0; h < hands; h++) {
+                float[] hand = i % 2 == 0 ? letters[(i >> 1) % letters.length] : random.next();
+                System.arraycopy(hand, 0, frame.hand(h), 0, HandLandmarks.HAND_SIZE);
+            }
+            frame.setHandCount(hands);
+            frame.setTimestamp(i * 33_333L);
+            frames[i] = frame;
+        }
+        return frames;
+    }
+
+    /**
+     * Method that serializes a hand as a NormalizedLandmarkList, the bytes MediaPipe gives to the
+     * packet callback, without depending on the generated protobuf classes.
+     *
+     * @param hand float array laid out as described in {@link HandLandmarks}
+     * @return the serialized message
+     */
+    static byte[] serialize(float[] hand) {
+        // Each landmark is field 1 of the list: tag, length and three fixed32 floats with their tags
+        int landmarkBytes = HandLandmarks.DIMENSIONS * 5;
+        ByteBuffer out = ByteBuffer.allocate(HandLandmarks.LANDMARK_COUNT * (2 + landmarkBytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+            out.put((byte) 0x0A).put((byte) landmarkBytes);
+            out.put((byte) 0x0D).putFloat(HandLandmarks.x(hand, i));
+            out.put((byte) 0x15).putFloat(HandLandmarks.y(hand, i));
+            out.put((byte) 0x1D).putFloat(HandLandmarks.z(hand, i));
+        }
+        return out.array();
+    }
+}
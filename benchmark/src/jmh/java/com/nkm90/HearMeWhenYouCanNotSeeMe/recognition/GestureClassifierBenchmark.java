@@ -0,0 +1,112 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to classify the hands of one frame, which is done on every camera frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GestureClassifierBenchmark {
+
+    private LandmarkFrame[] frames;
+    private float[][] hands;
+    private GestureClassifier classifier;
+    private final GestureScores scores = new GestureScores(2);
+    private KnnClassifier knnClassifier;
+    private int next;
+
+    /**
+     * Classifier of every hand of the frame, only created for {@link #classifyFrame}.
+     */
+    @State(Scope.Thread)
+    public static class MultiHand {
+
+        /** Classify the second hand on the worker thread or on the caller. */
+        @Param({"false", "true"})
+        public boolean parallel;
+
+        MultiHandClassifier classifier;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            classifier = new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), parallel);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            classifier.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        frames = BenchmarkInputs.frames();
+        List<float[]> handList = new ArrayList<>();
+        for (LandmarkFrame frame : frames) {
+            for (int h = 0; h < frame.handCount(); h++) {
+                handList.add(frame.hand(h));
+            }
+        }
+        hands = handList.toArray(new float[0][]);
+        classifier = new GestureClassifier();
+        // Templates labelled by the rules, several noisy copies of every input hand
+        LandmarkCorpus corpus = new LandmarkCorpus();
+        LandmarkFrame frame = new LandmarkFrame();
+        frame.setHandCount(1);
+        Random random = new Random(1);
+        for (int copy = 0; copy < 4; copy++) {
+            for (float[] hand : hands) {
+                for (int i = 0; i < HandLandmarks.HAND_SIZE; i++) {
+                    frame.hand(0)[i] = hand[i] + (float) random.nextGaussian() * 0.005f;
+                }
+                corpus.add(frame, classifier.classify(hand));
+            }
+        }
+        knnClassifier = new KnnClassifier(KnnClassifier.buildTemplates(corpus));
+    }
+
+    @Benchmark
+    public int classifyHand() {
+        float[] hand = hands[next];
+        next = next + 1 == hands.length ? 0 : next + 1;
+        return classifier.classify(hand);
+    }
+
+    @Benchmark
+    public int classifyHandWithScores() {
+        float[] hand = hands[next];
+        next = next + 1 == hands.length ? 0 : next + 1;
+        return classifier.classify(hand, scores);
+    }
+
+    @Benchmark
+    public int classifyHandWithTemplates() {
+        float[] hand = hands[next];
+        next = next + 1 == hands.length ? 0 : next + 1;
+        return knnClassifier.classify(hand);
+    }
+
+    @Benchmark
+    public int classifyFrame(MultiHand multiHand) {
+        LandmarkFrame frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        return multiHand.classifier.classify(frame);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmark;
+import com.google.mediapipe.formats.proto.LandmarkProto.NormalizedLandmarkList;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to decode the serialized landmarks MediaPipe gives to the packet callback, with
+ * {@link LandmarkListDecoder} and with the protobuf parser it replaces, on the same hands.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LandmarkDecoderBenchmark {
+
+    private final LandmarkListDecoder decoder = new LandmarkListDecoder();
+    private final LandmarkFrame frame = new LandmarkFrame();
+    private byte[][] serializedHands;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<byte[]> serialized = new ArrayList<>();
+        for (LandmarkFrame input : BenchmarkInputs.frames()) {
+            for (int h = 0; h < input.handCount(); h++) {
+                serialized.add(BenchmarkInputs.serialize(input.hand(h)));
+            }
+        }
+        serializedHands = serialized.toArray(new byte[0][]);
+    }
+
+    @Benchmark
+    public float decodeHand() {
+        byte[] data = serializedHands[next];
+        next = next + 1 == serializedHands.length ? 0 : next + 1;
+        float[] hand = frame.hand(0);
+        decoder.decode(data, 0, data.length, hand);
+        return hand[HandLandmarks.HAND_SIZE - 1];
+    }
+
+    /**
+     * Parses the hand into protobuf objects and copies it into the float array, as the packet
+     * callback did before the decoder.
+     */
+    @Benchmark
+    public float parseHandWithProtobuf() throws InvalidProtocolBufferException {
+        byte[] data = serializedHands[next];
+        next = next + 1 == serializedHands.length ? 0 : next + 1;
+        float[] hand = frame.hand(0);
+        NormalizedLandmarkList landmarks = NormalizedLandmarkList.parseFrom(data);
+        int count = Math.min(landmarks.getLandmarkCount(), HandLandmarks.LANDMARK_COUNT);
+        for (int i = 0; i < count; i++) {
+            NormalizedLandmark landmark = landmarks.getLandmark(i);
+            HandLandmarks.set(hand, i, landmark.getX(), landmark.getY(), landmark.getZ());
+        }
+        return hand[HandLandmarks.HAND_SIZE - 1];
+    }
+}
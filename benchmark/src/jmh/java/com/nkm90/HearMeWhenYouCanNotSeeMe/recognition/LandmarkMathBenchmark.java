@@ -0,0 +1,71 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the geometry used by the rules: one distance, one angle, and the distances the ASL
+ * table needs for a hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LandmarkMathBenchmark {
+
+    private float[][] hands;
+    private DistanceMatrix distances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        LandmarkFrame[] frames = BenchmarkInputs.frames();
+        int count = 0;
+        for (LandmarkFrame frame : frames) {
+            count += frame.handCount();
+        }
+        hands = new float[count][];
+        count = 0;
+        for (LandmarkFrame frame : frames) {
+            for (int h = 0; h < frame.handCount(); h++) {
+                hands[count++] = frame.hand(h);
+            }
+        }
+        distances = AslRules.table().newDistanceMatrix();
+    }
+
+    private float[] nextHand() {
+        float[] hand = hands[next];
+        next = next + 1 == hands.length ? 0 : next + 1;
+        return hand;
+    }
+
+    @Benchmark
+    public double euclideanDistance() {
+        float[] hand = nextHand();
+        return LandmarkMath.getEuclideanDistanceAB(HandLandmarks.x(hand, 4), HandLandmarks.y(hand, 4),
+                HandLandmarks.x(hand, 8), HandLandmarks.y(hand, 8));
+    }
+
+    @Benchmark
+    public double angle() {
+        float[] hand = nextHand();
+        return LandmarkMath.getAngleABC(HandLandmarks.x(hand, 5), HandLandmarks.y(hand, 5),
+                HandLandmarks.x(hand, 6), HandLandmarks.y(hand, 6),
+                HandLandmarks.x(hand, 8), HandLandmarks.y(hand, 8));
+    }
+
+    @Benchmark
+    public double distanceMatrix() {
+        distances.fill(nextHand());
+        return distances.get(4, 8);
+    }
+}
@@ -0,0 +1,81 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to add a frame to the trajectories and match them against the J and Z templates, which is
+ * done on every camera frame when the motion letters are enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MotionClassifierBenchmark {
+
+    // Frames of one hand drawing a Z, then a circle, then staying still
+    private static final int MOTION_FRAMES = 96;
+
+    private LandmarkFrame[] frames;
+    private LandmarkFrame[] motion;
+    private MotionClassifier classifier;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        frames = BenchmarkInputs.frames();
+        motion = new LandmarkFrame[MOTION_FRAMES];
+        float[][] z = {{0, 0}, {0.2f, 0}, {0, 0.2f}, {0.2f, 0.2f}};
+        Random random = new Random(1);
+        for (int t = 0; t < MOTION_FRAMES; t++) {
+            float dx;
+            float dy;
+            if (t < 30) {
+                float along = t / 10f;
+                int segment = Math.min((int) along, 2);
+                float weight = along - segment;
+                dx = z[segment][0] + (z[segment + 1][0] - z[segment][0]) * weight;
+                dy = z[segment][1] + (z[segment + 1][1] - z[segment][1]) * weight;
+            } else if (t < 60) {
+                double angle = 2 * Math.PI * (t - 30) / 30;
+                dx = (float) Math.cos(angle) * 0.1f;
+                dy = (float) Math.sin(angle) * 0.1f;
+            } else {
+                dx = 0;
+                dy = 0;
+            }
+            float[] hand = TestHands.openHand();
+            for (int i = 0; i < HandLandmarks.LANDMARK_COUNT; i++) {
+                hand[i * HandLandmarks.DIMENSIONS] += dx + (float) random.nextGaussian() * 0.003f;
+                hand[i * HandLandmarks.DIMENSIONS + 1] += dy + (float) random.nextGaussian() * 0.003f;
+            }
+            motion[t] = new LandmarkFrame();
+            System.arraycopy(hand, 0, motion[t].hand(0), 0, HandLandmarks.HAND_SIZE);
+            motion[t].setHandCount(1);
+        }
+        classifier = MotionClassifier.createDefault();
+    }
+
+    @Benchmark
+    public int classifyFrame() {
+        LandmarkFrame frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        return classifier.classify(frame);
+    }
+
+    @Benchmark
+    public int classifyMotion() {
+        LandmarkFrame frame = motion[next];
+        next = next + 1 == MOTION_FRAMES ? 0 : next + 1;
+        return classifier.classify(frame);
+    }
+}
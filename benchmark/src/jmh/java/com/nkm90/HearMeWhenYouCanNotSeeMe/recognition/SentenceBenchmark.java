@@ -0,0 +1,90 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.recognition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the steps after the classifier: stabilizing the gestures and building the sentence,
+ * and the whole pipeline of a frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SentenceBenchmark {
+
+    // A letter held for 10 frames then 5 frames without hand, as when spelling slowly
+    private static final String TEXT = "HELLO WORLD";
+    private static final int HOLD_FRAMES = 10;
+    private static final int GAP_FRAMES = 5;
+    // Letters kept in the sentence before it is cleared, like a long message
+    private static final int MAX_LENGTH = 256;
+
+    private int[] codes;
+    private LandmarkFrame[] frames;
+    private LetterStabilizer stabilizer;
+    private SentenceBuilder sentence;
+    private RecognitionPipeline pipeline;
+    private int nextCode;
+    private int nextFrame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codes = new int[TEXT.length() * (HOLD_FRAMES + GAP_FRAMES)];
+        int i = 0;
+        for (char letter : TEXT.toCharArray()) {
+            int code = letter == ' ' ? Gestures.SPACE : Gestures.ofLetter(letter);
+            for (int n = 0; n < HOLD_FRAMES; n++) {
+                codes[i++] = code;
+            }
+            for (int n = 0; n < GAP_FRAMES; n++) {
+                codes[i++] = Gestures.NO_HAND;
+            }
+        }
+        frames = BenchmarkInputs.frames();
+        stabilizer = new LetterStabilizer();
+        sentence = new SentenceBuilder();
+        pipeline = new RecognitionPipeline(
+                new MultiHandClassifier(AslRules.table(), TwoHandedSigns.createDefault(), false),
+                new LetterStabilizer(), new SentenceBuilder());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    public String stabilizeAndAppend() {
+        int code = codes[nextCode];
+        nextCode = nextCode + 1 == codes.length ? 0 : nextCode + 1;
+        int committed = stabilizer.add(code);
+        if (committed != LetterStabilizer.NONE) {
+            if (sentence.length() == MAX_LENGTH) {
+                sentence.clear();
+            }
+            sentence.append(committed);
+        }
+        return sentence.text();
+    }
+
+    @Benchmark
+    public String processFrame() {
+        LandmarkFrame frame = frames[nextFrame];
+        nextFrame = nextFrame + 1 == frames.length ? 0 : nextFrame + 1;
+        pipeline.process(frame);
+        if (pipeline.lastCommitted() != LetterStabilizer.NONE && pipeline.sentence().length() >= MAX_LENGTH) {
+            pipeline.reset();
+        }
+        return pipeline.sentence();
+    }
+}
@@ -0,0 +1,59 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to correct a committed word against a dictionary the size of a real word list, with one
+ * misread letter in each word.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpellingCorrectorBenchmark {
+
+    private static final int WORDS = 50000;
+    private static final int INPUTS = 1024;
+
+    private SpellingCorrector corrector;
+    private String[] inputs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        int[] frequencies = new int[WORDS];
+        for (int rank = 1; rank <= WORDS; rank++) {
+            char[] word = new char[3 + random.nextInt(8)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('A' + random.nextInt(26));
+            }
+            words[rank - 1] = new String(word);
+            frequencies[rank - 1] = 1000000 / rank + 1;
+        }
+        corrector = new SpellingCorrector(words, frequencies, SpellingCorrector.DEFAULT_MAX_EDITS,
+                SpellingCorrector.DEFAULT_MAX_COST, LetterConfusion.forFingerspelling());
+        inputs = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            char[] word = words[random.nextInt(WORDS)].toCharArray();
+            word[random.nextInt(word.length)] = (char) ('A' + random.nextInt(26));
+            inputs[i] = new String(word);
+        }
+    }
+
+    @Benchmark
+    public String correct() {
+        String input = inputs[next++ & (INPUTS - 1)];
+        return corrector.correct(input, 0, input.length());
+    }
+}
@@ -0,0 +1,67 @@
+package com.nkm90.HearMeWhenYouCanNotSeeMe.text;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to find the completions of the word being spelled, on a vocabulary the size of a real
+ * word list with frequencies following Zipf's law.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WordTrieBenchmark {
+
+    private static final int WORDS = 50000;
+    private static final int PREFIXES = 1024;
+
+    private WordTrie trie;
+    private WordTrie.Completions completions;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        WordTrieBuilder builder = new WordTrieBuilder();
+        for (int rank = 1; rank <= WORDS; rank++) {
+            builder.add(randomWord(random, 2 + random.nextInt(9)), 1000000 / rank + 1);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.write(out);
+        ByteBuffer data = ByteBuffer.allocateDirect(out.size());
+        data.put(out.toByteArray()).flip();
+        trie = new WordTrie(data);
+        completions = new WordTrie.Completions(WordCompleter.DEFAULT_SUGGESTIONS);
+        prefixes = new String[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            prefixes[i] = randomWord(random, 1 + random.nextInt(3));
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('A' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    @Benchmark
+    public int complete() {
+        String prefix = prefixes[next++ & (PREFIXES - 1)];
+        return trie.complete(prefix, 0, prefix.length(), completions);
+    }
+}